@@ -25,6 +25,12 @@ public class DatabaseConfig {
     @Value("${DATABASE_URL:}")
     private String databaseUrl;
 
+    @Value("${spring.datasource.hikari.maximum-pool-size:5}")
+    private int maximumPoolSize;
+
+    @Value("${spring.datasource.hikari.minimum-idle:2}")
+    private int minimumIdle;
+
     public DatabaseConfig() {
         logger.warn("DatabaseConfig constructor called - Configuration class is being instantiated!");
     }
@@ -97,8 +103,9 @@ public class DatabaseConfig {
         }
         
         // Configure HikariCP settings
-        dataSource.setMaximumPoolSize(5);
-        dataSource.setMinimumIdle(2);
+        dataSource.setPoolName("primary");
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setMinimumIdle(minimumIdle);
         dataSource.setConnectionTimeout(30000);
         dataSource.setIdleTimeout(300000);
         dataSource.setMaxLifetime(1200000);
@@ -106,6 +113,7 @@ public class DatabaseConfig {
         dataSource.setLeakDetectionThreshold(60000);
         dataSource.setConnectionTestQuery("SELECT 1");
         dataSource.setAutoCommit(true); // Ensure autoCommit is properly set
+        dataSource.addDataSourceProperty("reWriteBatchedInserts", "true"); // Multi-row INSERTs for JDBC batches
         
         logger.info("Database connection configured successfully");
         return dataSource;
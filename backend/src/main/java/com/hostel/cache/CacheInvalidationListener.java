@@ -0,0 +1,59 @@
+package com.hostel.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Receives invalidations published by other nodes and drops the matching L1 entries, or the
+ * matching second-level cache entries for entity invalidations (see {@link EntityCacheInvalidator}).
+ * Messages sent by this node are ignored since the local cache was already updated.
+ */
+public class CacheInvalidationListener implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationListener.class);
+
+    private final TwoLevelCacheManager cacheManager;
+    private final EntityCacheInvalidator entityCacheInvalidator;
+    private final String nodeId;
+
+    public CacheInvalidationListener(TwoLevelCacheManager cacheManager, String nodeId) {
+        this(cacheManager, null, nodeId);
+    }
+
+    public CacheInvalidationListener(TwoLevelCacheManager cacheManager,
+                                     EntityCacheInvalidator entityCacheInvalidator,
+                                     String nodeId) {
+        this.cacheManager = cacheManager;
+        this.entityCacheInvalidator = entityCacheInvalidator;
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\" + RedisCacheInvalidationPublisher.SEPARATOR, 3);
+        if (parts.length < 3) {
+            logger.warn("Ignoring malformed cache invalidation message: {}", body);
+            return;
+        }
+        if (nodeId.equals(parts[0])) {
+            return;
+        }
+
+        String cacheName = parts[1];
+        String key = parts[2].isEmpty() ? null : parts[2];
+        if (cacheName.startsWith(EntityCacheInvalidator.CACHE_NAME_PREFIX)) {
+            if (entityCacheInvalidator != null) {
+                entityCacheInvalidator.invalidateLocal(
+                        cacheName.substring(EntityCacheInvalidator.CACHE_NAME_PREFIX.length()), key);
+            }
+        } else {
+            cacheManager.invalidateLocal(cacheName, key);
+        }
+        logger.debug("Invalidated local cache entry {}::{} from node {}", cacheName, key, parts[0]);
+    }
+}
@@ -0,0 +1,20 @@
+package com.hostel.cache;
+
+/**
+ * Broadcasts cache invalidations to the other application nodes so they can
+ * drop their local (L1) copies of an entry.
+ */
+public interface CacheInvalidationPublisher {
+
+    /**
+     * Publish an invalidation for a single key, or for the whole cache when key is null
+     */
+    void publish(String cacheName, String key);
+
+    /**
+     * Used when Redis is not available (single node, local development). There are no other
+     * nodes to notify, so local eviction alone is sufficient. Tests that need several nodes
+     * use {@link InMemoryCacheInvalidationBus} instead.
+     */
+    CacheInvalidationPublisher LOCAL_ONLY = (cacheName, key) -> { };
+}
@@ -0,0 +1,110 @@
+package com.hostel.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps Hibernate's second-level cache consistent across nodes. The regions in ehcache.xml
+ * live in each node's heap; when an entity in one of them is updated or deleted, this node
+ * publishes the entity name and id on the invalidation channel after commit, and every other
+ * node evicts its copy. A lost message (Redis down) leaves a stale copy for at most the
+ * region's TTL, which is why the regions keep short TTLs.
+ *
+ * JPQL bulk updates bypass the entity events; callers report those through
+ * {@link #evictAfterCommit}.
+ */
+public class EntityCacheInvalidator implements PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityCacheInvalidator.class);
+
+    // Invalidation messages for entities use "hibernate:<entity name>" as their cache name
+    public static final String CACHE_NAME_PREFIX = "hibernate:";
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final CacheInvalidationPublisher publisher;
+
+    public EntityCacheInvalidator(EntityManagerFactory entityManagerFactory, CacheInvalidationPublisher publisher) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.publisher = publisher;
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Nothing was committed, so the other nodes' copies are still current
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.canWriteToCache();
+    }
+
+    /**
+     * Tell the other nodes to drop their copy of an entity changed by a bulk update, once the
+     * current transaction commits (immediately when there is none). Hibernate already cleared
+     * the region on this node when it ran the update.
+     */
+    public void evictAfterCommit(Class<?> entityClass, Object id) {
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(entityClass);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(persister, id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(persister, id);
+            }
+        });
+    }
+
+    /**
+     * Apply an invalidation from another node: evict one entity, or all of them when id is null
+     */
+    public void invalidateLocal(String entityName, String id) {
+        EntityPersister persister = sessionFactory.getMappingMetamodel().findEntityDescriptor(entityName);
+        if (persister == null || !persister.canWriteToCache()) {
+            logger.warn("Ignoring cache invalidation for unknown or uncached entity {}", entityName);
+            return;
+        }
+        if (id == null) {
+            sessionFactory.getCache().evictEntityData(entityName);
+        } else {
+            Object identifier = persister.getIdentifierMapping().getJavaType().fromString(id);
+            sessionFactory.getCache().evictEntityData(entityName, identifier);
+        }
+    }
+
+    private void publish(EntityPersister persister, Object id) {
+        if (persister.canWriteToCache()) {
+            publisher.publish(CACHE_NAME_PREFIX + persister.getEntityName(), id.toString());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.hostel.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process stand-in for the Redis invalidation channel. Several {@link TwoLevelCacheManager}s
+ * in one JVM, one per simulated node, join the bus under a node id; an invalidation published
+ * by one node is applied synchronously to the L1 caches of all the others, and skipped by the
+ * sender as {@link CacheInvalidationListener} does. Every message is also recorded, so tests can
+ * check what a node broadcast.
+ */
+public class InMemoryCacheInvalidationBus {
+
+    private final Map<String, TwoLevelCacheManager> nodes = new ConcurrentHashMap<>();
+    private final List<String> published = new CopyOnWriteArrayList<>();
+
+    /**
+     * Publisher for the node with the given id, to pass to its cache manager
+     */
+    public CacheInvalidationPublisher publisher(String nodeId) {
+        return (cacheName, key) -> {
+            published.add(nodeId + RedisCacheInvalidationPublisher.SEPARATOR + cacheName
+                    + RedisCacheInvalidationPublisher.SEPARATOR + (key != null ? key : ""));
+            nodes.forEach((id, cacheManager) -> {
+                if (!id.equals(nodeId)) {
+                    cacheManager.invalidateLocal(cacheName, key);
+                }
+            });
+        };
+    }
+
+    /**
+     * Start delivering invalidations from the other nodes to this cache manager
+     */
+    public void join(String nodeId, TwoLevelCacheManager cacheManager) {
+        nodes.put(nodeId, cacheManager);
+    }
+
+    /**
+     * Messages published so far, in the Redis wire format {@code nodeId|cacheName|key}
+     */
+    public List<String> getPublished() {
+        return new ArrayList<>(published);
+    }
+
+    public void clearPublished() {
+        published.clear();
+    }
+}
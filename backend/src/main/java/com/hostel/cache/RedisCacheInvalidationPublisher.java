@@ -0,0 +1,37 @@
+package com.hostel.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Publishes invalidations on a Redis pub/sub channel. Messages have the form
+ * {@code nodeId|cacheName|key}; an empty key means "clear the whole cache".
+ */
+public class RedisCacheInvalidationPublisher implements CacheInvalidationPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisCacheInvalidationPublisher.class);
+
+    static final String SEPARATOR = "|";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final String nodeId;
+
+    public RedisCacheInvalidationPublisher(StringRedisTemplate redisTemplate, String channel, String nodeId) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public void publish(String cacheName, String key) {
+        String message = nodeId + SEPARATOR + cacheName + SEPARATOR + (key != null ? key : "");
+        try {
+            redisTemplate.convertAndSend(channel, message);
+        } catch (Exception e) {
+            // Remote L1 copies will still expire through their own TTL
+            logger.warn("Failed to publish cache invalidation for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.hostel.cache;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Keeps the Redis subscription that feeds {@link CacheInvalidationListener}. The listener
+ * container is owned here rather than exposed as a bean, so the subscriber can be registered
+ * whether or not the active profile provides Redis; without a connection factory it never
+ * subscribes.
+ */
+public class RedisCacheInvalidationSubscriber implements SmartLifecycle, DisposableBean {
+
+    private final RedisMessageListenerContainer container;
+
+    public RedisCacheInvalidationSubscriber(RedisConnectionFactory connectionFactory,
+                                            CacheInvalidationListener listener,
+                                            String channel) {
+        if (connectionFactory == null) {
+            container = null;
+            return;
+        }
+        container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(listener, new ChannelTopic(channel));
+        container.afterPropertiesSet();
+    }
+
+    public boolean isSubscribing() {
+        return container != null;
+    }
+
+    @Override
+    public void start() {
+        if (container != null) {
+            container.start();
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return container != null && container.isRunning();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (container != null) {
+            container.destroy();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.hostel.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Two-level cache: a bounded in-process Caffeine cache (L1) in front of a shared
+ * Redis cache (L2). Evictions and clears are broadcast so that every other node
+ * drops its L1 copy; fills are not, since they only store what was just read.
+ * L1 keys are normalised to strings so that remote invalidations, which travel as
+ * text, match local entries.
+ *
+ * A failing L2 (Redis down) degrades to L1 only: lookups miss through to the
+ * database and writes are logged and counted rather than thrown, including the
+ * ones applied after commit, where no CacheErrorHandler would see them.
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> localCache;
+    private final Cache remoteCache;
+    private final CacheInvalidationPublisher invalidationPublisher;
+
+    private final AtomicLong remoteHits = new AtomicLong();
+    private final AtomicLong remoteMisses = new AtomicLong();
+    private final AtomicLong remoteErrors = new AtomicLong();
+
+    public TwoLevelCache(String name,
+                         com.github.benmanes.caffeine.cache.Cache<String, Object> localCache,
+                         Cache remoteCache,
+                         CacheInvalidationPublisher invalidationPublisher) {
+        super(false);
+        this.name = name;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return localCache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = toLocalKey(key);
+        Object value = localCache.getIfPresent(localKey);
+        if (value != null || remoteCache == null) {
+            return value;
+        }
+
+        Cache.ValueWrapper remoteValue;
+        try {
+            remoteValue = remoteCache.get(key);
+        } catch (RuntimeException e) {
+            remoteFailed("read", key, e);
+            return null;
+        }
+        if (remoteValue == null || remoteValue.get() == null) {
+            remoteMisses.incrementAndGet();
+            return null;
+        }
+        remoteHits.incrementAndGet();
+        localCache.put(localKey, remoteValue.get());
+        return remoteValue.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = lookup(key);
+        if (value != null) {
+            return (T) fromStoreValue(value);
+        }
+        try {
+            T loaded = valueLoader.call();
+            if (loaded != null) {
+                put(key, loaded);
+            }
+            return loaded;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        localCache.put(toLocalKey(key), value);
+        if (remoteCache != null) {
+            try {
+                remoteCache.put(key, value);
+            } catch (RuntimeException e) {
+                remoteFailed("write", key, e);
+            }
+        }
+        // No broadcast: a fill caches what was just loaded, and the write that made any other
+        // node's copy stale has already evicted it
+    }
+
+    @Override
+    public void evict(Object key) {
+        localCache.invalidate(toLocalKey(key));
+        if (remoteCache != null) {
+            try {
+                remoteCache.evict(key);
+            } catch (RuntimeException e) {
+                // The L2 copy stays until its TTL; other nodes still drop their L1 copies below
+                remoteFailed("evict", key, e);
+            }
+        }
+        invalidationPublisher.publish(name, toLocalKey(key));
+    }
+
+    @Override
+    public void clear() {
+        localCache.invalidateAll();
+        if (remoteCache != null) {
+            try {
+                remoteCache.clear();
+            } catch (RuntimeException e) {
+                remoteFailed("clear", null, e);
+            }
+        }
+        invalidationPublisher.publish(name, null);
+    }
+
+    /**
+     * Drop a local entry in response to an invalidation from another node
+     */
+    public void invalidateLocal(String key) {
+        if (key == null) {
+            localCache.invalidateAll();
+        } else {
+            localCache.invalidate(key);
+        }
+    }
+
+    public com.github.benmanes.caffeine.cache.Cache<String, Object> getLocalCache() {
+        return localCache;
+    }
+
+    public long getRemoteHits() {
+        return remoteHits.get();
+    }
+
+    public long getRemoteMisses() {
+        return remoteMisses.get();
+    }
+
+    public long getRemoteErrors() {
+        return remoteErrors.get();
+    }
+
+    private void remoteFailed(String operation, Object key, RuntimeException e) {
+        remoteErrors.incrementAndGet();
+        logger.warn("Remote cache {} failed for {}::{}, continuing with the local cache: {}",
+                operation, name, key, e.getMessage());
+    }
+
+    private String toLocalKey(Object key) {
+        return String.valueOf(key);
+    }
+}
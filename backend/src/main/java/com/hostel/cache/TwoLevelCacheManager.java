@@ -0,0 +1,98 @@
+package com.hostel.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache manager creating {@link TwoLevelCache}s on demand. Each cache gets its own
+ * bounded L1 and, when a remote cache manager is configured, the Redis cache of the
+ * same name as L2. Hit/miss/eviction counts are exported to Micrometer per cache.
+ */
+public class TwoLevelCacheManager extends AbstractTransactionSupportingCacheManager {
+
+    private final Map<String, TwoLevelCache> twoLevelCaches = new ConcurrentHashMap<>();
+
+    private final CacheManager remoteCacheManager;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final MeterRegistry meterRegistry;
+    private final long localMaximumSize;
+    private final Duration localExpireAfterWrite;
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager,
+                                CacheInvalidationPublisher invalidationPublisher,
+                                MeterRegistry meterRegistry,
+                                long localMaximumSize,
+                                Duration localExpireAfterWrite) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.invalidationPublisher = invalidationPublisher;
+        this.meterRegistry = meterRegistry;
+        this.localMaximumSize = localMaximumSize;
+        this.localExpireAfterWrite = localExpireAfterWrite;
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        return twoLevelCaches.computeIfAbsent(name, this::createCache);
+    }
+
+    /**
+     * Drop a local (L1) entry, or the whole L1 when key is null, without touching L2
+     */
+    public void invalidateLocal(String cacheName, String key) {
+        TwoLevelCache cache = twoLevelCaches.get(cacheName);
+        if (cache != null) {
+            cache.invalidateLocal(key);
+        }
+    }
+
+    private TwoLevelCache createCache(String name) {
+        com.github.benmanes.caffeine.cache.Cache<String, Object> localCache = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(localExpireAfterWrite)
+                .recordStats()
+                .build();
+        Cache remoteCache = remoteCacheManager != null ? remoteCacheManager.getCache(name) : null;
+
+        TwoLevelCache cache = new TwoLevelCache(name, localCache, remoteCache, invalidationPublisher);
+        if (meterRegistry != null) {
+            registerMetrics(cache);
+        }
+        return cache;
+    }
+
+    private void registerMetrics(TwoLevelCache cache) {
+        String name = cache.getName();
+        com.github.benmanes.caffeine.cache.Cache<String, Object> localCache = cache.getLocalCache();
+
+        FunctionCounter.builder("cache.l1.hits", localCache, c -> c.stats().hitCount())
+                .tag("cache", name).register(meterRegistry);
+        FunctionCounter.builder("cache.l1.misses", localCache, c -> c.stats().missCount())
+                .tag("cache", name).register(meterRegistry);
+        FunctionCounter.builder("cache.l1.evictions", localCache, c -> c.stats().evictionCount())
+                .tag("cache", name).register(meterRegistry);
+        Gauge.builder("cache.l1.size", localCache, com.github.benmanes.caffeine.cache.Cache::estimatedSize)
+                .tag("cache", name).register(meterRegistry);
+        FunctionCounter.builder("cache.l2.hits", cache, TwoLevelCache::getRemoteHits)
+                .tag("cache", name).register(meterRegistry);
+        FunctionCounter.builder("cache.l2.misses", cache, TwoLevelCache::getRemoteMisses)
+                .tag("cache", name).register(meterRegistry);
+        FunctionCounter.builder("cache.l2.errors", cache, TwoLevelCache::getRemoteErrors)
+                .tag("cache", name).register(meterRegistry);
+    }
+}
@@ -0,0 +1,143 @@
+package com.hostel.config;
+
+import com.hostel.cache.CacheInvalidationListener;
+import com.hostel.cache.CacheInvalidationPublisher;
+import com.hostel.cache.EntityCacheInvalidator;
+import com.hostel.cache.RedisCacheInvalidationPublisher;
+import com.hostel.cache.RedisCacheInvalidationSubscriber;
+import com.hostel.cache.TwoLevelCache;
+import com.hostel.cache.TwoLevelCacheManager;
+import com.hostel.service.HostelBlockService;
+import com.hostel.service.StaffMappingService;
+import com.hostel.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+import org.springframework.cache.interceptor.LoggingCacheErrorHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Cache configuration. @Cacheable is backed by a two-level cache: a bounded in-process
+ * L1 per node and a shared Redis L2. Writes on one node are broadcast over Redis pub/sub
+ * so the other nodes drop their L1 copies, and so are Hibernate second-level cache changes
+ * ({@link EntityCacheInvalidator}). Profiles that exclude Redis (e.g. render)
+ * run with L1 only and a local no-op publisher; a Redis outage at runtime degrades to
+ * the same (see {@link TwoLevelCache}).
+ */
+@Configuration
+public class CacheConfig implements CachingConfigurer {
+
+    // Identifies this instance so it can skip its own invalidation messages
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${cache.redis.time-to-live:3600}")
+    private long defaultTimeToLiveSeconds;
+
+    @Value("${cache.user-summary.time-to-live:600}")
+    private long userSummaryTimeToLiveSeconds;
+
+    @Value("${cache.reference-data.time-to-live:3600}")
+    private long referenceDataTimeToLiveSeconds;
+
+    @Value("${cache.l1.maximum-size:10000}")
+    private long localMaximumSize;
+
+    @Value("${cache.l1.expire-after-write:60}")
+    private long localExpireAfterWriteSeconds;
+
+    @Value("${cache.invalidation.channel:hostel:cache-invalidation}")
+    private String invalidationChannel;
+
+    @Bean
+    public CacheInvalidationPublisher cacheInvalidationPublisher(ObjectProvider<RedisConnectionFactory> connectionFactory) {
+        RedisConnectionFactory factory = connectionFactory.getIfAvailable();
+        if (factory == null) {
+            return CacheInvalidationPublisher.LOCAL_ONLY;
+        }
+        return new RedisCacheInvalidationPublisher(new StringRedisTemplate(factory), invalidationChannel, nodeId);
+    }
+
+    @Bean
+    @Primary
+    public TwoLevelCacheManager cacheManager(ObjectProvider<RedisConnectionFactory> connectionFactory,
+                                             CacheInvalidationPublisher cacheInvalidationPublisher,
+                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        RedisConnectionFactory factory = connectionFactory.getIfAvailable();
+        CacheManager remoteCacheManager = factory != null ? redisCacheManager(factory) : null;
+
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(
+                remoteCacheManager,
+                cacheInvalidationPublisher,
+                meterRegistry.getIfAvailable(),
+                localMaximumSize,
+                Duration.ofSeconds(localExpireAfterWriteSeconds));
+        // Apply puts/evictions only after the surrounding transaction commits
+        cacheManager.setTransactionAware(true);
+        return cacheManager;
+    }
+
+    /**
+     * Broadcasts second-level cache changes over the same channel as the L1 invalidations
+     */
+    @Bean
+    public EntityCacheInvalidator entityCacheInvalidator(EntityManagerFactory entityManagerFactory,
+                                                         CacheInvalidationPublisher cacheInvalidationPublisher) {
+        return new EntityCacheInvalidator(entityManagerFactory, cacheInvalidationPublisher);
+    }
+
+    /**
+     * Subscribes to invalidations from other nodes; idle without Redis
+     */
+    @Bean
+    public RedisCacheInvalidationSubscriber cacheInvalidationSubscriber(
+            ObjectProvider<RedisConnectionFactory> connectionFactory,
+            TwoLevelCacheManager cacheManager,
+            EntityCacheInvalidator entityCacheInvalidator) {
+        return new RedisCacheInvalidationSubscriber(connectionFactory.getIfAvailable(),
+                new CacheInvalidationListener(cacheManager, entityCacheInvalidator, nodeId), invalidationChannel);
+    }
+
+    /**
+     * A cache failure the caches do not absorb themselves is logged and the call proceeds
+     * uncached, instead of failing the request
+     */
+    @Override
+    public CacheErrorHandler errorHandler() {
+        return new LoggingCacheErrorHandler();
+    }
+
+    private RedisCacheManager redisCacheManager(RedisConnectionFactory factory) {
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(factory)
+                .cacheDefaults(redisCacheConfiguration(defaultTimeToLiveSeconds))
+                .withCacheConfiguration(UserService.USER_SUMMARY_CACHE,
+                        redisCacheConfiguration(userSummaryTimeToLiveSeconds))
+                .withCacheConfiguration(StaffMappingService.STAFF_MAPPING_CACHE,
+                        redisCacheConfiguration(referenceDataTimeToLiveSeconds))
+                .withCacheConfiguration(HostelBlockService.HOSTEL_BLOCK_CACHE,
+                        redisCacheConfiguration(referenceDataTimeToLiveSeconds))
+                .build();
+        // Not a bean of its own, so load the per-cache configurations here
+        redisCacheManager.afterPropertiesSet();
+        return redisCacheManager;
+    }
+
+    private RedisCacheConfiguration redisCacheConfiguration(long timeToLiveSeconds) {
+        return RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(Duration.ofSeconds(timeToLiveSeconds))
+                .disableCachingNullValues()
+                .prefixCacheNameWith("hostel:");
+    }
+}
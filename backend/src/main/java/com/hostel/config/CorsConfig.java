@@ -45,7 +45,7 @@ public class CorsConfig {
         configuration.setMaxAge(3600L);
         
         // Expose headers if needed
-        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "WWW-Authenticate"));
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
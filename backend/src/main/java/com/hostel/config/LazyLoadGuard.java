@@ -0,0 +1,98 @@
+package com.hostel.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.LazyInitializationException;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test mode (db.lazy-load-guard.enabled) that fails any request which lazily loads an entity
+ * or collection outside a service transaction, i.e. an endpoint whose fetch plan is missing
+ * an association. Runs with hibernate.enable_lazy_load_no_trans so such loads reach the
+ * listeners instead of surfacing as a LazyInitializationException that a controller's catch
+ * block might swallow; the response is turned into an error before the body is written.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "db.lazy-load-guard.enabled", havingValue = "true")
+public class LazyLoadGuard implements ResponseBodyAdvice<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(LazyLoadGuard.class);
+
+    private static final String VIOLATIONS_ATTRIBUTE = LazyLoadGuard.class.getName() + ".violations";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public LazyLoadGuard(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @PostConstruct
+    void registerListeners() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.prependListeners(EventType.LOAD, (LoadEventListener) (event, loadType) -> {
+            if (loadType == LoadEventListener.IMMEDIATE_LOAD) {
+                check(event.getEntityClassName() + "#" + event.getEntityId());
+            }
+        });
+        registry.prependListeners(EventType.INIT_COLLECTION, (InitializeCollectionEventListener) event ->
+                check(event.getCollection().getRole()));
+        logger.warn("Lazy-load guard enabled: requests that lazy-load outside a transaction will fail");
+    }
+
+    private void check(String target) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<String> violations = (List<String>) request.getAttribute(VIOLATIONS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (violations == null) {
+            violations = new ArrayList<>();
+            request.setAttribute(VIOLATIONS_ATTRIBUTE, violations, RequestAttributes.SCOPE_REQUEST);
+        }
+        violations.add(target);
+        logger.error("Lazy load of {} outside a transaction", target);
+        throw new LazyInitializationException("Lazy load of " + target + " outside a transaction");
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    // Fail the request even if the controller caught the exception thrown by the listener
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object violations = attributes != null
+                ? attributes.getAttribute(VIOLATIONS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                : null;
+        if (violations != null) {
+            throw new IllegalStateException("Request lazily loaded outside a transaction: " + violations);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,100 @@
+package com.hostel.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Read-replica routing, active only when db.replica.url is set. The primary pool
+ * keeps the spring.datasource settings; @Transactional(readOnly = true) work goes to the
+ * replica pool, except for users who wrote within the read-your-writes window and for
+ * cache refills (ReplicaRoutingDataSource.readFromPrimary).
+ */
+@Configuration
+@ConditionalOnProperty(name = "db.replica.url")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("db.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${db.replica.url}") String url,
+                                              @Value("${db.replica.username:}") String username,
+                                              @Value("${db.replica.password:}") String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(url);
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        // Credentials default to the primary's
+        dataSource.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+        dataSource.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * Pins are shared through Redis when the profile has it, so they hold on every node
+     */
+    @Bean
+    public ReplicationLagGuard replicationLagGuard(
+            @Value("${db.replica.read-your-writes-window:5s}") Duration window,
+            ObjectProvider<RedisConnectionFactory> connectionFactory,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        RedisConnectionFactory factory = connectionFactory.getIfAvailable();
+        return new ReplicationLagGuard(window, factory != null ? new StringRedisTemplate(factory) : null,
+                meterRegistry.getIfAvailable());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicationLagGuard lagGuard) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(lagGuard);
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.Target.PRIMARY, primary,
+                ReplicaRoutingDataSource.Target.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        // Defer the routing decision until the first statement of the transaction
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * With open-in-view off each transaction gets its own session, which returns its
+     * connection when the transaction ends. A session that spans transactions (open-in-view
+     * turned back on, an extended persistence context) would by default keep its first
+     * connection; releasing it after each transaction keeps a read-only transaction from
+     * leaving a later write on the replica connection.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -0,0 +1,67 @@
+package com.hostel.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Routes read-only transactions to the replica pool and everything else to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy so the lookup happens on the first
+ * statement, after the transaction manager has published the read-only flag.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final ReplicationLagGuard lagGuard;
+
+    public ReplicaRoutingDataSource(ReplicationLagGuard lagGuard) {
+        this.lagGuard = lagGuard;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        UUID userId = lagGuard.currentUserId();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // Pin the writer's subsequent reads to the primary once this transaction commits
+            if (userId != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        lagGuard.recordWrite(userId);
+                    }
+                });
+            }
+            return Target.PRIMARY;
+        }
+
+        if (PRIMARY_REQUIRED.get() != null) {
+            return Target.PRIMARY;
+        }
+        return lagGuard.mustReadFromPrimary(userId) ? Target.PRIMARY : Target.REPLICA;
+    }
+
+    /**
+     * Run reads whose result gets cached on the primary: a value read from a lagging replica
+     * right after an eviction would be served until the cache entry expires. Applies to the
+     * connections work acquires; a surrounding transaction that already holds one keeps it.
+     * Without a replica configured this only runs work.
+     */
+    public static <T> T readFromPrimary(Supplier<T> work) {
+        if (PRIMARY_REQUIRED.get() != null) {
+            return work.get();
+        }
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+}
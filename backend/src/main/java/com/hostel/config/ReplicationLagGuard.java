@@ -0,0 +1,111 @@
+package com.hostel.config;
+
+import com.hostel.dto.UserSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a user's reads on the primary for a short window after that user committed a
+ * write, so they see their own changes even while the replica is still catching up.
+ * Users are identified by the JWT principal; unauthenticated callers always read from
+ * the replica.
+ *
+ * Pins are kept per node and, when Redis is available, also as a key with the window as
+ * its TTL, so a user whose next request lands on another node is still pinned there. That
+ * costs one Redis lookup per read-only transaction of a user this node has not pinned
+ * itself. Without Redis (e.g. the render profile) or while it is unreachable, pins only
+ * hold on the node that saw the write, which is enough for a single node or sticky sessions.
+ */
+public class ReplicationLagGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicationLagGuard.class);
+
+    static final String KEY_PREFIX = "hostel:read-your-writes:";
+
+    private final Duration window;
+    private final long windowNanos;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    // user id -> System.nanoTime() until which reads must go to the primary
+    private final Map<UUID, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    public ReplicationLagGuard(Duration window, StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+        this.window = window;
+        this.windowNanos = window.toNanos();
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public UUID currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserSummary user) {
+            return user.getId();
+        }
+        return null;
+    }
+
+    public void recordWrite(UUID userId) {
+        if (windowNanos <= 0) {
+            return;
+        }
+        pinnedUntil.put(userId, System.nanoTime() + windowNanos);
+        if (redisTemplate != null) {
+            try {
+                redisTemplate.opsForValue().set(KEY_PREFIX + userId, "1", window);
+            } catch (Exception e) {
+                logger.warn("Could not share read-your-writes pin for user {}: {}", userId, e.getMessage());
+            }
+        }
+    }
+
+    public boolean mustReadFromPrimary(UUID userId) {
+        if (userId == null || windowNanos <= 0) {
+            return false;
+        }
+        if (!pinnedLocally(userId) && !pinnedElsewhere(userId)) {
+            return false;
+        }
+        if (meterRegistry != null) {
+            meterRegistry.counter("db.replica.lag_guard.fallbacks").increment();
+        }
+        return true;
+    }
+
+    /**
+     * Drop expired entries so users who stopped writing don't accumulate
+     */
+    @Scheduled(fixedDelayString = "${db.replica.cleanup-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        pinnedUntil.values().removeIf(until -> until - now <= 0);
+    }
+
+    private boolean pinnedLocally(UUID userId) {
+        Long until = pinnedUntil.get(userId);
+        return until != null && until - System.nanoTime() > 0;
+    }
+
+    private boolean pinnedElsewhere(UUID userId) {
+        if (redisTemplate == null) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + userId));
+        } catch (Exception e) {
+            // Reading a replica that may lag is better than failing the request
+            logger.debug("Could not check read-your-writes pin for user {}: {}", userId, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.hostel.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hands back the SQL Hibernate generates for a repository call instead of running it, so
+ * QueryPlanCheckService can EXPLAIN exactly what the application sends. Registered for the
+ * whole session factory (hibernate.session_factory.statement_inspector in application.yml),
+ * but only intercepts inside {@link #capture}; every other statement passes through unchanged.
+ */
+public class StatementCapture implements StatementInspector {
+
+    private static final ThreadLocal<Boolean> CAPTURING = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        if (CAPTURING.get() != null) {
+            throw new CapturedStatement(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Run the query up to its first statement and return that statement's SQL, with JDBC
+     * placeholders. Nothing reaches the database.
+     */
+    public static String capture(Runnable query) {
+        CAPTURING.set(Boolean.TRUE);
+        try {
+            query.run();
+        } catch (RuntimeException e) {
+            // Repository proxies and Hibernate may wrap it on the way out
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof CapturedStatement captured) {
+                    return captured.sql;
+                }
+            }
+            throw e;
+        } finally {
+            CAPTURING.remove();
+        }
+        throw new IllegalStateException("Query returned without sending a statement; is "
+                + StatementCapture.class.getName() + " registered as the statement inspector?");
+    }
+
+    private static final class CapturedStatement extends RuntimeException {
+
+        private final String sql;
+
+        CapturedStatement(String sql) {
+            super(null, null, false, false);
+            this.sql = sql;
+        }
+    }
+}
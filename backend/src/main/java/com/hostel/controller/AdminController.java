@@ -1,19 +1,31 @@
 package com.hostel.controller;
 
 import com.hostel.dto.DTOMapper;
+import com.hostel.dto.HostelBlockSummary;
+import com.hostel.dto.StaffMappingSummary;
 import com.hostel.dto.UserDTO;
 import com.hostel.entity.*;
 import com.hostel.repository.CategoryStaffMappingRepository;
-import com.hostel.repository.HostelBlockRepository;
+import com.hostel.service.HostelBlockService;
+import com.hostel.service.ReferenceDataService;
+import com.hostel.service.StaffMappingService;
 import com.hostel.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -23,6 +35,8 @@ import java.util.stream.Collectors;
 @RequestMapping("/admin")
 @CrossOrigin(origins = {"http://localhost:3000", "https://hostel-ticketing-frontend.onrender.com"})
 public class AdminController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
     
     @Autowired
     private UserService userService;
@@ -31,7 +45,16 @@ public class AdminController {
     private CategoryStaffMappingRepository categoryStaffMappingRepository;
     
     @Autowired
-    private HostelBlockRepository hostelBlockRepository;
+    private StaffMappingService staffMappingService;
+
+    @Autowired
+    private HostelBlockService hostelBlockService;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    @Value("${reference-data.cache-max-age:300}")
+    private long referenceDataMaxAgeSeconds;
     
     // Test endpoint - no dependencies
     @GetMapping("/test")
@@ -120,16 +143,11 @@ public class AdminController {
             
             user.setPhone(request.getPhone());
             if (request.getHostelBlock() != null && !request.getHostelBlock().trim().isEmpty()) {
-                try {
-                    user.setHostelBlock(HostelName.valueOf(request.getHostelBlock()));
-                } catch (IllegalArgumentException e) {
-                    // Try to find by display name
-                    try {
-                        user.setHostelBlock(HostelName.fromDisplayName(request.getHostelBlock()));
-                    } catch (IllegalArgumentException e2) {
-                        return ResponseEntity.badRequest().build(); // Invalid hostel name
-                    }
+                HostelName hostelBlock = EnumResolver.HOSTEL_NAMES.resolve(request.getHostelBlock());
+                if (hostelBlock == null) {
+                    return ResponseEntity.badRequest().build(); // Invalid hostel name
                 }
+                user.setHostelBlock(hostelBlock);
             }
             user.setRoomNumber(request.getRoomNumber());
             user.setIsActive(true);
@@ -187,16 +205,11 @@ public class AdminController {
             if (request.getLastName() != null) user.setLastName(request.getLastName());
             if (request.getPhone() != null) user.setPhone(request.getPhone());
             if (request.getHostelBlock() != null && !request.getHostelBlock().trim().isEmpty()) {
-                try {
-                    user.setHostelBlock(HostelName.valueOf(request.getHostelBlock()));
-                } catch (IllegalArgumentException e) {
-                    // Try to find by display name
-                    try {
-                        user.setHostelBlock(HostelName.fromDisplayName(request.getHostelBlock()));
-                    } catch (IllegalArgumentException e2) {
-                        return ResponseEntity.badRequest().build(); // Invalid hostel name
-                    }
+                HostelName hostelBlock = EnumResolver.HOSTEL_NAMES.resolve(request.getHostelBlock());
+                if (hostelBlock == null) {
+                    return ResponseEntity.badRequest().build(); // Invalid hostel name
                 }
+                user.setHostelBlock(hostelBlock);
             }
             if (request.getRoomNumber() != null) user.setRoomNumber(request.getRoomNumber());
             if (request.getStudentId() != null) user.setStudentId(request.getStudentId());
@@ -253,7 +266,7 @@ public class AdminController {
     public ResponseEntity<?> getAllMappings() {
         try {
             System.out.println("AdminController: getAllMappings() called");
-            List<CategoryStaffMapping> mappings = categoryStaffMappingRepository.findByIsActiveTrueOrderByPriorityLevelAsc();
+            List<StaffMappingSummary> mappings = staffMappingService.getActiveMappings();
             System.out.println("AdminController: Found " + mappings.size() + " mappings");
             List<CategoryStaffMappingDTO> mappingDTOs = mappings.stream()
                     .map(this::toCategoryStaffMappingDTO)
@@ -270,7 +283,7 @@ public class AdminController {
     @GetMapping("/mappings/staff/{staffId}")
     public ResponseEntity<List<CategoryStaffMappingDTO>> getMappingsByStaff(@PathVariable UUID staffId) {
         try {
-            List<CategoryStaffMapping> mappings = categoryStaffMappingRepository.findByStaffIdAndIsActiveTrue(staffId);
+            List<StaffMappingSummary> mappings = staffMappingService.getActiveMappingsByStaff(staffId);
             List<CategoryStaffMappingDTO> mappingDTOs = mappings.stream()
                     .map(this::toCategoryStaffMappingDTO)
                     .collect(java.util.stream.Collectors.toList());
@@ -285,7 +298,7 @@ public class AdminController {
     @GetMapping("/mappings/category/{category}")
     public ResponseEntity<List<CategoryStaffMappingDTO>> getMappingsByCategory(@PathVariable String category) {
         try {
-            List<CategoryStaffMapping> mappings = categoryStaffMappingRepository.findByCategoryAndIsActiveTrueOrderByPriorityLevelAsc(category);
+            List<StaffMappingSummary> mappings = staffMappingService.getActiveMappingsByCategory(category);
             List<CategoryStaffMappingDTO> mappingDTOs = mappings.stream()
                     .map(this::toCategoryStaffMappingDTO)
                     .collect(java.util.stream.Collectors.toList());
@@ -331,6 +344,7 @@ public class AdminController {
             mapping.setIsActive(true);
             
             CategoryStaffMapping savedMapping = categoryStaffMappingRepository.save(mapping);
+            staffMappingService.evictAll();
             System.out.println("AdminController: Mapping created successfully: " + savedMapping.getId());
             return ResponseEntity.ok(toCategoryStaffMappingDTO(savedMapping));
         } catch (Exception e) {
@@ -346,27 +360,11 @@ public class AdminController {
             @PathVariable UUID mappingId, 
             @RequestBody UpdateMappingRequest request) {
         try {
-            CategoryStaffMapping mapping = categoryStaffMappingRepository.findById(mappingId).orElse(null);
-            if (mapping == null || !mapping.getIsActive()) {
-                return ResponseEntity.notFound().build();
-            }
-            
-            // Update fields
-            if (request.getHostelBlock() != null) {
-                mapping.setHostelBlockString(request.getHostelBlock());
-            }
-            if (request.getPriorityLevel() != null) {
-                mapping.setPriorityLevel(request.getPriorityLevel());
-            }
-            if (request.getCapacityWeight() != null) {
-                mapping.setCapacityWeight(java.math.BigDecimal.valueOf(request.getCapacityWeight()));
-            }
-            if (request.getExpertiseLevel() != null) {
-                mapping.setExpertiseLevel(request.getExpertiseLevel());
-            }
-            
-            CategoryStaffMapping savedMapping = categoryStaffMappingRepository.save(mapping);
-            return ResponseEntity.ok(toCategoryStaffMappingDTO(savedMapping));
+            return staffMappingService.updateMapping(mappingId, request.getHostelBlock(), request.getPriorityLevel(),
+                            request.getCapacityWeight() != null ? java.math.BigDecimal.valueOf(request.getCapacityWeight()) : null,
+                            request.getExpertiseLevel())
+                    .map(mapping -> ResponseEntity.ok(toCategoryStaffMappingDTO(mapping)))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.badRequest().build();
@@ -377,13 +375,9 @@ public class AdminController {
     @DeleteMapping("/mappings/{mappingId}")
     public ResponseEntity<Void> deleteMapping(@PathVariable UUID mappingId) {
         try {
-            CategoryStaffMapping mapping = categoryStaffMappingRepository.findById(mappingId).orElse(null);
-            if (mapping == null) {
+            if (!staffMappingService.deactivateMapping(mappingId)) {
                 return ResponseEntity.notFound().build();
             }
-            
-            mapping.setIsActive(false);
-            categoryStaffMappingRepository.save(mapping);
             return ResponseEntity.ok().build();
         } catch (Exception e) {
             e.printStackTrace();
@@ -393,70 +387,101 @@ public class AdminController {
     
     // Get all available categories
     @GetMapping("/categories")
-    public ResponseEntity<List<CategoryInfo>> getAvailableCategories() {
+    public ResponseEntity<?> getAvailableCategories(WebRequest request) {
         try {
-            List<CategoryInfo> categories = java.util.Arrays.stream(TicketCategory.values())
-                    .map(category -> new CategoryInfo(
-                        category.name(),
-                        category.getDisplayName(),
-                        category.getDescription(),
-                        category.getIcon(),
-                        category.getCategoryGroup(),
-                        category.requiresSpecializedStaff()
-                    ))
-                    .collect(java.util.stream.Collectors.toList());
-            return ResponseEntity.ok(categories);
+            ReferenceDataService.Snapshot snapshot = referenceDataService.getSnapshot(
+                    ReferenceDataService.CATEGORIES, this::buildCategoryInfos);
+            return toSnapshotResponse(snapshot, request);
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("Error serving the categories", e);
             return ResponseEntity.internalServerError().build();
         }
     }
     
     // Get all hostel blocks (legacy endpoint - still supported)
     @GetMapping("/hostel-blocks")
-    public ResponseEntity<List<HostelBlockInfo>> getHostelBlocks() {
+    public ResponseEntity<?> getHostelBlocks(WebRequest request) {
         try {
-            List<HostelBlock> blocks = hostelBlockRepository.findByIsActiveTrueOrderByBlockName();
-            List<HostelBlockInfo> blockInfos = blocks.stream()
-                    .map(block -> new HostelBlockInfo(
-                        block.getId().toString(),
-                        block.getBlockName(),
-                        block.getBlockCode(),
-                        block.getTotalFloors(),
-                        block.getTotalRooms(),
-                        block.getIsFemaleBlock()
-                    ))
-                    .collect(java.util.stream.Collectors.toList());
-            return ResponseEntity.ok(blockInfos);
+            ReferenceDataService.Snapshot snapshot = referenceDataService.getSnapshot(
+                    ReferenceDataService.HOSTEL_BLOCKS, this::buildHostelBlockInfos);
+            return toSnapshotResponse(snapshot, request);
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("Error serving the hostel blocks", e);
             return ResponseEntity.internalServerError().build();
         }
     }
     
     // Get all hostel names (new enum-based endpoint)
     @GetMapping("/hostels")
-    public ResponseEntity<?> getHostels() {
+    public ResponseEntity<?> getHostels(WebRequest request) {
         try {
-            System.out.println("AdminController: getHostels() called");
-            List<HostelInfo> hostels = java.util.Arrays.stream(HostelName.values())
-                    .map(hostel -> new HostelInfo(
-                        hostel.name(),
-                        hostel.getDisplayName(),
-                        hostel.getCode(),
-                        hostel.getFullName(),
-                        hostel.isFemaleBlock()
-                    ))
-                    .collect(java.util.stream.Collectors.toList());
-            System.out.println("AdminController: Returning " + hostels.size() + " hostels");
-            return ResponseEntity.ok(hostels);
+            ReferenceDataService.Snapshot snapshot = referenceDataService.getSnapshot(
+                    ReferenceDataService.HOSTELS, this::buildHostelInfos);
+            return toSnapshotResponse(snapshot, request);
         } catch (Exception e) {
-            System.err.println("AdminController: Error in getHostels(): " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error serving the hostels", e);
             return ResponseEntity.status(500).body("Error fetching hostels: " + e.getMessage());
         }
     }
     
+    /**
+     * Serve a reference data snapshot, answering 304 when the client's ETag still matches
+     */
+    private ResponseEntity<?> toSnapshotResponse(ReferenceDataService.Snapshot snapshot, WebRequest request) {
+        CacheControl cacheControl = CacheControl.maxAge(referenceDataMaxAgeSeconds, TimeUnit.SECONDS).mustRevalidate();
+        if (request.checkNotModified(snapshot.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(snapshot.getEtag())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(snapshot.getEtag())
+                .cacheControl(cacheControl)
+                .header("X-Reference-Data-Version", String.valueOf(snapshot.getVersion()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.getBody());
+    }
+    
+    private List<CategoryInfo> buildCategoryInfos() {
+        return java.util.Arrays.stream(TicketCategory.values())
+                .map(category -> new CategoryInfo(
+                    category.name(),
+                    category.getDisplayName(),
+                    category.getDescription(),
+                    category.getIcon(),
+                    category.getCategoryGroup(),
+                    category.requiresSpecializedStaff()
+                ))
+                .collect(java.util.stream.Collectors.toList());
+    }
+    
+    private List<HostelBlockInfo> buildHostelBlockInfos() {
+        List<HostelBlockSummary> blocks = hostelBlockService.getActiveBlocks();
+        return blocks.stream()
+                .map(block -> new HostelBlockInfo(
+                    block.getId().toString(),
+                    block.getBlockName(),
+                    block.getBlockCode(),
+                    block.getTotalFloors(),
+                    block.getTotalRooms(),
+                    block.getIsFemaleBlock()
+                ))
+                .collect(java.util.stream.Collectors.toList());
+    }
+    
+    private List<HostelInfo> buildHostelInfos() {
+        return java.util.Arrays.stream(HostelName.values())
+                .map(hostel -> new HostelInfo(
+                    hostel.name(),
+                    hostel.getDisplayName(),
+                    hostel.getCode(),
+                    hostel.getFullName(),
+                    hostel.isFemaleBlock()
+                ))
+                .collect(java.util.stream.Collectors.toList());
+    }
+    
     // Get staff members eligible for mapping (only STAFF role)
     @GetMapping("/staff")
     public ResponseEntity<?> getStaffMembers() {
@@ -478,12 +503,12 @@ public class AdminController {
     }
     
     // Helper method to convert CategoryStaffMapping to DTO
-    private CategoryStaffMappingDTO toCategoryStaffMappingDTO(CategoryStaffMapping mapping) {
+    private CategoryStaffMappingDTO toCategoryStaffMappingDTO(StaffMappingSummary mapping) {
         CategoryStaffMappingDTO dto = new CategoryStaffMappingDTO();
         dto.setId(mapping.getId().toString());
-        dto.setStaffId(mapping.getStaff().getId().toString());
-        dto.setStaffName(mapping.getStaff().getFirstName() + " " + mapping.getStaff().getLastName());
-        dto.setStaffUsername(mapping.getStaff().getUsername());
+        dto.setStaffId(mapping.getStaffId().toString());
+        dto.setStaffName(mapping.getStaffName());
+        dto.setStaffUsername(mapping.getStaffUsername());
         dto.setHostelBlock(mapping.getHostelBlock());
         dto.setCategory(mapping.getCategory());
         dto.setPriorityLevel(mapping.getPriorityLevel());
@@ -494,11 +519,11 @@ public class AdminController {
         dto.setUpdatedAt(mapping.getUpdatedAt());
         
         // Add category display info
-        try {
-            TicketCategory ticketCategory = TicketCategory.valueOf(mapping.getCategory());
+        TicketCategory ticketCategory = EnumResolver.TICKET_CATEGORIES.resolve(mapping.getCategory());
+        if (ticketCategory != null) {
             dto.setCategoryDisplayName(ticketCategory.getDisplayName());
             dto.setCategoryIcon(ticketCategory.getIcon());
-        } catch (IllegalArgumentException e) {
+        } else {
             // Custom category
             dto.setCategoryDisplayName(mapping.getCategory());
             dto.setCategoryIcon("🔧");
@@ -507,6 +532,10 @@ public class AdminController {
         return dto;
     }
     
+    private CategoryStaffMappingDTO toCategoryStaffMappingDTO(CategoryStaffMapping mapping) {
+        return toCategoryStaffMappingDTO(DTOMapper.toStaffMappingSummary(mapping));
+    }
+    
     // Request DTOs
     public static class CreateUserRequest {
         private String username;
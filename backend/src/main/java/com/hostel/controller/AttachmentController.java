@@ -0,0 +1,328 @@
+package com.hostel.controller;
+
+import com.hostel.dto.AttachmentDTO;
+import com.hostel.dto.TicketAccess;
+import com.hostel.dto.UserSummary;
+import com.hostel.entity.TicketAttachment;
+import com.hostel.service.AttachmentService;
+import com.hostel.service.AttachmentThumbnailService;
+import com.hostel.service.CurrentUserService;
+import com.hostel.service.TicketAuthorizationService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Ticket attachment upload and download. Uploads are the raw request body (Content-Type is
+ * the file's type), streamed to disk by AttachmentService. Downloads go out through
+ * Tomcat's sendfile when the connector offers it, otherwise FileChannel.transferTo, and
+ * support single byte ranges and ETag revalidation. Stored files never change, so the
+ * content hash (or, for attachments from before content addressing, the id) is a strong ETag.
+ * Every file response carries nosniff and a sandbox CSP; only JPEG, PNG, GIF and WebP are
+ * shown inline (AttachmentService.isInlineImage).
+ * Image attachments also have a thumbnail and a downscaled preview, generated in the
+ * background by AttachmentThumbnailService.
+ */
+@RestController
+@RequestMapping("/tickets/{ticketId}/attachments")
+public class AttachmentController {
+
+    // Tomcat request attributes (org.apache.tomcat.util.net.Constants / Globals)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private AttachmentService attachmentService;
+
+    @Autowired
+    private AttachmentThumbnailService thumbnailService;
+
+    @Autowired
+    private CurrentUserService currentUserService;
+
+    @Autowired
+    private TicketAuthorizationService ticketAuthorizationService;
+
+    @PostMapping
+    public ResponseEntity<?> upload(@PathVariable UUID ticketId, @RequestParam UUID userId,
+                                    @RequestParam String filename, HttpServletRequest request) {
+        try {
+            ResponseEntity<?> denied = checkAccess(ticketId, userId);
+            if (denied != null) {
+                return denied;
+            }
+            if (!ticketAuthorizationService.getAccess(ticketId).getStatus().allowsAttachments()) {
+                return error(400, "Attachments cannot be added to a closed or cancelled ticket");
+            }
+            String mimeType = request.getContentType() != null ? request.getContentType() : "application/octet-stream";
+            AttachmentDTO attachment = attachmentService.upload(ticketId, userId, filename, mimeType,
+                    request.getContentLengthLong(), request.getInputStream());
+            return ResponseEntity.status(201).body(attachment);
+        } catch (MaxUploadSizeExceededException e) {
+            return error(413, "Attachment exceeds the size limit or attachment quota (" + e.getMaxUploadSize() + " bytes left)");
+        } catch (IOException e) {
+            return error(500, "Could not store attachment: " + e.getMessage());
+        } catch (AccessDeniedException e) {
+            return error(403, e.getMessage());
+        } catch (RuntimeException e) {
+            return error(400, e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<?> list(@PathVariable UUID ticketId, @RequestParam UUID userId) {
+        try {
+            ResponseEntity<?> denied = checkAccess(ticketId, userId);
+            if (denied != null) {
+                return denied;
+            }
+            List<AttachmentDTO> attachments = attachmentService.getAttachments(ticketId);
+            return ResponseEntity.ok(attachments);
+        } catch (AccessDeniedException e) {
+            return error(403, e.getMessage());
+        } catch (RuntimeException e) {
+            return error(400, e.getMessage());
+        }
+    }
+
+    @GetMapping("/{attachmentId}")
+    public ResponseEntity<?> download(@PathVariable UUID ticketId, @PathVariable UUID attachmentId,
+                                      @RequestParam UUID userId,
+                                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            ResponseEntity<?> denied = checkAccess(ticketId, userId);
+            if (denied != null) {
+                return denied;
+            }
+        } catch (AccessDeniedException e) {
+            return error(403, e.getMessage());
+        } catch (RuntimeException e) {
+            return error(400, e.getMessage());
+        }
+        TicketAttachment attachment = attachmentService.getAttachment(ticketId, attachmentId);
+        if (attachment == null) {
+            return error(404, "Attachment not found");
+        }
+        Path file = attachmentService.resolve(attachment.getFilePath());
+        long length;
+        try {
+            length = Files.size(file);
+        } catch (NoSuchFileException e) {
+            return error(404, "Attachment file is missing");
+        }
+
+        String etag = "\"" + (attachment.getContentHash() != null ? attachment.getContentHash() : attachment.getId()) + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=86400");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (matchesEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(304);
+            return null;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] bounds = parseRange(range, length);
+            if (bounds != null && bounds.length == 0) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(416);
+                return null;
+            }
+            if (bounds != null) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(206);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        // Only raster images are shown inline; anything else (SVG included) downloads
+        boolean inline = AttachmentService.isInlineImage(attachment.getMimeType());
+        response.setContentType(attachment.getMimeType() != null ? attachment.getMimeType() : "application/octet-stream");
+        setFileSecurityHeaders(response);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.builder(inline ? "inline" : "attachment")
+                .filename(attachment.getOriginalFilename(), StandardCharsets.UTF_8).build().toString());
+        response.setContentLengthLong(end - start + 1);
+        send(file, start, end, request, response);
+        return null;
+    }
+
+    @GetMapping("/{attachmentId}/{variant:thumbnail|preview}")
+    public ResponseEntity<?> derivative(@PathVariable UUID ticketId, @PathVariable UUID attachmentId,
+                                        @PathVariable String variant, @RequestParam UUID userId,
+                                        HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            ResponseEntity<?> denied = checkAccess(ticketId, userId);
+            if (denied != null) {
+                return denied;
+            }
+        } catch (AccessDeniedException e) {
+            return error(403, e.getMessage());
+        } catch (RuntimeException e) {
+            return error(400, e.getMessage());
+        }
+        TicketAttachment attachment = attachmentService.getAttachment(ticketId, attachmentId);
+        if (attachment == null) {
+            return error(404, "Attachment not found");
+        }
+        if (!AttachmentThumbnailService.supports(attachment.getMimeType())) {
+            return error(404, "No " + variant + " for this attachment");
+        }
+        AttachmentThumbnailService.Variant kind = AttachmentThumbnailService.Variant.valueOf(variant.toUpperCase());
+        Path original = attachmentService.resolve(attachment.getFilePath());
+        Path file = AttachmentThumbnailService.derivative(original, kind);
+        long length;
+        try {
+            length = Files.size(file);
+        } catch (NoSuchFileException e) {
+            if (!Files.exists(original)) {
+                return error(404, "Attachment file is missing");
+            }
+            // Not generated yet (or dropped from a full queue): ask again and let the client retry
+            return thumbnailService.submit(original)
+                    ? error(202, "The " + variant + " is being generated")
+                    : error(503, "Thumbnail queue is full, try again later");
+        }
+
+        // Derivatives of a file never change either
+        String key = attachment.getContentHash() != null ? attachment.getContentHash() : attachment.getId().toString();
+        String etag = "\"" + key + "-" + variant + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=604800, immutable");
+        if (matchesEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(304);
+            return null;
+        }
+        response.setContentType("image/jpeg");
+        setFileSecurityHeaders(response);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline");
+        response.setContentLengthLong(length);
+        send(file, 0, length - 1, request, response);
+        return null;
+    }
+
+    // Stored files are served from the API origin: never sniff them, never let them run script
+    private static void setFileSecurityHeaders(HttpServletResponse response) {
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setHeader("Content-Security-Policy", "sandbox");
+    }
+
+    private void send(Path file, long start, long end, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat writes the file with sendfile after this handler returns
+            request.setAttribute(SENDFILE_FILENAME, file.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = end - start + 1;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    /**
+     * A single "bytes=" range as {start, end} inclusive, an empty array when it cannot be
+     * satisfied, or null to serve the whole file (no range, multiple ranges or bad syntax)
+     */
+    private static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    return new long[0];
+                }
+                return new long[] {Math.max(0, length - suffix), length - 1};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            if (start >= length || start > end) {
+                return new long[0];
+            }
+            return new long[] {start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Error response if the user may not see this ticket, null if they may
+    private ResponseEntity<?> checkAccess(UUID ticketId, UUID userId) {
+        UserSummary requester = currentUserService.resolve(userId);
+        if (requester == null) {
+            return error(400, "User not found");
+        }
+        TicketAccess access = ticketAuthorizationService.getAccess(ticketId);
+        if (access == null) {
+            return error(404, "Ticket not found");
+        }
+        if (!ticketAuthorizationService.canView(requester, access)) {
+            return error(403, "You do not have access to this ticket");
+        }
+        return null;
+    }
+
+    private static ResponseEntity<Map<String, String>> error(int status, String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", message);
+        return ResponseEntity.status(status).body(error);
+    }
+}
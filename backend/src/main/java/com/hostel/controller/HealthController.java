@@ -1,6 +1,11 @@
 package com.hostel.controller;
 
+import com.hostel.service.AttachmentBlobStore;
+import com.hostel.service.AttachmentThumbnailService;
+import com.hostel.service.ConnectionPoolMonitorService;
 import com.hostel.service.DatabaseHealthService;
+import com.hostel.service.QueryPlanCheckService;
+import com.hostel.service.TicketPartitionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,6 +23,21 @@ public class HealthController {
     @Autowired
     private DatabaseHealthService databaseHealthService;
     
+    @Autowired
+    private QueryPlanCheckService queryPlanCheckService;
+    
+    @Autowired
+    private ConnectionPoolMonitorService connectionPoolMonitorService;
+    
+    @Autowired
+    private TicketPartitionService ticketPartitionService;
+
+    @Autowired
+    private AttachmentBlobStore attachmentBlobStore;
+
+    @Autowired
+    private AttachmentThumbnailService attachmentThumbnailService;
+    
     @GetMapping
     public ResponseEntity<Map<String, Object>> health() {
         Map<String, Object> response = new HashMap<>();
@@ -54,4 +74,51 @@ public class HealthController {
         
         return ResponseEntity.ok(dbStatus);
     }
-} 
\ No newline at end of file
+    
+    // EXPLAIN the key ticket queries; 503 if any of them falls back to a sequential scan
+    @GetMapping("/query-plans")
+    public ResponseEntity<Map<String, Object>> queryPlans() {
+        Map<String, Object> plans = new HashMap<>(queryPlanCheckService.checkPlans());
+        boolean passed = ((java.util.List<?>) plans.get("violations")).isEmpty();
+        plans.put("status", passed ? "UP" : "DEGRADED");
+        plans.put("timestamp", LocalDateTime.now());
+        return passed ? ResponseEntity.ok(plans) : ResponseEntity.status(503).body(plans);
+    }
+    
+    // Hikari pool MXBean counts, acquire-time distribution and timeouts per pool
+    @GetMapping("/pool")
+    public ResponseEntity<Map<String, Object>> connectionPool() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("pools", connectionPoolMonitorService.getPoolStats());
+        response.put("timestamp", LocalDateTime.now());
+        return ResponseEntity.ok(response);
+    }
+    
+    // Recommended maximum pool size per pool from observed waits and database limits
+    @GetMapping("/pool/advice")
+    public ResponseEntity<Map<String, Object>> connectionPoolAdvice() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("pools", connectionPoolMonitorService.getSizingAdvice());
+        response.put("timestamp", LocalDateTime.now());
+        return ResponseEntity.ok(response);
+    }
+
+    // Monthly tickets partitions with estimated row counts
+    @GetMapping("/partitions")
+    public ResponseEntity<Map<String, Object>> ticketPartitions() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("partitions", ticketPartitionService.getPartitionStats());
+        response.put("timestamp", LocalDateTime.now());
+        return ResponseEntity.ok(response);
+    }
+
+    // Attachment bytes referenced vs stored, i.e. disk saved by deduplication
+    @GetMapping("/attachments")
+    public ResponseEntity<Map<String, Object>> attachmentStorage() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("storage", attachmentBlobStore.getStorageReport());
+        response.put("thumbnails", attachmentThumbnailService.getStats());
+        response.put("timestamp", LocalDateTime.now());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,128 @@
+package com.hostel.controller;
+
+import com.hostel.entity.Notification;
+import com.hostel.service.CurrentUserService;
+import com.hostel.service.NotificationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/notifications")
+public class NotificationController {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private CurrentUserService currentUserService;
+
+    // Get notifications for a user with pagination
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<?> getNotifications(
+            @PathVariable UUID userId,
+            @RequestParam(defaultValue = "false") boolean unreadOnly,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        ResponseEntity<?> denied = checkAccess(userId);
+        if (denied != null) {
+            return denied;
+        }
+
+        Pageable pageable = PageRequest.of(page, size);
+        Page<Notification> notifications = unreadOnly
+                ? notificationService.getUnreadNotificationsForUser(userId, pageable)
+                : notificationService.getNotificationsForUser(userId, pageable);
+
+        List<Map<String, Object>> notificationList = notifications.getContent().stream()
+                .map(this::toNotificationMap)
+                .collect(Collectors.toList());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("notifications", notificationList);
+        response.put("currentPage", notifications.getNumber());
+        response.put("totalItems", notifications.getTotalElements());
+        response.put("totalPages", notifications.getTotalPages());
+        response.put("unreadCount", notificationService.getUnreadCount(userId));
+
+        return ResponseEntity.ok(response);
+    }
+
+    // Get unread count for the header badge
+    @GetMapping("/user/{userId}/unread-count")
+    public ResponseEntity<?> getUnreadCount(@PathVariable UUID userId) {
+        ResponseEntity<?> denied = checkAccess(userId);
+        if (denied != null) {
+            return denied;
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("userId", userId);
+        response.put("unreadCount", notificationService.getUnreadCount(userId));
+        return ResponseEntity.ok(response);
+    }
+
+    // Mark a single notification as read
+    @PatchMapping("/{id}/read")
+    public ResponseEntity<?> markAsRead(@PathVariable UUID id, @RequestParam UUID userId) {
+        ResponseEntity<?> denied = checkAccess(userId);
+        if (denied != null) {
+            return denied;
+        }
+        // Only matches the caller's own notifications
+        boolean updated = notificationService.markAsRead(id, userId);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("updated", updated);
+        response.put("unreadCount", notificationService.getUnreadCount(userId));
+        return ResponseEntity.ok(response);
+    }
+
+    // Mark all notifications of a user as read
+    @PatchMapping("/user/{userId}/read-all")
+    public ResponseEntity<?> markAllAsRead(@PathVariable UUID userId) {
+        ResponseEntity<?> denied = checkAccess(userId);
+        if (denied != null) {
+            return denied;
+        }
+        int updated = notificationService.markAllAsRead(userId);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("updatedCount", updated);
+        response.put("unreadCount", 0);
+        return ResponseEntity.ok(response);
+    }
+
+    // Error response unless the caller is userId, null if it is
+    private ResponseEntity<?> checkAccess(UUID userId) {
+        try {
+            currentUserService.resolve(userId);
+            return null;
+        } catch (AccessDeniedException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(403).body(error);
+        }
+    }
+
+    private Map<String, Object> toNotificationMap(Notification notification) {
+        Map<String, Object> notificationMap = new HashMap<>();
+        notificationMap.put("id", notification.getId());
+        notificationMap.put("title", notification.getTitle());
+        notificationMap.put("message", notification.getMessage());
+        notificationMap.put("type", notification.getType());
+        notificationMap.put("isRead", notification.getIsRead());
+        notificationMap.put("createdAt", notification.getCreatedAt());
+        notificationMap.put("readAt", notification.getReadAt());
+        return notificationMap;
+    }
+}
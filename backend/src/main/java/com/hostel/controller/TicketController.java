@@ -1,45 +1,72 @@
 package com.hostel.controller;
 
 import com.hostel.dto.DTOMapper;
+import com.hostel.dto.KeysetCursor;
 import com.hostel.dto.TicketDTO;
+import com.hostel.dto.TicketAccess;
+import com.hostel.dto.TicketCommentDTO;
+import com.hostel.dto.TicketHistoryDTO;
+import com.hostel.dto.UserSummary;
+import com.hostel.entity.EnumResolver;
 import com.hostel.entity.Ticket;
 import com.hostel.entity.TicketCategory;
-import com.hostel.entity.TicketHistory;
 import com.hostel.entity.TicketPriority;
 import com.hostel.entity.TicketStatus;
 import com.hostel.entity.User;
 import com.hostel.entity.UserRole;
 import com.hostel.repository.TicketRepository;
+import com.hostel.service.CurrentUserService;
+import com.hostel.service.TicketArchiveService;
 import com.hostel.service.TicketAssignmentService;
+import com.hostel.service.TicketAuthorizationService;
 import com.hostel.service.TicketService;
 import com.hostel.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.RequestMethod;
 
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/tickets")
 public class TicketController {
 
+    private static final Logger logger = LoggerFactory.getLogger(TicketController.class);
+
     @Autowired
     private TicketService ticketService;
     
     @Autowired
     private UserService userService;
+
+    @Autowired
+    private CurrentUserService currentUserService;
+
+    @Autowired
+    private TicketAuthorizationService ticketAuthorizationService;
     
     @Autowired
     private TicketRepository ticketRepository;
@@ -47,6 +74,9 @@ public class TicketController {
     @Autowired
     private TicketAssignmentService ticketAssignmentService;
 
+    @Autowired
+    private TicketArchiveService ticketArchiveService;
+
     // Get all tickets with pagination
     @GetMapping
     public ResponseEntity<Map<String, Object>> getAllTickets(
@@ -91,7 +121,7 @@ public class TicketController {
                             }
                         } catch (Exception userEx) {
                             // Skip user data if there's an issue
-                            System.err.println("Error accessing createdBy user: " + userEx.getMessage());
+                            logger.warn("Error accessing the creator of ticket {}: {}", ticket.getId(), userEx.getMessage());
                         }
                         
                         try {
@@ -104,7 +134,7 @@ public class TicketController {
                             }
                         } catch (Exception userEx) {
                             // Skip user data if there's an issue
-                            System.err.println("Error accessing assignedTo user: " + userEx.getMessage());
+                            logger.warn("Error accessing the assignee of ticket {}: {}", ticket.getId(), userEx.getMessage());
                         }
                         
                         return ticketMap;
@@ -120,8 +150,7 @@ public class TicketController {
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            System.err.println("Error fetching tickets: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error fetching tickets", e);
             Map<String, Object> error = new HashMap<>();
             error.put("message", "Error fetching tickets: " + e.getMessage());
             return ResponseEntity.status(500).body(error);
@@ -132,40 +161,39 @@ public class TicketController {
     @GetMapping("/{id}")
     public ResponseEntity<?> getTicketById(@PathVariable UUID id, @RequestParam(required = false) UUID userId) {
         try {
-            Optional<Ticket> ticketOpt = ticketService.getTicketById(id);
-            if (!ticketOpt.isPresent()) {
+            // Check permissions against the ticket's owner/assignee ids only; userId is optional,
+            // the token identifies the caller
+            UserSummary user = currentUserService.resolve(userId);
+            TicketAccess access = ticketAuthorizationService.getAccess(id);
+            if (access == null) {
                 Map<String, String> error = new HashMap<>();
                 error.put("message", "Ticket not found");
                 return ResponseEntity.status(404).body(error);
             }
+            if (!ticketAuthorizationService.canView(user, access)) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", user.getRole() == UserRole.STUDENT
+                        ? "Students can only view their own tickets"
+                        : "Staff can only view tickets assigned to them");
+                return ResponseEntity.status(403).body(error);
+            }
             
-            Ticket ticket = ticketOpt.get();
-            
-            // If userId is provided, check permissions
-            if (userId != null) {
-                User user = userService.getUserByIdDirect(userId);
-                if (user != null) {
-                    // Check permissions based on role
-                    if (user.getRole() == UserRole.STUDENT) {
-                        // Students can only view their own tickets
-                        if (!ticket.getCreatedBy().getId().equals(userId)) {
-                            Map<String, String> error = new HashMap<>();
-                            error.put("message", "Students can only view their own tickets");
-                            return ResponseEntity.status(403).body(error);
-                        }
-                    } else if (user.getRole() == UserRole.STAFF) {
-                        // Staff can view tickets assigned to them or unassigned tickets in their category
-                        if (ticket.getAssignedTo() != null && !ticket.getAssignedTo().getId().equals(userId)) {
-                            Map<String, String> error = new HashMap<>();
-                            error.put("message", "Staff can only view tickets assigned to them");
-                            return ResponseEntity.status(403).body(error);
-                        }
-                    }
-                    // Admins can view any ticket - no additional check needed
+            // Load the full ticket only once access is granted
+            Optional<Ticket> ticketOpt = ticketService.getTicketById(id);
+            if (!ticketOpt.isPresent()) {
+                // Closed tickets past the archive age live in the archive tables
+                Optional<TicketDTO> archived = ticketArchiveService.findTicket(id);
+                if (archived.isPresent()) {
+                    return ResponseEntity.ok(archived.get());
                 }
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Ticket not found");
+                return ResponseEntity.status(404).body(error);
             }
             
-            return ResponseEntity.ok(DTOMapper.toTicketDTO(ticket));
+            return ResponseEntity.ok(DTOMapper.toTicketDTO(ticketOpt.get()));
+        } catch (AccessDeniedException e) {
+            return forbidden(e.getMessage());
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -178,15 +206,15 @@ public class TicketController {
     public ResponseEntity<?> createTicket(
             @RequestBody Ticket ticket,
             @RequestParam UUID creatorId) {
-        System.out.println("[DEBUG] Incoming ticket: " + ticket);
-        System.out.println("[DEBUG] Incoming creatorId: " + creatorId);
+        logger.debug("Incoming ticket from {}: {}", creatorId, ticket);
         try {
             Ticket createdTicket = ticketService.createTicket(ticket, creatorId);
             TicketDTO ticketDTO = DTOMapper.toTicketDTO(createdTicket);
             return ResponseEntity.ok(ticketDTO);
+        } catch (AccessDeniedException e) {
+            return forbidden(e.getMessage());
         } catch (Exception e) {
-            System.err.println("Error creating ticket: " + e.getMessage());
-            e.printStackTrace();
+            logger.warn("Error creating ticket for {}", creatorId, e);
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
             return ResponseEntity.badRequest().body(error);
@@ -207,70 +235,25 @@ public class TicketController {
             // Handle category conversion
             String categoryStr = (String) ticketData.get("category");
             if (categoryStr != null) {
-                try {
-                    newTicket.setCategory(TicketCategory.valueOf(categoryStr));
-                } catch (IllegalArgumentException e) {
-                    newTicket.setCategory(TicketCategory.GENERAL);
-                }
+                newTicket.setCategory(EnumResolver.TICKET_CATEGORIES.resolve(categoryStr, TicketCategory.GENERAL));
             }
             
             // Handle priority conversion
             String priorityStr = (String) ticketData.get("priority");
             if (priorityStr != null) {
-                try {
-                    newTicket.setPriority(TicketPriority.valueOf(priorityStr));
-                } catch (IllegalArgumentException e) {
-                    newTicket.setPriority(TicketPriority.MEDIUM);
-                }
-            }
-            
-            // Set creator by fetching from database first for hostel block assignment
-            User creator = userService.getUserByIdDirect(creatorId);
-            if (creator == null) {
-                Map<String, Object> errorResponse = new HashMap<>();
-                errorResponse.put("error", "User not found");
-                errorResponse.put("message", "Creator user with ID " + creatorId + " not found");
-                return ResponseEntity.badRequest().body(errorResponse);
+                newTicket.setPriority(EnumResolver.TICKET_PRIORITIES.resolve(priorityStr, TicketPriority.MEDIUM));
             }
             
-            // Handle hostel block - auto-assign from user if not provided
+            // Hostel block defaults to the creator's in TicketService when not provided
             String hostelBlockParam = (String) ticketData.get("hostelBlock");
-            if (hostelBlockParam == null || hostelBlockParam.trim().isEmpty()) {
-                if (creator.getHostelBlock() != null) {
-                    // Use the display name since that's what the Ticket entity expects as String
-                    newTicket.setHostelBlock(creator.getHostelBlock().getDisplayName());
-                } else {
-                    Map<String, Object> errorResponse = new HashMap<>();
-                    errorResponse.put("error", "Hostel block required");
-                    errorResponse.put("message", "Hostel block is required. User profile doesn't have hostel block information.");
-                    return ResponseEntity.badRequest().body(errorResponse);
-                }
-            } else {
+            if (hostelBlockParam != null && !hostelBlockParam.trim().isEmpty()) {
                 newTicket.setHostelBlock(hostelBlockParam);
             }
             
             newTicket.setRoomNumber((String) ticketData.get("roomNumber"));
             newTicket.setLocationDetails((String) ticketData.get("locationDetails"));
             
-            // Set required fields
-            newTicket.setTicketNumber("TKT-" + System.currentTimeMillis());
-            newTicket.setStatus(TicketStatus.OPEN);
-            newTicket.setCreatedAt(LocalDateTime.now());
-            newTicket.setUpdatedAt(LocalDateTime.now());
-            newTicket.setCreatedBy(creator);
-            
-            // Auto-assign based on category and priority
-            if (newTicket.getAssignedTo() == null) {
-                User autoAssignedUser = ticketAssignmentService.autoAssignTicket(newTicket);
-                if (autoAssignedUser != null) {
-                    newTicket.setAssignedTo(autoAssignedUser);
-                    newTicket.setStatus(TicketStatus.ASSIGNED);
-                }
-                // If no staff members are available, leave assignedTo as null and status as OPEN
-            }
-            
-            // Save ticket with auto-assignment
-            Ticket savedTicket = ticketRepository.save(newTicket);
+            TicketDTO savedTicket = ticketService.createSimpleTicket(newTicket, creatorId);
             
             Map<String, Object> response = new HashMap<>();
             response.put("id", savedTicket.getId());
@@ -280,9 +263,10 @@ public class TicketController {
             response.put("message", "Ticket created successfully");
             
             return ResponseEntity.ok(response);
+        } catch (AccessDeniedException e) {
+            return forbidden(e.getMessage());
         } catch (Exception e) {
-            System.err.println("Error creating simple ticket: " + e.getMessage());
-            e.printStackTrace();
+            logger.warn("Error creating simple ticket for {}", creatorId, e);
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
             return ResponseEntity.badRequest().body(error);
@@ -306,7 +290,7 @@ public class TicketController {
             }
             
             // Get the user making the update
-            User updater = userService.getUserByIdDirect(updatedBy);
+            UserSummary updater = currentUserService.resolve(updatedBy);
             if (updater == null) {
                 Map<String, String> error = new HashMap<>();
                 error.put("message", "User not found");
@@ -330,6 +314,10 @@ public class TicketController {
             
             Ticket updatedTicket = ticketService.updateTicket(id, ticketDetails);
             return ResponseEntity.ok(DTOMapper.toTicketDTO(updatedTicket));
+        } catch (AccessDeniedException e) {
+            return forbidden(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return versionConflict(id);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -360,7 +348,7 @@ public class TicketController {
         Page<Ticket> tickets = ticketService.getTicketsByUser(userId, pageable);
         
         Map<String, Object> response = new HashMap<>();
-        response.put("tickets", tickets.getContent());
+        response.put("tickets", tickets.getContent().stream().map(DTOMapper::toTicketDTO).collect(Collectors.toList()));
         response.put("currentPage", tickets.getNumber());
         response.put("totalItems", tickets.getTotalElements());
         response.put("totalPages", tickets.getTotalPages());
@@ -379,7 +367,7 @@ public class TicketController {
         Page<Ticket> tickets = ticketService.getTicketsByAssignee(assigneeId, pageable);
         
         Map<String, Object> response = new HashMap<>();
-        response.put("tickets", tickets.getContent());
+        response.put("tickets", tickets.getContent().stream().map(DTOMapper::toTicketDTO).collect(Collectors.toList()));
         response.put("currentPage", tickets.getNumber());
         response.put("totalItems", tickets.getTotalElements());
         response.put("totalPages", tickets.getTotalPages());
@@ -398,7 +386,7 @@ public class TicketController {
         Page<Ticket> tickets = ticketService.getTicketsByStatus(status, pageable);
         
         Map<String, Object> response = new HashMap<>();
-        response.put("tickets", tickets.getContent());
+        response.put("tickets", tickets.getContent().stream().map(DTOMapper::toTicketDTO).collect(Collectors.toList()));
         response.put("currentPage", tickets.getNumber());
         response.put("totalItems", tickets.getTotalElements());
         response.put("totalPages", tickets.getTotalPages());
@@ -417,7 +405,7 @@ public class TicketController {
         Page<Ticket> tickets = ticketService.searchTickets(query, pageable);
         
         Map<String, Object> response = new HashMap<>();
-        response.put("tickets", tickets.getContent());
+        response.put("tickets", tickets.getContent().stream().map(DTOMapper::toTicketDTO).collect(Collectors.toList()));
         response.put("currentPage", tickets.getNumber());
         response.put("totalItems", tickets.getTotalElements());
         response.put("totalPages", tickets.getTotalPages());
@@ -426,46 +414,89 @@ public class TicketController {
         return ResponseEntity.ok(response);
     }
 
+    // Tickets created in a date range, including archived ones for historical ranges - Admin only
+    @GetMapping("/range")
+    public ResponseEntity<?> getTicketsCreatedBetween(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "500") int limit,
+            @RequestParam(required = false) UUID adminId) {
+        ResponseEntity<?> denied = requireAdmin(adminId);
+        if (denied != null) {
+            return denied;
+        }
+        if (!from.isBefore(to) || limit < 1 || limit > 1000) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "from must be before to and limit between 1 and 1000");
+            return ResponseEntity.badRequest().body(error);
+        }
+        List<TicketDTO> tickets = ticketService.getTicketsCreatedBetween(from, to, limit);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("tickets", tickets);
+        response.put("totalItems", tickets.size());
+        response.put("includesArchive", from.isBefore(ticketArchiveService.getArchiveHorizon()));
+        return ResponseEntity.ok(response);
+    }
+
     // Change ticket status
     @PatchMapping("/{id}/status")
-    public ResponseEntity<Ticket> changeTicketStatus(
+    public ResponseEntity<?> changeTicketStatus(
             @PathVariable UUID id,
             @RequestParam TicketStatus newStatus,
             @RequestParam(required = false) String comment,
             @RequestParam UUID userId) {
         try {
             Ticket updatedTicket = ticketService.changeTicketStatus(id, newStatus, comment, userId);
-            return ResponseEntity.ok(updatedTicket);
+            return ResponseEntity.ok(DTOMapper.toTicketDTO(updatedTicket));
+        } catch (AccessDeniedException e) {
+            return forbidden(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return versionConflict(id);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
-    // Assign ticket
+    // Assign ticket - Admin only, there is no supervisor role
     @PatchMapping("/{id}/assign")
-    public ResponseEntity<Ticket> assignTicket(
+    public ResponseEntity<?> assignTicket(
             @PathVariable UUID id,
-            @RequestParam UUID assigneeId) {
+            @RequestParam UUID assigneeId,
+            @RequestParam(required = false) UUID adminId) {
         try {
+            if (currentUserService.resolve(adminId).getRole() != UserRole.ADMIN) {
+                return forbidden("Only admins can assign tickets");
+            }
             Ticket updatedTicket = ticketService.assignTicket(id, assigneeId);
-            return ResponseEntity.ok(updatedTicket);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
+            return ResponseEntity.ok(DTOMapper.toTicketDTO(updatedTicket));
+        } catch (AccessDeniedException e) {
+            return forbidden(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return versionConflict(id);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
         }
     }
 
     // Get urgent tickets
     @GetMapping("/urgent")
-    public ResponseEntity<List<Ticket>> getUrgentTickets() {
+    public ResponseEntity<List<TicketDTO>> getUrgentTickets() {
         List<Ticket> urgentTickets = ticketService.getUrgentTickets();
-        return ResponseEntity.ok(urgentTickets);
+        return ResponseEntity.ok(urgentTickets.stream()
+                .map(DTOMapper::toTicketDTO)
+                .collect(Collectors.toList()));
     }
 
     // Get overdue tickets
     @GetMapping("/overdue")
-    public ResponseEntity<List<Ticket>> getOverdueTickets() {
+    public ResponseEntity<List<TicketDTO>> getOverdueTickets() {
         List<Ticket> overdueTickets = ticketService.getOverdueTickets();
-        return ResponseEntity.ok(overdueTickets);
+        return ResponseEntity.ok(overdueTickets.stream()
+                .map(DTOMapper::toTicketDTO)
+                .collect(Collectors.toList()));
     }
 
     // Get ticket statistics
@@ -488,6 +519,26 @@ public class TicketController {
         return ResponseEntity.ok(stats);
     }
 
+    // Monthly ticket counts by status, e.g. /stats/monthly?from=2024-01&to=2024-12 - Admin only
+    @GetMapping("/stats/monthly")
+    public ResponseEntity<?> getMonthlyTicketStats(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+            @RequestParam(required = false) UUID adminId) {
+        ResponseEntity<?> denied = requireAdmin(adminId);
+        if (denied != null) {
+            return denied;
+        }
+        if (to.isBefore(from) || from.plusMonths(36).isBefore(to)) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "to must not be before from and the range is limited to 36 months");
+            return ResponseEntity.badRequest().body(error);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("months", ticketService.getMonthlyTicketCounts(from, to));
+        return ResponseEntity.ok(response);
+    }
+
     // Staff-specific endpoints
     @GetMapping("/unassigned")
 
@@ -516,7 +567,7 @@ public class TicketController {
             @RequestParam UUID requestedBy) {
         try {
             // Get the user making the request
-            User requester = userService.getUserByIdDirect(requestedBy);
+            UserSummary requester = currentUserService.resolve(requestedBy);
             if (requester == null) {
                 Map<String, String> error = new HashMap<>();
                 error.put("message", "Requester not found");
@@ -536,6 +587,10 @@ public class TicketController {
             
             Ticket ticket = ticketService.assignTicketToStaff(ticketId, staffId);
             return ResponseEntity.ok(DTOMapper.toTicketDTO(ticket));
+        } catch (AccessDeniedException e) {
+            return forbidden(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return versionConflict(ticketId);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -551,7 +606,7 @@ public class TicketController {
             @RequestParam UUID updatedBy) {
         try {
             // Get the user making the request
-            User updater = userService.getUserByIdDirect(updatedBy);
+            UserSummary updater = currentUserService.resolve(updatedBy);
             if (updater == null) {
                 Map<String, String> error = new HashMap<>();
                 error.put("message", "User not found");
@@ -583,6 +638,10 @@ public class TicketController {
             
             Ticket updatedTicket = ticketService.updateTicketStatus(ticketId, status, updatedBy);
             return ResponseEntity.ok(DTOMapper.toTicketDTO(updatedTicket));
+        } catch (AccessDeniedException e) {
+            return forbidden(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return versionConflict(ticketId);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -609,55 +668,181 @@ public class TicketController {
 
     public ResponseEntity<?> getTicketHistory(@PathVariable UUID id, @RequestParam UUID userId) {
         try {
-            // Get the user making the request
-            User requester = userService.getUserByIdDirect(userId);
-            if (requester == null) {
+            ResponseEntity<?> denied = checkHistoryAccess(id, userId);
+            if (denied != null) {
+                return denied;
+            }
+            
+            List<TicketHistoryDTO> history = ticketService.getTicketHistory(id);
+            return ResponseEntity.ok(history);
+        } catch (AccessDeniedException e) {
+            return forbidden(e.getMessage());
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    // Ticket event log, keyset-paged oldest first; same visibility rules as /history.
+    // Pass the previous response's nextCursor as "after" for the next page.
+    @GetMapping("/{id}/events")
+    public ResponseEntity<?> getTicketEvents(@PathVariable UUID id, @RequestParam UUID userId,
+                                             @RequestParam(required = false) String after,
+                                             @RequestParam(defaultValue = "50") int size) {
+        try {
+            if (size < 1 || size > 200) {
                 Map<String, String> error = new HashMap<>();
-                error.put("message", "User not found");
+                error.put("message", "size must be between 1 and 200");
                 return ResponseEntity.badRequest().body(error);
             }
+            KeysetCursor cursor = after != null ? KeysetCursor.decode(after) : null;
+            ResponseEntity<?> denied = checkHistoryAccess(id, userId);
+            if (denied != null) {
+                return denied;
+            }
             
-            // Get the ticket
-            Ticket ticket = ticketService.getTicketByIdDirect(id);
-            if (ticket == null) {
+            Slice<TicketHistoryDTO> events = ticketService.getTicketEvents(id, cursor, size);
+            Map<String, Object> response = new HashMap<>();
+            response.put("events", events.getContent());
+            response.put("size", size);
+            response.put("hasNext", events.hasNext());
+            if (events.hasNext()) {
+                TicketHistoryDTO last = events.getContent().get(events.getNumberOfElements() - 1);
+                response.put("nextCursor", new KeysetCursor(last.getChangedAt(), last.getId()).encode());
+            }
+            return ResponseEntity.ok(response);
+        } catch (AccessDeniedException e) {
+            return forbidden(e.getMessage());
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    // Ticket comments, keyset-paged oldest first; students only get public comments.
+    // Pass the previous response's nextCursor as "after" for the next page.
+    @GetMapping("/{id}/comments")
+    public ResponseEntity<?> getTicketComments(@PathVariable UUID id, @RequestParam UUID userId,
+                                               @RequestParam(required = false) String after,
+                                               @RequestParam(defaultValue = "50") int size) {
+        try {
+            if (size < 1 || size > 200) {
                 Map<String, String> error = new HashMap<>();
-                error.put("message", "Ticket not found");
-                return ResponseEntity.status(404).body(error);
+                error.put("message", "size must be between 1 and 200");
+                return ResponseEntity.badRequest().body(error);
+            }
+            KeysetCursor cursor = after != null ? KeysetCursor.decode(after) : null;
+            UserSummary requester = currentUserService.resolve(userId);
+            ResponseEntity<?> denied = checkCommentAccess(id, requester);
+            if (denied != null) {
+                return denied;
             }
             
-            // Check permissions based on role
-            if (requester.getRole() == UserRole.STUDENT) {
-                // Students can only view history of their own tickets
-                if (!ticket.getCreatedBy().getId().equals(userId)) {
-                    Map<String, String> error = new HashMap<>();
-                    error.put("message", "Students can only view history of their own tickets");
-                    return ResponseEntity.status(403).body(error);
-                }
-            } else if (requester.getRole() == UserRole.STAFF) {
-                // Staff can view history of tickets assigned to them
-                if (ticket.getAssignedTo() == null || !ticket.getAssignedTo().getId().equals(userId)) {
-                    Map<String, String> error = new HashMap<>();
-                    error.put("message", "Staff can only view history of tickets assigned to them");
-                    return ResponseEntity.status(403).body(error);
-                }
+            Slice<TicketCommentDTO> comments = ticketService.getTicketComments(id, !requester.isStudent(), cursor, size);
+            Map<String, Object> response = new HashMap<>();
+            response.put("comments", comments.getContent());
+            response.put("size", size);
+            response.put("hasNext", comments.hasNext());
+            if (comments.hasNext()) {
+                TicketCommentDTO last = comments.getContent().get(comments.getNumberOfElements() - 1);
+                response.put("nextCursor", new KeysetCursor(last.getCreatedAt(), last.getId()).encode());
+            }
+            return ResponseEntity.ok(response);
+        } catch (AccessDeniedException e) {
+            return forbidden(e.getMessage());
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    // Add a comment; internal notes are for staff and admins only
+    @PostMapping("/{id}/comments")
+    public ResponseEntity<?> addTicketComment(@PathVariable UUID id, @RequestParam UUID userId,
+                                              @RequestBody Map<String, Object> commentData) {
+        try {
+            UserSummary requester = currentUserService.resolve(userId);
+            ResponseEntity<?> denied = checkCommentAccess(id, requester);
+            if (denied != null) {
+                return denied;
             }
-            // Admins can view any ticket history (no additional check needed)
             
-            List<TicketHistory> history = ticketService.getTicketHistory(id);
-            return ResponseEntity.ok(history);
+            boolean internal = Boolean.TRUE.equals(commentData.get("internal"));
+            if (internal && requester.isStudent()) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Students cannot add internal comments");
+                return ResponseEntity.status(403).body(error);
+            }
+            
+            TicketCommentDTO comment = ticketService.addComment(id, userId, (String) commentData.get("comment"), internal);
+            return ResponseEntity.status(201).body(comment);
+        } catch (AccessDeniedException e) {
+            return forbidden(e.getMessage());
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
             return ResponseEntity.badRequest().body(error);
         }
     }
+    
+    // Error response if the user may not see this ticket's comments, null if they may
+    private ResponseEntity<?> checkCommentAccess(UUID id, UserSummary requester) {
+        if (requester == null) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "User not found");
+            return ResponseEntity.badRequest().body(error);
+        }
+        TicketAccess access = ticketAuthorizationService.getAccess(id);
+        if (access == null) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Ticket not found");
+            return ResponseEntity.status(404).body(error);
+        }
+        if (!ticketAuthorizationService.canView(requester, access)) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "You do not have access to this ticket");
+            return ResponseEntity.status(403).body(error);
+        }
+        return null;
+    }
+    
+    // Error response if the user may not see this ticket's history, null if they may
+    private ResponseEntity<?> checkHistoryAccess(UUID id, UUID userId) {
+        UserSummary requester = currentUserService.resolve(userId);
+        if (requester == null) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "User not found");
+            return ResponseEntity.badRequest().body(error);
+        }
+        
+        // Check the ticket exists and who owns it without loading the entity
+        TicketAccess access = ticketAuthorizationService.getAccess(id);
+        if (access == null) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Ticket not found");
+            return ResponseEntity.status(404).body(error);
+        }
+        
+        // Students: own tickets; staff: tickets assigned to them; admins: any ticket
+        if (!ticketAuthorizationService.canViewHistory(requester, access)) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", requester.getRole() == UserRole.STUDENT
+                    ? "Students can only view history of their own tickets"
+                    : "Staff can only view history of tickets assigned to them");
+            return ResponseEntity.status(403).body(error);
+        }
+        return null;
+    }
 
     // Unassign ticket - Admin only
     @PatchMapping("/{id}/unassign")
     public ResponseEntity<?> unassignTicket(@PathVariable UUID id, @RequestParam UUID adminId) {
         try {
             // Verify admin permissions
-            User admin = userService.getUserByIdDirect(adminId);
+            UserSummary admin = currentUserService.resolve(adminId);
             if (admin == null) {
                 Map<String, String> error = new HashMap<>();
                 error.put("message", "User not found");
@@ -693,6 +878,10 @@ public class TicketController {
             response.put("ticket", DTOMapper.toTicketDTO(unassignedTicket));
             return ResponseEntity.ok(response);
             
+        } catch (AccessDeniedException e) {
+            return forbidden(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return versionConflict(id);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -752,6 +941,34 @@ public class TicketController {
         }
     }
     
+    // 403 unless the token belongs to an admin (adminId is optional and checked against it), null if it does
+    private ResponseEntity<?> requireAdmin(UUID adminId) {
+        try {
+            if (currentUserService.resolve(adminId).getRole() != UserRole.ADMIN) {
+                return forbidden("Only admins can read tickets across all users");
+            }
+            return null;
+        } catch (AccessDeniedException e) {
+            return forbidden(e.getMessage());
+        }
+    }
+    
+    // 403 for a token-authenticated caller acting as someone else
+    private ResponseEntity<Map<String, String>> forbidden(String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("message", message);
+        return ResponseEntity.status(403).body(error);
+    }
+    
+    // 409 for a version conflict, with the version the client should reload before retrying
+    private ResponseEntity<Map<String, Object>> versionConflict(UUID ticketId) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("message", "Ticket was modified by someone else; reload it and try again");
+        error.put("ticketId", ticketId);
+        error.put("currentVersion", ticketService.getTicketVersion(ticketId));
+        return ResponseEntity.status(409).body(error);
+    }
+    
     // Helper method for similarity calculation
     private double calculateSimilarity(String s1, String s2) {
         if (s1 == null || s2 == null) return 0.0;
@@ -794,30 +1011,30 @@ public class TicketController {
             @RequestParam UUID studentId) {
         try {
             // Verify student permissions
-            User student = userService.getUserByIdDirect(studentId);
+            UserSummary student = currentUserService.resolve(studentId);
             if (student == null || student.getRole() != UserRole.STUDENT) {
                 Map<String, String> error = new HashMap<>();
                 error.put("message", "Only students can submit feedback");
                 return ResponseEntity.status(403).body(error);
             }
             
-            // Get the ticket
-            Ticket ticket = ticketService.getTicketByIdDirect(id);
-            if (ticket == null) {
+            // Check ownership and status without loading the entity
+            TicketAccess access = ticketAuthorizationService.getAccess(id);
+            if (access == null) {
                 Map<String, String> error = new HashMap<>();
                 error.put("message", "Ticket not found");
                 return ResponseEntity.status(404).body(error);
             }
             
             // Verify student owns the ticket
-            if (!ticket.getCreatedBy().getId().equals(studentId)) {
+            if (!access.isCreatedBy(studentId)) {
                 Map<String, String> error = new HashMap<>();
                 error.put("message", "Students can only provide feedback for their own tickets");
                 return ResponseEntity.status(403).body(error);
             }
             
             // Verify ticket is resolved
-            if (ticket.getStatus() != TicketStatus.RESOLVED && ticket.getStatus() != TicketStatus.CLOSED) {
+            if (access.getStatus() != TicketStatus.RESOLVED && access.getStatus() != TicketStatus.CLOSED) {
                 Map<String, String> error = new HashMap<>();
                 error.put("message", "Feedback can only be submitted for resolved tickets");
                 return ResponseEntity.badRequest().body(error);
@@ -834,24 +1051,17 @@ public class TicketController {
                 return ResponseEntity.badRequest().body(error);
             }
             
-            // Update ticket with feedback
-            ticket.setSatisfactionRating(rating);
-            ticket.setFeedback(feedback);
-            ticket.setUpdatedAt(LocalDateTime.now());
-            
-            // Auto-close ticket after feedback if it was just resolved
-            if (ticket.getStatus() == TicketStatus.RESOLVED) {
-                ticket.setStatus(TicketStatus.CLOSED);
-                ticket.setClosedAt(LocalDateTime.now());
-            }
-            
-            ticketRepository.save(ticket);
+            TicketDTO ticket = ticketService.submitFeedback(id, studentId, rating, feedback);
             
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Feedback submitted successfully");
-            response.put("ticket", DTOMapper.toTicketDTO(ticket));
+            response.put("ticket", ticket);
             return ResponseEntity.ok(response);
             
+        } catch (AccessDeniedException e) {
+            return forbidden(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return versionConflict(id);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -863,7 +1073,7 @@ public class TicketController {
     @GetMapping("/feedback/stats")
     public ResponseEntity<?> getFeedbackStats(@RequestParam UUID userId) {
         try {
-            User user = userService.getUserByIdDirect(userId);
+            UserSummary user = currentUserService.resolve(userId);
             if (user == null || user.getRole() == UserRole.STUDENT) {
                 Map<String, String> error = new HashMap<>();
                 error.put("message", "Access denied");
@@ -871,7 +1081,7 @@ public class TicketController {
             }
             
             // Calculate feedback statistics
-            List<Ticket> ticketsWithFeedback = ticketRepository.findTicketsWithFeedback();
+            List<Ticket> ticketsWithFeedback = ticketService.getTicketsWithFeedback();
             
             Map<String, Object> stats = new HashMap<>();
             stats.put("totalFeedbacks", ticketsWithFeedback.size());
@@ -917,6 +1127,8 @@ public class TicketController {
             
             return ResponseEntity.ok(stats);
             
+        } catch (AccessDeniedException e) {
+            return forbidden(e.getMessage());
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -929,7 +1141,7 @@ public class TicketController {
     public ResponseEntity<?> bulkUpdateTickets(@RequestBody Map<String, Object> bulkData, @RequestParam UUID adminId) {
         try {
             // Verify admin permissions
-            User admin = userService.getUserByIdDirect(adminId);
+            UserSummary admin = currentUserService.resolve(adminId);
             if (admin == null || admin.getRole() != UserRole.ADMIN) {
                 Map<String, String> error = new HashMap<>();
                 error.put("message", "Only admins can perform bulk operations");
@@ -949,113 +1161,84 @@ public class TicketController {
                 return ResponseEntity.badRequest().body(error);
             }
             
+            // An operation without its argument would otherwise report success for nothing
+            String missingArgument = null;
+            if (operation == null) {
+                missingArgument = "operation";
+            } else if (operation.equals("UPDATE_STATUS") && newStatus == null) {
+                missingArgument = "newStatus";
+            } else if (operation.equals("ASSIGN") && assigneeId == null) {
+                missingArgument = "assigneeId";
+            } else if (operation.equals("UPDATE_PRIORITY") && newPriority == null) {
+                missingArgument = "newPriority";
+            }
+            if (missingArgument != null) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", missingArgument + " is required" + (operation != null ? " for " + operation : ""));
+                return ResponseEntity.badRequest().body(error);
+            }
+            
             List<Map<String, Object>> results = new ArrayList<>();
             int successCount = 0;
             int failureCount = 0;
             
-            for (String ticketIdStr : ticketIds) {
-                try {
-                    UUID ticketId = UUID.fromString(ticketIdStr);
-                    Ticket ticket = ticketService.getTicketByIdDirect(ticketId);
-                    
-                    if (ticket == null) {
-                        results.add(Map.of(
-                            "ticketId", ticketIdStr,
-                            "success", false,
-                            "message", "Ticket not found"
-                        ));
-                        failureCount++;
-                        continue;
-                    }
+            // Resolve the operation once; the same change is applied to every ticket
+            Function<Ticket, String> update;
+            switch (operation) {
+                case "UPDATE_STATUS":
+                    TicketStatus status = EnumResolver.TICKET_STATUSES.resolve(newStatus);
+                    update = ticket -> {
+                        if (status == null) {
+                            return "Invalid status: " + newStatus;
+                        }
+                        ticket.setStatus(status);
+                        return null;
+                    };
+                    break;
                     
-                    boolean updated = false;
+                case "ASSIGN":
+                    UUID assigneeUuid = UUID.fromString(assigneeId);
+                    UserSummary assignee = userService.getUserSummary(assigneeUuid);
+                    boolean validAssignee = assignee != null && assignee.getRole() == UserRole.STAFF;
+                    update = ticket -> {
+                        if (!validAssignee) {
+                            return "Invalid assignee";
+                        }
+                        // Only the foreign key is written; chunks clear the persistence context
+                        ticket.setAssignedTo(ticketService.getUserReference(assigneeUuid));
+                        ticket.setStatus(TicketStatus.ASSIGNED);
+                        return null;
+                    };
+                    break;
                     
-                    // Perform the requested operation
-                    switch (operation) {
-                        case "UPDATE_STATUS":
-                            if (newStatus != null) {
-                                try {
-                                    TicketStatus status = TicketStatus.valueOf(newStatus);
-                                    ticket.setStatus(status);
-                                    updated = true;
-                                } catch (IllegalArgumentException e) {
-                                    results.add(Map.of(
-                                        "ticketId", ticketIdStr,
-                                        "success", false,
-                                        "message", "Invalid status: " + newStatus
-                                    ));
-                                    failureCount++;
-                                    continue;
-                                }
-                            }
-                            break;
-                            
-                        case "ASSIGN":
-                            if (assigneeId != null) {
-                                User assignee = userService.getUserByIdDirect(UUID.fromString(assigneeId));
-                                if (assignee != null && assignee.getRole() == UserRole.STAFF) {
-                                    ticket.setAssignedTo(assignee);
-                                    ticket.setStatus(TicketStatus.ASSIGNED);
-                                    updated = true;
-                                } else {
-                                    results.add(Map.of(
-                                        "ticketId", ticketIdStr,
-                                        "success", false,
-                                        "message", "Invalid assignee"
-                                    ));
-                                    failureCount++;
-                                    continue;
-                                }
-                            }
-                            break;
-                            
-                        case "UPDATE_PRIORITY":
-                            if (newPriority != null) {
-                                try {
-                                    TicketPriority priority = TicketPriority.valueOf(newPriority);
-                                    ticket.setPriority(priority);
-                                    updated = true;
-                                } catch (IllegalArgumentException e) {
-                                    results.add(Map.of(
-                                        "ticketId", ticketIdStr,
-                                        "success", false,
-                                        "message", "Invalid priority: " + newPriority
-                                    ));
-                                    failureCount++;
-                                    continue;
-                                }
-                            }
-                            break;
-                            
-                        case "UNASSIGN":
-                            ticket.setAssignedTo(null);
-                            ticket.setStatus(TicketStatus.OPEN);
-                            updated = true;
-                            break;
-                            
-                        default:
-                            results.add(Map.of(
-                                "ticketId", ticketIdStr,
-                                "success", false,
-                                "message", "Unknown operation: " + operation
-                            ));
-                            failureCount++;
-                            continue;
-                    }
+                case "UPDATE_PRIORITY":
+                    TicketPriority priority = EnumResolver.TICKET_PRIORITIES.resolve(newPriority);
+                    update = ticket -> {
+                        if (priority == null) {
+                            return "Invalid priority: " + newPriority;
+                        }
+                        ticket.setPriority(priority);
+                        return null;
+                    };
+                    break;
                     
-                    if (updated) {
-                        ticket.setUpdatedAt(LocalDateTime.now());
-                        ticketRepository.save(ticket);
-                        
-                        results.add(Map.of(
-                            "ticketId", ticketIdStr,
-                            "success", true,
-                            "message", "Updated successfully"
-                        ));
-                        successCount++;
-                    }
+                case "UNASSIGN":
+                    update = ticket -> {
+                        ticket.setAssignedTo(null);
+                        ticket.setStatus(TicketStatus.OPEN);
+                        return null;
+                    };
+                    break;
                     
-                } catch (Exception e) {
+                default:
+                    update = ticket -> "Unknown operation: " + operation;
+            }
+            
+            List<UUID> validIds = new ArrayList<>();
+            for (String ticketIdStr : ticketIds) {
+                try {
+                    validIds.add(UUID.fromString(ticketIdStr));
+                } catch (IllegalArgumentException e) {
                     results.add(Map.of(
                         "ticketId", ticketIdStr,
                         "success", false,
@@ -1065,6 +1248,22 @@ public class TicketController {
                 }
             }
             
+            // Tickets are loaded and written in chunks so the UPDATEs go out as JDBC batches
+            Map<UUID, String> outcomes = ticketService.bulkUpdateTickets(validIds, adminId, update);
+            for (Map.Entry<UUID, String> outcome : outcomes.entrySet()) {
+                boolean success = outcome.getValue() == null;
+                results.add(Map.of(
+                    "ticketId", outcome.getKey().toString(),
+                    "success", success,
+                    "message", success ? "Updated successfully" : outcome.getValue()
+                ));
+                if (success) {
+                    successCount++;
+                } else {
+                    failureCount++;
+                }
+            }
+            
             Map<String, Object> response = new HashMap<>();
             response.put("operation", operation);
             response.put("totalTickets", ticketIds.size());
@@ -1074,6 +1273,8 @@ public class TicketController {
             
             return ResponseEntity.ok(response);
             
+        } catch (AccessDeniedException e) {
+            return forbidden(e.getMessage());
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
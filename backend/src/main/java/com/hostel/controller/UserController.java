@@ -1,9 +1,15 @@
 package com.hostel.controller;
 
+import com.hostel.dto.DTOMapper;
 import com.hostel.entity.User;
 import com.hostel.entity.UserRole;
+import com.hostel.service.JwtService;
+import com.hostel.service.LoginThrottleService;
 import com.hostel.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -11,6 +17,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.HashMap;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/users")
@@ -19,6 +26,12 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private LoginThrottleService loginThrottleService;
+
     // Get all users
     @GetMapping
     public ResponseEntity<List<User>> getAllUsers() {
@@ -98,7 +111,8 @@ public class UserController {
 
     // Authenticate user (supports both email and username)
     @PostMapping("/authenticate")
-    public ResponseEntity<Map<String, Object>> authenticateUser(@RequestBody Map<String, String> credentials) {
+    public ResponseEntity<Map<String, Object>> authenticateUser(@RequestBody Map<String, String> credentials,
+                                                                HttpServletRequest request) {
         // Support both "email" and "usernameOrEmail" field names for flexibility
         String usernameOrEmail = credentials.get("email");
         if (usernameOrEmail == null) {
@@ -113,13 +127,27 @@ public class UserController {
             return ResponseEntity.badRequest().body(response);
         }
         
-        boolean isAuthenticated = userService.authenticateUserByUsernameOrEmail(usernameOrEmail, password);
+        // Throttle before any BCrypt work so floods are rejected cheaply
+        long retryAfterSeconds = loginThrottleService.tryAcquire(usernameOrEmail, request.getRemoteAddr());
+        if (retryAfterSeconds > 0) {
+            return tooManyLoginAttempts("Too many login attempts, please try again later", retryAfterSeconds);
+        }
+        
+        boolean isAuthenticated;
+        try {
+            isAuthenticated = userService.authenticateUserByUsernameOrEmail(usernameOrEmail, password);
+        } catch (RejectedExecutionException e) {
+            return tooManyLoginAttempts("Login service is busy, please try again shortly", 1);
+        }
         
         if (isAuthenticated) {
             User user = userService.getCurrentUserByUsernameOrEmail(usernameOrEmail);
             Map<String, Object> response = new HashMap<>();
             response.put("authenticated", true);
             response.put("user", user);
+            response.put("token", jwtService.generateToken(DTOMapper.toUserSummary(user)));
+            response.put("tokenType", "Bearer");
+            response.put("expiresIn", jwtService.getExpirationMillis() / 1000);
             response.put("message", "Authentication successful");
             return ResponseEntity.ok(response);
         } else {
@@ -130,6 +158,15 @@ public class UserController {
         }
     }
 
+    private ResponseEntity<Map<String, Object>> tooManyLoginAttempts(String message, long retryAfterSeconds) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("authenticated", false);
+        response.put("message", message);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(response);
+    }
+
     // Get current user profile
     @GetMapping("/profile/{email}")
     public ResponseEntity<User> getCurrentUser(@PathVariable String email) {
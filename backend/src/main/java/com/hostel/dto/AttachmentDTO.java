@@ -0,0 +1,34 @@
+package com.hostel.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Attachment metadata for listings; the file itself is served by AttachmentController.
+ */
+public class AttachmentDTO {
+
+    private final UUID id;
+    private final String originalFilename;
+    private final Long fileSize;
+    private final String mimeType;
+    private final UUID uploadedById;
+    private final LocalDateTime createdAt;
+
+    public AttachmentDTO(UUID id, String originalFilename, Long fileSize, String mimeType,
+                         UUID uploadedById, LocalDateTime createdAt) {
+        this.id = id;
+        this.originalFilename = originalFilename;
+        this.fileSize = fileSize;
+        this.mimeType = mimeType;
+        this.uploadedById = uploadedById;
+        this.createdAt = createdAt;
+    }
+
+    public UUID getId() { return id; }
+    public String getOriginalFilename() { return originalFilename; }
+    public Long getFileSize() { return fileSize; }
+    public String getMimeType() { return mimeType; }
+    public UUID getUploadedById() { return uploadedById; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -1,5 +1,7 @@
 package com.hostel.dto;
 
+import com.hostel.entity.CategoryStaffMapping;
+import com.hostel.entity.HostelBlock;
 import com.hostel.entity.Ticket;
 import com.hostel.entity.User;
 
@@ -27,12 +29,65 @@ public class DTOMapper {
         );
     }
 
+    public static UserSummary toUserSummary(User user) {
+        if (user == null) {
+            return null;
+        }
+        
+        UserSummary summary = new UserSummary(
+            user.getId(),
+            user.getRole(),
+            user.getStaffVertical(),
+            user.getHostelBlock(),
+            user.getIsActive() != null ? user.getIsActive() : true
+        );
+        summary.setFirstName(user.getFirstName());
+        summary.setLastName(user.getLastName());
+        return summary;
+    }
+
+    public static StaffMappingSummary toStaffMappingSummary(CategoryStaffMapping mapping) {
+        if (mapping == null) {
+            return null;
+        }
+
+        StaffMappingSummary summary = new StaffMappingSummary();
+        summary.setId(mapping.getId());
+        summary.setStaffId(mapping.getStaff().getId());
+        summary.setStaffName(mapping.getStaff().getFirstName() + " " + mapping.getStaff().getLastName());
+        summary.setStaffUsername(mapping.getStaff().getUsername());
+        summary.setHostelBlock(mapping.getHostelBlockString());
+        summary.setCategory(mapping.getCategory());
+        summary.setPriorityLevel(mapping.getPriorityLevel());
+        summary.setCapacityWeight(mapping.getCapacityWeight());
+        summary.setExpertiseLevel(mapping.getExpertiseLevel());
+        summary.setIsActive(mapping.getIsActive());
+        summary.setCreatedAt(mapping.getCreatedAt());
+        summary.setUpdatedAt(mapping.getUpdatedAt());
+        return summary;
+    }
+
+    public static HostelBlockSummary toHostelBlockSummary(HostelBlock block) {
+        if (block == null) {
+            return null;
+        }
+
+        return new HostelBlockSummary(
+            block.getId(),
+            block.getBlockName(),
+            block.getBlockCode(),
+            block.getTotalFloors(),
+            block.getTotalRooms(),
+            block.getIsFemaleBlock()
+        );
+    }
+
     public static TicketDTO toTicketDTO(Ticket ticket) {
         if (ticket == null) {
             return null;
         }
         
-        return new TicketDTO(
+        TicketDTO dto = new TicketDTO(
             ticket.getId().toString(),
             ticket.getTicketNumber(),
             ticket.getTitle(),
@@ -49,5 +104,7 @@ public class DTOMapper {
             ticket.getUpdatedAt(),
             ticket.getResolvedAt()
         );
+        dto.setVersion(ticket.getVersion());
+        return dto;
     }
 }
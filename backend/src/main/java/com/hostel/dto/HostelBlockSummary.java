@@ -0,0 +1,52 @@
+package com.hostel.dto;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Cacheable, detached view of a hostel block.
+ */
+public class HostelBlockSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private UUID id;
+    private String blockName;
+    private String blockCode;
+    private Integer totalFloors;
+    private Integer totalRooms;
+    private Boolean isFemaleBlock;
+
+    // Default constructor
+    public HostelBlockSummary() {}
+
+    // Constructor with all fields
+    public HostelBlockSummary(UUID id, String blockName, String blockCode,
+                              Integer totalFloors, Integer totalRooms, Boolean isFemaleBlock) {
+        this.id = id;
+        this.blockName = blockName;
+        this.blockCode = blockCode;
+        this.totalFloors = totalFloors;
+        this.totalRooms = totalRooms;
+        this.isFemaleBlock = isFemaleBlock;
+    }
+
+    // Getters and Setters
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public String getBlockName() { return blockName; }
+    public void setBlockName(String blockName) { this.blockName = blockName; }
+
+    public String getBlockCode() { return blockCode; }
+    public void setBlockCode(String blockCode) { this.blockCode = blockCode; }
+
+    public Integer getTotalFloors() { return totalFloors; }
+    public void setTotalFloors(Integer totalFloors) { this.totalFloors = totalFloors; }
+
+    public Integer getTotalRooms() { return totalRooms; }
+    public void setTotalRooms(Integer totalRooms) { this.totalRooms = totalRooms; }
+
+    public Boolean getIsFemaleBlock() { return isFemaleBlock; }
+    public void setIsFemaleBlock(Boolean isFemaleBlock) { this.isFemaleBlock = isFemaleBlock; }
+}
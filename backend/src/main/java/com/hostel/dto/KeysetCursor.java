@@ -0,0 +1,46 @@
+package com.hostel.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the last row of a page ordered by (timestamp, id). Clients get it as an opaque
+ * URL-safe token and send it back for the next page, which then starts with a range seek on
+ * the (ticket_id, timestamp, id) index instead of skipping the rows before it.
+ */
+public class KeysetCursor {
+
+    private final LocalDateTime at;
+    private final UUID id;
+
+    public KeysetCursor(LocalDateTime at, UUID id) {
+        this.at = at;
+        this.id = id;
+    }
+
+    public LocalDateTime getAt() { return at; }
+    public UUID getId() { return id; }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((at + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse a token produced by encode(); anything else is rejected with IllegalArgumentException
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length == 2) {
+                return new KeysetCursor(LocalDateTime.parse(parts[0]), UUID.fromString(parts[1]));
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+}
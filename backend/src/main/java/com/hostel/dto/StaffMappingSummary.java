@@ -0,0 +1,67 @@
+package com.hostel.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Cacheable, detached view of a category-staff mapping including the staff display fields.
+ */
+public class StaffMappingSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private UUID id;
+    private UUID staffId;
+    private String staffName;
+    private String staffUsername;
+    private String hostelBlock;
+    private String category;
+    private Integer priorityLevel;
+    private BigDecimal capacityWeight;
+    private Integer expertiseLevel;
+    private Boolean isActive;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    // Default constructor
+    public StaffMappingSummary() {}
+
+    // Getters and Setters
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public UUID getStaffId() { return staffId; }
+    public void setStaffId(UUID staffId) { this.staffId = staffId; }
+
+    public String getStaffName() { return staffName; }
+    public void setStaffName(String staffName) { this.staffName = staffName; }
+
+    public String getStaffUsername() { return staffUsername; }
+    public void setStaffUsername(String staffUsername) { this.staffUsername = staffUsername; }
+
+    public String getHostelBlock() { return hostelBlock; }
+    public void setHostelBlock(String hostelBlock) { this.hostelBlock = hostelBlock; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public Integer getPriorityLevel() { return priorityLevel; }
+    public void setPriorityLevel(Integer priorityLevel) { this.priorityLevel = priorityLevel; }
+
+    public BigDecimal getCapacityWeight() { return capacityWeight; }
+    public void setCapacityWeight(BigDecimal capacityWeight) { this.capacityWeight = capacityWeight; }
+
+    public Integer getExpertiseLevel() { return expertiseLevel; }
+    public void setExpertiseLevel(Integer expertiseLevel) { this.expertiseLevel = expertiseLevel; }
+
+    public Boolean getIsActive() { return isActive; }
+    public void setIsActive(Boolean isActive) { this.isActive = isActive; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,40 @@
+package com.hostel.dto;
+
+import com.hostel.entity.TicketStatus;
+
+import java.util.UUID;
+
+/**
+ * The few ticket columns access control needs, read without loading the Ticket entity.
+ */
+public class TicketAccess {
+
+    private final UUID ticketId;
+    private final UUID createdById;
+    private final UUID assignedToId;
+    private final TicketStatus status;
+
+    public TicketAccess(UUID ticketId, UUID createdById, UUID assignedToId, TicketStatus status) {
+        this.ticketId = ticketId;
+        this.createdById = createdById;
+        this.assignedToId = assignedToId;
+        this.status = status;
+    }
+
+    public UUID getTicketId() { return ticketId; }
+    public UUID getCreatedById() { return createdById; }
+    public UUID getAssignedToId() { return assignedToId; }
+    public TicketStatus getStatus() { return status; }
+
+    public boolean isCreatedBy(UUID userId) {
+        return createdById != null && createdById.equals(userId);
+    }
+
+    public boolean isAssignedTo(UUID userId) {
+        return assignedToId != null && assignedToId.equals(userId);
+    }
+
+    public boolean isUnassigned() {
+        return assignedToId == null;
+    }
+}
@@ -0,0 +1,53 @@
+package com.hostel.dto;
+
+import com.hostel.entity.UserRole;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One ticket comment with its author, read without loading the ticket or the user entity.
+ */
+public class TicketCommentDTO {
+
+    private final UUID id;
+    private final String comment;
+    private final boolean isInternal;
+    private final Author author;
+    private final LocalDateTime createdAt;
+
+    public TicketCommentDTO(UUID id, String comment, Boolean isInternal,
+                            UUID authorId, String authorFirstName, String authorLastName, UserRole authorRole,
+                            LocalDateTime createdAt) {
+        this.id = id;
+        this.comment = comment;
+        this.isInternal = Boolean.TRUE.equals(isInternal);
+        this.author = new Author(authorId, authorFirstName, authorLastName, authorRole);
+        this.createdAt = createdAt;
+    }
+
+    public UUID getId() { return id; }
+    public String getComment() { return comment; }
+    public boolean getIsInternal() { return isInternal; }
+    public Author getAuthor() { return author; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public static class Author {
+        private final UUID id;
+        private final String firstName;
+        private final String lastName;
+        private final UserRole role;
+
+        public Author(UUID id, String firstName, String lastName, UserRole role) {
+            this.id = id;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.role = role;
+        }
+
+        public UUID getId() { return id; }
+        public String getFirstName() { return firstName; }
+        public String getLastName() { return lastName; }
+        public UserRole getRole() { return role; }
+    }
+}
@@ -22,6 +22,10 @@ public class TicketDTO {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private LocalDateTime resolvedAt;
+    // Optimistic-locking version; send it back on updates to detect concurrent changes
+    private Long version;
+    // True when read from the archive tables (read-only history)
+    private boolean archived;
 
     // Default constructor
     public TicketDTO() {}
@@ -94,4 +98,10 @@ public class TicketDTO {
 
     public LocalDateTime getResolvedAt() { return resolvedAt; }
     public void setResolvedAt(LocalDateTime resolvedAt) { this.resolvedAt = resolvedAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public boolean isArchived() { return archived; }
+    public void setArchived(boolean archived) { this.archived = archived; }
 }
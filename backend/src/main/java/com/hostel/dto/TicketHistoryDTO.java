@@ -0,0 +1,51 @@
+package com.hostel.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One ticket history entry with the user who made the change.
+ */
+public class TicketHistoryDTO {
+
+    private final UUID id;
+    private final String fieldName;
+    private final String oldValue;
+    private final String newValue;
+    private final ChangedBy changedBy;
+    private final LocalDateTime changedAt;
+
+    public TicketHistoryDTO(UUID id, String fieldName, String oldValue, String newValue,
+                            UUID changedById, String changedByFirstName, String changedByLastName,
+                            LocalDateTime changedAt) {
+        this.id = id;
+        this.fieldName = fieldName;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+        this.changedBy = new ChangedBy(changedById, changedByFirstName, changedByLastName);
+        this.changedAt = changedAt;
+    }
+
+    public UUID getId() { return id; }
+    public String getFieldName() { return fieldName; }
+    public String getOldValue() { return oldValue; }
+    public String getNewValue() { return newValue; }
+    public ChangedBy getChangedBy() { return changedBy; }
+    public LocalDateTime getChangedAt() { return changedAt; }
+
+    public static class ChangedBy {
+        private final UUID id;
+        private final String firstName;
+        private final String lastName;
+
+        public ChangedBy(UUID id, String firstName, String lastName) {
+            this.id = id;
+            this.firstName = firstName;
+            this.lastName = lastName;
+        }
+
+        public UUID getId() { return id; }
+        public String getFirstName() { return firstName; }
+        public String getLastName() { return lastName; }
+    }
+}
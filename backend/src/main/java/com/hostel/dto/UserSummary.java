@@ -0,0 +1,84 @@
+package com.hostel.dto;
+
+import com.hostel.entity.HostelName;
+import com.hostel.entity.StaffVertical;
+import com.hostel.entity.UserRole;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Minimal, cacheable view of a user holding only what permission checks need.
+ */
+public class UserSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private UUID id;
+    private UserRole role;
+    private StaffVertical staffVertical;
+    private HostelName hostelBlock;
+    private boolean isActive;
+    // Display name, for responses that show who did something (comment authors)
+    private String firstName;
+    private String lastName;
+
+    // Default constructor
+    public UserSummary() {}
+
+    // Constructor with all fields
+    public UserSummary(UUID id, UserRole role, StaffVertical staffVertical,
+                       HostelName hostelBlock, boolean isActive) {
+        this.id = id;
+        this.role = role;
+        this.staffVertical = staffVertical;
+        this.hostelBlock = hostelBlock;
+        this.isActive = isActive;
+    }
+
+    // Getters and Setters
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public UserRole getRole() { return role; }
+    public void setRole(UserRole role) { this.role = role; }
+
+    public StaffVertical getStaffVertical() { return staffVertical; }
+    public void setStaffVertical(StaffVertical staffVertical) { this.staffVertical = staffVertical; }
+
+    public HostelName getHostelBlock() { return hostelBlock; }
+    public void setHostelBlock(HostelName hostelBlock) { this.hostelBlock = hostelBlock; }
+
+    public boolean getIsActive() { return isActive; }
+    public void setIsActive(boolean isActive) { this.isActive = isActive; }
+
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+
+    // Utility methods
+    public boolean isStudent() {
+        return role == UserRole.STUDENT;
+    }
+
+    public boolean isStaff() {
+        return role == UserRole.STAFF;
+    }
+
+    public boolean isAdmin() {
+        return role == UserRole.ADMIN;
+    }
+
+    @Override
+    public String toString() {
+        return "UserSummary{" +
+                "id=" + id +
+                ", role=" + role +
+                ", staffVertical=" + staffVertical +
+                ", hostelBlock=" + hostelBlock +
+                ", isActive=" + isActive +
+                '}';
+    }
+}
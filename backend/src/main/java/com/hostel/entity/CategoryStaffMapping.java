@@ -1,6 +1,8 @@
 package com.hostel.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -14,6 +16,8 @@ import java.util.UUID;
 @Entity
 @Table(name = "category_staff_mappings", 
        uniqueConstraints = @UniqueConstraint(columnNames = {"staff_id", "hostel_block", "category"}))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category_staff_mappings")
 public class CategoryStaffMapping {
 
     @Id
@@ -24,8 +28,8 @@ public class CategoryStaffMapping {
     @JoinColumn(name = "staff_id", nullable = false)
     private User staff;
 
-    @Enumerated(EnumType.STRING)
-    @Column(name = "hostel_block", length = 50)
+    @Convert(converter = HostelNameConverter.class)
+    @Column(name = "hostel_block")
     private HostelName hostelBlock; // NULL means all blocks
 
     @Column(nullable = false, length = 100)
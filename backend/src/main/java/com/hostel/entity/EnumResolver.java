@@ -0,0 +1,157 @@
+package com.hostel.entity;
+
+import java.lang.reflect.Array;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Looks up an enum constant by any of its names (constant name, display name, code...),
+ * ignoring case and everything but letters and digits, so "BLOCK_A", "Block A" and "blk-a"
+ * all resolve to HostelName.BLOCK_A. Each table is built once, when this class is loaded,
+ * and never changes. Lookups normalize while hashing and comparing, so they allocate
+ * nothing, and a miss returns null instead of throwing.
+ */
+public final class EnumResolver<E extends Enum<E>> {
+
+    public static final EnumResolver<HostelName> HOSTEL_NAMES = new EnumResolver<>(HostelName.class,
+            hostel -> List.of(hostel.name(), hostel.getDisplayName(), hostel.getFullName(), hostel.getCode()));
+
+    public static final EnumResolver<TicketCategory> TICKET_CATEGORIES = new EnumResolver<>(TicketCategory.class,
+            category -> List.of(category.name(), category.getDisplayName()));
+
+    public static final EnumResolver<TicketStatus> TICKET_STATUSES = new EnumResolver<>(TicketStatus.class,
+            status -> List.of(status.name(), status.getDisplayName()));
+
+    public static final EnumResolver<TicketPriority> TICKET_PRIORITIES = new EnumResolver<>(TicketPriority.class,
+            priority -> List.of(priority.name(), priority.getDisplayName()));
+
+    private final Class<E> type;
+
+    // Open addressing with linear probing; keys are normalized aliases
+    private final String[] keys;
+    private final E[] values;
+    private final int mask;
+
+    private EnumResolver(Class<E> type, Function<E, List<String>> aliases) {
+        this.type = type;
+        Map<String, E> byAlias = new HashMap<>();
+        for (E constant : type.getEnumConstants()) {
+            for (String alias : aliases.apply(constant)) {
+                String key = normalize(alias);
+                if (key.isEmpty()) {
+                    continue;
+                }
+                E previous = byAlias.putIfAbsent(key, constant);
+                if (previous != null && previous != constant) {
+                    throw new IllegalStateException(type.getSimpleName() + " alias '" + alias
+                            + "' matches both " + previous + " and " + constant);
+                }
+            }
+        }
+        // At most a quarter full, so a probe rarely looks past its first slot
+        int capacity = Integer.highestOneBit(Math.max(byAlias.size(), 1) * 4 - 1) << 1;
+        this.keys = new String[capacity];
+        @SuppressWarnings("unchecked")
+        E[] table = (E[]) Array.newInstance(type, capacity);
+        this.values = table;
+        this.mask = capacity - 1;
+        for (Map.Entry<String, E> entry : byAlias.entrySet()) {
+            int slot = spread(hash(entry.getKey())) & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = entry.getKey();
+            values[slot] = entry.getValue();
+        }
+    }
+
+    /**
+     * The constant named by text, or null when text is null, blank or unknown
+     */
+    public E resolve(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        int hash = hash(text);
+        if (hash == 0 && !hasAlphanumeric(text)) {
+            return null;
+        }
+        for (int slot = spread(hash) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+            if (matches(keys[slot], text)) {
+                return values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Like resolve, but the constant named by text or defaultValue when there is none
+     */
+    public E resolve(CharSequence text, E defaultValue) {
+        E value = resolve(text);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Like resolve, but unknown non-blank text is an IllegalArgumentException
+     */
+    public E require(CharSequence text) {
+        E value = resolve(text);
+        if (value == null && text != null && hasAlphanumeric(text)) {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName() + ": " + text);
+        }
+        return value;
+    }
+
+    private static int hash(CharSequence text) {
+        int hash = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                hash = 31 * hash + Character.toUpperCase(c);
+            }
+        }
+        return hash;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String key, CharSequence text) {
+        int j = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                continue;
+            }
+            if (j == key.length() || key.charAt(j) != Character.toUpperCase(c)) {
+                return false;
+            }
+            j++;
+        }
+        return j == key.length();
+    }
+
+    private static boolean hasAlphanumeric(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isLetterOrDigit(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(String alias) {
+        StringBuilder key = new StringBuilder(alias.length());
+        for (int i = 0; i < alias.length(); i++) {
+            char c = alias.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                key.append(Character.toUpperCase(c));
+            }
+        }
+        return key.toString();
+    }
+}
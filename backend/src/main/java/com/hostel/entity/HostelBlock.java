@@ -5,6 +5,8 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -21,6 +23,8 @@ import java.util.UUID;
     @Index(name = "idx_hostel_blocks_is_active", columnList = "is_active"),
     @Index(name = "idx_hostel_blocks_is_female", columnList = "is_female_block")
 })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "hostel_blocks")
 public class HostelBlock {
     
     @Id
@@ -35,6 +39,11 @@ public class HostelBlock {
     @Column(name = "block_code", nullable = false, unique = true, length = 10)
     private String blockCode;
     
+    // The HostelName with this block code; users and tickets are joined on it
+    @Convert(converter = HostelNameConverter.class)
+    @Column(name = "hostel_name")
+    private HostelName hostelName;
+    
     @NotNull(message = "Total floors is required")
     @Positive(message = "Total floors must be positive")
     @Column(name = "total_floors", nullable = false)
@@ -78,7 +87,7 @@ public class HostelBlock {
     public HostelBlock(String blockName, String blockCode, Integer totalFloors, 
                       Integer roomsPerFloor, Boolean isFemaleBlock) {
         this.blockName = blockName;
-        this.blockCode = blockCode;
+        setBlockCode(blockCode);
         this.totalFloors = totalFloors;
         this.roomsPerFloor = roomsPerFloor;
         this.totalRooms = totalFloors * roomsPerFloor;
@@ -108,6 +117,11 @@ public class HostelBlock {
     
     public void setBlockCode(String blockCode) {
         this.blockCode = blockCode;
+        this.hostelName = EnumResolver.HOSTEL_NAMES.resolve(blockCode);
+    }
+    
+    public HostelName getHostelName() {
+        return hostelName;
     }
     
     public Integer getTotalFloors() {
@@ -6,27 +6,48 @@ package com.hostel.entity;
  */
 public enum HostelName {
     
-    BLOCK_A("Block A", "BLK-A", "Hostel Block A", false),
-    BLOCK_B("Block B", "BLK-B", "Hostel Block B", false),
-    BLOCK_C("Block C", "BLK-C", "Hostel Block C", false),
-    BLOCK_D("Block D", "BLK-D", "Hostel Block D", false),
-    BLOCK_E("Block E", "BLK-E", "Hostel Block E", false),
-    BLOCK_F("Block F", "BLK-F", "Hostel Block F", false),
-    BLOCK_G("Block G", "BLK-G", "Hostel Block G", true),  // Female block
-    BLOCK_H("Block H", "BLK-H", "Hostel Block H", true);  // Female block
+    BLOCK_A(1, "Block A", "BLK-A", "Hostel Block A", false),
+    BLOCK_B(2, "Block B", "BLK-B", "Hostel Block B", false),
+    BLOCK_C(3, "Block C", "BLK-C", "Hostel Block C", false),
+    BLOCK_D(4, "Block D", "BLK-D", "Hostel Block D", false),
+    BLOCK_E(5, "Block E", "BLK-E", "Hostel Block E", false),
+    BLOCK_F(6, "Block F", "BLK-F", "Hostel Block F", false),
+    BLOCK_G(7, "Block G", "BLK-G", "Hostel Block G", true),  // Female block
+    BLOCK_H(8, "Block H", "BLK-H", "Hostel Block H", true);  // Female block
     
+    // id -> hostel; ids are what the hostel_block columns store
+    private static final HostelName[] BY_ID;
+    
+    static {
+        int max = 0;
+        for (HostelName hostel : values()) {
+            max = Math.max(max, hostel.id);
+        }
+        BY_ID = new HostelName[max + 1];
+        for (HostelName hostel : values()) {
+            BY_ID[hostel.id] = hostel;
+        }
+    }
+    
+    // Stored in the database (db/migration/V7); never renumber or reuse an id
+    private final short id;
     private final String displayName;
     private final String code;
     private final String fullName;
     private final boolean isFemaleBlock;
     
-    HostelName(String displayName, String code, String fullName, boolean isFemaleBlock) {
+    HostelName(int id, String displayName, String code, String fullName, boolean isFemaleBlock) {
+        this.id = (short) id;
         this.displayName = displayName;
         this.code = code;
         this.fullName = fullName;
         this.isFemaleBlock = isFemaleBlock;
     }
     
+    public short getId() {
+        return id;
+    }
+    
     public String getDisplayName() {
         return displayName;
     }
@@ -47,6 +68,13 @@ public enum HostelName {
         return !isFemaleBlock;
     }
     
+    /**
+     * Get hostel by database id, or null if no hostel has that id
+     */
+    public static HostelName fromId(int id) {
+        return id > 0 && id < BY_ID.length ? BY_ID[id] : null;
+    }
+    
     /**
      * Get hostel by display name
      */
@@ -78,40 +106,18 @@ public enum HostelName {
     }
     
     /**
-     * Smart lookup that tries multiple matching strategies
+     * Lookup by enum name, display name, full name or code, ignoring case and separators.
+     * Returns null for a blank name and throws for an unknown one.
      */
     public static HostelName fromAnyName(String name) {
         if (name == null || name.trim().isEmpty()) {
             return null;
         }
-        
-        // Try exact enum name match first
-        try {
-            return HostelName.valueOf(name.toUpperCase().replace(" ", "_"));
-        } catch (IllegalArgumentException e) {
-            // Continue to other methods
-        }
-        
-        // Try display name match
-        try {
-            return fromDisplayName(name);
-        } catch (IllegalArgumentException e) {
-            // Continue to other methods
-        }
-        
-        // Try full name match
-        try {
-            return fromFullName(name);
-        } catch (IllegalArgumentException e) {
-            // Continue to other methods
-        }
-        
-        // Try code match
-        try {
-            return fromCode(name);
-        } catch (IllegalArgumentException e) {
+        HostelName hostel = EnumResolver.HOSTEL_NAMES.resolve(name);
+        if (hostel == null) {
             throw new IllegalArgumentException("Unknown hostel name: " + name);
         }
+        return hostel;
     }
     
     /**
@@ -126,6 +132,18 @@ public enum HostelName {
         throw new IllegalArgumentException("Unknown hostel code: " + code);
     }
     
+    /**
+     * Hostels whose display name, full name or code contains the text, ignoring case
+     */
+    public static java.util.List<HostelName> matching(String text) {
+        String needle = text == null ? "" : text.trim().toLowerCase();
+        return java.util.Arrays.stream(values())
+                .filter(hostel -> hostel.displayName.toLowerCase().contains(needle)
+                        || hostel.fullName.toLowerCase().contains(needle)
+                        || hostel.code.toLowerCase().contains(needle))
+                .toList();
+    }
+    
     /**
      * Get all male hostels
      */
@@ -2,33 +2,36 @@ package com.hostel.entity;
 
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * JPA Converter for HostelName enum to handle database string values
+ * JPA Converter storing HostelName as its smallint id (HostelName.getId), so block filters
+ * and joins compare integers. Names are parsed only where requests come in.
  */
 @Converter(autoApply = true)
-public class HostelNameConverter implements AttributeConverter<HostelName, String> {
+public class HostelNameConverter implements AttributeConverter<HostelName, Short> {
+
+    private static final Logger logger = LoggerFactory.getLogger(HostelNameConverter.class);
 
     @Override
-    public String convertToDatabaseColumn(HostelName hostelName) {
+    public Short convertToDatabaseColumn(HostelName hostelName) {
         if (hostelName == null) {
             return null;
         }
-        return hostelName.name(); // Use enum name for consistency with existing data
+        return hostelName.getId();
     }
 
     @Override
-    public HostelName convertToEntityAttribute(String dbData) {
-        if (dbData == null || dbData.trim().isEmpty()) {
+    public HostelName convertToEntityAttribute(Short dbData) {
+        if (dbData == null) {
             return null;
         }
-        
-        try {
-            return HostelName.fromAnyName(dbData);
-        } catch (IllegalArgumentException e) {
-            // Log the error but don't fail - return null for unknown values
-            System.err.println("Warning: Unknown hostel name in database: " + dbData);
-            return null;
+        HostelName hostelName = HostelName.fromId(dbData);
+        if (hostelName == null) {
+            // Don't fail the load - return null for unknown values
+            logger.warn("Unknown hostel id in database: {}", dbData);
         }
+        return hostelName;
     }
 }
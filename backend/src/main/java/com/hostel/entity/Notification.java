@@ -17,6 +17,9 @@ import java.util.UUID;
     @Index(name = "idx_notifications_user_id", columnList = "user_id"),
     @Index(name = "idx_notifications_is_read", columnList = "is_read"),
     @Index(name = "idx_notifications_created_at", columnList = "created_at"),
+    @Index(name = "idx_notifications_user_created", columnList = "user_id, created_at"),
+    @Index(name = "idx_notifications_user_is_read", columnList = "user_id, is_read"),
+    @Index(name = "idx_notifications_read_created", columnList = "is_read, created_at"),
     @Index(name = "idx_notifications_type", columnList = "type"),
     @Index(name = "idx_notifications_related_ticket", columnList = "related_ticket_id")
 })
@@ -24,14 +24,23 @@ import java.util.UUID;
     @Index(name = "idx_tickets_status", columnList = "status"),
     @Index(name = "idx_tickets_priority", columnList = "priority"),
     @Index(name = "idx_tickets_category_enum", columnList = "category_enum"),
-    @Index(name = "idx_tickets_created_by", columnList = "created_by"),
-    @Index(name = "idx_tickets_assigned_to", columnList = "assigned_to"),
     @Index(name = "idx_tickets_created_at", columnList = "created_at"),
     @Index(name = "idx_tickets_hostel_block", columnList = "hostel_block"),
-    @Index(name = "idx_tickets_room_number", columnList = "room_number")
+    @Index(name = "idx_tickets_room_number", columnList = "room_number"),
+    // Workload-aligned composites (db/migration/V2); partial SLA indexes live only in the migration
+    @Index(name = "idx_tickets_assigned_status", columnList = "assigned_to, status"),
+    @Index(name = "idx_tickets_status_priority_created", columnList = "status, priority, created_at"),
+    @Index(name = "idx_tickets_created_by_created", columnList = "created_by, created_at")
+})
+// Fetch plan for endpoints that map tickets to TicketDTO outside the transaction
+@NamedEntityGraph(name = Ticket.GRAPH_WITH_PEOPLE, attributeNodes = {
+    @NamedAttributeNode("createdBy"),
+    @NamedAttributeNode("assignedTo")
 })
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Ticket {
+
+    public static final String GRAPH_WITH_PEOPLE = "Ticket.withPeople";
     
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -83,11 +92,11 @@ public class Ticket {
     @Column(name = "room_number", length = 10)
     private String roomNumber;
     
-    @NotBlank(message = "Hostel block is required")
-    @Size(max = 50, message = "Hostel block name must not exceed 50 characters")
-    @Column(name = "hostel_block", length = 50, nullable = false)
-    @JsonProperty("building")
-    private String hostelBlock;
+    // Stored as HostelName id (smallint); the API reads and writes the display name
+    @NotNull(message = "Hostel block is required")
+    @Convert(converter = HostelNameConverter.class)
+    @Column(name = "hostel_block", nullable = false)
+    private HostelName hostelBlock;
     
     @Column(name = "floor_number")
     private Integer floorNumber;
@@ -132,6 +141,7 @@ public class Ticket {
     @Column(name = "is_recurring")
     private Boolean isRecurring = false;
     
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "parent_ticket_id")
     private Ticket parentTicket;
@@ -148,6 +158,11 @@ public class Ticket {
     
     @Column(columnDefinition = "TEXT")
     private String feedback;
+
+    // Optimistic locking: concurrent read-modify-write updates fail instead of overwriting
+    @Version
+    @Column(nullable = false)
+    private Long version;
     
     // Relationships
     @JsonIgnore
@@ -277,18 +292,26 @@ public class Ticket {
     
     @JsonProperty("building")
     public String getHostelBlock() {
-        return hostelBlock;
+        return hostelBlock != null ? hostelBlock.getDisplayName() : null;
     }
     
+    /**
+     * Set the block from any of its names, as sent by clients; unknown names are rejected
+     */
+    @JsonProperty("building")
     public void setHostelBlock(String hostelBlock) {
-        this.hostelBlock = hostelBlock;
+        this.hostelBlock = HostelName.fromAnyName(hostelBlock);
     }
     
     /**
      * Get hostel block as HostelName enum for assignment logic
      */
     public HostelName getHostelBlockEnum() {
-        return hostelBlock != null ? HostelName.fromAnyName(hostelBlock) : null;
+        return hostelBlock;
+    }
+    
+    public void setHostelBlockEnum(HostelName hostelBlock) {
+        this.hostelBlock = hostelBlock;
     }
     
     public Integer getFloorNumber() {
@@ -434,6 +457,14 @@ public class Ticket {
     public void setFeedback(String feedback) {
         this.feedback = feedback;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
     
     // Relationship getters
     public List<TicketComment> getComments() {
@@ -50,6 +50,10 @@ public class TicketAttachment {
     @Column(name = "mime_type", length = 100)
     private String mimeType;
     
+    // SHA-256 of the content; filePath then points at the shared blob (AttachmentBlobStore)
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
     @NotNull(message = "Uploaded by is required")
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "uploaded_by", nullable = false)
@@ -130,6 +134,14 @@ public class TicketAttachment {
         this.mimeType = mimeType;
     }
     
+    public String getContentHash() {
+        return contentHash;
+    }
+    
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+    
     public User getUploadedBy() {
         return uploadedBy;
     }
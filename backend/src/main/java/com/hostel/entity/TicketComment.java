@@ -14,7 +14,7 @@ import java.util.UUID;
  */
 @Entity
 @Table(name = "ticket_comments", indexes = {
-    @Index(name = "idx_comments_ticket_id", columnList = "ticket_id"),
+    @Index(name = "idx_comments_ticket_created", columnList = "ticket_id, created_at, id"),
     @Index(name = "idx_comments_created_at", columnList = "created_at"),
     @Index(name = "idx_comments_user_id", columnList = "user_id")
 })
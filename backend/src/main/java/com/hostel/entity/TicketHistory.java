@@ -11,10 +11,11 @@ import java.util.UUID;
 /**
  * TicketHistory entity representing the audit trail of changes made to tickets.
  * Tracks all field modifications for compliance and debugging purposes.
+ * Rows are appended by TicketEventLog and never updated.
  */
 @Entity
 @Table(name = "ticket_history", indexes = {
-    @Index(name = "idx_history_ticket_id", columnList = "ticket_id"),
+    @Index(name = "idx_history_ticket_changed", columnList = "ticket_id, changed_at, id"),
     @Index(name = "idx_history_changed_by", columnList = "changed_by"),
     @Index(name = "idx_history_changed_at", columnList = "changed_at"),
     @Index(name = "idx_history_field_name", columnList = "field_name")
@@ -40,9 +41,9 @@ public class TicketHistory {
     @Column(name = "new_value", columnDefinition = "TEXT")
     private String newValue;
     
-    @NotNull(message = "Changed by is required")
+    // Null for changes made by system jobs such as escalation
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "changed_by", nullable = false)
+    @JoinColumn(name = "changed_by")
     private User changedBy;
     
     @CreationTimestamp
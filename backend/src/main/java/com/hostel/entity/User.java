@@ -6,6 +6,8 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -27,6 +29,10 @@ import java.util.UUID;
     @Index(name = "idx_users_room_number", columnList = "room_number")
 })
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+// Read as Ticket.createdBy / assignedTo on most requests. The region is per node: changes are
+// broadcast by EntityCacheInvalidator and its short TTL bounds a missed invalidation
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 public class User {
     
     @Id
@@ -78,7 +84,7 @@ public class User {
     private String roomNumber;
     
     @Convert(converter = HostelNameConverter.class)
-    @Column(name = "hostel_block", length = 50)
+    @Column(name = "hostel_block")
     private HostelName hostelBlock;
     
     @Column(name = "floor_number")
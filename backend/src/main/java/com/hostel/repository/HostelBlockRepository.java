@@ -64,7 +64,7 @@ public interface HostelBlockRepository extends JpaRepository<HostelBlock, UUID>
      * Get occupancy statistics
      */
     @Query("SELECT hb.blockName, hb.totalRooms, COUNT(u.id) as occupiedRooms " +
-           "FROM HostelBlock hb LEFT JOIN User u ON u.hostelBlock = hb.blockName AND u.isActive = true " +
+           "FROM HostelBlock hb LEFT JOIN User u ON u.hostelBlock = hb.hostelName AND u.isActive = true " +
            "WHERE hb.isActive = true " +
            "GROUP BY hb.id, hb.blockName, hb.totalRooms " +
            "ORDER BY hb.blockName")
@@ -74,7 +74,7 @@ public interface HostelBlockRepository extends JpaRepository<HostelBlock, UUID>
      * Find blocks with available rooms
      */
     @Query("SELECT hb FROM HostelBlock hb WHERE hb.isActive = true AND " +
-           "hb.totalRooms > (SELECT COUNT(u) FROM User u WHERE u.hostelBlock = hb.blockName AND u.isActive = true)")
+           "hb.totalRooms > (SELECT COUNT(u) FROM User u WHERE u.hostelBlock = hb.hostelName AND u.isActive = true)")
     List<HostelBlock> findBlocksWithAvailableRooms();
     
     /**
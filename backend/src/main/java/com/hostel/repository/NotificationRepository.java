@@ -0,0 +1,60 @@
+package com.hostel.repository;
+
+import com.hostel.entity.Notification;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface NotificationRepository extends JpaRepository<Notification, UUID> {
+
+    // Find notifications for a user, newest first
+    Page<Notification> findByUserIdOrderByCreatedAtDesc(UUID userId, Pageable pageable);
+
+    // Find unread notifications for a user, newest first
+    Page<Notification> findByUserIdAndIsReadFalseOrderByCreatedAtDesc(UUID userId, Pageable pageable);
+
+    // Count unread notifications for a user (used on cache miss only)
+    long countByUserIdAndIsReadFalse(UUID userId);
+
+    // Mark a single notification as read; returns 0 if it was already read or belongs to another user
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true, n.readAt = :readAt " +
+           "WHERE n.id = :id AND n.user.id = :userId AND n.isRead = false")
+    int markAsRead(@Param("id") UUID id, @Param("userId") UUID userId, @Param("readAt") LocalDateTime readAt);
+
+    // Mark every unread notification of a user as read in a single statement
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true, n.readAt = :readAt " +
+           "WHERE n.user.id = :userId AND n.isRead = false")
+    int markAllAsRead(@Param("userId") UUID userId, @Param("readAt") LocalDateTime readAt);
+
+    // Retention: pick the next bounded batch of read notifications older than the cutoff
+    // (SKIP LOCKED so rows a user is touching right now are simply left for the next run)
+    @Query(value = "SELECT id FROM notifications " +
+                   "WHERE is_read = true AND created_at < :cutoff " +
+                   "ORDER BY created_at LIMIT :batchSize FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<UUID> findPurgeableIds(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+
+    // Retention: copy a batch into the archive table before it is deleted
+    @Modifying
+    @Query(value = "INSERT INTO notifications_archive " +
+                   "(id, user_id, title, message, type, is_read, related_ticket_id, created_at, read_at, archived_at) " +
+                   "SELECT id, user_id, title, message, type, is_read, related_ticket_id, created_at, read_at, :archivedAt " +
+                   "FROM notifications WHERE id IN (:ids) " +
+                   "ON CONFLICT (id) DO NOTHING", nativeQuery = true)
+    int archiveByIds(@Param("ids") List<UUID> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    // Retention: delete a batch of notifications by id
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids")
+    int deleteByIds(@Param("ids") List<UUID> ids);
+}
@@ -0,0 +1,32 @@
+package com.hostel.repository;
+
+import com.hostel.dto.AttachmentDTO;
+import com.hostel.entity.TicketAttachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface TicketAttachmentRepository extends JpaRepository<TicketAttachment, UUID> {
+
+    // Attachment metadata of a ticket, oldest first, without loading ticket or uploader
+    @Query("SELECT new com.hostel.dto.AttachmentDTO(a.id, a.originalFilename, a.fileSize, a.mimeType, " +
+           "a.uploadedBy.id, a.createdAt) " +
+           "FROM TicketAttachment a WHERE a.ticket.id = :ticketId ORDER BY a.createdAt, a.id")
+    List<AttachmentDTO> findDtosByTicketId(@Param("ticketId") UUID ticketId);
+
+    @Query("SELECT a FROM TicketAttachment a WHERE a.id = :id AND a.ticket.id = :ticketId")
+    Optional<TicketAttachment> findByIdAndTicketId(@Param("id") UUID id, @Param("ticketId") UUID ticketId);
+
+    // Bytes stored for quota checks
+    @Query("SELECT COALESCE(SUM(a.fileSize), 0) FROM TicketAttachment a WHERE a.ticket.id = :ticketId")
+    long sumFileSizeByTicketId(@Param("ticketId") UUID ticketId);
+
+    @Query("SELECT COALESCE(SUM(a.fileSize), 0) FROM TicketAttachment a WHERE a.uploadedBy.id = :userId")
+    long sumFileSizeByUploadedById(@Param("userId") UUID userId);
+}
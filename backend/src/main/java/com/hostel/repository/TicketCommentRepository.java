@@ -0,0 +1,59 @@
+package com.hostel.repository;
+
+import com.hostel.dto.TicketCommentDTO;
+import com.hostel.entity.TicketComment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Ticket comments read and written on their own, so appending to or paging through a long
+ * thread never initializes Ticket.comments. Pages are keyset pages on (created_at, id): the
+ * first one starts at the ticket's oldest comment and each later one seeks past the last row
+ * of the previous page on idx_comments_ticket_created, so page 1,000 costs what page 1 does.
+ * Callers pass PageRequest.of(0, size); no count query is run. The cursor condition is
+ * (created_at, id) > (:afterCreatedAt, :afterId) spelled out, since Hibernate 6.3 rejects
+ * row-value comparisons with parameters; the leading created_at >= bound is the index seek.
+ */
+@Repository
+public interface TicketCommentRepository extends JpaRepository<TicketComment, UUID> {
+
+    // Every comment of a ticket, oldest first (staff and admins)
+    @Query("SELECT new com.hostel.dto.TicketCommentDTO(c.id, c.comment, c.isInternal, " +
+           "u.id, u.firstName, u.lastName, u.role, c.createdAt) " +
+           "FROM TicketComment c JOIN c.user u WHERE c.ticket.id = :ticketId ORDER BY c.createdAt, c.id")
+    Slice<TicketCommentDTO> findSliceByTicketId(@Param("ticketId") UUID ticketId, Pageable pageable);
+
+    // Public comments only; internal notes are filtered out in the query, not after it
+    @Query("SELECT new com.hostel.dto.TicketCommentDTO(c.id, c.comment, c.isInternal, " +
+           "u.id, u.firstName, u.lastName, u.role, c.createdAt) " +
+           "FROM TicketComment c JOIN c.user u WHERE c.ticket.id = :ticketId AND c.isInternal = false " +
+           "ORDER BY c.createdAt, c.id")
+    Slice<TicketCommentDTO> findPublicSliceByTicketId(@Param("ticketId") UUID ticketId, Pageable pageable);
+
+    // Every comment after the cursor (afterCreatedAt, afterId)
+    @Query("SELECT new com.hostel.dto.TicketCommentDTO(c.id, c.comment, c.isInternal, " +
+           "u.id, u.firstName, u.lastName, u.role, c.createdAt) " +
+           "FROM TicketComment c JOIN c.user u WHERE c.ticket.id = :ticketId " +
+           "AND c.createdAt >= :afterCreatedAt AND (c.createdAt > :afterCreatedAt OR c.id > :afterId) " +
+           "ORDER BY c.createdAt, c.id")
+    Slice<TicketCommentDTO> findSliceByTicketIdAfter(@Param("ticketId") UUID ticketId,
+                                                     @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                     @Param("afterId") UUID afterId, Pageable pageable);
+
+    // Public comments after the cursor (afterCreatedAt, afterId)
+    @Query("SELECT new com.hostel.dto.TicketCommentDTO(c.id, c.comment, c.isInternal, " +
+           "u.id, u.firstName, u.lastName, u.role, c.createdAt) " +
+           "FROM TicketComment c JOIN c.user u WHERE c.ticket.id = :ticketId AND c.isInternal = false " +
+           "AND c.createdAt >= :afterCreatedAt AND (c.createdAt > :afterCreatedAt OR c.id > :afterId) " +
+           "ORDER BY c.createdAt, c.id")
+    Slice<TicketCommentDTO> findPublicSliceByTicketIdAfter(@Param("ticketId") UUID ticketId,
+                                                           @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                           @Param("afterId") UUID afterId, Pageable pageable);
+}
@@ -3,7 +3,6 @@ package com.hostel.repository;
 import com.hostel.entity.Ticket;
 import com.hostel.entity.TicketEscalation;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -16,12 +15,8 @@ public interface TicketEscalationRepository extends JpaRepository<TicketEscalati
     // Find escalations by ticket
     List<TicketEscalation> findByTicketOrderByEscalatedAtDesc(Ticket ticket);
     
-    // Find recent escalations by ticket and level
-    List<TicketEscalation> findByTicketAndEscalationLevelAndEscalatedAtAfter(
-        Ticket ticket, 
-        @Param("level") Integer escalationLevel, 
-        @Param("after") LocalDateTime after
-    );
+    // Whether the ticket was escalated since the given time (escalations do not record a level)
+    boolean existsByTicketAndEscalatedAtAfter(Ticket ticket, LocalDateTime after);
     
     // Find escalations by escalated to user
     List<TicketEscalation> findByEscalatedToIdOrderByEscalatedAtDesc(UUID userId);
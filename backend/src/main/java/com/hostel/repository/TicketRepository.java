@@ -1,5 +1,8 @@
 package com.hostel.repository;
 
+import com.hostel.dto.TicketAccess;
+import com.hostel.dto.TicketHistoryDTO;
+import com.hostel.entity.HostelName;
 import com.hostel.entity.Ticket;
 import com.hostel.entity.TicketCategory;
 import com.hostel.entity.TicketPriority;
@@ -7,6 +10,8 @@ import com.hostel.entity.TicketStatus;
 import com.hostel.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,36 +19,64 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * tickets is partitioned by month of created_at (V4) and keyed by (id, created_at). Lookups by
+ * id alone (findById, findWithPeopleById, findAccessById, findVersionById, existsById and
+ * Hibernate's versioned UPDATE) cannot prune: each probes the primary key index of every
+ * partition. src/test/resources/db/explain/partitioned_ticket_lookups.sql shows the plans and
+ * the per-lookup cost against a lookup that also carries created_at.
+ */
 @Repository
 public interface TicketRepository extends JpaRepository<Ticket, UUID> {
+
+    // Endpoint reads below fetch creator and assignee with the ticket (Ticket.withPeople),
+    // so DTO mapping needs no lazy loads once the transaction has ended
+    @Override
+    @EntityGraph(Ticket.GRAPH_WITH_PEOPLE)
+    Page<Ticket> findAll(Pageable pageable);
+    
+    @Override
+    @EntityGraph(Ticket.GRAPH_WITH_PEOPLE)
+    List<Ticket> findAll();
+    
+    @EntityGraph(Ticket.GRAPH_WITH_PEOPLE)
+    @Query("SELECT t FROM Ticket t WHERE t.id = :id")
+    Optional<Ticket> findWithPeopleById(@Param("id") UUID id);
     
     // Find tickets by user (creator)
+    @EntityGraph(Ticket.GRAPH_WITH_PEOPLE)
     Page<Ticket> findByCreatedById(UUID userId, Pageable pageable);
     
     // Find tickets by user created after a certain date (for duplicate detection)
     List<Ticket> findByCreatedByIdAndCreatedAtAfter(UUID userId, LocalDateTime after);
     
     // Find tickets by assignee
+    @EntityGraph(Ticket.GRAPH_WITH_PEOPLE)
     Page<Ticket> findByAssignedToId(UUID assigneeId, Pageable pageable);
     
     // Find tickets by status
+    @EntityGraph(Ticket.GRAPH_WITH_PEOPLE)
     Page<Ticket> findByStatus(TicketStatus status, Pageable pageable);
     
     // Find tickets by priority
+    @EntityGraph(Ticket.GRAPH_WITH_PEOPLE)
     Page<Ticket> findByPriority(TicketPriority priority, Pageable pageable);
     
     // Find tickets by category
+    @EntityGraph(Ticket.GRAPH_WITH_PEOPLE)
     Page<Ticket> findByCategory(TicketCategory category, Pageable pageable);
     
     // Find tickets by hostel block
-    Page<Ticket> findByHostelBlock(String hostelBlock, Pageable pageable);
+    Page<Ticket> findByHostelBlock(HostelName hostelBlock, Pageable pageable);
     
     // Find tickets by room number
     Page<Ticket> findByRoomNumber(String roomNumber, Pageable pageable);
     
     // Find tickets by multiple priorities and statuses
+    @EntityGraph(Ticket.GRAPH_WITH_PEOPLE)
     @Query("SELECT t FROM Ticket t WHERE t.priority IN :priorities AND t.status IN :statuses")
     List<Ticket> findByPriorityInAndStatusIn(@Param("priorities") List<TicketPriority> priorities, @Param("statuses") List<TicketStatus> statuses);
     
@@ -54,12 +87,24 @@ public interface TicketRepository extends JpaRepository<Ticket, UUID> {
     Page<Ticket> findByCategoryAndStatus(TicketCategory category, TicketStatus status, Pageable pageable);
     
     // Find tickets created between dates
+    @EntityGraph(Ticket.GRAPH_WITH_PEOPLE)
     Page<Ticket> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
     
-    // Find tickets updated between dates
-    Page<Ticket> findByUpdatedAtBetween(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
+    // Find tickets updated between dates; a ticket is never updated before it was created,
+    // so the created_at bound is implied but lets the planner skip later monthly partitions
+    @EntityGraph(Ticket.GRAPH_WITH_PEOPLE)
+    @Query("SELECT t FROM Ticket t WHERE t.updatedAt BETWEEN :startDate AND :endDate AND t.createdAt <= :endDate")
+    Page<Ticket> findByUpdatedAtBetween(@Param("startDate") LocalDateTime startDate,
+                                        @Param("endDate") LocalDateTime endDate, Pageable pageable);
+
+    // Monthly report rows (year, month, status, count); the created_at range prunes to those partitions
+    @Query("SELECT year(t.createdAt), month(t.createdAt), t.status, count(t) FROM Ticket t " +
+           "WHERE t.createdAt >= :from AND t.createdAt < :to " +
+           "GROUP BY year(t.createdAt), month(t.createdAt), t.status")
+    List<Object[]> countByMonthAndStatus(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
     
     // Search tickets by title or description
+    @EntityGraph(Ticket.GRAPH_WITH_PEOPLE)
     @Query("SELECT t FROM Ticket t WHERE " +
            "LOWER(t.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
            "LOWER(t.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
@@ -67,6 +112,7 @@ public interface TicketRepository extends JpaRepository<Ticket, UUID> {
     Page<Ticket> searchTickets(@Param("searchTerm") String searchTerm, Pageable pageable);
     
     // Find overdue tickets (tickets that haven't been updated in a while)
+    @EntityGraph(Ticket.GRAPH_WITH_PEOPLE)
     @Query("SELECT t FROM Ticket t WHERE " +
            "t.status IN (com.hostel.entity.TicketStatus.OPEN, com.hostel.entity.TicketStatus.IN_PROGRESS) AND " +
            "t.updatedAt < :cutoffDate")
@@ -94,26 +140,33 @@ public interface TicketRepository extends JpaRepository<Ticket, UUID> {
            "t.createdAt < :escalationDate")
     List<Ticket> findTicketsNeedingEscalation(@Param("escalationDate") LocalDateTime escalationDate);
     
-    // Find tickets by location
+    // Find tickets by location; blocks are the HostelName.matching(location) ids
     @Query("SELECT t FROM Ticket t WHERE " +
-           "LOWER(t.hostelBlock) LIKE LOWER(CONCAT('%', :location, '%')) OR " +
+           "t.hostelBlock IN :blocks OR " +
            "LOWER(t.roomNumber) LIKE LOWER(CONCAT('%', :location, '%')) OR " +
            "LOWER(t.locationDetails) LIKE LOWER(CONCAT('%', :location, '%'))")
-    Page<Ticket> findByLocation(@Param("location") String location, Pageable pageable);
+    Page<Ticket> findByLocation(@Param("location") String location, @Param("blocks") List<HostelName> blocks,
+                                Pageable pageable);
     
     // Staff-specific queries
+    @EntityGraph(Ticket.GRAPH_WITH_PEOPLE)
     @Query("SELECT t FROM Ticket t WHERE t.assignedTo IS NULL AND t.status = :status")
     List<Ticket> findByAssignedToIsNullAndStatus(@Param("status") TicketStatus status);
     
+    @EntityGraph(Ticket.GRAPH_WITH_PEOPLE)
     @Query("SELECT t FROM Ticket t WHERE t.assignedTo.id = :staffId AND t.status IN :statuses")
     List<Ticket> findByAssignedToIdAndStatusIn(@Param("staffId") UUID staffId, @Param("statuses") List<TicketStatus> statuses);
     
+    @EntityGraph(Ticket.GRAPH_WITH_PEOPLE)
     List<Ticket> findByAssignedToIdIn(List<UUID> staffIds);
     
+    @EntityGraph(Ticket.GRAPH_WITH_PEOPLE)
     List<Ticket> findByStatusAndAssignedToId(TicketStatus status, UUID assignedToId);
     
+    @EntityGraph(Ticket.GRAPH_WITH_PEOPLE)
     List<Ticket> findByStatus(TicketStatus status);
     
+    @EntityGraph(Ticket.GRAPH_WITH_PEOPLE)
     List<Ticket> findByAssignedToId(UUID assignedToId);
     
     // New methods for assignment service
@@ -125,17 +178,25 @@ public interface TicketRepository extends JpaRepository<Ticket, UUID> {
     
     @Query("SELECT COUNT(t) FROM Ticket t WHERE t.assignedTo = :assignedTo AND t.status IN :statuses")
     int countByAssignedToAndStatusIn(@Param("assignedTo") User assignedTo, @Param("statuses") List<TicketStatus> statuses);
+
+    // Workload rows (assignee id, count) for many staff at once; staff with no such tickets are absent
+    @Query("SELECT t.assignedTo.id, COUNT(t) FROM Ticket t WHERE t.assignedTo IN :assignees " +
+           "AND t.status IN :statuses GROUP BY t.assignedTo.id")
+    List<Object[]> countByAssignedToInAndStatusIn(@Param("assignees") List<User> assignees,
+                                                  @Param("statuses") List<TicketStatus> statuses);
     
     // Find tickets by hostel block and category
     @Query("SELECT t FROM Ticket t WHERE t.hostelBlock = :hostelBlock AND " +
            "(t.category = :category OR t.customCategory = :category)")
-    List<Ticket> findByHostelBlockAndCategory(@Param("hostelBlock") String hostelBlock, 
+    List<Ticket> findByHostelBlockAndCategory(@Param("hostelBlock") HostelName hostelBlock, 
                                              @Param("category") String category);
     
-    // SLA Management queries  
+    // SLA Management queries; approaching = 75% of the way from createdAt to the estimate,
+    // computed on epoch seconds because HQL cannot scale a duration
     @Query("SELECT t FROM Ticket t WHERE t.status NOT IN ('RESOLVED', 'CLOSED', 'CANCELLED') " +
            "AND t.estimatedResolutionTime IS NOT NULL " +
-           "AND :now >= (t.createdAt + (t.estimatedResolutionTime - t.createdAt) * 0.75)")
+           "AND EXTRACT(EPOCH FROM t.createdAt) * 0.25 + EXTRACT(EPOCH FROM t.estimatedResolutionTime) * 0.75 " +
+           "<= EXTRACT(EPOCH FROM CAST(:now AS LocalDateTime))")
     List<Ticket> findTicketsApproachingSLABreach(@Param("now") LocalDateTime now);
     
     @Query("SELECT t FROM Ticket t WHERE t.status NOT IN ('RESOLVED', 'CLOSED', 'CANCELLED') " +
@@ -165,4 +226,35 @@ public interface TicketRepository extends JpaRepository<Ticket, UUID> {
     // Feedback queries
     @Query("SELECT t FROM Ticket t WHERE t.satisfactionRating IS NOT NULL")
     List<Ticket> findTicketsWithFeedback();
-} 
\ No newline at end of file
+    
+    // Authorization queries - read foreign keys only, no entity or association loading
+    @Query("SELECT new com.hostel.dto.TicketAccess(t.id, t.createdBy.id, t.assignedTo.id, t.status) " +
+           "FROM Ticket t WHERE t.id = :ticketId")
+    Optional<TicketAccess> findAccessById(@Param("ticketId") UUID ticketId);
+    
+    @Query("SELECT t.version FROM Ticket t WHERE t.id = :ticketId")
+    Optional<Long> findVersionById(@Param("ticketId") UUID ticketId);
+    
+    // Ticket history with the author's name, read straight into DTOs; system events have no author
+    @Query("SELECT new com.hostel.dto.TicketHistoryDTO(h.id, h.fieldName, h.oldValue, h.newValue, " +
+           "u.id, u.firstName, u.lastName, h.changedAt) " +
+           "FROM TicketHistory h LEFT JOIN h.changedBy u WHERE h.ticket.id = :ticketId ORDER BY h.changedAt, h.id")
+    List<TicketHistoryDTO> findHistoryByTicketId(@Param("ticketId") UUID ticketId);
+
+    // First keyset page of the ticket event log, served by idx_history_ticket_changed without a count query
+    @Query("SELECT new com.hostel.dto.TicketHistoryDTO(h.id, h.fieldName, h.oldValue, h.newValue, " +
+           "u.id, u.firstName, u.lastName, h.changedAt) " +
+           "FROM TicketHistory h LEFT JOIN h.changedBy u WHERE h.ticket.id = :ticketId ORDER BY h.changedAt, h.id")
+    Slice<TicketHistoryDTO> findHistorySliceByTicketId(@Param("ticketId") UUID ticketId, Pageable pageable);
+
+    // Events after the cursor: (changed_at, id) > (:afterChangedAt, :afterId) spelled out, as
+    // Hibernate 6.3 rejects row-value comparisons with parameters; the changed_at bound is the index seek
+    @Query("SELECT new com.hostel.dto.TicketHistoryDTO(h.id, h.fieldName, h.oldValue, h.newValue, " +
+           "u.id, u.firstName, u.lastName, h.changedAt) " +
+           "FROM TicketHistory h LEFT JOIN h.changedBy u WHERE h.ticket.id = :ticketId " +
+           "AND h.changedAt >= :afterChangedAt AND (h.changedAt > :afterChangedAt OR h.id > :afterId) " +
+           "ORDER BY h.changedAt, h.id")
+    Slice<TicketHistoryDTO> findHistorySliceByTicketIdAfter(@Param("ticketId") UUID ticketId,
+                                                            @Param("afterChangedAt") LocalDateTime afterChangedAt,
+                                                            @Param("afterId") UUID afterId, Pageable pageable);
+}
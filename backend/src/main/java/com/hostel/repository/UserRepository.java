@@ -32,6 +32,13 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     
     Optional<User> findByUsernameAndIsActiveTrue(String username);
     
+    // Password hash alone, for login: no entity, no second-level cache entry
+    @Query("SELECT u.passwordHash FROM User u WHERE u.email = :email AND u.isActive = true")
+    Optional<String> findActivePasswordHashByEmail(@Param("email") String email);
+    
+    @Query("SELECT u.passwordHash FROM User u WHERE u.username = :username AND u.isActive = true")
+    Optional<String> findActivePasswordHashByUsername(@Param("username") String username);
+    
     boolean existsByEmail(String email);
     
     boolean existsByUsername(String username);
@@ -57,8 +64,12 @@ public interface UserRepository extends JpaRepository<User, UUID> {
            "AND u.staffVertical = :vertical " +
            "AND u.isActive = true " +
            "ORDER BY u.createdAt ASC")
-    List<User> findSupervisorsByVertical(@Param("vertical") String vertical);
+    List<User> findSupervisorsByVertical(@Param("vertical") StaffVertical vertical);
     
+    // A query rather than findById: reads the row even when the user is in the second-level cache
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findByIdFromDatabase(@Param("id") UUID id);
+
     @Modifying
     @Query("UPDATE User u SET u.isActive = :isActive, u.updatedAt = :updatedAt WHERE u.id = :userId")
     int updateUserStatus(@Param("userId") UUID userId, @Param("isActive") Boolean isActive, @Param("updatedAt") java.time.LocalDateTime updatedAt);
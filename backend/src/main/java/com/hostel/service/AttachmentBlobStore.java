@@ -0,0 +1,249 @@
+package com.hostel.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed blob storage for attachments (db/migration/V8). A blob is stored once at
+ * blobs/ab/cd/&lt;sha256&gt; under file.upload.dir however many attachments reference it;
+ * attachment_blobs.ref_count is maintained by database triggers. The GC sweep removes blobs
+ * nobody has referenced for the grace period, with their image derivatives, plus stray files
+ * left by failed uploads.
+ *
+ * Uploads and the sweep serialize on the attachment_blobs row: an upload upserts it before
+ * placing the file and the sweep holds it FOR UPDATE while deleting, so a blob that is
+ * being re-uploaded is never removed underneath it.
+ */
+@Service
+public class AttachmentBlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentBlobStore.class);
+
+    private static final String BLOB_DIR = "blobs";
+    private static final String TEMP_DIR = "tmp";
+    private static final int SWEEP_BATCH = 100;
+    private static final Pattern BLOB_NAME = Pattern.compile("[0-9a-f]{64}");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${file.upload.dir:uploads/}")
+    private String uploadDir;
+
+    @Value("${file.upload.gc.grace-hours:24}")
+    private long graceHours;
+
+    /**
+     * Fresh path in the upload temp directory for a file being received
+     */
+    public Path newTempFile() throws IOException {
+        Path dir = root().resolve(TEMP_DIR);
+        Files.createDirectories(dir);
+        return dir.resolve(UUID.randomUUID() + ".part");
+    }
+
+    /**
+     * Store the received file as the blob with this hash, or drop it if that blob exists.
+     * Returns the blob's path relative to the upload directory.
+     */
+    public String store(String contentHash, long size, Path received) {
+        String relativePath = relativePath(contentHash);
+        Path target = root().resolve(relativePath);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO attachment_blobs (content_hash, size) VALUES (?, ?) " +
+                    "ON CONFLICT (content_hash) DO UPDATE SET touched_at = now()", contentHash, size);
+            try {
+                if (Files.exists(target)) {
+                    Files.delete(received);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    Files.move(received, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return relativePath;
+    }
+
+    /**
+     * Delete blobs unreferenced for the grace period, then files nothing records
+     */
+    @Scheduled(cron = "${file.upload.gc.cron:0 30 4 * * *}")
+    public void collectGarbage() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(graceHours);
+        int deleted = 0;
+        int batch;
+        do {
+            Integer count = transactionTemplate.execute(status -> {
+                List<String> hashes = jdbcTemplate.queryForList(
+                        "SELECT content_hash FROM attachment_blobs WHERE ref_count <= 0 AND touched_at < ? " +
+                        "ORDER BY touched_at LIMIT ? FOR UPDATE SKIP LOCKED", String.class, cutoff, SWEEP_BATCH);
+                for (String hash : hashes) {
+                    Path blob = root().resolve(relativePath(hash));
+                    for (AttachmentThumbnailService.Variant variant : AttachmentThumbnailService.Variant.values()) {
+                        deleteQuietly(AttachmentThumbnailService.derivative(blob, variant));
+                    }
+                    deleteQuietly(blob);
+                    jdbcTemplate.update("DELETE FROM attachment_blobs WHERE content_hash = ?", hash);
+                }
+                return hashes.size();
+            });
+            batch = count != null ? count : 0;
+            deleted += batch;
+        } while (batch == SWEEP_BATCH);
+
+        int strays = sweepStrayFiles(Instant.now().minus(Duration.ofHours(graceHours)));
+        if (deleted > 0 || strays > 0) {
+            logger.info("Attachment GC removed {} unreferenced blobs and {} stray files", deleted, strays);
+        }
+    }
+
+    /**
+     * Logical bytes referenced by attachments against bytes actually stored
+     */
+    public Map<String, Object> getStorageReport() {
+        Map<String, Object> blobs = jdbcTemplate.queryForMap(
+                "SELECT count(*) AS blob_count, COALESCE(sum(size), 0) AS stored_bytes, " +
+                "count(*) FILTER (WHERE ref_count <= 0) AS unreferenced_blobs, " +
+                "COALESCE(sum(size) FILTER (WHERE ref_count <= 0), 0) AS unreferenced_bytes " +
+                "FROM attachment_blobs");
+        Map<String, Object> references = jdbcTemplate.queryForMap(
+                "SELECT count(*) AS attachment_count, COALESCE(sum(file_size), 0) AS referenced_bytes FROM (" +
+                "SELECT file_size FROM ticket_attachments WHERE content_hash IS NOT NULL " +
+                "UNION ALL SELECT file_size FROM ticket_attachments_archive WHERE content_hash IS NOT NULL) a");
+        long referenced = ((Number) references.get("referenced_bytes")).longValue();
+        long stored = ((Number) blobs.get("stored_bytes")).longValue();
+        long unreferenced = ((Number) blobs.get("unreferenced_bytes")).longValue();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("attachments", references.get("attachment_count"));
+        report.put("blobs", blobs.get("blob_count"));
+        report.put("referencedBytes", referenced);
+        report.put("storedBytes", stored);
+        report.put("savedBytes", referenced - (stored - unreferenced));
+        report.put("unreferencedBlobs", blobs.get("unreferenced_blobs"));
+        report.put("unreferencedBytes", unreferenced);
+        return report;
+    }
+
+    // Blob files without a row (upload rolled back after the move) and abandoned temp files
+    private int sweepStrayFiles(Instant olderThan) {
+        int removed = 0;
+        Path temp = root().resolve(TEMP_DIR);
+        Path blobs = root().resolve(BLOB_DIR);
+        try {
+            if (Files.isDirectory(temp)) {
+                try (Stream<Path> files = Files.list(temp)) {
+                    for (Path file : (Iterable<Path>) files::iterator) {
+                        if (isOlderThan(file, olderThan) && deleteQuietly(file)) {
+                            removed++;
+                        }
+                    }
+                }
+            }
+            if (Files.isDirectory(blobs)) {
+                List<Path> candidates = new ArrayList<>();
+                try (Stream<Path> files = Files.walk(blobs)) {
+                    for (Path file : (Iterable<Path>) files::iterator) {
+                        if (Files.isRegularFile(file) && BLOB_NAME.matcher(file.getFileName().toString()).matches()
+                                && isOlderThan(file, olderThan)) {
+                            candidates.add(file);
+                            if (candidates.size() == SWEEP_BATCH) {
+                                removed += deleteUnrecorded(candidates);
+                                candidates.clear();
+                            }
+                        }
+                    }
+                }
+                removed += deleteUnrecorded(candidates);
+            }
+        } catch (IOException e) {
+            logger.warn("Attachment stray-file sweep stopped: {}", e.getMessage());
+        }
+        return removed;
+    }
+
+    private int deleteUnrecorded(List<Path> files) {
+        if (files.isEmpty()) {
+            return 0;
+        }
+        List<String> hashes = files.stream().map(file -> file.getFileName().toString()).toList();
+        Set<String> recorded = new HashSet<>(namedJdbcTemplate.queryForList(
+                "SELECT content_hash FROM attachment_blobs WHERE content_hash IN (:hashes)",
+                Map.of("hashes", hashes), String.class));
+        int removed = 0;
+        for (Path file : files) {
+            String hash = file.getFileName().toString();
+            if (!recorded.contains(hash) && Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                // Claim the hash with a placeholder row so a concurrent upload of it waits for us
+                if (jdbcTemplate.update("INSERT INTO attachment_blobs (content_hash, size) VALUES (?, 0) " +
+                        "ON CONFLICT (content_hash) DO NOTHING", hash) == 0) {
+                    return false;
+                }
+                boolean deleted = deleteQuietly(file);
+                jdbcTemplate.update("DELETE FROM attachment_blobs WHERE content_hash = ?", hash);
+                return deleted;
+            }))) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private static boolean isOlderThan(Path file, Instant instant) throws IOException {
+        FileTime modified = Files.getLastModifiedTime(file);
+        return modified.toInstant().isBefore(instant);
+    }
+
+    private static boolean deleteQuietly(Path file) {
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    // Two levels of 256 directories keep any one directory small
+    private static String relativePath(String contentHash) {
+        return BLOB_DIR + "/" + contentHash.substring(0, 2) + "/" + contentHash.substring(2, 4) + "/" + contentHash;
+    }
+
+    private Path root() {
+        return Paths.get(uploadDir).toAbsolutePath().normalize();
+    }
+}
@@ -0,0 +1,289 @@
+package com.hostel.service;
+
+import com.hostel.dto.AttachmentDTO;
+import com.hostel.entity.Ticket;
+import com.hostel.entity.TicketAttachment;
+import com.hostel.entity.User;
+import com.hostel.repository.TicketAttachmentRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Stores ticket attachments under file.upload.dir. Upload bodies are copied from the request
+ * channel to disk through one small direct buffer, so a file never sits in heap, and hashed
+ * (SHA-256) on the way; AttachmentBlobStore then keeps one copy per distinct content. The
+ * size limit and per-ticket/per-user quotas are enforced while the bytes arrive and count
+ * every attachment at its full size, deduplicated or not. Quotas are checked again with the
+ * final size when the row is inserted, under transaction-scoped advisory locks on the ticket
+ * and the uploader, so concurrent uploads cannot together exceed either quota.
+ *
+ * Attachments of archived tickets are read from ticket_attachments_archive.
+ *
+ * The stored MIME type comes from the content where it matters: JPEG, PNG, GIF, WebP and PDF
+ * are recognised by their magic bytes, and anything else that claims to be an image (SVG,
+ * HTML renamed .png) is stored as application/octet-stream. Only the raster types in
+ * {@link #isInlineImage} are ever shown inline.
+ */
+@Service
+public class AttachmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentService.class);
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int SNIFF_BYTES = 16;
+
+    // Raster formats a browser renders without running anything; SVG is deliberately absent
+    private static final Set<String> INLINE_IMAGE_TYPES = Set.of("image/jpeg", "image/png", "image/gif", "image/webp");
+
+    @Autowired
+    private TicketAttachmentRepository attachmentRepository;
+
+    @Autowired
+    private AttachmentBlobStore blobStore;
+
+    @Autowired
+    private AttachmentThumbnailService thumbnailService;
+
+    @Autowired
+    private TicketArchiveService ticketArchiveService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${file.upload.dir:uploads/}")
+    private String uploadDir;
+
+    @Value("${file.upload.max-size:10MB}")
+    private DataSize maxFileSize;
+
+    @Value("${file.upload.max-per-ticket:50MB}")
+    private DataSize maxPerTicket;
+
+    @Value("${file.upload.max-per-user:200MB}")
+    private DataSize maxPerUser;
+
+    /**
+     * Stream an upload to disk and record it. declaredLength is the request Content-Length,
+     * or -1 when the body is chunked; oversized uploads are refused before reading when it is known.
+     */
+    public AttachmentDTO upload(UUID ticketId, UUID uploaderId, String originalFilename, String mimeType,
+                                long declaredLength, InputStream body) throws IOException {
+        long allowance = allowance(ticketId, uploaderId);
+        if (declaredLength > allowance) {
+            throw new MaxUploadSizeExceededException(allowance);
+        }
+
+        Path partial = blobStore.newTempFile();
+        Received received;
+        String relativePath;
+        try {
+            received = copy(body, partial, allowance, mimeType);
+            relativePath = blobStore.store(received.contentHash(), received.size(), partial);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+
+        // If this fails the blob stays unreferenced and the GC sweep removes it
+        AttachmentDTO saved;
+        try {
+            saved = transactionTemplate.execute(status -> {
+                // Authoritative check with the real size. Other uploads to the same ticket or by the
+                // same user wait here until this one commits, so the sums below include them.
+                // Always ticket first, then uploader, so two uploads never wait on each other in a cycle.
+                lockQuota("attachment-quota:ticket:" + ticketId);
+                lockQuota("attachment-quota:user:" + uploaderId);
+                long left = allowance(ticketId, uploaderId);
+                if (received.size() > left) {
+                    throw new MaxUploadSizeExceededException(left);
+                }
+                TicketAttachment attachment = new TicketAttachment(
+                        entityManager.getReference(Ticket.class, ticketId), received.contentHash(), originalFilename,
+                        relativePath, received.size(), received.mimeType(), entityManager.getReference(User.class, uploaderId));
+                attachment.setContentHash(received.contentHash());
+                attachmentRepository.saveAndFlush(attachment);
+                return new AttachmentDTO(attachment.getId(), originalFilename, received.size(), received.mimeType(),
+                        uploaderId, attachment.getCreatedAt());
+            });
+        } catch (DataIntegrityViolationException e) {
+            // V10 trigger: the ticket was archived or deleted since the upload started
+            if (TicketArchiveService.isMissingTicket(e)) {
+                throw new RuntimeException("Ticket not found");
+            }
+            throw e;
+        }
+        if (AttachmentThumbnailService.supports(received.mimeType())) {
+            thumbnailService.submit(resolve(relativePath));
+        }
+        return saved;
+    }
+
+    @Transactional(readOnly = true)
+    public List<AttachmentDTO> getAttachments(UUID ticketId) {
+        List<AttachmentDTO> attachments = attachmentRepository.findDtosByTicketId(ticketId);
+        return attachments.isEmpty() ? ticketArchiveService.getAttachments(ticketId) : attachments;
+    }
+
+    /**
+     * A live attachment, or one that moved to the archive with its ticket; null if neither exists
+     */
+    @Transactional(readOnly = true)
+    public TicketAttachment getAttachment(UUID ticketId, UUID attachmentId) {
+        return attachmentRepository.findByIdAndTicketId(attachmentId, ticketId)
+                .or(() -> ticketArchiveService.findAttachment(ticketId, attachmentId))
+                .orElse(null);
+    }
+
+    /**
+     * Location of a stored file; refuses paths that would leave the upload directory
+     */
+    public Path resolve(String relativePath) {
+        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Path path = root.resolve(relativePath).normalize();
+        if (!path.startsWith(root)) {
+            throw new RuntimeException("Invalid attachment path");
+        }
+        return path;
+    }
+
+    /**
+     * Whether a stored type may be served inline from the API origin
+     */
+    public static boolean isInlineImage(String mimeType) {
+        return mimeType != null && INLINE_IMAGE_TYPES.contains(mimeType.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * The type to store for an upload whose content starts with head. Known signatures win over
+     * the declared type; a declared type that a browser could render or run without a matching
+     * signature becomes application/octet-stream. Other declared types are kept, since they
+     * are only ever downloaded.
+     */
+    static String detectMimeType(byte[] head, int length, String declared) {
+        if (startsWith(head, length, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(head, length, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(head, length, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(head, length, 'R', 'I', 'F', 'F') && length >= 12
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return "image/webp";
+        }
+        if (startsWith(head, length, '%', 'P', 'D', 'F', '-')) {
+            return "application/pdf";
+        }
+        String type = declared != null ? declared.trim().toLowerCase(Locale.ROOT) : "";
+        if (type.isEmpty() || type.startsWith("image/") || type.startsWith("text/html")
+                || type.contains("xml") || type.contains("javascript")) {
+            return "application/octet-stream";
+        }
+        return declared.trim();
+    }
+
+    private static boolean startsWith(byte[] head, int length, int... signature) {
+        if (length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((head[i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Held until the surrounding transaction ends
+    private void lockQuota(String key) {
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(hashtextextended(?, 0))", key);
+    }
+
+    // Most bytes this upload may have: the per-file limit or what is left of either quota
+    private long allowance(UUID ticketId, UUID uploaderId) {
+        long ticketLeft = maxPerTicket.toBytes() - attachmentRepository.sumFileSizeByTicketId(ticketId);
+        long userLeft = maxPerUser.toBytes() - attachmentRepository.sumFileSizeByUploadedById(uploaderId);
+        return Math.max(0, Math.min(maxFileSize.toBytes(), Math.min(ticketLeft, userLeft)));
+    }
+
+    private Received copy(InputStream body, Path file, long limit, String declaredType) throws IOException {
+        ReadableByteChannel in = Channels.newChannel(body);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        MessageDigest digest = sha256();
+        byte[] head = new byte[SNIFF_BYTES];
+        int headLength = 0;
+        long total = 0;
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            while (in.read(buffer) != -1) {
+                total += buffer.position();
+                if (total > limit) {
+                    throw new MaxUploadSizeExceededException(limit);
+                }
+                buffer.flip();
+                if (headLength < head.length) {
+                    int n = Math.min(head.length - headLength, buffer.remaining());
+                    buffer.duplicate().get(head, headLength, n);
+                    headLength += n;
+                }
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                buffer.clear();
+            }
+            out.force(false);
+        }
+        if (total == 0) {
+            throw new RuntimeException("Attachment is empty");
+        }
+        String contentHash = HexFormat.of().formatHex(digest.digest());
+        logger.debug("Received attachment {} ({} bytes)", contentHash, total);
+        return new Received(contentHash, total, detectMimeType(head, headLength, declaredType));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Received(String contentHash, long size, String mimeType) {}
+}
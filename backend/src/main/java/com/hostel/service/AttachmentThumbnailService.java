@@ -0,0 +1,300 @@
+package com.hostel.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates image derivatives for photo attachments on a dedicated, bounded pool: a square
+ * thumbnail for ticket cards and a preview downscaled to file.upload.thumbnails.preview-max
+ * pixels. Both are re-encoded JPEGs without the original's metadata (EXIF, GPS). Originals
+ * are never modified, so downloads and content hashes stay exact.
+ *
+ * Derivatives live next to the file they were made from (&lt;file&gt;.thumb.jpg,
+ * &lt;file&gt;.preview.jpg); for content-addressed blobs they are therefore shared by every
+ * attachment with the same bytes. Work is queued after an upload commits and again when a
+ * derivative is requested but missing; a full queue drops the job rather than blocking.
+ */
+@Service
+public class AttachmentThumbnailService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentThumbnailService.class);
+
+    public enum Variant {
+        THUMBNAIL(".thumb.jpg"),
+        PREVIEW(".preview.jpg");
+
+        private final String suffix;
+
+        Variant(String suffix) {
+            this.suffix = suffix;
+        }
+
+        public String getSuffix() {
+            return suffix;
+        }
+    }
+
+    @Autowired
+    private AttachmentBlobStore blobStore;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    @Value("${file.upload.thumbnails.threads:2}")
+    private int threads;
+
+    @Value("${file.upload.thumbnails.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${file.upload.thumbnails.size:256}")
+    private int thumbnailSize;
+
+    @Value("${file.upload.thumbnails.preview-max:1600}")
+    private int previewMax;
+
+    // Refuse to decode anything larger (decompression bombs)
+    @Value("${file.upload.thumbnails.max-pixels:100000000}")
+    private long maxPixels;
+
+    @Value("${file.upload.thumbnails.quality:0.82}")
+    private float quality;
+
+    private ThreadPoolExecutor executor;
+    private final Set<Path> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong processingNanos = new AtomicLong();
+    private Timer processingTimer;
+    private Counter failedCounter;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "attachment-thumbnails-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        logger.info("Attachment thumbnail pool started with {} threads and queue capacity {}", threads, queueCapacity);
+
+        MeterRegistry registry = meterRegistryProvider.getIfAvailable();
+        if (registry != null) {
+            Gauge.builder("attachments.thumbnails.queue.size", executor, e -> e.getQueue().size()).register(registry);
+            Gauge.builder("attachments.thumbnails.pool.active", executor, ThreadPoolExecutor::getActiveCount).register(registry);
+            processingTimer = Timer.builder("attachments.thumbnails.processing").register(registry);
+            failedCounter = Counter.builder("attachments.thumbnails.failed").register(registry);
+            rejectedCounter = Counter.builder("attachments.thumbnails.rejected").register(registry);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    public static Path derivative(Path original, Variant variant) {
+        return original.resolveSibling(original.getFileName() + variant.getSuffix());
+    }
+
+    // Whether ImageIO can decode this type at all
+    public static boolean supports(String mimeType) {
+        return mimeType != null && mimeType.startsWith("image/")
+                && ImageIO.getImageReadersByMIMEType(mimeType).hasNext();
+    }
+
+    /**
+     * Queue derivative generation for a stored image. Returns false if the queue is full;
+     * a job already queued or running for the same file counts as accepted.
+     */
+    public boolean submit(Path original) {
+        if (!pending.add(original)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    process(original);
+                } finally {
+                    pending.remove(original);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(original);
+            rejected.incrementAndGet();
+            if (rejectedCounter != null) {
+                rejectedCounter.increment();
+            }
+            logger.debug("Thumbnail queue full, dropped {}", original.getFileName());
+            return false;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long done = processed.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", executor.getQueue().size());
+        stats.put("active", executor.getActiveCount());
+        stats.put("processed", done);
+        stats.put("failed", failed.get());
+        stats.put("rejected", rejected.get());
+        stats.put("averageMillis", done == 0 ? 0 : processingNanos.get() / done / 1_000_000);
+        return stats;
+    }
+
+    private void process(Path original) {
+        if (Files.exists(derivative(original, Variant.THUMBNAIL)) && Files.exists(derivative(original, Variant.PREVIEW))) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            BufferedImage decoded = decode(original);
+            BufferedImage preview = scale(decoded, fit(decoded.getWidth(), decoded.getHeight(), previewMax));
+            write(preview, derivative(original, Variant.PREVIEW));
+            write(thumbnail(preview), derivative(original, Variant.THUMBNAIL));
+            long elapsed = System.nanoTime() - start;
+            processed.incrementAndGet();
+            processingNanos.addAndGet(elapsed);
+            if (processingTimer != null) {
+                processingTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet();
+            if (failedCounter != null) {
+                failedCounter.increment();
+            }
+            logger.warn("Could not generate thumbnails for {}: {}", original.getFileName(), e.getMessage());
+        }
+    }
+
+    // Decode with subsampling so a 48MP photo is never held at full resolution
+    private BufferedImage decode(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IOException("image is " + width + "x" + height + ", over the pixel limit");
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / previewMax);
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Centre square of the preview, scaled to the thumbnail size
+    private BufferedImage thumbnail(BufferedImage image) {
+        int side = Math.min(image.getWidth(), image.getHeight());
+        BufferedImage square = image.getSubimage((image.getWidth() - side) / 2, (image.getHeight() - side) / 2, side, side);
+        int target = Math.min(side, thumbnailSize);
+        return scale(square, new int[] {target, target});
+    }
+
+    private static int[] fit(int width, int height, int max) {
+        if (width <= max && height <= max) {
+            return new int[] {width, height};
+        }
+        double ratio = (double) max / Math.max(width, height);
+        return new int[] {Math.max(1, (int) Math.round(width * ratio)), Math.max(1, (int) Math.round(height * ratio))};
+    }
+
+    /**
+     * Bilinear downscale in halving steps, which avoids the aliasing of one large step.
+     * Always returns an opaque RGB copy, so transparency is flattened onto white.
+     */
+    private static BufferedImage scale(BufferedImage source, int[] size) {
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(size[0], width / 2);
+            height = Math.max(size[1], height / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != size[0] || height != size[1]);
+        return current;
+    }
+
+    // Written to the upload temp directory first so readers never see a partial file
+    private void write(BufferedImage image, Path target) throws IOException {
+        Path temp = blobStore.newTempFile();
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.hostel.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hikari pool telemetry and a pool-size advisor. Live counts come from each pool's MXBean;
+ * acquire times and timeouts come from the hikaricp.* meters that Spring Boot binds to
+ * every pool. The advisor samples usage periodically and recommends a maximum pool size
+ * from observed waits, bounded by what the database can still accept.
+ */
+@Service
+public class ConnectionPoolMonitorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPoolMonitorService.class);
+
+    @Autowired
+    private ObjectProvider<HikariDataSource> pools;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    // Acquire time above which the pool is considered starved
+    @Value("${db.pool.advisor.target-acquire-ms:50}")
+    private double targetAcquireMillis;
+
+    // Application instances sharing the database connection limit
+    @Value("${db.pool.advisor.instances:1}")
+    private int instances;
+
+    @Value("${db.pool.advisor.window-samples:60}")
+    private int windowSamples;
+
+    private final Map<String, Deque<int[]>> samples = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> recommendedSizes = new ConcurrentHashMap<>();
+
+    /**
+     * Pool name -> live counts, configuration, acquire-time distribution and timeouts
+     */
+    public Map<String, Object> getPoolStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        pools.orderedStream().forEach(pool -> stats.put(pool.getPoolName(), describePool(pool)));
+        return stats;
+    }
+
+    /**
+     * Pool name -> recommended maximum pool size with the inputs and the reasoning behind it
+     */
+    public Map<String, Object> getSizingAdvice() {
+        Map<String, Object> advice = new LinkedHashMap<>();
+        pools.orderedStream().forEach(pool -> advice.put(pool.getPoolName(), advise(pool)));
+        return advice;
+    }
+
+    @Scheduled(fixedDelayString = "${db.pool.advisor.sample-interval-ms:10000}")
+    public void samplePools() {
+        pools.orderedStream().forEach(pool -> {
+            HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+            if (mxBean == null) {
+                return;
+            }
+            Deque<int[]> window = samples.computeIfAbsent(pool.getPoolName(), name -> new ArrayDeque<>());
+            synchronized (window) {
+                window.addLast(new int[] { mxBean.getActiveConnections(), mxBean.getThreadsAwaitingConnection() });
+                while (window.size() > windowSamples) {
+                    window.removeFirst();
+                }
+            }
+        });
+    }
+
+    /**
+     * Refresh the db.pool.recommended.size gauges and log pools whose size looks wrong
+     */
+    @Scheduled(fixedDelayString = "${db.pool.advisor.interval-ms:300000}",
+               initialDelayString = "${db.pool.advisor.interval-ms:300000}")
+    public void publishAdvice() {
+        getSizingAdvice().forEach((poolName, value) -> {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> advice = (Map<String, Object>) value;
+            if (!advice.containsKey("recommendedMaximumPoolSize")) {
+                return;
+            }
+            int recommended = (Integer) advice.get("recommendedMaximumPoolSize");
+            int current = (Integer) advice.get("currentMaximumPoolSize");
+            gaugeFor(poolName).set(recommended);
+            if (recommended != current) {
+                logger.info("Pool {}: recommend maximum size {} instead of {} ({})",
+                        poolName, recommended, current, advice.get("reason"));
+            }
+        });
+    }
+
+    private Map<String, Object> describePool(HikariDataSource pool) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+        stats.put("status", mxBean == null ? "NOT_STARTED" : "RUNNING");
+        if (mxBean != null) {
+            stats.put("active", mxBean.getActiveConnections());
+            stats.put("idle", mxBean.getIdleConnections());
+            stats.put("total", mxBean.getTotalConnections());
+            stats.put("threadsAwaitingConnection", mxBean.getThreadsAwaitingConnection());
+        }
+        stats.put("maximumPoolSize", pool.getMaximumPoolSize());
+        stats.put("minimumIdle", pool.getMinimumIdle());
+        stats.put("connectionTimeoutMs", pool.getConnectionTimeout());
+
+        MeterRegistry registry = meterRegistryProvider.getIfAvailable();
+        if (registry != null) {
+            Timer acquire = registry.find("hikaricp.connections.acquire").tag("pool", pool.getPoolName()).timer();
+            if (acquire != null) {
+                stats.put("acquire", describeAcquireTimes(acquire.takeSnapshot()));
+            }
+            Counter timeouts = registry.find("hikaricp.connections.timeout").tag("pool", pool.getPoolName()).counter();
+            stats.put("timeouts", timeouts != null ? (long) timeouts.count() : 0L);
+        }
+        return stats;
+    }
+
+    private Map<String, Object> describeAcquireTimes(HistogramSnapshot snapshot) {
+        Map<String, Object> acquire = new LinkedHashMap<>();
+        acquire.put("count", snapshot.count());
+        acquire.put("meanMs", round(snapshot.mean(TimeUnit.MILLISECONDS)));
+        acquire.put("maxMs", round(snapshot.max(TimeUnit.MILLISECONDS)));
+
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            percentiles.put("p" + Math.round(percentile.percentile() * 100), round(percentile.value(TimeUnit.MILLISECONDS)));
+        }
+        acquire.put("percentilesMs", percentiles);
+
+        // Cumulative counts of acquisitions at or below each bucket boundary
+        Map<String, Object> histogram = new LinkedHashMap<>();
+        for (CountAtBucket bucket : snapshot.histogramCounts()) {
+            histogram.put("le" + round(bucket.bucket(TimeUnit.MILLISECONDS)) + "ms", (long) bucket.count());
+        }
+        acquire.put("histogram", histogram);
+        return acquire;
+    }
+
+    private Map<String, Object> advise(HikariDataSource pool) {
+        Map<String, Object> advice = new LinkedHashMap<>();
+        int currentMax = pool.getMaximumPoolSize();
+        advice.put("currentMaximumPoolSize", currentMax);
+
+        Deque<int[]> window = samples.get(pool.getPoolName());
+        if (window == null || window.isEmpty()) {
+            advice.put("reason", "No usage samples collected yet");
+            return advice;
+        }
+        int peakActive = 0;
+        int peakPending = 0;
+        synchronized (window) {
+            for (int[] sample : window) {
+                peakActive = Math.max(peakActive, sample[0]);
+                peakPending = Math.max(peakPending, sample[1]);
+            }
+        }
+        double acquireP95 = acquirePercentile(pool.getPoolName(), 0.95);
+        advice.put("samples", window.size());
+        advice.put("peakActive", peakActive);
+        advice.put("peakThreadsAwaiting", peakPending);
+        advice.put("acquireP95Ms", Double.isNaN(acquireP95) ? null : round(acquireP95));
+
+        int recommended;
+        String reason;
+        if (peakPending > 0 || acquireP95 > targetAcquireMillis) {
+            // Cover the observed demand, growing at most twofold per step
+            recommended = Math.min(currentMax * 2, Math.max(currentMax + 1, peakActive + peakPending + 1));
+            reason = "Requests waited for connections";
+        } else if (peakActive < currentMax / 2) {
+            recommended = Math.max(1, peakActive + Math.max(1, (int) Math.ceil(peakActive * 0.25)));
+            reason = "Peak usage stays below half of the pool";
+        } else {
+            recommended = currentMax;
+            reason = "Pool size matches observed demand";
+        }
+
+        int databaseLimit = databaseConnectionBudget(pool);
+        if (databaseLimit > 0) {
+            advice.put("databaseConnectionBudget", databaseLimit);
+            if (recommended > databaseLimit) {
+                recommended = databaseLimit;
+                reason += "; capped by the database connection limit";
+            }
+        }
+        advice.put("recommendedMaximumPoolSize", recommended);
+        advice.put("reason", reason);
+        return advice;
+    }
+
+    /**
+     * Connections this pool may hold per instance without exhausting max_connections, after
+     * reserved slots and connections held by other clients. Returns 0 when unknown.
+     */
+    private int databaseConnectionBudget(HikariDataSource pool) {
+        HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+        if (mxBean == null) {
+            return 0;
+        }
+        try {
+            Map<String, Object> limits = new JdbcTemplate(pool).queryForMap(
+                    "SELECT current_setting('max_connections')::int AS max_connections, " +
+                    "current_setting('superuser_reserved_connections')::int AS reserved, " +
+                    "(SELECT count(*) FROM pg_stat_activity WHERE backend_type = 'client backend') AS in_use");
+            int maxConnections = ((Number) limits.get("max_connections")).intValue();
+            int reserved = ((Number) limits.get("reserved")).intValue();
+            int inUse = ((Number) limits.get("in_use")).intValue();
+            int ownConnections = mxBean.getTotalConnections() * Math.max(1, instances);
+            int otherClients = Math.max(0, inUse - ownConnections);
+            return Math.max(1, (maxConnections - reserved - otherClients) / Math.max(1, instances));
+        } catch (DataAccessException e) {
+            logger.warn("Could not read database connection limits for pool {}: {}", pool.getPoolName(), e.getMessage());
+            return 0;
+        }
+    }
+
+    private double acquirePercentile(String poolName, double percentile) {
+        MeterRegistry registry = meterRegistryProvider.getIfAvailable();
+        if (registry == null) {
+            return Double.NaN;
+        }
+        Timer acquire = registry.find("hikaricp.connections.acquire").tag("pool", poolName).timer();
+        if (acquire == null) {
+            return Double.NaN;
+        }
+        for (ValueAtPercentile value : acquire.takeSnapshot().percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    private AtomicInteger gaugeFor(String poolName) {
+        return recommendedSizes.computeIfAbsent(poolName, name -> {
+            AtomicInteger value = new AtomicInteger();
+            MeterRegistry registry = meterRegistryProvider.getIfAvailable();
+            if (registry != null) {
+                Gauge.builder("db.pool.recommended.size", value, AtomicInteger::get)
+                        .tag("pool", name)
+                        .register(registry);
+            }
+            return value;
+        });
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,41 @@
+package com.hostel.service;
+
+import com.hostel.dto.UserSummary;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Resolves the acting user for permission checks from the JWT in the security context,
+ * without any lookup. The user ids callers pass are only checked against the token.
+ */
+@Service
+public class CurrentUserService {
+
+    public UserSummary getAuthenticatedUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserSummary user) {
+            return user;
+        }
+        return null;
+    }
+
+    /**
+     * Resolve the user acting as userId. The caller must be token-authenticated and may only
+     * act as itself; otherwise this throws AccessDeniedException, which controllers answer
+     * with 403. A null userId means the caller itself.
+     */
+    public UserSummary resolve(UUID userId) {
+        UserSummary authenticated = getAuthenticatedUser();
+        if (authenticated == null) {
+            throw new AccessDeniedException("Authentication required");
+        }
+        if (userId != null && !authenticated.getId().equals(userId)) {
+            throw new AccessDeniedException("Authenticated user does not match the requesting user");
+        }
+        return authenticated;
+    }
+}
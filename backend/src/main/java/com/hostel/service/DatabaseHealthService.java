@@ -11,6 +11,7 @@ import org.springframework.stereotype.Service;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Map;
 
 /**
  * Service to monitor database health and keep connections alive
@@ -26,6 +27,9 @@ public class DatabaseHealthService {
     @Autowired
     private DataSource dataSource;
     
+    @Autowired
+    private ConnectionPoolMonitorService connectionPoolMonitorService;
+    
     /**
      * Ping database every 30 seconds to keep connection alive
      */
@@ -105,15 +109,14 @@ public class DatabaseHealthService {
     }
     
     /**
-     * Get connection pool status
+     * Get connection pool status (live Hikari counts, acquire times and timeouts per pool)
      */
-    public String getConnectionPoolStatus() {
+    public Map<String, Object> getConnectionPoolStatus() {
         try {
-            // This will depend on the connection pool implementation
-            return "Connection pool status: Active";
+            return connectionPoolMonitorService.getPoolStats();
         } catch (Exception e) {
             logger.error("Failed to get connection pool status: {}", e.getMessage());
-            return "Connection pool status: Unknown";
+            return Map.of("status", "UNKNOWN");
         }
     }
 }
@@ -4,12 +4,22 @@ import com.hostel.entity.*;
 import com.hostel.repository.TicketRepository;
 import com.hostel.repository.UserRepository;
 import com.hostel.repository.TicketEscalationRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Service for managing ticket escalations based on time thresholds and SLA breaches
@@ -17,6 +27,11 @@ import java.util.Optional;
 @Service
 public class EscalationService {
 
+    private static final Logger logger = LoggerFactory.getLogger(EscalationService.class);
+
+    // Tickets that count towards a staff member's workload when picking the least busy one
+    private static final List<TicketStatus> WORKLOAD_STATUSES = List.of(TicketStatus.ASSIGNED, TicketStatus.IN_PROGRESS);
+
     @Autowired
     private TicketRepository ticketRepository;
 
@@ -29,18 +44,29 @@ public class EscalationService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Tickets escalated per transaction, aligned with the JDBC batch size
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int writeBatchSize;
+
     /**
      * Check and process automatic escalations
      */
     public void processAutomaticEscalations() {
-        processTimeBasedEscalations();
-        processSLABreachEscalations();
+        EscalationTargets targets = new EscalationTargets();
+        processTimeBasedEscalations(targets);
+        processSLABreachEscalations(targets);
     }
 
     /**
      * Process escalations based on time thresholds
      */
-    private void processTimeBasedEscalations() {
+    private void processTimeBasedEscalations(EscalationTargets targets) {
         LocalDateTime now = LocalDateTime.now();
         
         // Emergency: 1 hour without assignment
@@ -48,48 +74,88 @@ public class EscalationService {
         List<Ticket> emergencyTickets = ticketRepository.findTicketsForTimeBasedEscalation(
             TicketPriority.EMERGENCY, TicketStatus.OPEN, emergencyThreshold);
         
-        for (Ticket ticket : emergencyTickets) {
-            escalateTicket(ticket, "Emergency ticket unassigned for over 1 hour", EscalationLevel.EMERGENCY_UNASSIGNED);
-        }
+        escalateInChunks(emergencyTickets, "Emergency ticket unassigned for over 1 hour", EscalationLevel.EMERGENCY_UNASSIGNED, targets);
 
         // High: 4 hours without progress
         LocalDateTime highThreshold = now.minusHours(4);
         List<Ticket> highTickets = ticketRepository.findTicketsForProgressEscalation(
             TicketPriority.HIGH, List.of(TicketStatus.ASSIGNED, TicketStatus.IN_PROGRESS), highThreshold);
         
-        for (Ticket ticket : highTickets) {
-            escalateTicket(ticket, "High priority ticket without progress for over 4 hours", EscalationLevel.HIGH_NO_PROGRESS);
-        }
+        escalateInChunks(highTickets, "High priority ticket without progress for over 4 hours", EscalationLevel.HIGH_NO_PROGRESS, targets);
 
         // Medium: 24 hours without assignment
         LocalDateTime mediumThreshold = now.minusHours(24);
         List<Ticket> mediumTickets = ticketRepository.findTicketsForTimeBasedEscalation(
             TicketPriority.MEDIUM, TicketStatus.OPEN, mediumThreshold);
         
-        for (Ticket ticket : mediumTickets) {
-            escalateTicket(ticket, "Medium priority ticket unassigned for over 24 hours", EscalationLevel.MEDIUM_UNASSIGNED);
-        }
+        escalateInChunks(mediumTickets, "Medium priority ticket unassigned for over 24 hours", EscalationLevel.MEDIUM_UNASSIGNED, targets);
 
         // Low: 72 hours without assignment
         LocalDateTime lowThreshold = now.minusHours(72);
         List<Ticket> lowTickets = ticketRepository.findTicketsForTimeBasedEscalation(
             TicketPriority.LOW, TicketStatus.OPEN, lowThreshold);
         
-        for (Ticket ticket : lowTickets) {
-            escalateTicket(ticket, "Low priority ticket unassigned for over 72 hours", EscalationLevel.LOW_UNASSIGNED);
-        }
+        escalateInChunks(lowTickets, "Low priority ticket unassigned for over 72 hours", EscalationLevel.LOW_UNASSIGNED, targets);
     }
 
     /**
      * Process escalations based on SLA breaches
      */
-    private void processSLABreachEscalations() {
+    private void processSLABreachEscalations(EscalationTargets targets) {
         LocalDateTime now = LocalDateTime.now();
         List<Ticket> breachedTickets = ticketRepository.findTicketsWithSLABreach(now);
         
-        for (Ticket ticket : breachedTickets) {
-            if (!hasRecentEscalation(ticket, EscalationLevel.SLA_BREACH)) {
-                escalateTicket(ticket, "Ticket has breached SLA", EscalationLevel.SLA_BREACH);
+        List<Ticket> toEscalate = breachedTickets.stream()
+            .filter(ticket -> !hasRecentEscalation(ticket, EscalationLevel.SLA_BREACH))
+            .toList();
+        escalateInChunks(toEscalate, "Ticket has breached SLA", EscalationLevel.SLA_BREACH, targets);
+    }
+
+    /**
+     * Escalate tickets in chunks, one transaction per chunk, so the escalation inserts and
+     * ticket updates of a chunk are flushed as JDBC batches and a failed chunk does not
+     * undo the others. Tickets changed since they were selected are left for the next run,
+     * which re-checks them against the escalation rules.
+     */
+    private void escalateInChunks(List<Ticket> tickets, String reason, EscalationLevel level,
+                                  EscalationTargets targets) {
+        Map<UUID, Long> selectedVersions = new HashMap<>();
+        for (Ticket ticket : tickets) {
+            selectedVersions.put(ticket.getId(), ticket.getVersion());
+        }
+        List<UUID> ticketIds = tickets.stream().map(Ticket::getId).toList();
+        for (int start = 0; start < ticketIds.size(); start += writeBatchSize) {
+            List<UUID> chunk = ticketIds.subList(start, Math.min(start + writeBatchSize, ticketIds.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (Ticket ticket : ticketRepository.findAllById(chunk)) {
+                        if (Objects.equals(ticket.getVersion(), selectedVersions.get(ticket.getId()))) {
+                            escalateTicket(ticket, reason, level, targets);
+                        }
+                    }
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+            } catch (RuntimeException e) {
+                if (OptimisticRetryService.isConflict(e)) {
+                    // Only the ticket that changed concurrently should miss this run
+                    escalateIndividually(chunk, selectedVersions, reason, level, targets);
+                } else {
+                    logger.error("Failed to escalate {} tickets for {}: {}", chunk.size(), level, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void escalateIndividually(List<UUID> ticketIds, Map<UUID, Long> selectedVersions,
+                                      String reason, EscalationLevel level, EscalationTargets targets) {
+        for (UUID ticketId : ticketIds) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> ticketRepository.findById(ticketId)
+                        .filter(ticket -> Objects.equals(ticket.getVersion(), selectedVersions.get(ticketId)))
+                        .ifPresent(ticket -> escalateTicket(ticket, reason, level, targets)));
+            } catch (RuntimeException e) {
+                logger.info("Skipping escalation of ticket {} for {}: {}", ticketId, level, e.getMessage());
             }
         }
     }
@@ -98,15 +164,19 @@ public class EscalationService {
      * Escalate a ticket to the next level
      */
     public void escalateTicket(Ticket ticket, String reason, EscalationLevel level) {
+        escalateTicket(ticket, reason, level, new EscalationTargets());
+    }
+
+    private void escalateTicket(Ticket ticket, String reason, EscalationLevel level, EscalationTargets targets) {
         // Find escalation target based on current assignment and level
-        User escalationTarget = findEscalationTarget(ticket, level);
+        User escalationTarget = targets.find(ticket, level);
         
         if (escalationTarget == null) {
             // No escalation target found, log and notify admins
             notificationService.sendAdminNotification(
                 "Escalation Failed",
                 String.format("Could not find escalation target for ticket %s", ticket.getTicketNumber()),
-                NotificationType.SYSTEM_ALERT,
+                NotificationType.IN_APP,
                 ticket
             );
             return;
@@ -117,10 +187,8 @@ public class EscalationService {
         escalation.setTicket(ticket);
         escalation.setEscalatedFrom(ticket.getAssignedTo());
         escalation.setEscalatedTo(escalationTarget);
-        escalation.setEscalationLevel(level.getLevel());
         escalation.setReason(reason);
         escalation.setEscalatedAt(LocalDateTime.now());
-        escalation.setIsAutoEscalated(true);
         
         escalationRepository.save(escalation);
 
@@ -136,91 +204,122 @@ public class EscalationService {
         ticket.setStatus(TicketStatus.ASSIGNED);
         ticket.setUpdatedAt(LocalDateTime.now());
         ticketRepository.save(ticket);
+        targets.assigned(escalationTarget);
 
         // Send notifications
         sendEscalationNotifications(ticket, escalation, escalationTarget);
     }
 
     /**
-     * Find the appropriate escalation target based on hierarchy
+     * Escalation targets for one run. The admins, the supervisors of each vertical and the
+     * staff workloads are read once, on first use, instead of once per escalated ticket; the
+     * workloads are then kept current as this run assigns tickets, so consecutive tickets
+     * still go to the least busy staff member. The users are detached and only used as
+     * references and for their names.
      */
-    private User findEscalationTarget(Ticket ticket, EscalationLevel level) {
-        switch (level) {
-            case EMERGENCY_UNASSIGNED:
-            case HIGH_NO_PROGRESS:
-                // Escalate to supervisor or available senior staff
-                return findSupervisorOrSeniorStaff(ticket);
-            
-            case MEDIUM_UNASSIGNED:
-            case LOW_UNASSIGNED:
-                // Escalate to any available staff member
-                return findAvailableStaff(ticket);
-            
-            case SLA_BREACH:
-                // Escalate to department head or admin
-                return findDepartmentHeadOrAdmin();
-            
-            default:
-                return null;
+    private class EscalationTargets {
+
+        private List<User> admins;
+        private final Map<StaffVertical, List<User>> supervisors = new HashMap<>();
+        private List<User> staff;
+        private Map<UUID, Integer> workloads;
+
+        /**
+         * Find the appropriate escalation target based on hierarchy
+         */
+        User find(Ticket ticket, EscalationLevel level) {
+            switch (level) {
+                case EMERGENCY_UNASSIGNED:
+                case HIGH_NO_PROGRESS:
+                    // Escalate to supervisor or available senior staff
+                    return findSupervisorOrSeniorStaff(ticket);
+                
+                case MEDIUM_UNASSIGNED:
+                case LOW_UNASSIGNED:
+                    // Escalate to any available staff member
+                    return findAvailableStaff();
+                
+                case SLA_BREACH:
+                    // Escalate to department head or admin
+                    return findDepartmentHeadOrAdmin();
+                
+                default:
+                    return null;
+            }
         }
-    }
 
-    /**
-     * Find supervisor or senior staff for escalation
-     */
-    private User findSupervisorOrSeniorStaff(Ticket ticket) {
-        // First try to find a supervisor in the same vertical
-        if (ticket.getAssignedTo() != null && ticket.getAssignedTo().getStaffVertical() != null) {
-            List<User> supervisors = userRepository.findSupervisorsByVertical(ticket.getAssignedTo().getStaffVertical());
-            if (!supervisors.isEmpty()) {
-                return supervisors.get(0); // Return first available supervisor
+        /**
+         * Count a ticket this run assigned towards its assignee's workload
+         */
+        void assigned(User assignee) {
+            if (workloads != null) {
+                workloads.merge(assignee.getId(), 1, Integer::sum);
             }
         }
-        
-        // Fallback to any admin
-        return findDepartmentHeadOrAdmin();
-    }
 
-    /**
-     * Find available staff member for escalation
-     */
-    private User findAvailableStaff(Ticket ticket) {
-        // Find staff with lowest current workload
-        List<User> availableStaff = userRepository.findByRoleAndIsActiveTrue(UserRole.STAFF);
-        
-        User leastBusyStaff = null;
-        int minWorkload = Integer.MAX_VALUE;
-        
-        for (User staff : availableStaff) {
-            int currentWorkload = ticketRepository.countByAssignedToAndStatusIn(
-                staff, List.of(TicketStatus.ASSIGNED, TicketStatus.IN_PROGRESS));
+        /**
+         * Find supervisor or senior staff for escalation
+         */
+        private User findSupervisorOrSeniorStaff(Ticket ticket) {
+            // First try to find a supervisor in the same vertical
+            if (ticket.getAssignedTo() != null && ticket.getAssignedTo().getStaffVertical() != null) {
+                List<User> verticalSupervisors = supervisors.computeIfAbsent(ticket.getAssignedTo().getStaffVertical(),
+                        vertical -> userRepository.findSupervisorsByVertical(vertical));
+                if (!verticalSupervisors.isEmpty()) {
+                    return verticalSupervisors.get(0); // Return first available supervisor
+                }
+            }
             
-            if (currentWorkload < minWorkload) {
-                minWorkload = currentWorkload;
-                leastBusyStaff = staff;
+            // Fallback to any admin
+            return findDepartmentHeadOrAdmin();
+        }
+
+        /**
+         * Find the available staff member with the lowest current workload
+         */
+        private User findAvailableStaff() {
+            if (staff == null) {
+                staff = userRepository.findByRoleAndIsActiveTrue(UserRole.STAFF);
+                workloads = new HashMap<>();
+                if (!staff.isEmpty()) {
+                    for (Object[] row : ticketRepository.countByAssignedToInAndStatusIn(staff, WORKLOAD_STATUSES)) {
+                        workloads.put((UUID) row[0], ((Number) row[1]).intValue());
+                    }
+                }
+            }
+            
+            User leastBusyStaff = null;
+            int minWorkload = Integer.MAX_VALUE;
+            
+            for (User candidate : staff) {
+                int currentWorkload = workloads.getOrDefault(candidate.getId(), 0);
+                
+                if (currentWorkload < minWorkload) {
+                    minWorkload = currentWorkload;
+                    leastBusyStaff = candidate;
+                }
             }
+            
+            return leastBusyStaff;
         }
-        
-        return leastBusyStaff;
-    }
 
-    /**
-     * Find department head or admin for critical escalations
-     */
-    private User findDepartmentHeadOrAdmin() {
-        List<User> admins = userRepository.findByRoleAndIsActiveTrue(UserRole.ADMIN);
-        return admins.isEmpty() ? null : admins.get(0);
+        /**
+         * Find department head or admin for critical escalations
+         */
+        private User findDepartmentHeadOrAdmin() {
+            if (admins == null) {
+                admins = userRepository.findByRoleAndIsActiveTrue(UserRole.ADMIN);
+            }
+            return admins.isEmpty() ? null : admins.get(0);
+        }
     }
 
     /**
-     * Check if ticket has recent escalation of the given level
+     * Check if ticket was escalated in the last 24 hours. Escalations do not store their level,
+     * so any recent escalation counts, whatever the level.
      */
     private boolean hasRecentEscalation(Ticket ticket, EscalationLevel level) {
-        LocalDateTime twentyFourHoursAgo = LocalDateTime.now().minusHours(24);
-        List<TicketEscalation> recentEscalations = escalationRepository.findByTicketAndEscalationLevelAndEscalatedAtAfter(
-            ticket, level.getLevel(), twentyFourHoursAgo);
-        
-        return !recentEscalations.isEmpty();
+        return escalationRepository.existsByTicketAndEscalatedAtAfter(ticket, LocalDateTime.now().minusHours(24));
     }
 
     /**
@@ -239,7 +338,7 @@ public class EscalationService {
             escalationTarget,
             "Ticket Escalated",
             message,
-            NotificationType.ESCALATION,
+            NotificationType.IN_APP,
             ticket
         );
 
@@ -257,7 +356,7 @@ public class EscalationService {
                 escalation.getEscalatedFrom(),
                 "Ticket Escalated",
                 originalAssigneeMessage,
-                NotificationType.ESCALATION,
+                NotificationType.IN_APP,
                 ticket
             );
         }
@@ -266,7 +365,7 @@ public class EscalationService {
         notificationService.sendAdminNotification(
             "Ticket Escalated",
             message,
-            NotificationType.ESCALATION,
+            NotificationType.IN_APP,
             ticket
         );
     }
@@ -0,0 +1,41 @@
+package com.hostel.service;
+
+import com.hostel.config.ReplicaRoutingDataSource;
+import com.hostel.dto.DTOMapper;
+import com.hostel.dto.HostelBlockSummary;
+import com.hostel.repository.HostelBlockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Cached read access to hostel blocks. The application has no block write path: rows
+ * changed in SQL show once the cache entry expires, or at once after {@link #evictAll()}.
+ * Refills read the primary.
+ */
+@Service
+@Transactional(readOnly = true)
+public class HostelBlockService {
+
+    public static final String HOSTEL_BLOCK_CACHE = "hostelBlocks";
+
+    @Autowired
+    private HostelBlockRepository hostelBlockRepository;
+
+    @Cacheable(value = HOSTEL_BLOCK_CACHE, key = "'active'")
+    public List<HostelBlockSummary> getActiveBlocks() {
+        return ReplicaRoutingDataSource.readFromPrimary(() -> hostelBlockRepository
+                .findByIsActiveTrueOrderByBlockName().stream()
+                .map(DTOMapper::toHostelBlockSummary)
+                .collect(Collectors.toList()));
+    }
+
+    @CacheEvict(value = HOSTEL_BLOCK_CACHE, allEntries = true)
+    public void evictAll() {
+    }
+}
@@ -0,0 +1,103 @@
+package com.hostel.service;
+
+import com.hostel.dto.UserSummary;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Issues and validates signed access tokens. A valid signature only establishes who the
+ * caller is: role, staff vertical, hostel block and the active flag are taken from the
+ * cached user summary (UserService.getUserSummary), so deactivating a user or changing
+ * their role applies to tokens already issued as soon as that summary is evicted. The
+ * claims are still issued for clients that read them.
+ *
+ * jwt.secret has no default; startup fails unless it is at least 32 bytes.
+ */
+@Service
+public class JwtService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtService.class);
+
+    private static final String CLAIM_ROLE = "role";
+    private static final String CLAIM_STAFF_VERTICAL = "staffVertical";
+    private static final String CLAIM_HOSTEL_BLOCK = "hostelBlock";
+
+    // HS256 requires a key of at least 256 bits
+    private static final int MIN_KEY_BYTES = 32;
+
+    @Autowired
+    private UserService userService;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Value("${jwt.expiration:86400000}")
+    private long expirationMillis;
+
+    private SecretKey signingKey;
+
+    @PostConstruct
+    void initSigningKey() {
+        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length < MIN_KEY_BYTES) {
+            throw new IllegalStateException("jwt.secret must be at least " + MIN_KEY_BYTES +
+                    " bytes; set JWT_SECRET to a random value of that length");
+        }
+        signingKey = Keys.hmacShaKeyFor(keyBytes);
+    }
+
+    public String generateToken(UserSummary user) {
+        Date now = new Date();
+        return Jwts.builder()
+                .subject(user.getId().toString())
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_STAFF_VERTICAL, user.getStaffVertical() != null ? user.getStaffVertical().name() : null)
+                .claim(CLAIM_HOSTEL_BLOCK, user.getHostelBlock() != null ? user.getHostelBlock().name() : null)
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + expirationMillis))
+                .signWith(signingKey)
+                .compact();
+    }
+
+    /**
+     * Validate a token and return the current summary of the user it was issued to.
+     * Returns null when the token is invalid or expired, or the user no longer exists
+     * or is inactive.
+     */
+    public UserSummary parseToken(String token) {
+        try {
+            Claims claims = Jwts.parser()
+                    .verifyWith(signingKey)
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+
+            UserSummary user = userService.getUserSummary(UUID.fromString(claims.getSubject()));
+            if (user == null || !user.getIsActive()) {
+                logger.debug("Rejected JWT for missing or inactive user {}", claims.getSubject());
+                return null;
+            }
+            return user;
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Rejected JWT: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public long getExpirationMillis() {
+        return expirationMillis;
+    }
+}
@@ -0,0 +1,112 @@
+package com.hostel.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-account and per-IP token buckets for login attempts. Each attempt takes one token
+ * from both buckets; tokens refill continuously up to the bucket capacity.
+ */
+@Service
+public class LoginThrottleService {
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    @Value("${auth.throttle.account.capacity:5}")
+    private int accountCapacity;
+
+    @Value("${auth.throttle.account.refill-per-minute:5}")
+    private double accountRefillPerMinute;
+
+    @Value("${auth.throttle.ip.capacity:30}")
+    private int ipCapacity;
+
+    @Value("${auth.throttle.ip.refill-per-minute:30}")
+    private double ipRefillPerMinute;
+
+    private final Map<String, TokenBucket> accountBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> ipBuckets = new ConcurrentHashMap<>();
+
+    /**
+     * Try to take a token for this attempt. Returns 0 when allowed, otherwise the number
+     * of seconds until the caller may retry.
+     */
+    public long tryAcquire(String account, String ip) {
+        long now = System.nanoTime();
+        TokenBucket ipBucket = ipBuckets.computeIfAbsent(ip,
+                key -> new TokenBucket(ipCapacity, ipRefillPerMinute, now));
+        long ipWait = ipBucket.tryConsume(now);
+        if (ipWait > 0) {
+            recordThrottled("ip");
+            return ipWait;
+        }
+
+        TokenBucket accountBucket = accountBuckets.computeIfAbsent(account.toLowerCase(Locale.ROOT),
+                key -> new TokenBucket(accountCapacity, accountRefillPerMinute, now));
+        long accountWait = accountBucket.tryConsume(now);
+        if (accountWait > 0) {
+            recordThrottled("account");
+            return accountWait;
+        }
+        return 0;
+    }
+
+    /**
+     * Drop buckets that have refilled completely so idle accounts and IPs don't accumulate
+     */
+    @Scheduled(fixedDelayString = "${auth.throttle.cleanup-interval-ms:300000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        accountBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        ipBuckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    private void recordThrottled(String scope) {
+        MeterRegistry registry = meterRegistryProvider.getIfAvailable();
+        if (registry != null) {
+            registry.counter("auth.login.throttled", "scope", scope).increment();
+        }
+    }
+
+    static class TokenBucket {
+        private final double capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(double capacity, double refillPerMinute, long now) {
+            this.capacity = capacity;
+            this.refillPerNano = refillPerMinute / 60_000_000_000d;
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        synchronized long tryConsume(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / refillPerNano / 1_000_000_000d));
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.hostel.service;
+
+import com.hostel.repository.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Scheduled retention job for the notifications table.
+ * Moves read notifications older than the retention window into notifications_archive
+ * (or simply deletes them when archiving is disabled), one small transaction per batch
+ * so that no run holds row locks for longer than a single batch.
+ */
+@Service
+public class NotificationRetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationRetentionService.class);
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Value("${notifications.retention.days:90}")
+    private int retentionDays;
+
+    @Value("${notifications.retention.batch-size:500}")
+    private int batchSize;
+
+    @Value("${notifications.retention.max-batches-per-run:200}")
+    private int maxBatchesPerRun;
+
+    @Value("${notifications.retention.pause-between-batches-ms:50}")
+    private long pauseBetweenBatchesMs;
+
+    @Value("${notifications.retention.archive:true}")
+    private boolean archiveEnabled;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public NotificationRetentionService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Nightly purge of read notifications past the retention window
+     */
+    @Scheduled(cron = "${notifications.retention.cron:0 30 3 * * *}")
+    public void purgeExpiredNotifications() {
+        if (!running.compareAndSet(false, true)) {
+            logger.debug("Notification purge already running, skipping this trigger");
+            return;
+        }
+        try {
+            int purged = purgeReadNotificationsOlderThan(LocalDateTime.now().minusDays(retentionDays));
+            if (purged > 0) {
+                logger.info("Notification retention: purged {} read notifications older than {} days", purged, retentionDays);
+            }
+        } catch (Exception e) {
+            logger.error("Notification retention run failed: {}", e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Purge read notifications created before the cutoff in bounded batches.
+     * Returns the total number of rows removed from the notifications table.
+     */
+    public int purgeReadNotificationsOlderThan(LocalDateTime cutoff) {
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer purged = transactionTemplate.execute(status -> purgeBatch(cutoff));
+            if (purged == null || purged == 0) {
+                break;
+            }
+            total += purged;
+            if (purged < batchSize) {
+                break;
+            }
+            pause();
+        }
+        return total;
+    }
+
+    private int purgeBatch(LocalDateTime cutoff) {
+        List<UUID> ids = notificationRepository.findPurgeableIds(cutoff, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        if (archiveEnabled) {
+            notificationRepository.archiveByIds(ids, LocalDateTime.now());
+        }
+        return notificationRepository.deleteByIds(ids);
+    }
+
+    private void pause() {
+        if (pauseBetweenBatchesMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseBetweenBatchesMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.hostel.service;
+
+import com.hostel.entity.Notification;
+import com.hostel.entity.NotificationType;
+import com.hostel.entity.Ticket;
+import com.hostel.entity.User;
+import com.hostel.entity.UserRole;
+import com.hostel.repository.NotificationRepository;
+import com.hostel.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service for creating and reading user notifications.
+ * Keeps the unread counter cache in step with every insert and read-state change.
+ */
+@Service
+@Transactional
+public class NotificationService {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UnreadNotificationCounter unreadNotificationCounter;
+
+    /**
+     * Send a notification to a single user
+     */
+    public Notification sendNotification(User user, String title, String message, NotificationType type, Ticket relatedTicket) {
+        Notification notification = notificationRepository.save(
+                new Notification(user, title, message, type, relatedTicket));
+        unreadNotificationCounter.increment(user.getId(), 1);
+        return notification;
+    }
+
+    /**
+     * Send a copy of a notification to every active admin
+     */
+    public List<Notification> sendAdminNotification(String title, String message, NotificationType type, Ticket relatedTicket) {
+        List<User> admins = userRepository.findByRoleAndIsActiveTrue(UserRole.ADMIN);
+        List<Notification> notifications = new ArrayList<>();
+        for (User admin : admins) {
+            notifications.add(new Notification(admin, title, message, type, relatedTicket));
+        }
+
+        List<Notification> saved = notificationRepository.saveAll(notifications);
+        for (User admin : admins) {
+            unreadNotificationCounter.increment(admin.getId(), 1);
+        }
+        return saved;
+    }
+
+    @Transactional(readOnly = true)
+    public Page<Notification> getNotificationsForUser(UUID userId, Pageable pageable) {
+        return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<Notification> getUnreadNotificationsForUser(UUID userId, Pageable pageable) {
+        return notificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId, pageable);
+    }
+
+    /**
+     * Get the unread badge count, served from the counter cache
+     */
+    @Transactional(readOnly = true)
+    public long getUnreadCount(UUID userId) {
+        return unreadNotificationCounter.getUnreadCount(userId);
+    }
+
+    /**
+     * Mark a single notification as read; returns false if it was already read or not found
+     */
+    public boolean markAsRead(UUID notificationId, UUID userId) {
+        int updated = notificationRepository.markAsRead(notificationId, userId, LocalDateTime.now());
+        if (updated > 0) {
+            unreadNotificationCounter.decrement(userId, updated);
+        }
+        return updated > 0;
+    }
+
+    /**
+     * Mark all notifications of a user as read with a single UPDATE
+     */
+    public int markAllAsRead(UUID userId) {
+        int updated = notificationRepository.markAllAsRead(userId, LocalDateTime.now());
+        unreadNotificationCounter.reset(userId);
+        return updated;
+    }
+}
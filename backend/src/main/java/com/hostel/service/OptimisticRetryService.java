@@ -0,0 +1,122 @@
+package com.hostel.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Runs idempotent ticket transitions (set status, assign, unassign) in their own transaction
+ * and re-runs them on a @Version conflict. Each attempt reloads the ticket, so a retry
+ * applies the same transition to the state the other writer committed. Conflicts that
+ * outlast the attempts surface as OptimisticLockingFailureException for a 409.
+ *
+ * A transition whose precondition no longer holds on the reloaded ticket (say it was closed
+ * meanwhile) must not be forced through: the work then throws {@link StaleUpdateException},
+ * which is also a 409 but is not retried.
+ */
+@Service
+public class OptimisticRetryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetryService.class);
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    @Value("${tickets.optimistic-lock.max-attempts:3}")
+    private int maxAttempts;
+
+    // Base delay before a retry; doubles per attempt with random jitter
+    @Value("${tickets.optimistic-lock.backoff-ms:20}")
+    private long backoffMillis;
+
+    /**
+     * The update applied to what another writer committed no longer makes sense
+     */
+    public static class StaleUpdateException extends OptimisticLockingFailureException {
+        public StaleUpdateException(String message) {
+            super(message);
+        }
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        return execute(attempt -> work.get());
+    }
+
+    /**
+     * As execute(Supplier), passing the attempt number (1 for the first) so that the work can
+     * tell a precondition failing on a retry, i.e. because of the conflicting writer, apart
+     * from one that failed from the start
+     */
+    public <T> T execute(IntFunction<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Inside a caller's transaction the conflict only shows at its commit; let it decide
+            return work.apply(1);
+        }
+        for (int attempt = 1; ; attempt++) {
+            int current = attempt;
+            try {
+                return transactionTemplate.execute(status -> work.apply(current));
+            } catch (RuntimeException e) {
+                if (!isConflict(e) || e instanceof StaleUpdateException) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    count("tickets.optimistic_lock.conflicts");
+                    logger.info("Ticket update still conflicting after {} attempts: {}", attempt, e.getMessage());
+                    throw e instanceof OptimisticLockingFailureException conflict
+                            ? conflict
+                            : new ObjectOptimisticLockingFailureException(e.getMessage(), e);
+                }
+                count("tickets.optimistic_lock.retries");
+                backoff(attempt);
+            }
+        }
+    }
+
+    /**
+     * True for version conflicts, whether or not Spring has translated them yet
+     */
+    public static boolean isConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockingFailureException || cause instanceof OptimisticLockException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void backoff(int attempt) {
+        long delay = backoffMillis << (attempt - 1);
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delay + ThreadLocalRandom.current().nextLong(delay));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void count(String name) {
+        MeterRegistry registry = meterRegistryProvider.getIfAvailable();
+        if (registry != null) {
+            registry.counter(name).increment();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.hostel.service;
+
+import com.hostel.config.StatementCapture;
+import com.hostel.entity.TicketPriority;
+import com.hostel.entity.TicketStatus;
+import com.hostel.entity.User;
+import com.hostel.repository.TicketRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * EXPLAINs the hottest ticket queries and reports any that fall back to a sequential scan
+ * on tickets. Sequential scans are disabled for the check so that a tiny table does not
+ * hide a missing index: if the planner still picks one, no usable index exists.
+ *
+ * The SQL is the one Hibernate generates for the TicketRepository methods themselves,
+ * captured by {@link StatementCapture} before it is sent. Its JDBC placeholders become
+ * prepared-statement parameters and the generic plan is explained, i.e. the plan that holds
+ * for any bound values, without running the query.
+ */
+@Service
+public class QueryPlanCheckService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryPlanCheckService.class);
+
+    // tickets itself or one of its monthly partitions (see db/migration/V4)
+    private static final Pattern TICKETS_RELATION =
+            Pattern.compile("\"Relation Name\": \"tickets(_p\\d{4}_\\d{2}|_default)?\"");
+
+    private static final String STATEMENT_NAME = "query_plan_check";
+
+    private static final UUID SAMPLE_USER_ID = new UUID(0L, 0L);
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${db.query-plan-check.enabled:false}")
+    private boolean checkOnStartup;
+
+    @Value("${db.query-plan-check.fail-on-seq-scan:true}")
+    private boolean failOnSequentialScan;
+
+    /**
+     * Run EXPLAIN for every key query. Returns query name -> SEQ_SCAN or INDEX, with the
+     * names of queries that used a sequential scan on tickets listed under "violations".
+     */
+    public Map<String, Object> checkPlans() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        List<String> violations = new ArrayList<>();
+
+        for (Map.Entry<String, Runnable> query : keyQueries().entrySet()) {
+            String plan = explain(StatementCapture.capture(query.getValue()));
+            boolean sequentialScan = plan.contains("\"Node Type\": \"Seq Scan\"")
+                    && TICKETS_RELATION.matcher(plan).find();
+            result.put(query.getKey(), sequentialScan ? "SEQ_SCAN" : "INDEX");
+            if (sequentialScan) {
+                violations.add(query.getKey());
+            }
+        }
+        result.put("violations", violations);
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkPlansOnStartup() {
+        if (!checkOnStartup) {
+            return;
+        }
+        Map<String, Object> result = checkPlans();
+        @SuppressWarnings("unchecked")
+        List<String> violations = (List<String>) result.get("violations");
+        if (violations.isEmpty()) {
+            logger.info("Query plan check passed: {}", result);
+            return;
+        }
+
+        logger.error("Query plan check found sequential scans on tickets for: {}", violations);
+        if (failOnSequentialScan) {
+            throw new IllegalStateException("Key ticket queries fall back to sequential scans: " + violations);
+        }
+    }
+
+    /**
+     * The TicketRepository calls the V2 indexes serve; the arguments only have to be valid,
+     * since the generic plan does not depend on them
+     */
+    private Map<String, Runnable> keyQueries() {
+        LocalDateTime now = LocalDateTime.now();
+        User staff = new User();
+        staff.setId(SAMPLE_USER_ID);
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("staff workload count", () -> ticketRepository.countByAssignedToAndStatusIn(staff,
+                List.of(TicketStatus.ASSIGNED, TicketStatus.IN_PROGRESS, TicketStatus.ON_HOLD)));
+        queries.put("staff workloads", () -> ticketRepository.countByAssignedToInAndStatusIn(List.of(staff),
+                List.of(TicketStatus.ASSIGNED, TicketStatus.IN_PROGRESS)));
+        queries.put("time-based escalation", () -> ticketRepository.findTicketsForTimeBasedEscalation(
+                TicketPriority.HIGH, TicketStatus.OPEN, now.minusHours(4)));
+        queries.put("duplicate window", () -> ticketRepository.findByCreatedByIdAndCreatedAtAfter(
+                SAMPLE_USER_ID, now.minusHours(24)));
+        queries.put("SLA breach", () -> ticketRepository.findTicketsWithSLABreach(now));
+        queries.put("SLA approaching", () -> ticketRepository.findTicketsApproachingSLABreach(now));
+        // Served by idx_tickets_created_at on the one or two monthly partitions it prunes to
+        queries.put("created date range", () -> ticketRepository.findByCreatedAtBetween(
+                now.minusDays(30), now, PageRequest.of(0, 20)));
+        return queries;
+    }
+
+    private String explain(String sql) {
+        String[] prepared = toPreparedStatement(sql);
+        return transactionTemplate.execute(status -> {
+            // SET LOCAL only lasts for this transaction, so the pooled connection is unaffected
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+            // The NULL arguments would otherwise prune every partition away at executor start
+            jdbcTemplate.execute("SET LOCAL enable_partition_pruning = off");
+            // Prepared statements belong to the connection and outlive a rolled-back check
+            if (!jdbcTemplate.queryForList("SELECT name FROM pg_prepared_statements WHERE name = ?",
+                    String.class, STATEMENT_NAME).isEmpty()) {
+                jdbcTemplate.execute("DEALLOCATE " + STATEMENT_NAME);
+            }
+            jdbcTemplate.execute("PREPARE " + STATEMENT_NAME + " AS " + prepared[0]);
+            List<String> rows = jdbcTemplate.queryForList(
+                    "EXPLAIN (FORMAT JSON) EXECUTE " + STATEMENT_NAME + prepared[1], String.class);
+            jdbcTemplate.execute("DEALLOCATE " + STATEMENT_NAME);
+            return String.join("\n", rows);
+        });
+    }
+
+    /**
+     * Number the JDBC placeholders of a statement ($1, $2, ...) so it can be PREPAREd, and
+     * build the matching EXECUTE argument list of NULLs. Placeholders inside quoted literals
+     * and identifiers are left alone.
+     *
+     * @return the statement and the argument list, e.g. "(NULL, NULL)" or "" without parameters
+     */
+    static String[] toPreparedStatement(String sql) {
+        StringBuilder statement = new StringBuilder(sql.length() + 8);
+        int parameters = 0;
+        char quote = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+                statement.append(c);
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+                statement.append(c);
+            } else if (c == '?') {
+                statement.append('$').append(++parameters);
+            } else {
+                statement.append(c);
+            }
+        }
+        String arguments = parameters == 0 ? ""
+                : "(" + String.join(", ", Collections.nCopies(parameters, "NULL")) + ")";
+        return new String[] {statement.toString(), arguments};
+    }
+}
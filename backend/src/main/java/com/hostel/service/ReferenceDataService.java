@@ -0,0 +1,119 @@
+package com.hostel.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Holds precomputed JSON snapshots of reference data (categories, hostels, hostel blocks)
+ * together with a strong ETag derived from the content. Snapshots are rebuilt only when
+ * invalidated or after the configured refresh interval; a rebuild with unchanged content
+ * keeps the same ETag, so clients keep getting 304s.
+ */
+@Service
+public class ReferenceDataService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataService.class);
+
+    public static final String CATEGORIES = "categories";
+    public static final String HOSTELS = "hostels";
+    public static final String HOSTEL_BLOCKS = "hostel-blocks";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Upper bound on how long a node serves a snapshot another node may have invalidated
+    @Value("${reference-data.snapshot.refresh-seconds:300}")
+    private long refreshSeconds;
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Return the current snapshot for name, building it from builder when missing or stale
+     */
+    public Snapshot getSnapshot(String name, Supplier<?> builder) {
+        Snapshot snapshot = snapshots.get(name);
+        if (snapshot != null && !snapshot.isOlderThan(refreshSeconds)) {
+            return snapshot;
+        }
+        return snapshots.compute(name, (key, current) -> {
+            if (current != null && !current.isOlderThan(refreshSeconds)) {
+                return current;
+            }
+            Snapshot rebuilt = build(builder.get(), current);
+            if (current == null || !current.getEtag().equals(rebuilt.getEtag())) {
+                logger.info("Reference data snapshot '{}' built, version {}", key, rebuilt.getVersion());
+            }
+            return rebuilt;
+        });
+    }
+
+    public void invalidate(String name) {
+        Snapshot current = snapshots.get(name);
+        if (current != null) {
+            // Keep the version but force a rebuild on the next request
+            snapshots.put(name, new Snapshot(current.getBody(), current.getEtag(), current.getVersion(), Instant.EPOCH));
+        }
+    }
+
+    private Snapshot build(Object payload, Snapshot previous) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize reference data: " + e.getMessage(), e);
+        }
+        String etag = "\"" + sha256(body) + "\"";
+        if (previous != null && previous.getEtag().equals(etag)) {
+            return new Snapshot(previous.getBody(), etag, previous.getVersion(), Instant.now());
+        }
+        long version = previous != null ? previous.getVersion() + 1 : 1;
+        return new Snapshot(body, etag, version, Instant.now());
+    }
+
+    private String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Immutable serialized reference data with its strong ETag
+     */
+    public static class Snapshot {
+        private final byte[] body;
+        private final String etag;
+        private final long version;
+        private final Instant builtAt;
+
+        Snapshot(byte[] body, String etag, long version, Instant builtAt) {
+            this.body = body;
+            this.etag = etag;
+            this.version = version;
+            this.builtAt = builtAt;
+        }
+
+        public byte[] getBody() { return body; }
+        public String getEtag() { return etag; }
+        public long getVersion() { return version; }
+        public Instant getBuiltAt() { return builtAt; }
+
+        boolean isOlderThan(long seconds) {
+            return builtAt.plusSeconds(seconds).isBefore(Instant.now());
+        }
+    }
+}
@@ -145,7 +145,7 @@ public class SLAService {
                 ticket.getAssignedTo(),
                 "SLA Warning",
                 message,
-                NotificationType.SLA_WARNING,
+                NotificationType.IN_APP,
                 ticket
             );
         }
@@ -154,7 +154,7 @@ public class SLAService {
         notificationService.sendAdminNotification(
             "SLA Warning",
             message,
-            NotificationType.SLA_WARNING,
+            NotificationType.IN_APP,
             ticket
         );
     }
@@ -176,7 +176,7 @@ public class SLAService {
                 ticket.getAssignedTo(),
                 "SLA Breach",
                 message,
-                NotificationType.SLA_BREACH,
+                NotificationType.IN_APP,
                 ticket
             );
         }
@@ -185,7 +185,7 @@ public class SLAService {
         notificationService.sendAdminNotification(
             "SLA Breach",
             message,
-            NotificationType.SLA_BREACH,
+            NotificationType.IN_APP,
             ticket
         );
     }
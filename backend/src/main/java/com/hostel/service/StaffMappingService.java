@@ -0,0 +1,106 @@
+package com.hostel.service;
+
+import com.hostel.config.ReplicaRoutingDataSource;
+import com.hostel.dto.DTOMapper;
+import com.hostel.dto.StaffMappingSummary;
+import com.hostel.entity.CategoryStaffMapping;
+import com.hostel.repository.CategoryStaffMappingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Cached read access to active category-staff mappings. Any mapping change must call
+ * {@link #evictAll()} so that every node drops its copy. Refills read the primary.
+ */
+@Service
+@Transactional(readOnly = true)
+public class StaffMappingService {
+
+    public static final String STAFF_MAPPING_CACHE = "staffMappings";
+
+    @Autowired
+    private CategoryStaffMappingRepository categoryStaffMappingRepository;
+
+    @Cacheable(value = STAFF_MAPPING_CACHE, key = "'all'")
+    public List<StaffMappingSummary> getActiveMappings() {
+        return ReplicaRoutingDataSource.readFromPrimary(() -> categoryStaffMappingRepository
+                .findByIsActiveTrueOrderByPriorityLevelAsc().stream()
+                .map(DTOMapper::toStaffMappingSummary)
+                .collect(Collectors.toList()));
+    }
+
+    @Cacheable(value = STAFF_MAPPING_CACHE, key = "'staff:' + #staffId")
+    public List<StaffMappingSummary> getActiveMappingsByStaff(UUID staffId) {
+        return ReplicaRoutingDataSource.readFromPrimary(() -> categoryStaffMappingRepository
+                .findByStaffIdAndIsActiveTrue(staffId).stream()
+                .map(DTOMapper::toStaffMappingSummary)
+                .collect(Collectors.toList()));
+    }
+
+    @Cacheable(value = STAFF_MAPPING_CACHE, key = "'category:' + #category")
+    public List<StaffMappingSummary> getActiveMappingsByCategory(String category) {
+        return ReplicaRoutingDataSource.readFromPrimary(() -> categoryStaffMappingRepository
+                .findByCategoryAndIsActiveTrueOrderByPriorityLevelAsc(category).stream()
+                .map(DTOMapper::toStaffMappingSummary)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Applies the non-null fields to an active mapping and returns its new summary, mapped
+     * while the staff member can still be loaded; empty if there is no active mapping
+     */
+    @Transactional
+    @CacheEvict(value = STAFF_MAPPING_CACHE, allEntries = true)
+    public Optional<StaffMappingSummary> updateMapping(UUID mappingId, String hostelBlock, Integer priorityLevel,
+                                                       BigDecimal capacityWeight, Integer expertiseLevel) {
+        CategoryStaffMapping mapping = categoryStaffMappingRepository.findById(mappingId).orElse(null);
+        if (mapping == null || !mapping.getIsActive()) {
+            return Optional.empty();
+        }
+        if (hostelBlock != null) {
+            mapping.setHostelBlockString(hostelBlock);
+        }
+        if (priorityLevel != null) {
+            mapping.setPriorityLevel(priorityLevel);
+        }
+        if (capacityWeight != null) {
+            mapping.setCapacityWeight(capacityWeight);
+        }
+        if (expertiseLevel != null) {
+            mapping.setExpertiseLevel(expertiseLevel);
+        }
+        // Flushed first so the summary carries the new updated_at
+        return Optional.of(DTOMapper.toStaffMappingSummary(categoryStaffMappingRepository.saveAndFlush(mapping)));
+    }
+
+    /**
+     * Soft delete; false if there is no such mapping
+     */
+    @Transactional
+    @CacheEvict(value = STAFF_MAPPING_CACHE, allEntries = true)
+    public boolean deactivateMapping(UUID mappingId) {
+        CategoryStaffMapping mapping = categoryStaffMappingRepository.findById(mappingId).orElse(null);
+        if (mapping == null) {
+            return false;
+        }
+        mapping.setIsActive(false);
+        categoryStaffMappingRepository.save(mapping);
+        return true;
+    }
+
+    /**
+     * Mappings are cached under several list keys, so a change clears the whole cache
+     */
+    @CacheEvict(value = STAFF_MAPPING_CACHE, allEntries = true)
+    public void evictAll() {
+    }
+}
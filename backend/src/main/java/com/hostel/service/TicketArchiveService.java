@@ -0,0 +1,446 @@
+package com.hostel.service;
+
+import com.hostel.dto.AttachmentDTO;
+import com.hostel.dto.DTOMapper;
+import com.hostel.dto.KeysetCursor;
+import com.hostel.dto.TicketAccess;
+import com.hostel.dto.TicketCommentDTO;
+import com.hostel.dto.TicketDTO;
+import com.hostel.dto.TicketHistoryDTO;
+import com.hostel.entity.HostelName;
+import com.hostel.entity.TicketAttachment;
+import com.hostel.entity.TicketCategory;
+import com.hostel.entity.TicketPriority;
+import com.hostel.entity.TicketStatus;
+import com.hostel.entity.User;
+import com.hostel.entity.UserRole;
+import com.hostel.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Hot/cold storage for tickets. A scheduled mover relocates CLOSED and CANCELLED tickets
+ * that have not changed for the configured number of days, together with their comments,
+ * history, attachment metadata and escalations, into the *_archive tables, one small
+ * transaction per batch. Readers fall back to the archive only for a ticket that is no
+ * longer in the live table or a date range that reaches past the archive horizon.
+ */
+@Service
+public class TicketArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketArchiveService.class);
+
+    // Tables keyed by ticket_id that move with their ticket, children before the parent
+    private static final List<String> CHILD_TABLES = List.of(
+            "ticket_comments", "ticket_history", "ticket_attachments", "ticket_escalations");
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${tickets.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tickets.archive.after-days:180}")
+    private int afterDays;
+
+    @Value("${tickets.archive.batch-size:200}")
+    private int batchSize;
+
+    @Value("${tickets.archive.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+
+    @Value("${tickets.archive.pause-between-batches-ms:100}")
+    private long pauseBetweenBatchesMs;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // live table -> column list shared with its archive table, resolved on first run
+    private volatile Map<String, String> columnLists;
+
+    public TicketArchiveService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Nightly move of old terminal tickets into the archive tables
+     */
+    @Scheduled(cron = "${tickets.archive.cron:0 0 4 * * *}")
+    public void archiveTerminalTickets() {
+        if (!enabled) {
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            logger.debug("Ticket archiving already running, skipping this trigger");
+            return;
+        }
+        try {
+            int moved = archiveTicketsUnchangedSince(getArchiveHorizon());
+            if (moved > 0) {
+                logger.info("Ticket archive: moved {} terminal tickets unchanged for {} days", moved, afterDays);
+            }
+        } catch (Exception e) {
+            logger.error("Ticket archive run failed: {}", e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Move CLOSED/CANCELLED tickets last updated before the cutoff in bounded batches.
+     * Returns the number of tickets moved.
+     */
+    public int archiveTicketsUnchangedSince(LocalDateTime cutoff) {
+        Map<String, String> columns = resolveColumnLists();
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer moved = transactionTemplate.execute(status -> archiveBatch(cutoff, columns));
+            if (moved == null || moved == 0) {
+                break;
+            }
+            total += moved;
+            if (moved < batchSize) {
+                break;
+            }
+            pause();
+        }
+        return total;
+    }
+
+    /**
+     * Tickets created before this point may have been archived; newer ones never are
+     */
+    public LocalDateTime getArchiveHorizon() {
+        return LocalDateTime.now().minusDays(afterDays);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<TicketDTO> findTicket(UUID ticketId) {
+        List<TicketDTO> tickets = queryTickets("SELECT * FROM tickets_archive WHERE id = :id",
+                new MapSqlParameterSource("id", ticketId));
+        return tickets.stream().findFirst();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<TicketAccess> findAccess(UUID ticketId) {
+        return jdbcTemplate.query(
+                "SELECT id, created_by, assigned_to, status FROM tickets_archive WHERE id = :id",
+                new MapSqlParameterSource("id", ticketId),
+                (rs, rowNum) -> new TicketAccess(
+                        rs.getObject("id", UUID.class),
+                        rs.getObject("created_by", UUID.class),
+                        rs.getObject("assigned_to", UUID.class),
+                        TicketStatus.valueOf(rs.getString("status"))))
+                .stream().findFirst();
+    }
+
+    @Transactional(readOnly = true)
+    public List<TicketHistoryDTO> getHistory(UUID ticketId) {
+        return jdbcTemplate.query(
+                "SELECT h.id, h.field_name, h.old_value, h.new_value, h.changed_at, " +
+                "u.id AS user_id, u.first_name, u.last_name " +
+                "FROM ticket_history_archive h LEFT JOIN users u ON u.id = h.changed_by " +
+                "WHERE h.ticket_id = :ticketId ORDER BY h.changed_at, h.id",
+                new MapSqlParameterSource("ticketId", ticketId), TicketArchiveService::mapHistory);
+    }
+
+    /**
+     * One keyset page of an archived ticket's event log, oldest first. A page after a cursor
+     * seeks on idx_ticket_history_archive_ticket_changed.
+     */
+    @Transactional(readOnly = true)
+    public Slice<TicketHistoryDTO> getHistory(UUID ticketId, KeysetCursor after, int size) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ticketId", ticketId).addValue("limit", size + 1);
+        String seek = "";
+        if (after != null) {
+            seek = "AND (h.changed_at, h.id) > (:afterChangedAt, :afterId) ";
+            params.addValue("afterChangedAt", after.getAt()).addValue("afterId", after.getId());
+        }
+        return toSlice(jdbcTemplate.query(
+                "SELECT h.id, h.field_name, h.old_value, h.new_value, h.changed_at, " +
+                "u.id AS user_id, u.first_name, u.last_name " +
+                "FROM ticket_history_archive h LEFT JOIN users u ON u.id = h.changed_by " +
+                "WHERE h.ticket_id = :ticketId " + seek +
+                "ORDER BY h.changed_at, h.id LIMIT :limit",
+                params, TicketArchiveService::mapHistory), size);
+    }
+
+    /**
+     * One keyset page of an archived ticket's comments, oldest first; internal notes only when
+     * asked for. A page after a cursor seeks on idx_ticket_comments_archive_ticket_created.
+     */
+    @Transactional(readOnly = true)
+    public Slice<TicketCommentDTO> getComments(UUID ticketId, boolean includeInternal, KeysetCursor after, int size) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ticketId", ticketId)
+                .addValue("includeInternal", includeInternal)
+                .addValue("limit", size + 1);
+        String seek = "";
+        if (after != null) {
+            seek = "AND (c.created_at, c.id) > (:afterCreatedAt, :afterId) ";
+            params.addValue("afterCreatedAt", after.getAt()).addValue("afterId", after.getId());
+        }
+        return toSlice(jdbcTemplate.query(
+                "SELECT c.id, c.comment, c.is_internal, c.created_at, " +
+                "u.id AS user_id, u.first_name, u.last_name, u.role " +
+                "FROM ticket_comments_archive c LEFT JOIN users u ON u.id = c.user_id " +
+                "WHERE c.ticket_id = :ticketId AND (:includeInternal OR NOT c.is_internal) " + seek +
+                "ORDER BY c.created_at, c.id LIMIT :limit",
+                params,
+                (rs, rowNum) -> new TicketCommentDTO(
+                        rs.getObject("id", UUID.class),
+                        rs.getString("comment"),
+                        rs.getBoolean("is_internal"),
+                        rs.getObject("user_id", UUID.class),
+                        rs.getString("first_name"),
+                        rs.getString("last_name"),
+                        rs.getString("role") != null ? UserRole.valueOf(rs.getString("role")) : null,
+                        toLocalDateTime(rs.getTimestamp("created_at")))), size);
+    }
+
+    /**
+     * Attachment metadata of an archived ticket, oldest first
+     */
+    @Transactional(readOnly = true)
+    public List<AttachmentDTO> getAttachments(UUID ticketId) {
+        return jdbcTemplate.query(
+                "SELECT id, original_filename, file_size, mime_type, uploaded_by, created_at " +
+                "FROM ticket_attachments_archive WHERE ticket_id = :ticketId ORDER BY created_at, id",
+                new MapSqlParameterSource("ticketId", ticketId),
+                (rs, rowNum) -> new AttachmentDTO(
+                        rs.getObject("id", UUID.class),
+                        rs.getString("original_filename"),
+                        rs.getLong("file_size"),
+                        rs.getString("mime_type"),
+                        rs.getObject("uploaded_by", UUID.class),
+                        toLocalDateTime(rs.getTimestamp("created_at"))));
+    }
+
+    /**
+     * One attachment of an archived ticket, detached and without its ticket or uploader;
+     * enough to serve the stored file
+     */
+    @Transactional(readOnly = true)
+    public Optional<TicketAttachment> findAttachment(UUID ticketId, UUID attachmentId) {
+        return jdbcTemplate.query(
+                "SELECT id, filename, original_filename, file_path, file_size, mime_type, content_hash, created_at " +
+                "FROM ticket_attachments_archive WHERE id = :id AND ticket_id = :ticketId",
+                new MapSqlParameterSource("id", attachmentId).addValue("ticketId", ticketId),
+                (rs, rowNum) -> {
+                    TicketAttachment attachment = new TicketAttachment();
+                    attachment.setId(rs.getObject("id", UUID.class));
+                    attachment.setFilename(rs.getString("filename"));
+                    attachment.setOriginalFilename(rs.getString("original_filename"));
+                    attachment.setFilePath(rs.getString("file_path"));
+                    attachment.setFileSize(rs.getLong("file_size"));
+                    attachment.setMimeType(rs.getString("mime_type"));
+                    attachment.setContentHash(rs.getString("content_hash"));
+                    attachment.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+                    return attachment;
+                })
+                .stream().findFirst();
+    }
+
+    /**
+     * Archived tickets created between from and to inclusive, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<TicketDTO> findTicketsCreatedBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        return queryTickets(
+                "SELECT * FROM tickets_archive WHERE created_at >= :from AND created_at <= :to " +
+                "ORDER BY created_at DESC LIMIT :limit",
+                new MapSqlParameterSource("from", from).addValue("to", to).addValue("limit", limit));
+    }
+
+    /**
+     * Whether an insert failed the V10 or V13 reference check because its ticket was archived or deleted
+     * after the caller looked it up
+     */
+    public static boolean isMissingTicket(DataIntegrityViolationException e) {
+        return e.getMostSpecificCause() instanceof SQLException sql && "23503".equals(sql.getSQLState());
+    }
+
+    private int archiveBatch(LocalDateTime cutoff, Map<String, String> columns) {
+        // Tickets that are still some live ticket's parent wait until their children have moved.
+        // A child insert in flight holds FOR KEY SHARE on its ticket (V10), so SKIP LOCKED leaves
+        // that ticket for the next run; one that starts later waits for us and then fails.
+        List<UUID> ids = jdbcTemplate.queryForList(
+                "SELECT t.id FROM tickets t " +
+                "WHERE t.status IN ('CLOSED', 'CANCELLED') AND t.updated_at < :cutoff " +
+                "AND NOT EXISTS (SELECT 1 FROM tickets c WHERE c.parent_ticket_id = t.id) " +
+                "ORDER BY t.updated_at LIMIT :batchSize FOR UPDATE SKIP LOCKED",
+                new MapSqlParameterSource("cutoff", cutoff).addValue("batchSize", batchSize),
+                UUID.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids)
+                .addValue("archivedAt", LocalDateTime.now());
+
+        for (String table : CHILD_TABLES) {
+            copyToArchive(table, "ticket_id", columns.get(table), params);
+        }
+        copyToArchive("tickets", "id", columns.get("tickets"), params);
+
+        // Live notifications keep their text; only the link to the moved ticket is dropped
+        jdbcTemplate.update("UPDATE notifications SET related_ticket_id = NULL WHERE related_ticket_id IN (:ids)", params);
+        for (String table : CHILD_TABLES) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE ticket_id IN (:ids)", params);
+        }
+        return jdbcTemplate.update("DELETE FROM tickets WHERE id IN (:ids)", params);
+    }
+
+    private void copyToArchive(String table, String keyColumn, String columnList, MapSqlParameterSource params) {
+        jdbcTemplate.update(
+                "INSERT INTO " + table + "_archive (" + columnList + ", archived_at) " +
+                "SELECT " + columnList + ", :archivedAt FROM " + table + " WHERE " + keyColumn + " IN (:ids) " +
+                "ON CONFLICT (id) DO NOTHING", params);
+    }
+
+    /**
+     * Column lists come from the catalog so the mover follows schema migrations; a live
+     * column missing from its archive table stops archiving rather than dropping data.
+     */
+    private Map<String, String> resolveColumnLists() {
+        Map<String, String> resolved = columnLists;
+        if (resolved != null) {
+            return resolved;
+        }
+        resolved = new HashMap<>();
+        List<String> tables = new ArrayList<>(CHILD_TABLES);
+        tables.add("tickets");
+        for (String table : tables) {
+            List<String> live = tableColumns(table);
+            List<String> archived = tableColumns(table + "_archive");
+            List<String> missing = live.stream().filter(column -> !archived.contains(column)).toList();
+            if (live.isEmpty() || !missing.isEmpty()) {
+                throw new IllegalStateException("Archive table " + table + "_archive does not match " + table +
+                        ", missing columns: " + missing);
+            }
+            resolved.put(table, String.join(", ", live));
+        }
+        columnLists = resolved;
+        return resolved;
+    }
+
+    private List<String> tableColumns(String table) {
+        return jdbcTemplate.queryForList(
+                "SELECT column_name FROM information_schema.columns " +
+                "WHERE table_schema = current_schema() AND table_name = :table ORDER BY ordinal_position",
+                new MapSqlParameterSource("table", table), String.class);
+    }
+
+    private List<TicketDTO> queryTickets(String sql, MapSqlParameterSource params) {
+        List<ArchivedTicketRow> rows = jdbcTemplate.query(sql, params, (rs, rowNum) -> ArchivedTicketRow.map(rs));
+        if (rows.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // Users are never archived; resolve creators and assignees in one lookup
+        Set<UUID> userIds = new HashSet<>();
+        for (ArchivedTicketRow row : rows) {
+            userIds.add(row.createdBy);
+            if (row.assignedTo != null) {
+                userIds.add(row.assignedTo);
+            }
+        }
+        Map<UUID, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return rows.stream().map(row -> {
+            TicketDTO dto = row.ticket;
+            dto.setCreatedBy(DTOMapper.toUserDTO(users.get(row.createdBy)));
+            dto.setAssignedTo(row.assignedTo != null ? DTOMapper.toUserDTO(users.get(row.assignedTo)) : null);
+            return dto;
+        }).collect(Collectors.toList());
+    }
+
+    private void pause() {
+        if (pauseBetweenBatchesMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseBetweenBatchesMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static TicketHistoryDTO mapHistory(ResultSet rs, int rowNum) throws SQLException {
+        return new TicketHistoryDTO(
+                rs.getObject("id", UUID.class),
+                rs.getString("field_name"),
+                rs.getString("old_value"),
+                rs.getString("new_value"),
+                rs.getObject("user_id", UUID.class),
+                rs.getString("first_name"),
+                rs.getString("last_name"),
+                toLocalDateTime(rs.getTimestamp("changed_at")));
+    }
+
+    // Rows fetched with LIMIT size + 1: the extra row only tells whether there is a next page
+    private static <T> Slice<T> toSlice(List<T> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, PageRequest.of(0, size), hasNext);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private static class ArchivedTicketRow {
+        private TicketDTO ticket;
+        private UUID createdBy;
+        private UUID assignedTo;
+
+        static ArchivedTicketRow map(ResultSet rs) throws SQLException {
+            TicketDTO dto = new TicketDTO();
+            dto.setId(rs.getObject("id", UUID.class).toString());
+            dto.setTicketNumber(rs.getString("ticket_number"));
+            dto.setTitle(rs.getString("title"));
+            dto.setDescription(rs.getString("description"));
+            String category = rs.getString("category_enum");
+            dto.setCategory(category != null ? TicketCategory.valueOf(category) : null);
+            dto.setPriority(TicketPriority.valueOf(rs.getString("priority")));
+            dto.setStatus(TicketStatus.valueOf(rs.getString("status")));
+            HostelName hostelBlock = HostelName.fromId(rs.getShort("hostel_block"));
+            dto.setHostelBlock(hostelBlock != null ? hostelBlock.getDisplayName() : null);
+            dto.setRoomNumber(rs.getString("room_number"));
+            dto.setLocationDetails(rs.getString("location_details"));
+            dto.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+            dto.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+            dto.setResolvedAt(toLocalDateTime(rs.getTimestamp("resolved_at")));
+            dto.setVersion(rs.getLong("version"));
+            dto.setArchived(true);
+
+            ArchivedTicketRow row = new ArchivedTicketRow();
+            row.ticket = dto;
+            row.createdBy = rs.getObject("created_by", UUID.class);
+            row.assignedTo = rs.getObject("assigned_to", UUID.class);
+            return row;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.hostel.service;
 
+import com.hostel.dto.StaffMappingSummary;
 import com.hostel.entity.*;
 import com.hostel.repository.UserRepository;
 import com.hostel.repository.CategoryStaffMappingRepository;
@@ -29,6 +30,9 @@ public class TicketAssignmentService {
     
     @Autowired
     private TicketRepository ticketRepository;
+
+    @Autowired
+    private StaffMappingService staffMappingService;
     
     // Configuration constants based on product design
     private static final int MAX_JUNIOR_STAFF_TICKETS = 5;
@@ -325,9 +329,10 @@ public class TicketAssignmentService {
         Ticket dummy = new Ticket();
         dummy.setPriority(priority);
         // Set category based on string
-        try {
-            dummy.setCategory(TicketCategory.valueOf(category));
-        } catch (IllegalArgumentException e) {
+        TicketCategory ticketCategory = EnumResolver.TICKET_CATEGORIES.resolve(category);
+        if (ticketCategory != null) {
+            dummy.setCategory(ticketCategory);
+        } else {
             dummy.setCustomCategory(category);
         }
         return dummy;
@@ -396,21 +401,23 @@ public class TicketAssignmentService {
                                                   Integer expertiseLevel) {
         CategoryStaffMapping mapping = new CategoryStaffMapping();
         mapping.setStaff(staff);
-        mapping.setHostelBlock(hostelBlock);
+        mapping.setHostelBlockString(hostelBlock);
         mapping.setCategory(category);
         mapping.setPriorityLevel(priorityLevel);
         mapping.setCapacityWeight(capacityWeight);
         mapping.setExpertiseLevel(expertiseLevel);
         mapping.setIsActive(true);
         
-        return categoryStaffMappingRepository.save(mapping);
+        CategoryStaffMapping savedMapping = categoryStaffMappingRepository.save(mapping);
+        staffMappingService.evictAll();
+        return savedMapping;
     }
     
     /**
-     * Get all mappings for a staff member
+     * Get all mappings for a staff member (cached by StaffMappingService)
      */
-    public List<CategoryStaffMapping> getStaffMappings(User staff) {
-        return categoryStaffMappingRepository.findByStaffAndIsActiveTrue(staff);
+    public List<StaffMappingSummary> getStaffMappings(User staff) {
+        return staffMappingService.getActiveMappingsByStaff(staff.getId());
     }
     
     /**
@@ -0,0 +1,88 @@
+package com.hostel.service;
+
+import com.hostel.dto.TicketAccess;
+import com.hostel.dto.UserSummary;
+import com.hostel.entity.UserRole;
+import com.hostel.repository.TicketRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Ticket access decisions based on a single primary-key projection (creator, assignee,
+ * status) instead of the full Ticket entity. Projections are remembered for the current
+ * HTTP request so repeated checks on the same ticket cost one lookup.
+ */
+@Service
+public class TicketAuthorizationService {
+
+    private static final String REQUEST_CACHE_ATTRIBUTE = TicketAuthorizationService.class.getName() + ".access";
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketArchiveService ticketArchiveService;
+
+    /**
+     * Access projection for a ticket, or null when it does not exist
+     */
+    public TicketAccess getAccess(UUID ticketId) {
+        Map<UUID, Optional<TicketAccess>> requestCache = getRequestCache();
+        if (requestCache == null) {
+            return lookupAccess(ticketId).orElse(null);
+        }
+        return requestCache.computeIfAbsent(ticketId, this::lookupAccess).orElse(null);
+    }
+
+    // Live table first; archived tickets keep the access rules they had when they moved
+    private Optional<TicketAccess> lookupAccess(UUID ticketId) {
+        return ticketRepository.findAccessById(ticketId).or(() -> ticketArchiveService.findAccess(ticketId));
+    }
+
+    /**
+     * Admins see everything, students their own tickets, staff tickets assigned to them or unassigned
+     */
+    public boolean canView(UserSummary user, TicketAccess access) {
+        if (user.getRole() == UserRole.STUDENT) {
+            return access.isCreatedBy(user.getId());
+        }
+        if (user.getRole() == UserRole.STAFF) {
+            return access.isUnassigned() || access.isAssignedTo(user.getId());
+        }
+        return user.getRole() == UserRole.ADMIN;
+    }
+
+    /**
+     * History is limited to the creator, the current assignee and admins
+     */
+    public boolean canViewHistory(UserSummary user, TicketAccess access) {
+        if (user.getRole() == UserRole.STUDENT) {
+            return access.isCreatedBy(user.getId());
+        }
+        if (user.getRole() == UserRole.STAFF) {
+            return access.isAssignedTo(user.getId());
+        }
+        return user.getRole() == UserRole.ADMIN;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<UUID, Optional<TicketAccess>> getRequestCache() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Object cache = attributes.getAttribute(REQUEST_CACHE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (cache == null) {
+            cache = new HashMap<UUID, Optional<TicketAccess>>();
+            attributes.setAttribute(REQUEST_CACHE_ATTRIBUTE, cache, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Map<UUID, Optional<TicketAccess>>) cache;
+    }
+}
@@ -0,0 +1,12 @@
+package com.hostel.service;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One row of the ticket event log (ticket_history), as written by TicketEventLog and
+ * carried through the local TicketJournal when that is enabled.
+ */
+public record TicketEvent(UUID id, UUID ticketId, String field, String oldValue, String newValue,
+                          UUID changedBy, LocalDateTime changedAt) {
+}
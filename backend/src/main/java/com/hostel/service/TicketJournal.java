@@ -0,0 +1,363 @@
+package com.hostel.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Optional local write-ahead journal for ticket events (tickets.journal.enabled). Events are
+ * appended just before their transaction commits, tagged with its PostgreSQL transaction id,
+ * to fixed-size memory-mapped segment files and fsynced with group commit: an appender that
+ * finds a force() already in progress waits for it and is usually covered by the next one,
+ * so concurrent commits share a single fsync. TicketJournalShipper drains the journal into
+ * ticket_history, dropping events whose transaction rolled back, and acknowledges what it
+ * has handled; segments behind the acknowledged position are deleted.
+ *
+ * Record frame: payload length (int), CRC32C of the payload (int), payload. A zero length
+ * marks the end of the written part of a segment. On startup the last segment is scanned
+ * and everything after its last intact record (a torn write) is zeroed.
+ */
+@Service
+@ConditionalOnProperty(name = "tickets.journal.enabled", havingValue = "true")
+public class TicketJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketJournal.class);
+
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    /**
+     * A point in the journal: segment number and byte offset within it
+     */
+    public record Position(long segment, int offset) {}
+
+    /**
+     * A journaled event, the transaction that wrote it and the position just after it
+     */
+    public record Entry(long transactionId, TicketEvent event, Position end) {}
+
+    /**
+     * Entries read from the journal and the position to continue from
+     */
+    public record Batch(List<Entry> entries, Position next) {}
+
+    @Value("${tickets.journal.dir:data/ticket-journal}")
+    private String directory;
+
+    @Value("${tickets.journal.segment-bytes:16777216}")
+    private int segmentBytes;
+
+    private Path dir;
+
+    // Guarded by this
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long segment;
+    private long appendedSeq;
+
+    // Guarded by syncMonitor
+    private final Object syncMonitor = new Object();
+    private long durableSeq;
+    private volatile Position durable;
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        dir = Paths.get(directory).toAbsolutePath();
+        Files.createDirectories(dir);
+        List<Long> segments = listSegments();
+        if (segments.isEmpty()) {
+            openSegment(readCheckpoint().segment(), 0);
+        } else {
+            long last = segments.get(segments.size() - 1);
+            openSegment(last, 0);
+            int end = scan(buffer, segment, 0, segmentBytes, null, Integer.MAX_VALUE);
+            // Anything past the last intact record is a torn write: clear it so it cannot
+            // be mistaken for data once new records are appended in front of it
+            for (int i = end; i < segmentBytes; i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.force();
+            buffer.position(end);
+        }
+        durable = new Position(segment, buffer.position());
+        logger.info("Ticket journal open at {} (segment {}, offset {})", dir, segment, buffer.position());
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (buffer != null) {
+            buffer.force();
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Append the events of one transaction and return once they are on disk
+     */
+    public void append(long transactionId, List<TicketEvent> events) throws IOException {
+        if (events.isEmpty()) {
+            return;
+        }
+        long seq;
+        synchronized (this) {
+            for (TicketEvent event : events) {
+                writeRecord(encode(transactionId, event));
+            }
+            seq = ++appendedSeq;
+        }
+        sync(seq);
+    }
+
+    /**
+     * Read up to maxEvents durable events starting at the given position
+     */
+    public Batch read(Position from, int maxEvents) throws IOException {
+        Position limit = durable;
+        List<Entry> entries = new ArrayList<>();
+        Position position = from;
+        while (entries.size() < maxEvents && position.segment() <= limit.segment()) {
+            Path file = segmentPath(position.segment());
+            if (!Files.exists(file)) {
+                if (position.segment() == limit.segment()) {
+                    break;
+                }
+                position = new Position(position.segment() + 1, 0);
+                continue;
+            }
+            int end = position.segment() == limit.segment() ? limit.offset() : segmentBytes;
+            boolean sealed = position.segment() < limit.segment();
+            int offset;
+            try (FileChannel reader = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer mapped = reader.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(end, reader.size()));
+                offset = scan(mapped, position.segment(), position.offset(), mapped.limit(), entries, maxEvents);
+                if (sealed && entries.size() < maxEvents && offset + HEADER_BYTES <= mapped.limit()
+                        && mapped.getInt(offset) != 0) {
+                    // A sealed segment was forced before the next one started, so this is corruption
+                    logger.error("Ticket journal segment {} is damaged at offset {}; skipping the rest of it",
+                            position.segment(), offset);
+                }
+            }
+            if (sealed && entries.size() < maxEvents) {
+                position = new Position(position.segment() + 1, 0);
+            } else {
+                position = new Position(position.segment(), offset);
+                break;
+            }
+        }
+        return new Batch(entries, position);
+    }
+
+    /**
+     * Position up to which events have been stored in the database, or dropped as rolled back
+     */
+    public Position getCheckpoint() throws IOException {
+        return readCheckpoint();
+    }
+
+    /**
+     * Record that everything before the position is stored and delete the segments behind it
+     */
+    public void acknowledge(Position position) throws IOException {
+        Path tmp = dir.resolve(CHECKPOINT_FILE + ".tmp");
+        ByteBuffer data = ByteBuffer.allocate(12).putLong(position.segment()).putInt(position.offset()).flip();
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(data);
+            out.force(true);
+        }
+        Files.move(tmp, dir.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        for (long number : listSegments()) {
+            if (number < position.segment()) {
+                Files.deleteIfExists(segmentPath(number));
+            }
+        }
+    }
+
+    private void sync(long seq) {
+        synchronized (syncMonitor) {
+            if (durableSeq >= seq) {
+                // Covered by a force() another appender ran while we waited
+                return;
+            }
+            MappedByteBuffer target;
+            long upTo;
+            Position position;
+            synchronized (this) {
+                target = buffer;
+                upTo = appendedSeq;
+                position = new Position(segment, buffer.position());
+            }
+            target.force();
+            durableSeq = upTo;
+            durable = position;
+        }
+    }
+
+    private void writeRecord(byte[] payload) throws IOException {
+        if (HEADER_BYTES + payload.length > segmentBytes) {
+            throw new IOException("Journal record of " + payload.length + " bytes does not fit in a segment");
+        }
+        if (buffer.remaining() < HEADER_BYTES + payload.length) {
+            roll();
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        buffer.putInt(payload.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(payload);
+    }
+
+    // Seal the current segment before starting the next, so only the last one can be torn
+    private void roll() throws IOException {
+        buffer.force();
+        channel.close();
+        openSegment(segment + 1, 0);
+    }
+
+    private void openSegment(long number, int offset) throws IOException {
+        segment = number;
+        channel = FileChannel.open(segmentPath(number),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        buffer.position(offset);
+    }
+
+    /**
+     * Walk intact records from offset, decoding them into entries when given a list; returns
+     * the offset just after the last intact record read
+     */
+    private static int scan(ByteBuffer source, long segment, int offset, int end, List<Entry> entries, int maxEvents)
+            throws IOException {
+        while (offset + HEADER_BYTES <= end && (entries == null || entries.size() < maxEvents)) {
+            int length = source.getInt(offset);
+            if (length <= 0 || offset + HEADER_BYTES + length > end) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            source.get(offset + HEADER_BYTES, payload);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            if ((int) crc.getValue() != source.getInt(offset + 4)) {
+                break;
+            }
+            offset += HEADER_BYTES + length;
+            if (entries != null) {
+                entries.add(decode(payload, new Position(segment, offset)));
+            }
+        }
+        return offset;
+    }
+
+    private Position readCheckpoint() throws IOException {
+        Path file = dir.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            List<Long> segments = listSegments();
+            return new Position(segments.isEmpty() ? 0 : segments.get(0), 0);
+        }
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        return new Position(data.getLong(), data.getInt());
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long number) {
+        return dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private static byte[] encode(long transactionId, TicketEvent event) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(transactionId);
+        writeUuid(out, event.id());
+        writeUuid(out, event.ticketId());
+        writeUuid(out, event.changedBy());
+        out.writeLong(event.changedAt().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(event.changedAt().getNano());
+        writeString(out, event.field());
+        writeString(out, event.oldValue());
+        writeString(out, event.newValue());
+        return bytes.toByteArray();
+    }
+
+    private static Entry decode(byte[] payload, Position end) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        long transactionId = in.readLong();
+        UUID id = readUuid(in);
+        UUID ticketId = readUuid(in);
+        UUID changedBy = readUuid(in);
+        LocalDateTime changedAt = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        TicketEvent event = new TicketEvent(id, ticketId, readString(in), readString(in), readString(in), changedBy, changedAt);
+        return new Entry(transactionId, event, end);
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getMostSignificantBits());
+            out.writeLong(value.getLeastSignificantBits());
+        }
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+
+    // Length-prefixed UTF-8; writeUTF would cap descriptions at 64 KB
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] data = new byte[length];
+        in.readFully(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+}
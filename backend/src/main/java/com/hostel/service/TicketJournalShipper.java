@@ -0,0 +1,127 @@
+package com.hostel.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the local TicketJournal into ticket_history. Events are journaled before their
+ * transaction commits, so each batch first asks PostgreSQL for the outcome of the
+ * transactions in it (txid_status): committed events are stored, rolled-back ones dropped,
+ * and shipping stops at the first transaction still in progress. A transaction too old for
+ * its status to be known is treated as committed. Inserts are keyed on the event id, so
+ * events replayed after a crash between insert and acknowledge are stored once. While the
+ * database is down the journal simply grows and is shipped when it returns.
+ */
+@Service
+@ConditionalOnProperty(name = "tickets.journal.enabled", havingValue = "true")
+public class TicketJournalShipper {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketJournalShipper.class);
+
+    private static final String INSERT_SQL = "INSERT INTO ticket_history " +
+            "(id, ticket_id, field_name, old_value, new_value, changed_by, changed_at) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (id) DO NOTHING";
+
+    @Autowired
+    private TicketJournal journal;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${tickets.journal.ship-batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${tickets.journal.ship-interval-ms:1000}")
+    public void ship() {
+        int shipped = 0;
+        try {
+            TicketJournal.Position checkpoint = journal.getCheckpoint();
+            while (true) {
+                TicketJournal.Batch batch = journal.read(checkpoint, batchSize);
+                Map<Long, String> outcomes = outcomes(batch.entries());
+                List<TicketEvent> committed = new ArrayList<>();
+                TicketJournal.Position next = checkpoint;
+                boolean inProgress = false;
+                for (TicketJournal.Entry entry : batch.entries()) {
+                    String outcome = outcomes.get(entry.transactionId());
+                    if ("in progress".equals(outcome)) {
+                        // Journaled but not yet committed; everything from here waits for the next run
+                        inProgress = true;
+                        break;
+                    }
+                    if (!"aborted".equals(outcome)) {
+                        committed.add(entry.event());
+                    }
+                    next = entry.end();
+                }
+                if (!inProgress) {
+                    next = batch.next();
+                }
+                if (!committed.isEmpty()) {
+                    insert(committed);
+                    shipped += committed.size();
+                }
+                if (!next.equals(checkpoint)) {
+                    journal.acknowledge(next);
+                    checkpoint = next;
+                }
+                if (inProgress || batch.entries().size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Ticket journal shipping paused after {} events, database unavailable: {}", shipped, e.getMessage());
+            return;
+        } catch (IOException e) {
+            logger.error("Could not read ticket journal: {}", e.getMessage(), e);
+            return;
+        }
+        if (shipped > 0) {
+            logger.debug("Shipped {} ticket events from the journal", shipped);
+        }
+    }
+
+    // txid -> "committed", "aborted" or "in progress"; absent when PostgreSQL no longer knows
+    private Map<Long, String> outcomes(List<TicketJournal.Entry> entries) {
+        Map<Long, String> outcomes = new HashMap<>();
+        if (entries.isEmpty()) {
+            return outcomes;
+        }
+        Long[] ids = entries.stream().map(TicketJournal.Entry::transactionId).distinct().toArray(Long[]::new);
+        jdbcTemplate.query("SELECT id, txid_status(id) AS status FROM unnest(?::bigint[]) AS t(id)",
+                statement -> statement.setArray(1, statement.getConnection().createArrayOf("bigint", ids)),
+                rs -> {
+                    String status = rs.getString("status");
+                    if (status != null) {
+                        outcomes.put(rs.getLong("id"), status);
+                    }
+                });
+        return outcomes;
+    }
+
+    private void insert(List<TicketEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (statement, event) -> {
+            statement.setObject(1, event.id());
+            statement.setObject(2, event.ticketId());
+            statement.setString(3, event.field());
+            statement.setString(4, event.oldValue());
+            statement.setString(5, event.newValue());
+            statement.setObject(6, event.changedBy());
+            statement.setTimestamp(7, Timestamp.valueOf(event.changedAt()));
+        });
+    }
+}
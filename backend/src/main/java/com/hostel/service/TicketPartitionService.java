@@ -0,0 +1,94 @@
+package com.hostel.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps monthly partitions of the tickets table (db/migration/V4) created ahead of time,
+ * so new tickets never land in tickets_default. Creating a partition is idempotent and
+ * cheap while the month is still empty, so the job runs at startup and daily.
+ */
+@Service
+public class TicketPartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketPartitionService.class);
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${db.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createPartitionsOnStartup() {
+        createFuturePartitions();
+    }
+
+    /**
+     * Create the partitions for the current month and the configured number of months ahead
+     */
+    @Scheduled(cron = "${db.partitioning.cron:0 15 0 * * *}")
+    public void createFuturePartitions() {
+        if (!isPartitioned()) {
+            logger.debug("tickets is not a partitioned table, skipping partition maintenance");
+            return;
+        }
+        YearMonth month = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++, month = month.plusMonths(1)) {
+            try {
+                createPartition(month);
+            } catch (DataAccessException e) {
+                // Typically rows for that month already sit in tickets_default
+                logger.error("Could not create tickets partition for {}: {}", month, e.getMessage());
+            }
+        }
+        Long stray = jdbcTemplate.queryForObject("SELECT count(*) FROM tickets_default", Long.class);
+        if (stray != null && stray > 0) {
+            logger.warn("{} tickets are in tickets_default; create partitions for their months and move them", stray);
+        }
+    }
+
+    /**
+     * Partition name -> estimated row count, oldest month first
+     */
+    public Map<String, Object> getPartitionStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT c.relname AS name, c.reltuples::bigint AS estimated_rows " +
+                "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = 'tickets'::regclass ORDER BY c.relname");
+        for (Map<String, Object> row : rows) {
+            stats.put((String) row.get("name"), Math.max(0L, ((Number) row.get("estimated_rows")).longValue()));
+        }
+        return stats;
+    }
+
+    private void createPartition(YearMonth month) {
+        String name = "tickets_p" + month.format(PARTITION_SUFFIX);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF tickets " +
+                "FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+    }
+
+    private boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('tickets'))",
+                Boolean.class);
+        return Boolean.TRUE.equals(partitioned);
+    }
+}
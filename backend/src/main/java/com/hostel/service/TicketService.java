@@ -1,26 +1,60 @@
 package com.hostel.service;
 
+import com.hostel.dto.DTOMapper;
+import com.hostel.dto.KeysetCursor;
+import com.hostel.dto.TicketCommentDTO;
+import com.hostel.dto.TicketDTO;
+import com.hostel.dto.TicketHistoryDTO;
+import com.hostel.dto.UserSummary;
 import com.hostel.entity.*;
+import com.hostel.repository.TicketCommentRepository;
 import com.hostel.repository.TicketRepository;
 import com.hostel.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class TicketService {
 
+    private static final Logger logger = LoggerFactory.getLogger(TicketService.class);
+
     @Autowired
     private TicketRepository ticketRepository;
 
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TicketCommentRepository ticketCommentRepository;
+    
+    @Autowired
+    private CurrentUserService currentUserService;
     
     @Autowired
     private SLAService slaService;
@@ -28,56 +62,270 @@ public class TicketService {
     @Autowired
     private TicketAssignmentService ticketAssignmentService;
 
+    @Autowired
+    private TicketArchiveService ticketArchiveService;
+
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
+    @Autowired
+    private TicketEventLog ticketEventLog;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Chunk size for bulk writes, aligned with the JDBC batch size
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int writeBatchSize;
+
+    @Transactional(readOnly = true)
     public Page<Ticket> getAllTickets(Pageable pageable) {
         return ticketRepository.findAll(pageable);
     }
 
+    @Transactional(readOnly = true)
     public Page<Ticket> getTicketsByUser(UUID userId, Pageable pageable) {
         return ticketRepository.findByCreatedById(userId, pageable);
     }
 
+    @Transactional(readOnly = true)
     public Page<Ticket> getTicketsByAssignee(UUID assigneeId, Pageable pageable) {
         return ticketRepository.findByAssignedToId(assigneeId, pageable);
     }
 
+    @Transactional(readOnly = true)
     public Page<Ticket> getTicketsByStatus(TicketStatus status, Pageable pageable) {
         return ticketRepository.findByStatus(status, pageable);
     }
 
+    @Transactional(readOnly = true)
     public Page<Ticket> getTicketsByPriority(TicketPriority priority, Pageable pageable) {
         return ticketRepository.findByPriority(priority, pageable);
     }
 
+    @Transactional(readOnly = true)
     public Page<Ticket> getTicketsByCategory(TicketCategory category, Pageable pageable) {
         return ticketRepository.findByCategory(category, pageable);
     }
 
+    @Transactional(readOnly = true)
     public Page<Ticket> searchTickets(String searchTerm, Pageable pageable) {
         return ticketRepository.searchTickets(searchTerm, pageable);
     }
 
     public Optional<Ticket> getTicketById(UUID id) {
-        return ticketRepository.findById(id);
+        return ticketRepository.findWithPeopleById(id);
     }
     
     public Ticket getTicketByIdDirect(UUID id) {
-        return ticketRepository.findById(id).orElse(null);
+        return ticketRepository.findWithPeopleById(id).orElse(null);
+    }
+
+    /**
+     * Apply an update to many tickets in chunks of the JDBC batch size. Each chunk is loaded
+     * with one query and committed in its own transaction, so its UPDATEs go out as one
+     * batch and a failing chunk does not roll back the others. The update returns an error
+     * message to skip a ticket, or null once applied. The ticket events are attributed to
+     * actorId.
+     *
+     * @return ticket id -> error message, null for tickets that were updated
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<UUID, String> bulkUpdateTickets(List<UUID> ticketIds, UUID actorId, Function<Ticket, String> update) {
+        Map<UUID, String> results = new LinkedHashMap<>();
+        for (int start = 0; start < ticketIds.size(); start += writeBatchSize) {
+            List<UUID> chunk = ticketIds.subList(start, Math.min(start + writeBatchSize, ticketIds.size()));
+            Map<UUID, String> chunkResults = new LinkedHashMap<>();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    ticketEventLog.setActor(actorId);
+                    Map<UUID, Ticket> tickets = ticketRepository.findAllById(chunk).stream()
+                            .collect(Collectors.toMap(Ticket::getId, ticket -> ticket));
+                    LocalDateTime now = LocalDateTime.now();
+                    for (UUID ticketId : chunk) {
+                        Ticket ticket = tickets.get(ticketId);
+                        if (ticket == null) {
+                            chunkResults.put(ticketId, "Ticket not found");
+                            continue;
+                        }
+                        String error = update.apply(ticket);
+                        if (error == null) {
+                            ticket.setUpdatedAt(now);
+                        }
+                        chunkResults.put(ticketId, error);
+                    }
+                    // Send the chunk as batched UPDATEs and keep the persistence context small
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+                results.putAll(chunkResults);
+            } catch (RuntimeException e) {
+                if (OptimisticRetryService.isConflict(e)) {
+                    // Someone else changed a ticket of this chunk; redo the chunk one ticket at a time
+                    logger.info("Bulk update chunk of {} tickets hit a version conflict, retrying per ticket", chunk.size());
+                    for (UUID ticketId : chunk) {
+                        results.put(ticketId, updateSingleTicket(ticketId, actorId, update));
+                    }
+                    continue;
+                }
+                logger.warn("Bulk update chunk of {} tickets failed: {}", chunk.size(), e.getMessage());
+                for (UUID ticketId : chunk) {
+                    results.put(ticketId, "Error: " + e.getMessage());
+                }
+            }
+        }
+        return results;
     }
     
-    public List<TicketHistory> getTicketHistory(UUID ticketId) {
-        Optional<Ticket> ticketOpt = ticketRepository.findById(ticketId);
-        if (ticketOpt.isPresent()) {
-            return ticketOpt.get().getHistory();
+    private String updateSingleTicket(UUID ticketId, UUID actorId, Function<Ticket, String> update) {
+        try {
+            // Not Optional.map: the null returned for a successful update would read as not found
+            return optimisticRetryService.execute(() -> {
+                Ticket ticket = ticketRepository.findById(ticketId).orElse(null);
+                if (ticket == null) {
+                    return "Ticket not found";
+                }
+                ticketEventLog.setActor(actorId);
+                String error = update.apply(ticket);
+                if (error == null) {
+                    ticket.setUpdatedAt(LocalDateTime.now());
+                }
+                return error;
+            });
+        } catch (RuntimeException e) {
+            return OptimisticRetryService.isConflict(e)
+                    ? "Conflict: ticket was modified concurrently"
+                    : "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Current version of a ticket, reported to clients whose update conflicted
+     */
+    @Transactional(readOnly = true)
+    public Long getTicketVersion(UUID id) {
+        return ticketRepository.findVersionById(id).orElse(null);
+    }
+
+    @Transactional(readOnly = true)
+    public List<TicketHistoryDTO> getTicketHistory(UUID ticketId) {
+        List<TicketHistoryDTO> history = ticketRepository.findHistoryByTicketId(ticketId);
+        if (history.isEmpty() && !ticketRepository.existsById(ticketId)) {
+            return ticketArchiveService.getHistory(ticketId);
+        }
+        return history;
+    }
+
+    /**
+     * One keyset page of a ticket's event log, oldest first: the first page with a null cursor,
+     * each later one with the cursor of the last event of the page before. Reads the log rows
+     * only, never the ticket, and pages an archived ticket's history the same way.
+     */
+    @Transactional(readOnly = true)
+    public Slice<TicketHistoryDTO> getTicketEvents(UUID ticketId, KeysetCursor after, int size) {
+        PageRequest pageable = PageRequest.of(0, size);
+        Slice<TicketHistoryDTO> events = after == null
+                ? ticketRepository.findHistorySliceByTicketId(ticketId, pageable)
+                : ticketRepository.findHistorySliceByTicketIdAfter(ticketId, after.getAt(), after.getId(), pageable);
+        if (!events.hasContent() && !ticketRepository.existsById(ticketId)) {
+            return ticketArchiveService.getHistory(ticketId, after, size);
+        }
+        return events;
+    }
+
+    /**
+     * One keyset page of a ticket's comments, oldest first; internal notes only when
+     * includeInternal. The first page is asked for with a null cursor, each later one with the
+     * cursor of the last comment of the page before. Reads the comment rows only, never the
+     * ticket or its comments collection, and pages an archived ticket's thread the same way.
+     */
+    @Transactional(readOnly = true)
+    public Slice<TicketCommentDTO> getTicketComments(UUID ticketId, boolean includeInternal,
+                                                     KeysetCursor after, int size) {
+        PageRequest pageable = PageRequest.of(0, size);
+        Slice<TicketCommentDTO> comments;
+        if (after == null) {
+            comments = includeInternal
+                    ? ticketCommentRepository.findSliceByTicketId(ticketId, pageable)
+                    : ticketCommentRepository.findPublicSliceByTicketId(ticketId, pageable);
+        } else {
+            comments = includeInternal
+                    ? ticketCommentRepository.findSliceByTicketIdAfter(
+                            ticketId, after.getAt(), after.getId(), pageable)
+                    : ticketCommentRepository.findPublicSliceByTicketIdAfter(
+                            ticketId, after.getAt(), after.getId(), pageable);
+        }
+        if (!comments.hasContent() && !ticketRepository.existsById(ticketId)) {
+            return ticketArchiveService.getComments(ticketId, includeInternal, after, size);
+        }
+        return comments;
+    }
+
+    /**
+     * Append a comment with a single insert. The ticket is only referenced, so this neither
+     * loads Ticket.comments nor bumps the ticket's version.
+     */
+    public TicketCommentDTO addComment(UUID ticketId, UUID userId, String comment, boolean internal) {
+        if (comment == null || comment.trim().isEmpty()) {
+            throw new RuntimeException("Comment cannot be empty");
+        }
+        if (!ticketRepository.existsById(ticketId)) {
+            throw new RuntimeException(ticketArchiveService.findAccess(ticketId).isPresent()
+                    ? "Archived tickets cannot be commented on"
+                    : "Ticket not found");
+        }
+        UserSummary author = userService.getUserSummary(userId);
+        if (author == null) {
+            throw new RuntimeException("User not found");
+        }
+        TicketComment saved;
+        try {
+            saved = ticketCommentRepository.saveAndFlush(new TicketComment(
+                    entityManager.getReference(Ticket.class, ticketId), userRepository.getReferenceById(userId),
+                    comment.trim(), internal));
+        } catch (DataIntegrityViolationException e) {
+            // Archived between the check above and the insert (V10 trigger)
+            if (TicketArchiveService.isMissingTicket(e)) {
+                throw new RuntimeException("Archived tickets cannot be commented on");
+            }
+            throw e;
+        }
+        return new TicketCommentDTO(saved.getId(), saved.getComment(), saved.getIsInternal(), userId,
+                author.getFirstName(), author.getLastName(), author.getRole(), saved.getCreatedAt());
+    }
+
+    /**
+     * Tickets created between from and to inclusive, newest first, at most limit of them. The archive is
+     * only queried when the range starts before the archive horizon.
+     */
+    @Transactional(readOnly = true)
+    public List<TicketDTO> getTicketsCreatedBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        PageRequest page = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "createdAt"));
+        List<TicketDTO> tickets = ticketRepository.findByCreatedAtBetween(from, to, page).stream()
+                .map(DTOMapper::toTicketDTO)
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (from.isBefore(ticketArchiveService.getArchiveHorizon())) {
+            tickets.addAll(ticketArchiveService.findTicketsCreatedBetween(from, to, limit));
+            tickets.sort(Comparator.comparing(TicketDTO::getCreatedAt).reversed());
+            if (tickets.size() > limit) {
+                tickets = new ArrayList<>(tickets.subList(0, limit));
+            }
         }
-        return new ArrayList<>();
+        return tickets;
     }
 
     public Ticket createTicket(Ticket ticket, UUID creatorId) {
-        User creator = userRepository.findById(creatorId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        UserSummary creator = currentUserService.resolve(creatorId);
+        if (creator == null) {
+            throw new RuntimeException("User not found");
+        }
+        ticketEventLog.setActor(creatorId);
         
         // Check for duplicate tickets
-        List<Ticket> similarTickets = findSimilarTickets(ticket.getTitle(), ticket.getDescription(), creator.getId());
+        List<Ticket> similarTickets = findSimilarTickets(ticket.getTitle(), ticket.getDescription(), creatorId);
         if (!similarTickets.isEmpty()) {
             // Return information about similar tickets for user to decide
             StringBuilder duplicateWarning = new StringBuilder("Similar tickets found: ");
@@ -93,16 +341,17 @@ public class TicketService {
         }
         
         // Auto-assign hostel block from user if not provided
-        if (ticket.getHostelBlock() == null || ticket.getHostelBlock().trim().isEmpty()) {
+        if (ticket.getHostelBlockEnum() == null) {
             if (creator.getHostelBlock() != null) {
-                // Use the display name since that's what the Ticket entity expects as String
-                ticket.setHostelBlock(creator.getHostelBlock().getDisplayName());
+                ticket.setHostelBlockEnum(creator.getHostelBlock());
             } else {
                 throw new RuntimeException("Hostel block is required. User profile doesn't have hostel block information.");
             }
         }
         
-        ticket.setCreatedBy(creator);
+        // The entity only once the checks have passed: the response renders the creator
+        ticket.setCreatedBy(userRepository.getReferenceById(creatorId));
+        Hibernate.initialize(ticket.getCreatedBy());
         ticket.setStatus(TicketStatus.OPEN);
         ticket.setCreatedAt(LocalDateTime.now());
         ticket.setUpdatedAt(LocalDateTime.now());
@@ -123,6 +372,71 @@ public class TicketService {
         return ticketRepository.save(ticket);
     }
     
+    /**
+     * Ticket from the simple form: the hostel block defaults to the creator's and the ticket is
+     * auto-assigned like in createTicket, but there is no duplicate check. Mapped inside the
+     * transaction.
+     */
+    public TicketDTO createSimpleTicket(Ticket ticket, UUID creatorId) {
+        UserSummary creator = currentUserService.resolve(creatorId);
+        if (creator == null) {
+            throw new RuntimeException("Creator user with ID " + creatorId + " not found");
+        }
+        ticketEventLog.setActor(creatorId);
+        
+        // Auto-assign hostel block from user if not provided
+        if (ticket.getHostelBlockEnum() == null) {
+            if (creator.getHostelBlock() == null) {
+                throw new RuntimeException("Hostel block is required. User profile doesn't have hostel block information.");
+            }
+            ticket.setHostelBlockEnum(creator.getHostelBlock());
+        }
+        
+        ticket.setTicketNumber("TKT-" + System.currentTimeMillis());
+        ticket.setStatus(TicketStatus.OPEN);
+        ticket.setCreatedAt(LocalDateTime.now());
+        ticket.setUpdatedAt(LocalDateTime.now());
+        ticket.setCreatedBy(userRepository.getReferenceById(creatorId));
+        
+        // Auto-assign based on category and priority; without available staff it stays OPEN
+        User autoAssignedUser = ticketAssignmentService.autoAssignTicket(ticket);
+        if (autoAssignedUser != null) {
+            ticket.setAssignedTo(autoAssignedUser);
+            ticket.setStatus(TicketStatus.ASSIGNED);
+        }
+        
+        return DTOMapper.toTicketDTO(ticketRepository.save(ticket));
+    }
+
+    /**
+     * Record a student's rating and feedback. A RESOLVED ticket is closed by it.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public TicketDTO submitFeedback(UUID ticketId, UUID studentId, int rating, String feedback) {
+        return optimisticRetryService.execute(attempt -> applyFeedback(ticketId, studentId, rating, feedback, attempt));
+    }
+
+    private TicketDTO applyFeedback(UUID ticketId, UUID studentId, int rating, String feedback, int attempt) {
+        Ticket ticket = ticketRepository.findWithPeopleById(ticketId)
+                .orElseThrow(() -> new RuntimeException("Ticket not found"));
+        if (ticket.getStatus() != TicketStatus.RESOLVED && ticket.getStatus() != TicketStatus.CLOSED) {
+            throw precondition(attempt, ticket, "Feedback can only be submitted for resolved tickets");
+        }
+        ticketEventLog.setActor(studentId);
+        
+        ticket.setSatisfactionRating(rating);
+        ticket.setFeedback(feedback);
+        ticket.setUpdatedAt(LocalDateTime.now());
+        
+        // Auto-close ticket after feedback if it was just resolved
+        if (ticket.getStatus() == TicketStatus.RESOLVED) {
+            ticket.setStatus(TicketStatus.CLOSED);
+            ticket.setClosedAt(LocalDateTime.now());
+        }
+        
+        return DTOMapper.toTicketDTO(ticketRepository.save(ticket));
+    }
+    
     private String generateTicketNumber() {
         // Generate ticket number in format: TKT-YYYY-XXX-XXXXXX
         // Where YYYY is year, XXX is sequential number, XXXXXX is random string
@@ -133,8 +447,13 @@ public class TicketService {
     }
 
     public Ticket updateTicket(UUID id, Ticket ticketDetails) {
-        return ticketRepository.findById(id)
+        return ticketRepository.findWithPeopleById(id)
                 .map(existingTicket -> {
+                    // Field edits are not idempotent: reject an edit made against an older version
+                    if (ticketDetails.getVersion() != null && !ticketDetails.getVersion().equals(existingTicket.getVersion())) {
+                        throw new ObjectOptimisticLockingFailureException(Ticket.class, id);
+                    }
+                    
                     // Update basic fields
                     if (ticketDetails.getTitle() != null) {
                         existingTicket.setTitle(ticketDetails.getTitle());
@@ -160,8 +479,8 @@ public class TicketService {
                     if (ticketDetails.getRoomNumber() != null) {
                         existingTicket.setRoomNumber(ticketDetails.getRoomNumber());
                     }
-                    if (ticketDetails.getHostelBlock() != null) {
-                        existingTicket.setHostelBlock(ticketDetails.getHostelBlock());
+                    if (ticketDetails.getHostelBlockEnum() != null) {
+                        existingTicket.setHostelBlockEnum(ticketDetails.getHostelBlockEnum());
                     }
                     
                     existingTicket.setUpdatedAt(LocalDateTime.now());
@@ -172,77 +491,67 @@ public class TicketService {
     }
 
     public void deleteTicket(UUID id) {
-        Ticket ticket = ticketRepository.findById(id)
+        Ticket ticket = ticketRepository.findWithPeopleById(id)
                 .orElseThrow(() -> new RuntimeException("Ticket not found with id: " + id));
         ticket.setStatus(TicketStatus.CANCELLED);
         ticket.setUpdatedAt(LocalDateTime.now());
         ticketRepository.save(ticket);
     }
 
+    // Status and assignment changes set a target value, so on a version conflict they are
+    // re-applied to the freshly committed ticket (see OptimisticRetryService) once their
+    // preconditions have been checked again against it
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Ticket changeTicketStatus(UUID id, TicketStatus newStatus, String comment, UUID userId) {
-        Ticket ticket = ticketRepository.findById(id)
+        return optimisticRetryService.execute(attempt -> applyStatusChange(id, newStatus, comment, userId, attempt));
+    }
+
+    private Ticket applyStatusChange(UUID id, TicketStatus newStatus, String comment, UUID userId, int attempt) {
+        Ticket ticket = ticketRepository.findWithPeopleById(id)
                 .orElseThrow(() -> new RuntimeException("Ticket not found with id: " + id));
+        requireTransition(ticket, newStatus, attempt);
         
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (currentUserService.resolve(userId) == null) {
+            throw new RuntimeException("User not found");
+        }
         
-        TicketStatus oldStatus = ticket.getStatus();
+        ticketEventLog.setActor(userId);
         ticket.setStatus(newStatus);
         ticket.setUpdatedAt(LocalDateTime.now());
         
-        // Create history entry
-        TicketHistory history = new TicketHistory();
-        history.setTicket(ticket);
-        history.setChangedBy(user);
-        history.setFieldName("status");
-        history.setOldValue(oldStatus.name());
-        history.setNewValue(newStatus.name());
-        history.setChangedAt(LocalDateTime.now());
-        
-        // Add comment if provided
+        // Add comment if provided, as a direct insert rather than through the lazy comments list
         if (comment != null && !comment.trim().isEmpty()) {
-            TicketComment ticketComment = new TicketComment();
-            ticketComment.setTicket(ticket);
-            ticketComment.setUser(user);
-            ticketComment.setComment(comment);
-            ticketComment.setCreatedAt(LocalDateTime.now());
-            ticketComment.setIsInternal(false);
-            
-            // Add to ticket's comments list
-            if (ticket.getComments() == null) {
-                ticket.setComments(new ArrayList<>());
-            }
-            ticket.getComments().add(ticketComment);
+            ticketCommentRepository.save(new TicketComment(ticket, userRepository.getReferenceById(userId), comment, false));
         }
         
         return ticketRepository.save(ticket);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Ticket assignTicket(UUID ticketId, UUID assigneeId) {
-        Ticket ticket = ticketRepository.findById(ticketId)
-                .orElseThrow(() -> new RuntimeException("Ticket not found"));
+        return optimisticRetryService.execute(attempt -> applyAssignment(ticketId, assigneeId, attempt));
+    }
+
+    private Ticket applyAssignment(UUID ticketId, UUID assigneeId, int attempt) {
+        Ticket ticket = ticketRepository.findWithPeopleById(ticketId)
+                .orElseThrow(() -> new IllegalArgumentException("Ticket not found"));
+        if (!ticket.getStatus().isActive()) {
+            throw precondition(attempt, ticket, "Closed or cancelled tickets cannot be assigned");
+        }
         
-        User assignee = userRepository.findById(assigneeId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (userService.getUserSummary(assigneeId) == null) {
+            throw new IllegalArgumentException("User not found");
+        }
         
-        User oldAssignee = ticket.getAssignedTo();
-        ticket.setAssignedTo(assignee);
+        // The response renders the assignee, so it is loaded once the check has passed
+        ticket.setAssignedTo(userRepository.getReferenceById(assigneeId));
+        Hibernate.initialize(ticket.getAssignedTo());
         ticket.setUpdatedAt(LocalDateTime.now());
         
-        // Create history entry
-        if (oldAssignee != null) {
-            TicketHistory history = new TicketHistory();
-            history.setTicket(ticket);
-            history.setChangedBy(assignee);
-            history.setFieldName("assignedTo");
-            history.setOldValue(oldAssignee.getEmail());
-            history.setNewValue(assignee.getEmail());
-            history.setChangedAt(LocalDateTime.now());
-        }
-        
         return ticketRepository.save(ticket);
     }
 
+    @Transactional(readOnly = true)
     public List<Ticket> getUrgentTickets() {
         return ticketRepository.findByPriorityInAndStatusIn(
                 List.of(TicketPriority.HIGH, TicketPriority.EMERGENCY),
@@ -250,6 +559,7 @@ public class TicketService {
         );
     }
 
+    @Transactional(readOnly = true)
     public List<Ticket> getOverdueTickets() {
         LocalDateTime cutoffDate = LocalDateTime.now().minusDays(7); // Tickets not updated in 7 days
         return ticketRepository.findOverdueTickets(cutoffDate);
@@ -264,64 +574,110 @@ public class TicketService {
         return null;
     }
 
+    /**
+     * Ticket counts per status for each month from..to inclusive, keyed "yyyy-MM" in order.
+     * Only the matching monthly partitions of tickets are read.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Map<TicketStatus, Long>> getMonthlyTicketCounts(YearMonth from, YearMonth to) {
+        Map<String, Map<TicketStatus, Long>> counts = new LinkedHashMap<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            counts.put(month.toString(), new EnumMap<>(TicketStatus.class));
+        }
+        List<Object[]> rows = ticketRepository.countByMonthAndStatus(
+                from.atDay(1).atStartOfDay(), to.plusMonths(1).atDay(1).atStartOfDay());
+        for (Object[] row : rows) {
+            YearMonth month = YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue());
+            counts.get(month.toString()).put((TicketStatus) row[2], ((Number) row[3]).longValue());
+        }
+        return counts;
+    }
+
+    @Transactional(readOnly = true)
     public long getTicketCountByStatus(TicketStatus status) {
         return ticketRepository.countByStatus(status);
     }
 
+    @Transactional(readOnly = true)
     public long getTicketCountByPriority(TicketPriority priority) {
         return ticketRepository.countByPriority(priority);
     }
 
+    @Transactional(readOnly = true)
     public long getTicketCountByCategory(TicketCategory category) {
         return ticketRepository.countByCategory(category);
     }
+
+    @Transactional(readOnly = true)
+    public List<Ticket> getTicketsWithFeedback() {
+        return ticketRepository.findTicketsWithFeedback();
+    }
     
     // Staff-specific methods
+    @Transactional(readOnly = true)
     public List<Ticket> getUnassignedTickets() {
         return ticketRepository.findByAssignedToIsNullAndStatus(TicketStatus.OPEN);
     }
     
+    @Transactional(readOnly = true)
     public List<Ticket> getTicketsAssignedToStaff(UUID staffId) {
         return ticketRepository.findByAssignedToIdAndStatusIn(staffId, 
             List.of(TicketStatus.ASSIGNED, TicketStatus.IN_PROGRESS, TicketStatus.ON_HOLD));
     }
     
+    @Transactional(readOnly = true)
     public List<Ticket> getTicketsForStaffVertical(StaffVertical vertical) {
         List<User> staffMembers = userRepository.findByRoleAndStaffVerticalAndIsActiveTrue(UserRole.STAFF, vertical);
         List<UUID> staffIds = staffMembers.stream().map(User::getId).toList();
         return ticketRepository.findByAssignedToIdIn(staffIds);
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Ticket assignTicketToStaff(UUID ticketId, UUID staffId) {
-        Ticket ticket = ticketRepository.findById(ticketId)
+        return optimisticRetryService.execute(attempt -> applyStaffAssignment(ticketId, staffId, attempt));
+    }
+
+    private Ticket applyStaffAssignment(UUID ticketId, UUID staffId, int attempt) {
+        Ticket ticket = ticketRepository.findWithPeopleById(ticketId)
             .orElseThrow(() -> new RuntimeException("Ticket not found"));
+        if (!ticket.getStatus().isActive()) {
+            throw precondition(attempt, ticket, "Closed or cancelled tickets cannot be assigned");
+        }
         
-        User staff = userRepository.findById(staffId)
-            .orElseThrow(() -> new RuntimeException("Staff member not found"));
-        
+        UserSummary staff = userService.getUserSummary(staffId);
+        if (staff == null) {
+            throw new RuntimeException("Staff member not found");
+        }
         if (staff.getRole() != UserRole.STAFF) {
             throw new RuntimeException("User is not a staff member");
         }
         
-        ticket.setAssignedTo(staff);
+        // The response renders the assignee, so it is loaded once the check has passed
+        ticket.setAssignedTo(userRepository.getReferenceById(staffId));
+        Hibernate.initialize(ticket.getAssignedTo());
         ticket.setStatus(TicketStatus.ASSIGNED);
         ticket.setUpdatedAt(LocalDateTime.now());
         
         return ticketRepository.save(ticket);
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Ticket updateTicketStatus(UUID ticketId, TicketStatus newStatus, UUID updatedBy) {
-        Ticket ticket = ticketRepository.findById(ticketId)
+        return optimisticRetryService.execute(attempt -> applyStatusUpdate(ticketId, newStatus, updatedBy, attempt));
+    }
+
+    private Ticket applyStatusUpdate(UUID ticketId, TicketStatus newStatus, UUID updatedBy, int attempt) {
+        Ticket ticket = ticketRepository.findWithPeopleById(ticketId)
             .orElseThrow(() -> new RuntimeException("Ticket not found"));
         
-        User updater = userRepository.findById(updatedBy)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+        UserSummary updater = currentUserService.resolve(updatedBy);
+        if (updater == null) {
+            throw new RuntimeException("User not found");
+        }
+        ticketEventLog.setActor(updatedBy);
         
         // Validate status transition
-        if (!ticket.getStatus().canTransitionTo(newStatus)) {
-            throw new RuntimeException("Invalid status transition from " + 
-                ticket.getStatus().getDisplayName() + " to " + newStatus.getDisplayName());
-        }
+        requireTransition(ticket, newStatus, attempt);
         
         // Check permissions
         if (updater.getRole() == UserRole.STUDENT) {
@@ -351,6 +707,7 @@ public class TicketService {
         return ticketRepository.save(ticket);
     }
     
+    @Transactional(readOnly = true)
     public List<Ticket> getTicketsByFilters(TicketStatus status, TicketCategory category, 
                                            TicketPriority priority, String building, UUID assignedTo) {
         // This would typically use Criteria API or custom query methods
@@ -370,45 +727,64 @@ public class TicketService {
      * Unassign a ticket - Admin only operation
      * Changes ticket status from ASSIGNED back to OPEN and removes assignedTo
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Ticket unassignTicket(UUID ticketId, UUID adminId) {
-        User admin = userRepository.findById(adminId)
-                .orElseThrow(() -> new RuntimeException("Admin not found"));
-        
+        return optimisticRetryService.execute(attempt -> applyUnassignment(ticketId, adminId, attempt));
+    }
+
+    private Ticket applyUnassignment(UUID ticketId, UUID adminId, int attempt) {
+        UserSummary admin = currentUserService.resolve(adminId);
+        if (admin == null) {
+            throw new RuntimeException("Admin not found");
+        }
         if (admin.getRole() != UserRole.ADMIN) {
             throw new RuntimeException("Only admins can unassign tickets");
         }
         
-        Ticket ticket = ticketRepository.findById(ticketId)
+        Ticket ticket = ticketRepository.findWithPeopleById(ticketId)
                 .orElseThrow(() -> new RuntimeException("Ticket not found"));
         
         if (ticket.getAssignedTo() == null) {
-            throw new RuntimeException("Ticket is not currently assigned");
+            throw precondition(attempt, ticket, "Ticket is not currently assigned");
+        }
+        if (!ticket.getStatus().isActive()) {
+            throw precondition(attempt, ticket, "Closed or cancelled tickets cannot be unassigned");
         }
         
-        // Store previous assignment for history
-        User previouslyAssignedTo = ticket.getAssignedTo();
-        
-        // Unassign the ticket
+        // Unassign the ticket; the event log records the assignee and status change
+        ticketEventLog.setActor(adminId);
         ticket.setAssignedTo(null);
         ticket.setStatus(TicketStatus.OPEN);
         ticket.setUpdatedAt(LocalDateTime.now());
         
-        // Create history entry
-        TicketHistory historyEntry = new TicketHistory();
-        historyEntry.setTicket(ticket);
-        historyEntry.setAction("UNASSIGNED");
-        historyEntry.setComment("Ticket unassigned by admin from " + previouslyAssignedTo.getFirstName() + " " + previouslyAssignedTo.getLastName());
-        historyEntry.setCreatedBy(admin);
-        historyEntry.setCreatedAt(LocalDateTime.now());
-        
-        if (ticket.getHistory() == null) {
-            ticket.setHistory(new ArrayList<>());
-        }
-        ticket.getHistory().add(historyEntry);
-        
         return ticketRepository.save(ticket);
     }
 
+    /**
+     * Proxy for a user that is only needed as a foreign key, e.g. inside bulkUpdateTickets
+     */
+    public User getUserReference(UUID userId) {
+        return userRepository.getReferenceById(userId);
+    }
+
+    private static void requireTransition(Ticket ticket, TicketStatus newStatus, int attempt) {
+        // On a retry the other writer may already have set the same status
+        if (ticket.getStatus().canTransitionTo(newStatus) || (attempt > 1 && ticket.getStatus() == newStatus)) {
+            return;
+        }
+        throw precondition(attempt, ticket, "Invalid status transition from " +
+                ticket.getStatus().getDisplayName() + " to " + newStatus.getDisplayName());
+    }
+
+    // A check that fails only after a retry failed because of the concurrent change: 409, not 400
+    private static RuntimeException precondition(int attempt, Ticket ticket, String message) {
+        if (attempt > 1) {
+            return new OptimisticRetryService.StaleUpdateException(
+                    message + " (ticket is now " + ticket.getStatus().getDisplayName() + ")");
+        }
+        return new IllegalStateException(message);
+    }
+
     /**
      * Find similar tickets to prevent duplicates
      * Uses simple keyword matching and similarity scoring
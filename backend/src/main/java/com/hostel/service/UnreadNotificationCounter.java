@@ -0,0 +1,160 @@
+package com.hostel.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hostel.config.ReplicaRoutingDataSource;
+import com.hostel.repository.NotificationRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory per-user unread notification counter backing the header badge.
+ * Counts are loaded from the database on a miss and then kept in step with
+ * inserts and mark-read updates, applied only after the surrounding transaction commits.
+ *
+ * A count loaded while a change for the same user is between its commit and its afterCommit
+ * delta would be off by that delta, so such loads are returned but not cached: every change
+ * marks its user's stripe pending from beforeCommit until completion and bumps the stripe's
+ * version. Entries expire after notifications.unread-counter.ttl, which also bounds drift
+ * from writes on other nodes.
+ */
+@Component
+public class UnreadNotificationCounter {
+
+    private static final int STRIPES = 1024;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Value("${notifications.unread-counter.ttl:5m}")
+    private Duration ttl;
+
+    @Value("${notifications.unread-counter.max-users:50000}")
+    private long maxUsers;
+
+    private Cache<UUID, AtomicLong> counters;
+    private final AtomicIntegerArray pending = new AtomicIntegerArray(STRIPES);
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+
+    @PostConstruct
+    void init() {
+        counters = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Get the unread count for a user, falling back to the database on a cache miss
+     */
+    public long getUnreadCount(UUID userId) {
+        AtomicLong counter = counters.getIfPresent(userId);
+        if (counter != null) {
+            return counter.get();
+        }
+        int stripe = stripe(userId);
+        long version = versions.get(stripe);
+        boolean quiet = pending.get(stripe) == 0;
+        // From the primary: a replica count missing a recent insert would be cached until expiry
+        long count = ReplicaRoutingDataSource.readFromPrimary(
+                () -> notificationRepository.countByUserIdAndIsReadFalse(userId));
+        if (quiet && pending.get(stripe) == 0 && versions.get(stripe) == version) {
+            counter = counters.asMap().putIfAbsent(userId, new AtomicLong(count));
+            if (counter != null) {
+                return counter.get();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Record newly inserted unread notifications for a user
+     */
+    public void increment(UUID userId, long delta) {
+        afterCommit(userId, () -> {
+            AtomicLong counter = counters.getIfPresent(userId);
+            if (counter != null) {
+                counter.addAndGet(delta);
+            }
+        });
+    }
+
+    /**
+     * Record notifications of a user that were marked as read
+     */
+    public void decrement(UUID userId, long delta) {
+        afterCommit(userId, () -> {
+            AtomicLong counter = counters.getIfPresent(userId);
+            if (counter != null) {
+                counter.updateAndGet(current -> Math.max(0, current - delta));
+            }
+        });
+    }
+
+    /**
+     * Reset the unread count of a user to zero (after "mark all read")
+     */
+    public void reset(UUID userId) {
+        afterCommit(userId, () -> counters.put(userId, new AtomicLong(0)));
+    }
+
+    /**
+     * Drop the cached count so the next read reloads it from the database
+     */
+    public void evict(UUID userId) {
+        afterCommit(userId, () -> counters.invalidate(userId));
+    }
+
+    public void evictAll() {
+        counters.invalidateAll();
+    }
+
+    /**
+     * Apply a counter change once the current transaction has committed, or immediately if none is active.
+     * The user's stripe is pending from just before the commit until the change has been applied.
+     */
+    private void afterCommit(UUID userId, Runnable action) {
+        int stripe = stripe(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean marked;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    pending.incrementAndGet(stripe);
+                    marked = true;
+                }
+
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (marked) {
+                        versions.incrementAndGet(stripe);
+                        pending.decrementAndGet(stripe);
+                    }
+                }
+            });
+        } else {
+            versions.incrementAndGet(stripe);
+            action.run();
+        }
+    }
+
+    private static int stripe(UUID userId) {
+        return (userId.hashCode() & 0x7fffffff) % STRIPES;
+    }
+}
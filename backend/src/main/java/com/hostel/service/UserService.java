@@ -1,12 +1,19 @@
 package com.hostel.service;
 
+import com.hostel.cache.EntityCacheInvalidator;
+import com.hostel.config.ReplicaRoutingDataSource;
+import com.hostel.dto.DTOMapper;
+import com.hostel.dto.UserSummary;
 import com.hostel.entity.User;
 import com.hostel.entity.UserRole;
 import com.hostel.entity.StaffVertical;
 import com.hostel.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -17,11 +24,16 @@ import java.util.UUID;
 @Transactional
 public class UserService {
 
+    public static final String USER_SUMMARY_CACHE = "userSummaries";
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private EntityCacheInvalidator entityCacheInvalidator;
 
     public List<User> getAllUsers() {
         return userRepository.findAll();
@@ -46,7 +58,7 @@ public class UserService {
     public User createUser(User user) {
         // Encode password before saving
         if (user.getPasswordHash() != null) {
-            user.setPasswordHash(passwordEncoder.encode(user.getPasswordHash()));
+            user.setPasswordHash(passwordHashingService.encode(user.getPasswordHash()));
         }
         
         // Set default values
@@ -58,6 +70,11 @@ public class UserService {
         return userRepository.save(user);
     }
 
+    // Staff mapping summaries carry the staff member's name and username
+    @Caching(evict = {
+            @CacheEvict(value = USER_SUMMARY_CACHE, key = "#id"),
+            @CacheEvict(value = StaffMappingService.STAFF_MAPPING_CACHE, allEntries = true)
+    })
     public User updateUser(UUID id, User userDetails) {
         return userRepository.findById(id)
                 .map(existingUser -> {
@@ -71,7 +88,7 @@ public class UserService {
                     
                     // Only update password if provided
                     if (userDetails.getPasswordHash() != null && !userDetails.getPasswordHash().isEmpty()) {
-                        existingUser.setPasswordHash(passwordEncoder.encode(userDetails.getPasswordHash()));
+                        existingUser.setPasswordHash(passwordHashingService.encode(userDetails.getPasswordHash()));
                     }
                     
                     return userRepository.save(existingUser);
@@ -79,6 +96,7 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
     }
 
+    @CacheEvict(value = USER_SUMMARY_CACHE, key = "#id")
     public void deleteUser(UUID id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
@@ -86,13 +104,16 @@ public class UserService {
         userRepository.save(user);
     }
 
+    /**
+     * Check an active user's password. Runs outside any transaction: the hash is read in the
+     * repository's own short read-only transaction, so no pooled connection is held while
+     * BCrypt waits for and runs on the hashing pool.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean authenticateUser(String email, String password) {
-        Optional<User> userOpt = userRepository.findByEmail(email);
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            return passwordEncoder.matches(password, user.getPasswordHash()) && user.getIsActive();
-        }
-        return false;
+        return userRepository.findActivePasswordHashByEmail(email)
+                .map(hash -> passwordHashingService.matches(password, hash))
+                .orElse(false);
     }
 
     public User getCurrentUser(String email) {
@@ -113,9 +134,23 @@ public class UserService {
         return userRepository.findById(id).orElse(null);
     }
     
+    /**
+     * Cached role/vertical/block lookup for permission checks.
+     * Evicted whenever the user is updated or their status changes. A miss reads the primary
+     * database, not the node-local second-level cache or a lagging replica, so no node can
+     * refill this shared cache with a role or active flag that was just changed.
+     */
+    @Cacheable(value = USER_SUMMARY_CACHE, key = "#id", unless = "#result == null")
+    @Transactional(readOnly = true)
+    public UserSummary getUserSummary(UUID id) {
+        return ReplicaRoutingDataSource.readFromPrimary(() -> userRepository.findByIdFromDatabase(id)
+                .map(DTOMapper::toUserSummary)
+                .orElse(null));
+    }
+    
     public User createUser(User user, String password) {
         // Encode password
-        user.setPasswordHash(passwordEncoder.encode(password));
+        user.setPasswordHash(passwordHashingService.encode(password));
         
         // Set timestamps
         user.setCreatedAt(java.time.LocalDateTime.now());
@@ -124,12 +159,17 @@ public class UserService {
         return userRepository.save(user);
     }
     
+    @Caching(evict = {
+            @CacheEvict(value = USER_SUMMARY_CACHE, key = "#user.id"),
+            @CacheEvict(value = StaffMappingService.STAFF_MAPPING_CACHE, allEntries = true)
+    })
     public User updateUser(User user) {
         user.setUpdatedAt(java.time.LocalDateTime.now());
         return userRepository.save(user);
     }
     
     @Transactional
+    @CacheEvict(value = USER_SUMMARY_CACHE, key = "#userId")
     public User toggleUserStatus(UUID userId) {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("User not found"));
@@ -148,12 +188,15 @@ public class UserService {
         if (updated == 0) {
             throw new RuntimeException("Failed to update user status");
         }
+        // The bulk update bypasses Hibernate's entity events
+        entityCacheInvalidator.evictAfterCommit(User.class, userId);
         
         // Return the updated user
         return userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("User not found after update"));
     }
     
+    @CacheEvict(value = USER_SUMMARY_CACHE, key = "#userId")
     public void softDeleteUser(UUID userId) {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("User not found"));
@@ -176,19 +219,15 @@ public class UserService {
         return userRepository.findByStaffIdAndIsActiveTrue(staffId);
     }
     
+    // Like authenticateUser, without a connection held during the BCrypt match
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean authenticateUserByUsernameOrEmail(String usernameOrEmail, String password) {
         // Try to find user by email first, then by username
-        Optional<User> userOpt = userRepository.findByEmailAndIsActiveTrue(usernameOrEmail);
-        if (userOpt.isEmpty()) {
-            userOpt = userRepository.findByUsernameAndIsActiveTrue(usernameOrEmail);
+        Optional<String> hash = userRepository.findActivePasswordHashByEmail(usernameOrEmail);
+        if (hash.isEmpty()) {
+            hash = userRepository.findActivePasswordHashByUsername(usernameOrEmail);
         }
-        
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            return passwordEncoder.matches(password, user.getPasswordHash());
-        }
-        
-        return false;
+        return hash.map(value -> passwordHashingService.matches(password, value)).orElse(false);
     }
     
     public User getCurrentUserByUsernameOrEmail(String usernameOrEmail) {
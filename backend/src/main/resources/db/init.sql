@@ -1,5 +1,8 @@
 -- IIM Trichy Hostel Ticket Management System Database Schema
 -- Based on Product Design Document v1.0
+--
+-- LEGACY: no longer mounted by docker-compose.yml and not used by any profile. The schema is
+-- owned by the Flyway migrations in db/migration, which refuse a database built from this file.
 
 -- Create extensions
 CREATE EXTENSION IF NOT EXISTS "uuid-ossp";
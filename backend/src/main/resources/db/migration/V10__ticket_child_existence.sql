@@ -0,0 +1,48 @@
+-- V10: child rows may only be inserted for a live ticket. V4 had to drop the foreign keys to
+-- tickets (their target would need the partition key), and inserts that reference a ticket
+-- by id alone (attachments, comments, escalations) could otherwise race TicketArchiveService:
+-- a child committed after the mover copied the children but before it deleted the ticket
+-- was deleted without being archived, and one committed after the move was orphaned.
+--
+-- The trigger does what the foreign key did: it takes FOR KEY SHARE on the parent row. That
+-- conflicts with the mover's FOR UPDATE (and with a ticket DELETE) but not with ordinary
+-- ticket updates, so:
+--  * an insert that locks the ticket first makes the mover's SKIP LOCKED pass the ticket over
+--    until the next run
+--  * an insert that comes second waits for the mover to commit, then finds the ticket gone
+--    and fails with foreign_key_violation
+--
+-- ticket_history is left out: its rows are written in the transaction that changed the
+-- ticket, which already holds the row lock, or shipped later from the TicketJournal, which
+-- must not fail for a ticket deleted in the meantime.
+--
+-- Like every by-id lookup on tickets (findById, existsById, the versioned UPDATE), the check
+-- cannot prune partitions because the child does not know created_at: it probes the primary
+-- key index of each monthly partition. src/test/resources/db/explain/partitioned_ticket_lookups.sql
+-- measures it on generated data.
+
+CREATE FUNCTION require_live_ticket() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' AND NEW.ticket_id = OLD.ticket_id THEN
+        RETURN NEW;
+    END IF;
+    PERFORM 1 FROM tickets WHERE id = NEW.ticket_id FOR KEY SHARE;
+    IF NOT FOUND THEN
+        RAISE EXCEPTION 'ticket % does not exist or has been archived', NEW.ticket_id
+            USING ERRCODE = 'foreign_key_violation', TABLE = TG_TABLE_NAME, COLUMN = 'ticket_id';
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER ticket_attachments_require_ticket
+    BEFORE INSERT OR UPDATE OF ticket_id ON ticket_attachments
+    FOR EACH ROW EXECUTE FUNCTION require_live_ticket();
+
+CREATE TRIGGER ticket_comments_require_ticket
+    BEFORE INSERT OR UPDATE OF ticket_id ON ticket_comments
+    FOR EACH ROW EXECUTE FUNCTION require_live_ticket();
+
+CREATE TRIGGER ticket_escalations_require_ticket
+    BEFORE INSERT OR UPDATE OF ticket_id ON ticket_escalations
+    FOR EACH ROW EXECUTE FUNCTION require_live_ticket();
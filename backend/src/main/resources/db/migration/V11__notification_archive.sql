@@ -0,0 +1,34 @@
+-- V11: notification retention (NotificationRetentionService) - composite indexes for the
+-- per-user inbox queries and cold storage for archived notifications.
+-- IF NOT EXISTS because databases that ran with ddl-auto: update before being baselined
+-- may already have Hibernate-created copies of these objects.
+
+CREATE INDEX IF NOT EXISTS idx_notifications_user_created
+    ON notifications (user_id, created_at);
+
+CREATE INDEX IF NOT EXISTS idx_notifications_user_is_read
+    ON notifications (user_id, is_read);
+
+CREATE INDEX IF NOT EXISTS idx_notifications_read_created
+    ON notifications (is_read, created_at);
+
+-- No foreign keys: archived rows must not block deleting users or tickets
+CREATE TABLE IF NOT EXISTS notifications_archive (
+    id uuid not null,
+    archived_at timestamp(6) not null,
+    created_at timestamp(6) not null,
+    is_read boolean not null,
+    message TEXT not null,
+    read_at timestamp(6),
+    related_ticket_id uuid,
+    title varchar(200) not null,
+    type varchar(255) not null check (type in ('EMAIL','SMS','IN_APP')),
+    user_id uuid not null,
+    primary key (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_notifications_archive_user_created
+    ON notifications_archive (user_id, created_at);
+
+CREATE INDEX IF NOT EXISTS idx_notifications_archive_archived_at
+    ON notifications_archive (archived_at);
@@ -0,0 +1,8 @@
+-- V12: archived event logs are keyset-paged in (changed_at, id) order like the live one
+-- (TicketArchiveService.getHistory). The V3 index lacked id, so a page after a cursor that
+-- falls on a shared changed_at had to filter and sort instead of seeking.
+CREATE INDEX IF NOT EXISTS idx_ticket_history_archive_ticket_changed
+    ON ticket_history_archive (ticket_id, changed_at, id);
+
+-- Its leading columns make this redundant
+DROP INDEX IF EXISTS idx_ticket_history_archive_ticket;
@@ -0,0 +1,83 @@
+-- V13: the two references to tickets(id) that V4 dropped and V10 left out,
+-- tickets.parent_ticket_id and notifications.related_ticket_id, get the V10 treatment.
+--
+-- Insert side: a parent ticket or related ticket must be live, checked with FOR KEY SHARE like
+-- require_live_ticket(). Both columns are nullable. Hibernate writes every column on update,
+-- so an unchanged reference returns early and ordinary ticket and notification updates pay
+-- nothing. A concurrent TicketArchiveService run either skips the referenced ticket (SKIP
+-- LOCKED) or makes the insert wait and then fail with foreign_key_violation.
+--
+-- Delete side: the foreign keys were NO ACTION, so a ticket that a live ticket or notification
+-- still references cannot be deleted. The mover already waits for child tickets and unlinks
+-- notifications before it deletes (TicketArchiveService.archiveBatch); the trigger turns a
+-- dangling reference left by anything else into an error. Like the foreign key it checks at
+-- the end of the statement, once per statement over the deleted rows: the mover deletes a
+-- batch in one statement, and a per-row check would probe every partition once per ticket.
+--
+-- Existing rows are not checked: the insert-side checks only fire when the reference changes.
+
+CREATE FUNCTION require_live_parent_ticket() RETURNS trigger AS $$
+BEGIN
+    IF NEW.parent_ticket_id IS NULL
+       OR (TG_OP = 'UPDATE' AND NEW.parent_ticket_id IS NOT DISTINCT FROM OLD.parent_ticket_id) THEN
+        RETURN NEW;
+    END IF;
+    PERFORM 1 FROM tickets WHERE id = NEW.parent_ticket_id FOR KEY SHARE;
+    IF NOT FOUND THEN
+        RAISE EXCEPTION 'parent ticket % does not exist or has been archived', NEW.parent_ticket_id
+            USING ERRCODE = 'foreign_key_violation', TABLE = TG_TABLE_NAME, COLUMN = 'parent_ticket_id';
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER tickets_require_parent_ticket
+    BEFORE INSERT OR UPDATE OF parent_ticket_id ON tickets
+    FOR EACH ROW EXECUTE FUNCTION require_live_parent_ticket();
+
+CREATE FUNCTION require_live_related_ticket() RETURNS trigger AS $$
+BEGIN
+    IF NEW.related_ticket_id IS NULL
+       OR (TG_OP = 'UPDATE' AND NEW.related_ticket_id IS NOT DISTINCT FROM OLD.related_ticket_id) THEN
+        RETURN NEW;
+    END IF;
+    PERFORM 1 FROM tickets WHERE id = NEW.related_ticket_id FOR KEY SHARE;
+    IF NOT FOUND THEN
+        RAISE EXCEPTION 'ticket % does not exist or has been archived', NEW.related_ticket_id
+            USING ERRCODE = 'foreign_key_violation', TABLE = TG_TABLE_NAME, COLUMN = 'related_ticket_id';
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER notifications_require_related_ticket
+    BEFORE INSERT OR UPDATE OF related_ticket_id ON notifications
+    FOR EACH ROW EXECUTE FUNCTION require_live_related_ticket();
+
+CREATE FUNCTION reject_referenced_ticket_delete() RETURNS trigger AS $$
+DECLARE
+    referenced uuid;
+BEGIN
+    -- parent_ticket_id IS NOT NULL lets the planner use the partial idx_tickets_parent_ticket
+    SELECT d.id INTO referenced FROM deleted_tickets d
+    WHERE EXISTS (SELECT 1 FROM tickets c WHERE c.parent_ticket_id = d.id AND c.parent_ticket_id IS NOT NULL)
+    LIMIT 1;
+    IF FOUND THEN
+        RAISE EXCEPTION 'ticket % is still the parent of a live ticket', referenced
+            USING ERRCODE = 'foreign_key_violation', TABLE = 'tickets', COLUMN = 'parent_ticket_id';
+    END IF;
+    SELECT d.id INTO referenced FROM deleted_tickets d
+    WHERE EXISTS (SELECT 1 FROM notifications n WHERE n.related_ticket_id = d.id)
+    LIMIT 1;
+    IF FOUND THEN
+        RAISE EXCEPTION 'ticket % is still referenced by a notification', referenced
+            USING ERRCODE = 'foreign_key_violation', TABLE = 'notifications', COLUMN = 'related_ticket_id';
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER tickets_reject_referenced_delete
+    AFTER DELETE ON tickets
+    REFERENCING OLD TABLE AS deleted_tickets
+    FOR EACH STATEMENT EXECUTE FUNCTION reject_referenced_ticket_delete();
@@ -0,0 +1,457 @@
+-- V1: baseline schema
+-- Matches the schema Hibernate generated from the entities before migrations were introduced.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate) and skip it,
+-- so nothing may be added here: later schema changes belong in V2 onwards.
+
+create table asset_movements (
+    id uuid not null,
+    completed_date timestamp(6),
+    from_building varchar(255) not null,
+    from_location varchar(255),
+    from_room_number varchar(255),
+    movement_date timestamp(6),
+    notes varchar(255),
+    reason varchar(255),
+    status varchar(255) not null check (status in ('PLANNED','IN_PROGRESS','COMPLETED','CANCELLED')),
+    to_building varchar(255) not null,
+    to_location varchar(255),
+    to_room_number varchar(255),
+    asset_id uuid not null,
+    authorized_by uuid,
+    moved_by uuid not null,
+    primary key (id)
+);
+
+create table assets (
+    id uuid not null,
+    asset_tag varchar(255) not null unique,
+    building varchar(255) not null,
+    created_at timestamp(6),
+    current_value float(53),
+    description varchar(255),
+    location varchar(255),
+    manufacturer varchar(255),
+    model varchar(255),
+    name varchar(255) not null,
+    purchase_date timestamp(6),
+    purchase_price float(53),
+    room_number varchar(255),
+    serial_number varchar(255),
+    status varchar(255) not null check (status in ('ACTIVE','MAINTENANCE','OUT_OF_ORDER','RETIRED','LOST','DAMAGED','STORED','RESERVED','IN_TRANSIT')),
+    type varchar(255) not null check (type in ('FURNITURE_BED','FURNITURE_DESK','FURNITURE_CHAIR','FURNITURE_WARDROBE','FURNITURE_SHELF','APPLIANCE_AC','APPLIANCE_FAN','APPLIANCE_REFRIGERATOR','APPLIANCE_MICROWAVE','APPLIANCE_WASHING_MACHINE','APPLIANCE_WATER_HEATER','ELECTRONICS_TV','ELECTRONICS_COMPUTER','ELECTRONICS_ROUTER','ELECTRONICS_PHONE','SAFETY_FIRE_EXTINGUISHER','SAFETY_SMOKE_DETECTOR','SAFETY_CCTV','SAFETY_ACCESS_CONTROL','MAINTENANCE_TOOLS','MAINTENANCE_CLEANING','MAINTENANCE_HVAC','MAINTENANCE_PLUMBING','MAINTENANCE_ELECTRICAL','RECREATION_SPORTS','RECREATION_GAMES','RECREATION_BOOKS','KITCHEN_STOVE','KITCHEN_SINK','KITCHEN_UTENSILS','KITCHEN_APPLIANCES','OTHER')),
+    updated_at timestamp(6),
+    warranty_expiry timestamp(6),
+    assigned_to uuid,
+    primary key (id)
+);
+
+create table building_maintenance_schedule (
+    id uuid not null,
+    building varchar(50) not null,
+    created_at timestamp(6) not null,
+    description TEXT,
+    estimated_duration_hours integer,
+    maintenance_type varchar(100) not null,
+    scheduled_date date not null,
+    status varchar(20),
+    assigned_staff uuid,
+    primary key (id)
+);
+
+create table category_staff_mappings (
+    id uuid not null,
+    capacity_weight numeric(3,2) not null,
+    category varchar(100) not null,
+    created_at timestamp(6) not null,
+    expertise_level integer not null,
+    hostel_block varchar(50) check (hostel_block in ('BLOCK_A','BLOCK_B','BLOCK_C','BLOCK_D','BLOCK_E','BLOCK_F','BLOCK_G','BLOCK_H')),
+    is_active boolean not null,
+    priority_level integer not null,
+    updated_at timestamp(6) not null,
+    staff_id uuid not null,
+    primary key (id),
+    unique (staff_id, hostel_block, category)
+);
+
+create table hostel_blocks (
+    id uuid not null,
+    block_code varchar(10) not null unique,
+    block_name varchar(50) not null unique,
+    created_at timestamp(6) not null,
+    has_disabled_access boolean not null,
+    is_active boolean not null,
+    is_female_block boolean not null,
+    rooms_per_floor integer not null,
+    total_floors integer not null,
+    total_rooms integer not null,
+    warden_id uuid,
+    primary key (id)
+);
+
+create table maintenance_schedules (
+    id uuid not null,
+    created_at timestamp(6),
+    description varchar(255),
+    estimated_cost float(53),
+    estimated_duration_minutes integer,
+    instructions varchar(255),
+    interval_days integer not null,
+    last_performed timestamp(6) not null,
+    maintenance_type varchar(255) not null,
+    next_due_date timestamp(6) not null,
+    priority varchar(255) not null check (priority in ('LOW','MEDIUM','HIGH','CRITICAL')),
+    required_parts varchar(255),
+    status varchar(255) not null check (status in ('SCHEDULED','IN_PROGRESS','COMPLETED','CANCELLED','OVERDUE')),
+    updated_at timestamp(6),
+    asset_id uuid not null,
+    assigned_technician uuid,
+    primary key (id)
+);
+
+create table notifications (
+    id uuid not null,
+    created_at timestamp(6) not null,
+    is_read boolean not null,
+    message TEXT not null,
+    read_at timestamp(6),
+    title varchar(200) not null,
+    type varchar(255) not null check (type in ('EMAIL','SMS','IN_APP')),
+    related_ticket_id uuid,
+    user_id uuid not null,
+    primary key (id)
+);
+
+create table ticket_attachments (
+    id uuid not null,
+    created_at timestamp(6) not null,
+    file_path varchar(500) not null,
+    file_size bigint not null,
+    filename varchar(255) not null,
+    mime_type varchar(100),
+    original_filename varchar(255) not null,
+    ticket_id uuid not null,
+    uploaded_by uuid not null,
+    primary key (id)
+);
+
+create table ticket_comments (
+    id uuid not null,
+    comment TEXT not null,
+    created_at timestamp(6) not null,
+    is_internal boolean not null,
+    ticket_id uuid not null,
+    user_id uuid not null,
+    primary key (id)
+);
+
+create table ticket_escalations (
+    id uuid not null,
+    escalated_at timestamp(6) not null,
+    reason TEXT not null,
+    resolved_at timestamp(6),
+    escalated_from uuid not null,
+    escalated_to uuid not null,
+    ticket_id uuid not null,
+    primary key (id)
+);
+
+create table ticket_history (
+    id uuid not null,
+    changed_at timestamp(6) not null,
+    field_name varchar(50) not null,
+    new_value TEXT,
+    old_value TEXT,
+    changed_by uuid not null,
+    ticket_id uuid not null,
+    primary key (id)
+);
+
+create table tickets (
+    id uuid not null,
+    actual_cost numeric(10,2),
+    actual_resolution_time timestamp(6),
+    assigned_at timestamp(6),
+    category_enum varchar check (category_enum in ('ELECTRICAL_ISSUES','PLUMBING_WATER','HVAC','STRUCTURAL_CIVIL','FURNITURE_FIXTURES','NETWORK_INTERNET','COMPUTER_HARDWARE','AUDIO_VISUAL_EQUIPMENT','SECURITY_SYSTEMS','HOUSEKEEPING_CLEANLINESS','SAFETY_SECURITY','LANDSCAPING_OUTDOOR','GENERAL')),
+    closed_at timestamp(6),
+    created_at timestamp(6) not null,
+    custom_category varchar(255),
+    description TEXT not null,
+    estimated_cost numeric(10,2),
+    estimated_resolution_time timestamp(6),
+    feedback TEXT,
+    floor_number integer,
+    hostel_block varchar(50) not null,
+    is_emergency boolean,
+    is_recurring boolean,
+    location_details TEXT,
+    priority varchar not null check (priority in ('LOW','MEDIUM','HIGH','EMERGENCY')),
+    resolved_at timestamp(6),
+    room_number varchar(10),
+    satisfaction_rating integer,
+    sla_breach_time timestamp(6),
+    started_at timestamp(6),
+    status varchar not null check (status in ('OPEN','ASSIGNED','IN_PROGRESS','ON_HOLD','RESOLVED','CLOSED','CANCELLED','REOPENED')),
+    ticket_number varchar(20) not null unique,
+    title varchar(200) not null,
+    updated_at timestamp(6) not null,
+    assigned_to uuid,
+    created_by uuid not null,
+    parent_ticket_id uuid,
+    primary key (id)
+);
+
+create table users (
+    id uuid not null,
+    created_at timestamp(6) not null,
+    email varchar(100) not null unique,
+    emergency_contact varchar(20),
+    employee_code varchar(20),
+    first_name varchar(50) not null,
+    floor_number integer,
+    hostel_block varchar(50),
+    is_active boolean not null,
+    last_login timestamp(6),
+    last_name varchar(50) not null,
+    password_hash varchar(255) not null,
+    phone varchar(20),
+    role varchar(255) not null check (role in ('STUDENT','STAFF','ADMIN')),
+    room_number varchar(10),
+    staff_id varchar(20),
+    staff_vertical varchar(255) check (staff_vertical in ('ELECTRICAL','PLUMBING','HVAC','CARPENTRY','IT_SUPPORT','NETWORK_ADMIN','SECURITY_SYSTEMS','HOUSEKEEPING','LANDSCAPING','GENERAL_MAINTENANCE','HOSTEL_WARDEN','BLOCK_SUPERVISOR','SECURITY_OFFICER','ADMIN_STAFF')),
+    student_id varchar(20),
+    updated_at timestamp(6) not null,
+    username varchar(50) not null unique,
+    primary key (id)
+);
+
+create index idx_maintenance_building
+   on building_maintenance_schedule (building);
+
+create index idx_maintenance_scheduled_date
+   on building_maintenance_schedule (scheduled_date);
+
+create index idx_maintenance_status
+   on building_maintenance_schedule (status);
+
+create index idx_maintenance_assigned_staff
+   on building_maintenance_schedule (assigned_staff);
+
+create index idx_hostel_blocks_block_code
+   on hostel_blocks (block_code);
+
+create index idx_hostel_blocks_is_active
+   on hostel_blocks (is_active);
+
+create index idx_hostel_blocks_is_female
+   on hostel_blocks (is_female_block);
+
+create index idx_notifications_user_id
+   on notifications (user_id);
+
+create index idx_notifications_is_read
+   on notifications (is_read);
+
+create index idx_notifications_created_at
+   on notifications (created_at);
+
+create index idx_notifications_type
+   on notifications (type);
+
+create index idx_notifications_related_ticket
+   on notifications (related_ticket_id);
+
+create index idx_attachments_ticket_id
+   on ticket_attachments (ticket_id);
+
+create index idx_attachments_uploaded_by
+   on ticket_attachments (uploaded_by);
+
+create index idx_attachments_created_at
+   on ticket_attachments (created_at);
+
+create index idx_comments_ticket_id
+   on ticket_comments (ticket_id);
+
+create index idx_comments_created_at
+   on ticket_comments (created_at);
+
+create index idx_comments_user_id
+   on ticket_comments (user_id);
+
+create index idx_escalations_ticket_id
+   on ticket_escalations (ticket_id);
+
+create index idx_escalations_escalated_from
+   on ticket_escalations (escalated_from);
+
+create index idx_escalations_escalated_to
+   on ticket_escalations (escalated_to);
+
+create index idx_escalations_escalated_at
+   on ticket_escalations (escalated_at);
+
+create index idx_history_ticket_id
+   on ticket_history (ticket_id);
+
+create index idx_history_changed_by
+   on ticket_history (changed_by);
+
+create index idx_history_changed_at
+   on ticket_history (changed_at);
+
+create index idx_history_field_name
+   on ticket_history (field_name);
+
+create index idx_tickets_status
+   on tickets (status);
+
+create index idx_tickets_priority
+   on tickets (priority);
+
+create index idx_tickets_category_enum
+   on tickets (category_enum);
+
+create index idx_tickets_created_by
+   on tickets (created_by);
+
+create index idx_tickets_assigned_to
+   on tickets (assigned_to);
+
+create index idx_tickets_created_at
+   on tickets (created_at);
+
+create index idx_tickets_hostel_block
+   on tickets (hostel_block);
+
+create index idx_tickets_room_number
+   on tickets (room_number);
+
+create index idx_users_username
+   on users (username);
+
+create index idx_users_email
+   on users (email);
+
+create index idx_users_role
+   on users (role);
+
+create index idx_users_hostel_block
+   on users (hostel_block);
+
+create index idx_users_room_number
+   on users (room_number);
+
+alter table if exists asset_movements
+   add constraint FKse0c4qgohsms9cb2raiqcc8kg
+   foreign key (asset_id)
+   references assets;
+
+alter table if exists asset_movements
+   add constraint FKof7orchptx30fj2e0yam2so5u
+   foreign key (authorized_by)
+   references users;
+
+alter table if exists asset_movements
+   add constraint FKaye515679980jcky4rtyk873p
+   foreign key (moved_by)
+   references users;
+
+alter table if exists assets
+   add constraint FK3fwcwir8kgpkr29j9fmw9khnt
+   foreign key (assigned_to)
+   references users;
+
+alter table if exists building_maintenance_schedule
+   add constraint FK83ywicqok2qogxdt5bgj219pa
+   foreign key (assigned_staff)
+   references users;
+
+alter table if exists category_staff_mappings
+   add constraint FK26pc2kfas8q4iveh5u64mkk2w
+   foreign key (staff_id)
+   references users;
+
+alter table if exists hostel_blocks
+   add constraint FKf9him9xf0hueawg8eog6i8sxn
+   foreign key (warden_id)
+   references users;
+
+alter table if exists maintenance_schedules
+   add constraint FKo3w26nb7nexpcd09nc02gb2fu
+   foreign key (asset_id)
+   references assets;
+
+alter table if exists maintenance_schedules
+   add constraint FKmrqlrupa8jm3skv0a8qicc98r
+   foreign key (assigned_technician)
+   references users;
+
+alter table if exists notifications
+   add constraint FKg8mux7c80krmadvwahoedytfd
+   foreign key (related_ticket_id)
+   references tickets;
+
+alter table if exists notifications
+   add constraint FK9y21adhxn0ayjhfocscqox7bh
+   foreign key (user_id)
+   references users;
+
+alter table if exists ticket_attachments
+   add constraint FKddsdoqdixn4l34ssq1ndvk4wb
+   foreign key (ticket_id)
+   references tickets;
+
+alter table if exists ticket_attachments
+   add constraint FK3bvc6hcwg85wf2r857yq5l0sw
+   foreign key (uploaded_by)
+   references users;
+
+alter table if exists ticket_comments
+   add constraint FKdoce3fj1osdn71h25dhfs160v
+   foreign key (ticket_id)
+   references tickets;
+
+alter table if exists ticket_comments
+   add constraint FKqstmdduoeqr1bm2lj8r5tmhl2
+   foreign key (user_id)
+   references users;
+
+alter table if exists ticket_escalations
+   add constraint FKfvpxhqn3c69mvhs7192eu3qv1
+   foreign key (escalated_from)
+   references users;
+
+alter table if exists ticket_escalations
+   add constraint FKnkb9o8due8h8aok9p4rmdax5l
+   foreign key (escalated_to)
+   references users;
+
+alter table if exists ticket_escalations
+   add constraint FK2ttpwtllbsufdd5o3yj1dcx79
+   foreign key (ticket_id)
+   references tickets;
+
+alter table if exists ticket_history
+   add constraint FKealiso7ie7nqm5rgtjk604am4
+   foreign key (changed_by)
+   references users;
+
+alter table if exists ticket_history
+   add constraint FKkkhg6aquudxfcbofalx8rtc6v
+   foreign key (ticket_id)
+   references tickets;
+
+alter table if exists tickets
+   add constraint FKmwsov8q6vll6krbx1co2ifp6t
+   foreign key (assigned_to)
+   references users;
+
+alter table if exists tickets
+   add constraint FKsytxppnwol0ckyehli7bqqbcr
+   foreign key (created_by)
+   references users;
+
+alter table if exists tickets
+   add constraint FKlymq6rlgp1hw8svp50rxxywu7
+   foreign key (parent_ticket_id)
+   references tickets;
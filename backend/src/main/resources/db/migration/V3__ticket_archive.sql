@@ -0,0 +1,42 @@
+-- V3: cold storage for terminal tickets, filled by TicketArchiveService.
+-- Archive tables copy the live columns (LIKE) plus archived_at and carry no foreign keys,
+-- so archiving never locks users and archived rows never block deletes elsewhere.
+-- TicketArchiveService reads the column lists from the catalog: a migration that adds a
+-- column to a live table must add the same column to its archive table.
+
+CREATE TABLE tickets_archive (LIKE tickets);
+ALTER TABLE tickets_archive ADD COLUMN archived_at timestamp(6) NOT NULL;
+ALTER TABLE tickets_archive ADD PRIMARY KEY (id);
+
+CREATE TABLE ticket_comments_archive (LIKE ticket_comments);
+ALTER TABLE ticket_comments_archive ADD COLUMN archived_at timestamp(6) NOT NULL;
+ALTER TABLE ticket_comments_archive ADD PRIMARY KEY (id);
+
+CREATE TABLE ticket_history_archive (LIKE ticket_history);
+ALTER TABLE ticket_history_archive ADD COLUMN archived_at timestamp(6) NOT NULL;
+ALTER TABLE ticket_history_archive ADD PRIMARY KEY (id);
+
+CREATE TABLE ticket_attachments_archive (LIKE ticket_attachments);
+ALTER TABLE ticket_attachments_archive ADD COLUMN archived_at timestamp(6) NOT NULL;
+ALTER TABLE ticket_attachments_archive ADD PRIMARY KEY (id);
+
+CREATE TABLE ticket_escalations_archive (LIKE ticket_escalations);
+ALTER TABLE ticket_escalations_archive ADD COLUMN archived_at timestamp(6) NOT NULL;
+ALTER TABLE ticket_escalations_archive ADD PRIMARY KEY (id);
+
+-- Archive reads: by ticket number, by owner/assignee and by historical date range
+CREATE INDEX idx_tickets_archive_ticket_number ON tickets_archive (ticket_number);
+CREATE INDEX idx_tickets_archive_created_at ON tickets_archive (created_at);
+CREATE INDEX idx_tickets_archive_created_by ON tickets_archive (created_by);
+CREATE INDEX idx_tickets_archive_assigned_to ON tickets_archive (assigned_to);
+
+CREATE INDEX idx_ticket_comments_archive_ticket ON ticket_comments_archive (ticket_id);
+CREATE INDEX idx_ticket_history_archive_ticket ON ticket_history_archive (ticket_id, changed_at);
+CREATE INDEX idx_ticket_attachments_archive_ticket ON ticket_attachments_archive (ticket_id);
+CREATE INDEX idx_ticket_escalations_archive_ticket ON ticket_escalations_archive (ticket_id);
+
+-- Mover candidate scan: terminal tickets ordered by last change, a small slice of the
+-- live table once the backlog has been archived
+CREATE INDEX IF NOT EXISTS idx_tickets_terminal_updated
+    ON tickets (updated_at)
+    WHERE status IN ('CLOSED', 'CANCELLED');
@@ -0,0 +1,112 @@
+-- V4: tickets becomes a declaratively range-partitioned table, one partition per month of
+-- created_at, so date-range queries and reports only touch the months they ask for.
+-- TicketPartitionService keeps future months created ahead of time; tickets_default only
+-- catches rows outside every monthly partition and should stay empty.
+--
+-- PostgreSQL requires the partition key in every unique constraint:
+--  * the primary key becomes (id, created_at); ids are still random UUIDs
+--  * ticket_number uniqueness moves to the ticket_numbers registry, filled by a trigger
+--  * foreign keys that reference tickets(id) are dropped; ticket rows and their comments,
+--    history, attachments and escalations are removed together by the JPA cascade on
+--    Ticket and by TicketArchiveService
+-- Child tables are not partitioned: they are read by ticket_id, not by date range.
+
+-- Looked up in the catalog rather than by name: Hibernate derives FK names from the
+-- mapping, so a database built by another Hibernate version or by hand names them differently
+DO $$
+DECLARE
+    fk record;
+BEGIN
+    FOR fk IN SELECT conrelid::regclass AS child, conname FROM pg_constraint
+              WHERE contype = 'f' AND confrelid = 'tickets'::regclass LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.child, fk.conname);
+    END LOOP;
+END $$;
+
+-- The foreign keys tickets has to other tables (users), recreated on the partitioned table
+-- below under the names and definitions they have here, for the same reason
+CREATE TEMPORARY TABLE tickets_outgoing_fks AS
+    SELECT conname, pg_get_constraintdef(oid) AS definition FROM pg_constraint
+    WHERE contype = 'f' AND conrelid = 'tickets'::regclass;
+
+ALTER TABLE tickets RENAME TO tickets_unpartitioned;
+
+CREATE TABLE tickets (LIKE tickets_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (created_at);
+
+-- Monthly partitions from the oldest ticket up to three months ahead
+DO $$
+DECLARE
+    month_start date := date_trunc('month', coalesce((SELECT min(created_at) FROM tickets_unpartitioned), now()))::date;
+    last_month date := (date_trunc('month', now()) + interval '3 months')::date;
+BEGIN
+    WHILE month_start <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF tickets FOR VALUES FROM (%L) TO (%L)',
+                       'tickets_p' || to_char(month_start, 'YYYY_MM'),
+                       month_start, (month_start + interval '1 month')::date);
+        month_start := (month_start + interval '1 month')::date;
+    END LOOP;
+END $$;
+
+CREATE TABLE tickets_default PARTITION OF tickets DEFAULT;
+
+INSERT INTO tickets SELECT * FROM tickets_unpartitioned;
+
+CREATE TABLE ticket_numbers (
+    ticket_number varchar(20) NOT NULL PRIMARY KEY
+);
+INSERT INTO ticket_numbers (ticket_number)
+    SELECT ticket_number FROM tickets_unpartitioned
+    UNION
+    SELECT ticket_number FROM tickets_archive;
+
+DROP TABLE tickets_unpartitioned;
+
+ALTER TABLE tickets ADD CONSTRAINT tickets_pkey PRIMARY KEY (id, created_at);
+
+-- Numbers stay reserved after a ticket is archived or deleted
+CREATE FUNCTION reserve_ticket_number() RETURNS trigger AS $$
+BEGIN
+    -- Hibernate rewrites every column on update, including an unchanged ticket_number
+    IF TG_OP = 'UPDATE' AND NEW.ticket_number = OLD.ticket_number THEN
+        RETURN NEW;
+    END IF;
+    INSERT INTO ticket_numbers (ticket_number) VALUES (NEW.ticket_number);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER tickets_reserve_number
+    AFTER INSERT OR UPDATE OF ticket_number ON tickets
+    FOR EACH ROW EXECUTE FUNCTION reserve_ticket_number();
+
+-- Indexes from V1-V3, created on the parent so every partition (present and future) gets them
+CREATE INDEX idx_tickets_ticket_number ON tickets (ticket_number);
+CREATE INDEX idx_tickets_status ON tickets (status);
+CREATE INDEX idx_tickets_priority ON tickets (priority);
+CREATE INDEX idx_tickets_category_enum ON tickets (category_enum);
+CREATE INDEX idx_tickets_created_at ON tickets (created_at);
+CREATE INDEX idx_tickets_hostel_block ON tickets (hostel_block);
+CREATE INDEX idx_tickets_room_number ON tickets (room_number);
+CREATE INDEX idx_tickets_parent_ticket ON tickets (parent_ticket_id) WHERE parent_ticket_id IS NOT NULL;
+CREATE INDEX idx_tickets_assigned_status ON tickets (assigned_to, status);
+CREATE INDEX idx_tickets_status_priority_created ON tickets (status, priority, created_at);
+CREATE INDEX idx_tickets_created_by_created ON tickets (created_by, created_at);
+CREATE INDEX idx_tickets_active_sla_breach ON tickets (sla_breach_time)
+    WHERE status NOT IN ('RESOLVED', 'CLOSED', 'CANCELLED');
+CREATE INDEX idx_tickets_active_estimated_resolution ON tickets (estimated_resolution_time)
+    WHERE status NOT IN ('RESOLVED', 'CLOSED', 'CANCELLED');
+CREATE INDEX idx_tickets_terminal_updated ON tickets (updated_at)
+    WHERE status IN ('CLOSED', 'CANCELLED');
+
+DO $$
+DECLARE
+    fk record;
+BEGIN
+    FOR fk IN SELECT conname, definition FROM tickets_outgoing_fks LOOP
+        EXECUTE format('ALTER TABLE tickets ADD CONSTRAINT %I %s', fk.conname, fk.definition);
+    END LOOP;
+END $$;
+DROP TABLE tickets_outgoing_fks;
+
+ANALYZE tickets;
@@ -0,0 +1,5 @@
+-- V5: version column for optimistic locking on Ticket (@Version).
+-- Kept in step on tickets_archive, which must carry every live column (see V3).
+
+ALTER TABLE tickets ADD COLUMN version bigint NOT NULL DEFAULT 0;
+ALTER TABLE tickets_archive ADD COLUMN version bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,20 @@
+-- V6: ticket_history becomes the append-only ticket event log written by TicketEventLog.
+
+-- Events from system jobs (escalation, bulk jobs) have no acting user
+ALTER TABLE ticket_history ALTER COLUMN changed_by DROP NOT NULL;
+ALTER TABLE ticket_history_archive ALTER COLUMN changed_by DROP NOT NULL;
+
+-- Paged per-ticket reads: WHERE ticket_id = ? ORDER BY changed_at, id
+DROP INDEX IF EXISTS idx_history_ticket_id;
+CREATE INDEX idx_history_ticket_changed ON ticket_history (ticket_id, changed_at, id);
+
+-- Events are never rewritten; rows only leave the table when TicketArchiveService moves them
+CREATE FUNCTION reject_ticket_history_update() RETURNS trigger AS $$
+BEGIN
+    RAISE EXCEPTION 'ticket_history is append-only';
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER ticket_history_append_only
+    BEFORE UPDATE ON ticket_history
+    FOR EACH ROW EXECUTE FUNCTION reject_ticket_history_update();
@@ -0,0 +1,48 @@
+-- V7: hostel blocks are stored as the smallint HostelName id instead of a name string, so
+-- block filters, indexes and the user/hostel_blocks joins compare integers. The columns
+-- held a mix of enum names (BLOCK_A), display names (Block A), full names (Hostel Block A)
+-- and codes (BLK-A); all of them map to the same id. Rewrites tickets, so run it off-peak.
+
+CREATE FUNCTION pg_temp.hostel_block_id(name text) RETURNS smallint AS $$
+    SELECT (ascii(m[1]) - 64)::smallint
+    FROM regexp_match(upper(trim(name)), '^(?:HOSTEL[ _]+)?(?:BLOCK|BLK)[ _-]*([A-H])$') AS m
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Unrecognised names become NULL; NOT NULL is restored below once none are left
+ALTER TABLE tickets ALTER COLUMN hostel_block DROP NOT NULL;
+ALTER TABLE tickets ALTER COLUMN hostel_block TYPE smallint USING pg_temp.hostel_block_id(hostel_block);
+ALTER TABLE tickets_archive ALTER COLUMN hostel_block DROP NOT NULL;
+ALTER TABLE tickets_archive ALTER COLUMN hostel_block TYPE smallint USING pg_temp.hostel_block_id(hostel_block);
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM tickets WHERE hostel_block IS NULL) THEN
+        RAISE WARNING 'tickets with an unrecognised hostel_block were left NULL; fix them and set NOT NULL';
+    ELSE
+        ALTER TABLE tickets ALTER COLUMN hostel_block SET NOT NULL;
+    END IF;
+END $$;
+
+-- users.hostel_block is optional, so unrecognised names are only reported, before they are lost
+DO $$
+DECLARE
+    unrecognised text;
+BEGIN
+    SELECT string_agg(DISTINCT hostel_block, ', ') INTO unrecognised FROM users
+    WHERE trim(hostel_block) <> '' AND pg_temp.hostel_block_id(hostel_block) IS NULL;
+    IF unrecognised IS NOT NULL THEN
+        RAISE WARNING 'users with an unrecognised hostel_block (%) are left without a block; fix them by hand',
+            unrecognised;
+    END IF;
+END $$;
+
+ALTER TABLE users ALTER COLUMN hostel_block TYPE smallint USING pg_temp.hostel_block_id(hostel_block);
+
+ALTER TABLE category_staff_mappings DROP CONSTRAINT IF EXISTS category_staff_mappings_hostel_block_check;
+ALTER TABLE category_staff_mappings
+    ALTER COLUMN hostel_block TYPE smallint USING pg_temp.hostel_block_id(hostel_block);
+
+-- Links each hostel_blocks row to its HostelName for occupancy joins against users
+ALTER TABLE hostel_blocks ADD COLUMN hostel_name smallint;
+UPDATE hostel_blocks SET hostel_name = pg_temp.hostel_block_id(block_code);
+CREATE INDEX idx_hostel_blocks_hostel_name ON hostel_blocks (hostel_name);
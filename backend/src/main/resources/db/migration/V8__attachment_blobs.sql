@@ -0,0 +1,40 @@
+-- V8: content-addressed attachment storage. Each distinct file is stored once as a blob
+-- named by its SHA-256 (AttachmentBlobStore); attachments reference it by content_hash.
+-- ref_count is kept by triggers on the live and archive attachment tables, so JPA cascades
+-- and TicketArchiveService moves keep it right without application code. Attachments
+-- stored before V8 have no content_hash and keep their own file.
+
+CREATE TABLE attachment_blobs (
+    content_hash varchar(64) NOT NULL PRIMARY KEY,
+    size bigint NOT NULL,
+    ref_count integer NOT NULL DEFAULT 0,
+    created_at timestamp(6) NOT NULL DEFAULT now(),
+    -- Last upload or dereference; the GC sweep leaves recently touched blobs alone
+    touched_at timestamp(6) NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_attachment_blobs_unreferenced ON attachment_blobs (touched_at) WHERE ref_count <= 0;
+
+ALTER TABLE ticket_attachments ADD COLUMN content_hash varchar(64);
+ALTER TABLE ticket_attachments_archive ADD COLUMN content_hash varchar(64);
+
+CREATE FUNCTION count_attachment_blob_refs() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.content_hash IS NOT NULL THEN
+        UPDATE attachment_blobs SET ref_count = ref_count + 1 WHERE content_hash = NEW.content_hash;
+    END IF;
+    IF TG_OP IN ('DELETE', 'UPDATE') AND OLD.content_hash IS NOT NULL THEN
+        UPDATE attachment_blobs SET ref_count = ref_count - 1, touched_at = now()
+            WHERE content_hash = OLD.content_hash;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER ticket_attachments_blob_refs
+    AFTER INSERT OR DELETE OR UPDATE OF content_hash ON ticket_attachments
+    FOR EACH ROW EXECUTE FUNCTION count_attachment_blob_refs();
+
+CREATE TRIGGER ticket_attachments_archive_blob_refs
+    AFTER INSERT OR DELETE OR UPDATE OF content_hash ON ticket_attachments_archive
+    FOR EACH ROW EXECUTE FUNCTION count_attachment_blob_refs();
@@ -0,0 +1,12 @@
+-- V9: comments are paged per ticket in (created_at, id) order (TicketCommentRepository).
+-- The composite index serves both the full and the public-only page without a sort;
+-- internal notes are a small share of a thread, so the public filter stays cheap.
+CREATE INDEX IF NOT EXISTS idx_comments_ticket_created
+    ON ticket_comments (ticket_id, created_at, id);
+
+-- Its leading column makes this redundant
+DROP INDEX IF EXISTS idx_comments_ticket_id;
+
+CREATE INDEX IF NOT EXISTS idx_ticket_comments_archive_ticket_created
+    ON ticket_comments_archive (ticket_id, created_at, id);
+DROP INDEX IF EXISTS idx_ticket_comments_archive_ticket;
@@ -1,9 +1,6 @@
--- Spring Boot Data Initialization for Production
--- This file will be executed after Hibernate creates the schema
--- Note: Tables are dropped and recreated on every restart (ddl-auto: create-drop)
-
--- Clear any existing data (this happens automatically with create-drop, but being explicit)
--- The ON CONFLICT clauses are kept for safety
+-- Demo accounts and staff mappings. A Flyway afterMigrate callback (spring.flyway.locations
+-- includes db/seed), so it runs after the migrations on every boot. ON CONFLICT keeps it from
+-- adding rows twice; all-block mappings need NOT EXISTS, their NULL hostel_block never conflicts.
 
 -- Insert demo admin user (password: password)
 INSERT INTO users (id, username, email, password_hash, first_name, last_name, role, phone, is_active, created_at, updated_at)
@@ -33,7 +30,7 @@ VALUES (
     'STUDENT',
     'STU001',
     'A101',
-    'BLOCK_A',
+    1, -- BLOCK_A
     '+91-9999999998',
     true,
     CURRENT_TIMESTAMP,
@@ -87,7 +84,7 @@ VALUES (
     'STUDENT',
     'STU002',
     'A102',
-    'BLOCK_A',
+    1, -- BLOCK_A
     '+91-9999999996',
     true,
     CURRENT_TIMESTAMP,
@@ -105,7 +102,7 @@ VALUES (
     'STUDENT',
     'STU003',
     'B101',
-    'BLOCK_B',
+    2, -- BLOCK_B
     '+91-9999999995',
     true,
     CURRENT_TIMESTAMP,
@@ -173,7 +170,7 @@ INSERT INTO category_staff_mappings (id, staff_id, hostel_block, category, prior
 SELECT 
     gen_random_uuid(),
     u.id,
-    'BLOCK_A',
+    1, -- BLOCK_A
     'ELECTRICAL_ISSUES', 
     1,
     1.0,
@@ -198,6 +195,8 @@ SELECT
     CURRENT_TIMESTAMP,
     CURRENT_TIMESTAMP
 FROM users u WHERE u.username = 'demo_electrical'
+  AND NOT EXISTS (SELECT 1 FROM category_staff_mappings m
+                  WHERE m.staff_id = u.id AND m.hostel_block IS NULL AND m.category = 'ELECTRICAL_ISSUES')
 ON CONFLICT (staff_id, hostel_block, category) DO NOTHING;
 
 -- Plumbing Staff Mappings  
@@ -205,7 +204,7 @@ INSERT INTO category_staff_mappings (id, staff_id, hostel_block, category, prior
 SELECT 
     gen_random_uuid(),
     u.id,
-    'BLOCK_A',
+    1, -- BLOCK_A
     'PLUMBING_WATER', 
     1,
     1.0,
@@ -229,6 +228,8 @@ SELECT
     CURRENT_TIMESTAMP,
     CURRENT_TIMESTAMP
 FROM users u WHERE u.username = 'staff_plumbing'
+  AND NOT EXISTS (SELECT 1 FROM category_staff_mappings m
+                  WHERE m.staff_id = u.id AND m.hostel_block IS NULL AND m.category = 'PLUMBING_WATER')
 ON CONFLICT (staff_id, hostel_block, category) DO NOTHING;
 
 -- HVAC Staff Mappings
@@ -236,7 +237,7 @@ INSERT INTO category_staff_mappings (id, staff_id, hostel_block, category, prior
 SELECT 
     gen_random_uuid(),
     u.id,
-    'BLOCK_B',
+    2, -- BLOCK_B
     'HVAC', 
     1,
     1.0,
@@ -260,6 +261,8 @@ SELECT
     CURRENT_TIMESTAMP,
     CURRENT_TIMESTAMP
 FROM users u WHERE u.username = 'staff_hvac'
+  AND NOT EXISTS (SELECT 1 FROM category_staff_mappings m
+                  WHERE m.staff_id = u.id AND m.hostel_block IS NULL AND m.category = 'HVAC')
 ON CONFLICT (staff_id, hostel_block, category) DO NOTHING;
 
 -- General Staff Mappings (fallback for all categories)
@@ -276,6 +279,8 @@ SELECT
     CURRENT_TIMESTAMP,
     CURRENT_TIMESTAMP
 FROM users u WHERE u.username = 'staff_general'
+  AND NOT EXISTS (SELECT 1 FROM category_staff_mappings m
+                  WHERE m.staff_id = u.id AND m.hostel_block IS NULL AND m.category = 'GENERAL')
 ON CONFLICT (staff_id, hostel_block, category) DO NOTHING;
 
 -- Demo Electrical also handles network issues (cross-training)
@@ -292,6 +297,8 @@ SELECT
     CURRENT_TIMESTAMP,
     CURRENT_TIMESTAMP
 FROM users u WHERE u.username = 'demo_electrical'
+  AND NOT EXISTS (SELECT 1 FROM category_staff_mappings m
+                  WHERE m.staff_id = u.id AND m.hostel_block IS NULL AND m.category = 'NETWORK_INTERNET')
 ON CONFLICT (staff_id, hostel_block, category) DO NOTHING;
 
 -- Housekeeping mappings
@@ -299,7 +306,7 @@ INSERT INTO category_staff_mappings (id, staff_id, hostel_block, category, prior
 SELECT 
     gen_random_uuid(),
     u.id,
-    'BLOCK_A',
+    1, -- BLOCK_A
     'HOUSEKEEPING_CLEANLINESS', 
     1,
     1.0,
@@ -323,4 +330,6 @@ SELECT
     CURRENT_TIMESTAMP,
     CURRENT_TIMESTAMP
 FROM users u WHERE u.username = 'staff_general'
+  AND NOT EXISTS (SELECT 1 FROM category_staff_mappings m
+                  WHERE m.staff_id = u.id AND m.hostel_block IS NULL AND m.category = 'HOUSEKEEPING_CLEANLINESS')
 ON CONFLICT (staff_id, hostel_block, category) DO NOTHING;
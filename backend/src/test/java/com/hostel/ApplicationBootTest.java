@@ -0,0 +1,130 @@
+package com.hostel;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Boots the whole application with each profile's own configuration file against an empty
+ * database. Only what a deployment supplies from its environment is overridden: the
+ * database location, the JWT secret, a free port and the Redis host. The profiles that use
+ * Redis (all but render and render-alt) also need -Dredis.host, and are skipped without it.
+ * Every profile takes the client address from X-Forwarded-For when a local proxy sends it,
+ * so that the per-IP login throttle keys on the client.
+ */
+@EnabledIfSystemProperty(named = PostgresTestDatabase.URL_PROPERTY, matches = ".+")
+class ApplicationBootTest {
+
+    private static final String REDIS_HOST_PROPERTY = "redis.host";
+
+    private static final String JWT_SECRET = "application-boot-test-secret-of-at-least-32-bytes";
+
+    private static final int LOGIN_ATTEMPTS_PER_IP = 3;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"default", "local", "allinone", "render", "render-alt", "railway"})
+    void profileBootsAndMigratesAnEmptyDatabase(String profile) {
+        assumeTrue(profile.startsWith("render") || System.getProperty(REDIS_HOST_PROPERTY) != null,
+                "needs -D" + REDIS_HOST_PROPERTY);
+        DataSource dataSource = PostgresTestDatabase.dataSource();
+        PostgresTestDatabase.dropEverything(dataSource);
+
+        // The second boot finds the schema current and runs only the db/seed callback again
+        for (int boot = 0; boot < 2; boot++) {
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TicketingPortalApplication.class)
+                    .profiles(profile)
+                    .run(environmentOf(profile))) {
+                assertThat(context.getBean(Flyway.class).info().pending()).isEmpty();
+                if (boot == 0) {
+                    assertLoginThrottleKeysOnTheForwardedClient(context);
+                }
+            }
+        }
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM users WHERE username = 'demo_admin'",
+                Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM category_staff_mappings m JOIN users u "
+                + "ON u.id = m.staff_id WHERE u.username = 'demo_electrical' AND m.hostel_block IS NULL "
+                + "AND m.category = 'ELECTRICAL_ISSUES'", Integer.class)).isEqualTo(1);
+    }
+
+    // The test client connects from 127.0.0.1, which Tomcat trusts as a proxy like nginx on a private network
+    private static void assertLoginThrottleKeysOnTheForwardedClient(ConfigurableApplicationContext context) {
+        HttpClient client = HttpClient.newHttpClient();
+        String url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                + "/api/users/authenticate";
+        for (int attempt = 0; attempt < LOGIN_ATTEMPTS_PER_IP; attempt++) {
+            assertThat(login(client, url, "203.0.113.7", attempt)).isEqualTo(200);
+        }
+        assertThat(login(client, url, "203.0.113.7", LOGIN_ATTEMPTS_PER_IP)).isEqualTo(429);
+        assertThat(login(client, url, "203.0.113.8", 0)).isEqualTo(200);
+    }
+
+    // A distinct unknown account per attempt, so that only the IP bucket can run out
+    private static int login(HttpClient client, String url, String forwardedFor, int attempt) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .header("X-Forwarded-For", forwardedFor)
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"email\": \"nobody" + attempt + "@hostel.test\", \"password\": \"wrong\"}"))
+                .build();
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String[] environmentOf(String profile) {
+        URI database = URI.create(System.getProperty(PostgresTestDatabase.URL_PROPERTY).substring("jdbc:".length()));
+        String user = System.getProperty("postgres.user", "postgres");
+        String password = System.getProperty("postgres.password", "");
+        String redisHost = System.getProperty(REDIS_HOST_PROPERTY, "localhost");
+        String[] common = {
+                "server.port=0",
+                "JWT_SECRET=" + JWT_SECRET,
+                "spring.data.redis.host=" + redisHost,
+                "REDIS_URL=redis://" + redisHost + ":6379",
+                "auth.throttle.ip.capacity=" + LOGIN_ATTEMPTS_PER_IP,
+                "auth.throttle.ip.refill-per-minute=0.01",
+                "spring.jpa.show-sql=false",
+                "logging.level.org.springframework=WARN",
+                "logging.level.com.hostel=WARN"
+        };
+        String[] datasource = switch (profile) {
+            // The render profile takes the platform's DATABASE_URL, credentials included
+            case "render" -> new String[] {"DATABASE_URL=postgresql://" + user + ":" + password + "@"
+                    + database.getHost() + ":" + database.getPort() + database.getPath()};
+            case "render-alt" -> new String[] {"DB_HOST=" + database.getHost(), "DB_PORT=" + database.getPort(),
+                    "DB_NAME=" + database.getPath().substring(1), "DB_USERNAME=" + user, "DB_PASSWORD=" + password};
+            case "railway" -> new String[] {"DATABASE_URL=" + System.getProperty(PostgresTestDatabase.URL_PROPERTY),
+                    "spring.datasource.username=" + user, "spring.datasource.password=" + password};
+            default -> new String[] {"spring.datasource.url=" + System.getProperty(PostgresTestDatabase.URL_PROPERTY),
+                    "spring.datasource.username=" + user, "spring.datasource.password=" + password};
+        };
+        // As command line arguments, which take precedence over the profile's file
+        return Stream.concat(Arrays.stream(common), Arrays.stream(datasource)).map(arg -> "--" + arg)
+                .toArray(String[]::new);
+    }
+}
@@ -0,0 +1,100 @@
+package com.hostel;
+
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The three ways a database reaches the migrations: empty, created by Hibernate before
+ * Flyway (baselined at V1), and built by the retired docker-compose db/init.sql
+ */
+@EnabledIfSystemProperty(named = PostgresTestDatabase.URL_PROPERTY, matches = ".+")
+class FlywayMigrationTest {
+
+    @Test
+    void emptyDatabaseMigratesToASchemaTheEntitiesValidateAgainst() {
+        DataSource dataSource = PostgresTestDatabase.migrated();
+
+        assertEntitiesValidate(dataSource);
+    }
+
+    @Test
+    void hibernateCreatedDatabaseIsBaselinedAndMigrated() throws Exception {
+        DataSource dataSource = PostgresTestDatabase.dataSource();
+        PostgresTestDatabase.dropEverything(dataSource);
+        // V1 is the DDL Hibernate generated from the pre-migration entities
+        runScript(dataSource, "db/migration/V1__baseline_schema.sql");
+
+        PostgresTestDatabase.flyway(dataSource).migrate();
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        List<Map<String, Object>> history = jdbcTemplate.queryForList(
+                "SELECT version, type FROM flyway_schema_history WHERE version = '1'");
+        assertThat(history).singleElement().satisfies(row -> assertThat(row.get("type")).isEqualTo("BASELINE"));
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass('notifications_archive') IS NOT NULL",
+                Boolean.class)).isTrue();
+        assertEntitiesValidate(dataSource);
+    }
+
+    @Test
+    void partitioningKeepsTheUsersForeignKeysUnderTheirOwnNames() throws Exception {
+        DataSource dataSource = PostgresTestDatabase.dataSource();
+        PostgresTestDatabase.dropEverything(dataSource);
+        runScript(dataSource, "db/migration/V1__baseline_schema.sql");
+        // As another Hibernate version, or someone by hand, might have named them
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DO $$ DECLARE fk record; BEGIN "
+                + "FOR fk IN SELECT conname FROM pg_constraint WHERE contype = 'f' AND conrelid = 'tickets'::regclass LOOP "
+                + "EXECUTE format('ALTER TABLE tickets RENAME CONSTRAINT %I TO %I', fk.conname, 'renamed_' || fk.conname); "
+                + "END LOOP; END $$");
+
+        PostgresTestDatabase.flyway(dataSource).migrate();
+
+        List<Map<String, Object>> foreignKeys = jdbcTemplate.queryForList(
+                "SELECT conname, confrelid::regclass::text AS target FROM pg_constraint "
+                        + "WHERE contype = 'f' AND conrelid = 'tickets'::regclass");
+        assertThat(foreignKeys).hasSize(2).allSatisfy(fk -> {
+            assertThat((String) fk.get("conname")).startsWith("renamed_");
+            assertThat(fk.get("target")).isEqualTo("users");
+        });
+    }
+
+    @Test
+    void initSqlDatabaseIsRefusedBeforeAnythingChanges() throws Exception {
+        DataSource dataSource = PostgresTestDatabase.dataSource();
+        PostgresTestDatabase.dropEverything(dataSource);
+        runScript(dataSource, "db/init.sql");
+
+        assertThatThrownBy(() -> PostgresTestDatabase.flyway(dataSource).migrate())
+                .isInstanceOf(FlywayException.class)
+                .hasMessageContaining("tickets was created by db/init.sql");
+        assertThat(new JdbcTemplate(dataSource).queryForObject(
+                "SELECT to_regclass('tickets_archive') IS NULL", Boolean.class)).isTrue();
+    }
+
+    private static void assertEntitiesValidate(DataSource dataSource) {
+        EntityManagerFactory entityManagerFactory = JpaTestSupport.entityManagerFactory(dataSource, Map.of());
+        entityManagerFactory.close();
+    }
+
+    // The whole script in one execute: the driver splits it and understands $$ bodies
+    private static void runScript(DataSource dataSource, String path) throws Exception {
+        String script = new ClassPathResource(path).getContentAsString(StandardCharsets.UTF_8);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(script);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.hostel;
+
+import com.hostel.entity.HostelName;
+import com.hostel.entity.Ticket;
+import com.hostel.entity.TicketCategory;
+import com.hostel.entity.User;
+import com.hostel.entity.UserRole;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Builds the JPA side of the application outside Spring Boot: an entity manager factory
+ * configured like spring.jpa in application.yml, Spring Data repositories and transactions,
+ * and unsaved users and tickets that satisfy the schema's constraints.
+ */
+public final class JpaTestSupport {
+
+    private JpaTestSupport() {
+    }
+
+    /**
+     * Entity manager factory configured like the application's (naming, JDBC batching,
+     * statement inspector), validating the mappings against the schema unless overridden
+     */
+    public static EntityManagerFactory entityManagerFactory(DataSource dataSource, Map<String, Object> overrides) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.hbm2ddl.auto", "validate");
+        properties.put("hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName());
+        properties.put("hibernate.implicit_naming_strategy", SpringImplicitNamingStrategy.class.getName());
+        properties.put("hibernate.session_factory.statement_inspector", "com.hostel.config.StatementCapture");
+        properties.put("hibernate.jdbc.time_zone", "UTC");
+        properties.put("hibernate.jdbc.batch_size", "50");
+        properties.put("hibernate.jdbc.batch_versioned_data", "true");
+        properties.put("hibernate.order_inserts", "true");
+        properties.put("hibernate.order_updates", "true");
+        properties.put("hibernate.cache.use_second_level_cache", "false");
+        properties.putAll(overrides);
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("com.hostel.entity");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(properties);
+        factory.afterPropertiesSet();
+        return factory.getObject();
+    }
+
+    /**
+     * The second-level cache settings of application.yml. Every distinct ehcache.xml URI gets
+     * its own cache manager, so two factories with different URIs behave like two nodes.
+     */
+    public static Map<String, Object> secondLevelCache(String ehcacheUri) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.cache.use_second_level_cache", "true");
+        properties.put("hibernate.cache.region.factory_class", "jcache");
+        properties.put("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider");
+        properties.put("hibernate.javax.cache.uri", ehcacheUri);
+        properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+        properties.put("hibernate.generate_statistics", "true");
+        return properties;
+    }
+
+    public static <T> T repository(EntityManagerFactory entityManagerFactory, Class<T> repositoryType) {
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        return new JpaRepositoryFactory(entityManager).getRepository(repositoryType);
+    }
+
+    public static TransactionTemplate transactionTemplate(EntityManagerFactory entityManagerFactory) {
+        return new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+    }
+
+    // A user with a unique username and email
+    public static User user(UserRole role) {
+        User user = new User();
+        String name = role.name().toLowerCase() + UUID.randomUUID();
+        user.setUsername(name);
+        user.setEmail(name + "@hostel.test");
+        user.setPasswordHash("hash");
+        user.setFirstName(role.name());
+        user.setLastName("Test");
+        user.setRole(role);
+        return user;
+    }
+
+    // An open plumbing ticket in block A with a unique ticket number
+    public static Ticket ticket(User student) {
+        Ticket ticket = new Ticket("Leaking tap in washroom", "The tap on the second floor leaks all night",
+                TicketCategory.PLUMBING_WATER, student);
+        ticket.setTicketNumber("TKT-" + UUID.randomUUID().toString().substring(0, 8));
+        ticket.setHostelBlockEnum(HostelName.BLOCK_A);
+        return ticket;
+    }
+}
@@ -0,0 +1,54 @@
+package com.hostel;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * A real PostgreSQL database for the tests that need one (partitioning, triggers, plans),
+ * given as -Dpostgres.url=jdbc:postgresql://host:port/db with -Dpostgres.user and
+ * -Dpostgres.password. The database is wiped: point it at a scratch database only.
+ * Without the property these tests are skipped.
+ */
+public final class PostgresTestDatabase {
+
+    public static final String URL_PROPERTY = "postgres.url";
+
+    private PostgresTestDatabase() {
+    }
+
+    public static DataSource dataSource() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(System.getProperty(URL_PROPERTY),
+                System.getProperty("postgres.user", "postgres"), System.getProperty("postgres.password", ""));
+        dataSource.setDriverClassName("org.postgresql.Driver");
+        return dataSource;
+    }
+
+    public static void dropEverything(DataSource dataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP SCHEMA public CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA public");
+    }
+
+    public static Flyway flyway(DataSource dataSource) {
+        // Same settings as spring.flyway in application.yml, without the db/seed demo data
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load();
+    }
+
+    /**
+     * An empty database migrated to the latest version
+     */
+    public static DataSource migrated() {
+        DataSource dataSource = dataSource();
+        dropEverything(dataSource);
+        flyway(dataSource).migrate();
+        return dataSource;
+    }
+}
@@ -0,0 +1,155 @@
+package com.hostel;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The date-range queries of TicketRepository (findByCreatedAtBetween and its count,
+ * findByUpdatedAtBetween, countByMonthAndStatus) on the monthly-partitioned tickets table
+ * against an unpartitioned copy with the same indexes, over 24 months of generated tickets.
+ * Prints each plan once and the median of 15 runs; the partitioned plans must only touch
+ * the months asked for. Needs a scratch PostgreSQL database (see PostgresTestDatabase); run
+ * with: mvn test -Dtest=TicketPartitionBenchmarkTest -Dbenchmarks=true -Dpostgres.url=...
+ * and -Dbenchmark.tickets for another size than 5,000,000.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@EnabledIfSystemProperty(named = PostgresTestDatabase.URL_PROPERTY, matches = ".+")
+class TicketPartitionBenchmarkTest {
+
+    private static final int MONTHS = 24;
+    private static final int RUNS = 15;
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile("tickets_p\\d{4}_\\d{2}");
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void dateRangeQueries() throws SQLException {
+        // One connection throughout, so that the timings do not include connecting
+        SingleConnectionDataSource dataSource =
+                new SingleConnectionDataSource(PostgresTestDatabase.migrated().getConnection(), true);
+        try {
+            run(new JdbcTemplate(dataSource));
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    private void run(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        int tickets = Integer.getInteger("benchmark.tickets", 5_000_000);
+        long loadStart = System.nanoTime();
+        generate(tickets);
+        System.out.printf("%,d tickets in %d monthly partitions, loaded in %.0f s%n", tickets,
+                jdbcTemplate.queryForObject("SELECT count(*) FROM pg_inherits WHERE inhparent = 'tickets'::regclass",
+                        Integer.class), (System.nanoTime() - loadStart) / 1e9);
+
+        LocalDateTime thisMonth = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        LocalDateTime monthStart = thisMonth.minusMonths(6);
+        LocalDateTime monthEnd = monthStart.plusMonths(1).minusNanos(1000);
+        LocalDateTime quarterStart = thisMonth.minusMonths(3);
+
+        // findByCreatedAtBetween: the page, then the count Spring Data issues for its total
+        compare("created_at, one month, first page", 1,
+                "SELECT * FROM %s WHERE created_at BETWEEN ? AND ? ORDER BY created_at DESC LIMIT 20",
+                monthStart, monthEnd);
+        compare("created_at, one month, count", 1,
+                "SELECT count(*) FROM %s WHERE created_at BETWEEN ? AND ?", monthStart, monthEnd);
+        // findByUpdatedAtBetween: created_at <= end prunes the later months. Not tickets_default,
+        // which would hold any ticket older than the oldest monthly partition; it is empty here
+        compare("updated_at, one month, count", MONTHS - 6,
+                "SELECT count(*) FROM %s WHERE updated_at BETWEEN ? AND ? AND created_at <= ?",
+                monthStart, monthEnd, monthEnd);
+        // countByMonthAndStatus over the last three full months
+        compare("monthly report, three months", 3,
+                "SELECT extract(year FROM created_at), extract(month FROM created_at), status, count(*) FROM %s "
+                        + "WHERE created_at >= ? AND created_at < ? GROUP BY 1, 2, 3",
+                quarterStart, thisMonth);
+    }
+
+    private void generate(int tickets) {
+        jdbcTemplate.update("INSERT INTO users (id, created_at, email, first_name, is_active, last_name, password_hash, "
+                + "role, updated_at, username) VALUES ('00000000-0000-0000-0000-0000000000b1', now(), "
+                + "'bench@hostel.test', 'Bench', true, 'Test', 'x', 'STUDENT', now(), 'bench')");
+        // Loading is not what is measured: skip the ticket number registry
+        jdbcTemplate.execute("ALTER TABLE tickets DISABLE TRIGGER USER");
+        int perMonth = tickets / MONTHS;
+        for (int month = MONTHS - 1; month >= 0; month--) {
+            LocalDate start = LocalDate.now().withDayOfMonth(1).minusMonths(month);
+            String partition = "tickets_p" + start.getYear() + "_" + String.format("%02d", start.getMonthValue());
+            jdbcTemplate.execute(String.format("CREATE TABLE IF NOT EXISTS %s PARTITION OF tickets "
+                    + "FOR VALUES FROM ('%s') TO ('%s')", partition, start, start.plusMonths(1)));
+            // Spread over the month, the current one only up to now; updated up to 60 days later
+            jdbcTemplate.update("INSERT INTO tickets (id, created_at, updated_at, description, hostel_block, priority, "
+                    + "status, ticket_number, title, created_by) "
+                    + "SELECT gen_random_uuid(), c, least(c + random() * interval '60 days', now()), 'generated', "
+                    + "1 + g % 8, 'MEDIUM', (ARRAY['OPEN','IN_PROGRESS','RESOLVED','CLOSED','CLOSED'])[1 + g % 5], "
+                    + "'B' || ? || '-' || g, 'generated ticket', '00000000-0000-0000-0000-0000000000b1' "
+                    + "FROM (SELECT g, ?::timestamp + random() * (least(?::timestamp, now()) - ?::timestamp) AS c "
+                    + "FROM generate_series(1, ?) AS g) generated",
+                    month, Timestamp.valueOf(start.atStartOfDay()), Timestamp.valueOf(start.plusMonths(1).atStartOfDay()),
+                    Timestamp.valueOf(start.atStartOfDay()), perMonth);
+        }
+        jdbcTemplate.execute("ALTER TABLE tickets ENABLE TRIGGER USER");
+        // The same rows and indexes without partitions, as tickets was before V4
+        jdbcTemplate.execute("CREATE TABLE tickets_flat (LIKE tickets INCLUDING DEFAULTS INCLUDING INDEXES)");
+        jdbcTemplate.execute("INSERT INTO tickets_flat SELECT * FROM tickets");
+        jdbcTemplate.execute("VACUUM ANALYZE tickets");
+        jdbcTemplate.execute("VACUUM ANALYZE tickets_flat");
+    }
+
+    private void compare(String name, int expectedPartitions, String sql, LocalDateTime... bounds) {
+        Object[] args = Arrays.stream(bounds).map(Timestamp::valueOf).toArray();
+        List<String> partitionedPlan = plan(String.format(sql, "tickets"), args);
+        List<String> flatPlan = plan(String.format(sql, "tickets_flat"), args);
+        double partitioned = medianMillis(String.format(sql, "tickets"), args);
+        double flat = medianMillis(String.format(sql, "tickets_flat"), args);
+
+        System.out.printf("%n=== %s: partitioned %.1f ms, unpartitioned %.1f ms (median of %d)%n",
+                name, partitioned, flat, RUNS);
+        System.out.println("--- partitioned");
+        partitionedPlan.forEach(System.out::println);
+        System.out.println("--- unpartitioned");
+        flatPlan.forEach(System.out::println);
+
+        Set<String> scanned = new TreeSet<>();
+        for (String line : partitionedPlan) {
+            Matcher matcher = MONTHLY_PARTITION.matcher(line);
+            while (matcher.find()) {
+                scanned.add(matcher.group());
+            }
+        }
+        assertThat(scanned).as(name).hasSize(expectedPartitions);
+    }
+
+    private List<String> plan(String sql, Object[] args) {
+        return jdbcTemplate.queryForList("EXPLAIN (ANALYZE, BUFFERS) " + sql, String.class, args);
+    }
+
+    private double medianMillis(String sql, Object[] args) {
+        double[] millis = new double[RUNS];
+        for (int run = -3; run < RUNS; run++) {
+            long start = System.nanoTime();
+            jdbcTemplate.queryForList(sql, args);
+            if (run >= 0) {
+                millis[run] = (System.nanoTime() - start) / 1e6;
+            }
+        }
+        Arrays.sort(millis);
+        return millis[RUNS / 2];
+    }
+}
@@ -0,0 +1,141 @@
+package com.hostel;
+
+import com.hostel.service.TicketArchiveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The V13 stand-ins for the tickets(id) foreign keys V4 dropped: parent tickets and
+ * notification links must point at a live ticket, and a ticket they point at cannot be
+ * deleted, except by the archive mover's own order of work.
+ */
+@EnabledIfSystemProperty(named = PostgresTestDatabase.URL_PROPERTY, matches = ".+")
+class TicketReferenceTriggerTest {
+
+    private static final UUID USER_ID = UUID.fromString("00000000-0000-0000-0000-0000000000a1");
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = PostgresTestDatabase.migrated();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO users (id, created_at, email, first_name, is_active, last_name, password_hash, "
+                + "role, updated_at, username) VALUES (?, now(), 'refs@hostel.test', 'Refs', true, 'Test', 'x', "
+                + "'STUDENT', now(), 'refs')", USER_ID);
+    }
+
+    @Test
+    void childTicketNeedsALiveParent() {
+        UUID parent = insertTicket(null, "OPEN");
+
+        assertThat(insertTicket(parent, "OPEN")).isNotNull();
+        assertThatThrownBy(() -> insertTicket(UUID.randomUUID(), "OPEN"))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining("parent ticket")
+                .satisfies(e -> assertThat(TicketArchiveService.isMissingTicket((DataIntegrityViolationException) e))
+                        .isTrue());
+        UUID orphan = insertTicket(null, "OPEN");
+        assertThatThrownBy(() -> jdbcTemplate.update("UPDATE tickets SET parent_ticket_id = ? WHERE id = ?",
+                UUID.randomUUID(), orphan)).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void notificationNeedsALiveRelatedTicket() {
+        UUID ticket = insertTicket(null, "OPEN");
+
+        insertNotification(ticket);
+        insertNotification(null);
+        assertThatThrownBy(() -> insertNotification(UUID.randomUUID()))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining("does not exist or has been archived");
+    }
+
+    @Test
+    void referencedTicketCannotBeDeleted() {
+        UUID parent = insertTicket(null, "OPEN");
+        UUID child = insertTicket(parent, "OPEN");
+        UUID linked = insertTicket(null, "OPEN");
+        insertNotification(linked);
+        UUID unreferenced = insertTicket(null, "OPEN");
+
+        assertThatThrownBy(() -> jdbcTemplate.update("DELETE FROM tickets WHERE id = ?", parent))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining("still the parent");
+        assertThatThrownBy(() -> jdbcTemplate.update("DELETE FROM tickets WHERE id = ?", linked))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining("referenced by a notification");
+        assertThat(jdbcTemplate.update("DELETE FROM tickets WHERE id = ?", unreferenced)).isEqualTo(1);
+        // Checked at the end of the statement, like the foreign key: a parent may go with its children
+        assertThat(jdbcTemplate.update("DELETE FROM tickets WHERE id IN (?, ?)", parent, child)).isEqualTo(2);
+    }
+
+    @Test
+    void existingDanglingReferencesDoNotBlockOtherUpdates() {
+        UUID ticket = insertTicket(null, "OPEN");
+        UUID notification = insertNotification(ticket);
+        // As left behind before V13: links to a ticket that is gone. One execute, one connection.
+        jdbcTemplate.execute("SET session_replication_role = replica; "
+                + "UPDATE tickets SET parent_ticket_id = '" + UUID.randomUUID() + "' WHERE id = '" + ticket + "'; "
+                + "UPDATE notifications SET related_ticket_id = '" + UUID.randomUUID() + "' WHERE id = '"
+                + notification + "'");
+
+        // Hibernate rewrites every column, the unchanged reference included
+        assertThat(jdbcTemplate.update("UPDATE tickets SET status = 'IN_PROGRESS', "
+                + "parent_ticket_id = parent_ticket_id WHERE id = ?", ticket)).isEqualTo(1);
+        assertThat(jdbcTemplate.update("UPDATE notifications SET is_read = true, "
+                + "related_ticket_id = related_ticket_id WHERE id = ?", notification)).isEqualTo(1);
+    }
+
+    @Test
+    void archiveMoverUnlinksNotificationsAndWaitsForChildTickets() {
+        UUID parent = insertTicket(null, "CLOSED");
+        UUID child = insertTicket(parent, "CLOSED");
+        UUID notification = insertNotification(parent);
+        TicketArchiveService archiveService = new TicketArchiveService(new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(archiveService, "jdbcTemplate", new NamedParameterJdbcTemplate(dataSource));
+        ReflectionTestUtils.setField(archiveService, "batchSize", 200);
+        ReflectionTestUtils.setField(archiveService, "maxBatchesPerRun", 10);
+
+        // The parent waits for the run after its child has moved
+        assertThat(archiveService.archiveTicketsUnchangedSince(LocalDateTime.now())).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM tickets", UUID.class)).containsExactly(parent);
+        assertThat(archiveService.archiveTicketsUnchangedSince(LocalDateTime.now())).isEqualTo(1);
+
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM tickets_archive", UUID.class))
+                .containsExactlyInAnyOrder(parent, child);
+        assertThat(jdbcTemplate.queryForObject("SELECT related_ticket_id FROM notifications WHERE id = ?",
+                UUID.class, notification)).isNull();
+    }
+
+    private UUID insertTicket(UUID parentId, String status) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO tickets (id, created_at, updated_at, description, hostel_block, priority, "
+                        + "status, ticket_number, title, created_by, parent_ticket_id) "
+                        + "VALUES (?, now(), ?, 'test', 1, 'MEDIUM', ?, ?, 'test ticket', ?, ?)",
+                id, LocalDateTime.now().minusDays(1), status, "TKT-" + id.toString().substring(0, 8), USER_ID,
+                parentId);
+        return id;
+    }
+
+    private UUID insertNotification(UUID ticketId) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO notifications (id, created_at, is_read, message, title, type, user_id, "
+                + "related_ticket_id) VALUES (?, now(), false, 'test', 'test', 'IN_APP', ?, ?)", id, USER_ID, ticketId);
+        return id;
+    }
+}
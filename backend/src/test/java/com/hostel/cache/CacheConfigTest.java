@@ -0,0 +1,41 @@
+package com.hostel.cache;
+
+import com.hostel.config.CacheConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.LoggingCacheErrorHandler;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Without Redis (e.g. the render profile) the context still starts: L1 only, a local
+ * publisher and an idle subscriber instead of a null listener container.
+ */
+class CacheConfigTest {
+
+    @Test
+    void startsWithoutRedis() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            // Stands in for the bean that needs an EntityManagerFactory
+            context.registerBean("entityCacheInvalidator", EntityCacheInvalidator.class,
+                    () -> mock(EntityCacheInvalidator.class));
+            context.register(CacheConfig.class);
+            context.refresh();
+            RedisCacheInvalidationSubscriber subscriber = context.getBean(RedisCacheInvalidationSubscriber.class);
+
+            assertThat(subscriber.isSubscribing()).isFalse();
+            assertThat(subscriber.isRunning()).isFalse();
+            assertThat(context.getBean(CacheInvalidationPublisher.class)).isSameAs(CacheInvalidationPublisher.LOCAL_ONLY);
+            Cache users = context.getBean(TwoLevelCacheManager.class).getCache("users");
+            assertThat(((TransactionAwareCacheDecorator) users).getTargetCache()).isInstanceOf(TwoLevelCache.class);
+        }
+    }
+
+    @Test
+    void cacheErrorsAreLoggedNotThrown() {
+        assertThat(new CacheConfig().errorHandler()).isInstanceOf(LoggingCacheErrorHandler.class);
+    }
+}
@@ -0,0 +1,204 @@
+package com.hostel.cache;
+
+import com.hostel.JpaTestSupport;
+import com.hostel.entity.HostelName;
+import com.hostel.entity.Ticket;
+import com.hostel.entity.TicketCategory;
+import com.hostel.entity.User;
+import com.hostel.repository.TicketRepository;
+import com.hostel.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two nodes with their own second-level caches over one database, joined by an in-process
+ * invalidation channel: reads are L2 hits, and a write on one node evicts the other's copy.
+ */
+class EntityCacheInvalidatorTest {
+
+    private static final String USERS_REGION = "users";
+
+    private final List<String> published = new CopyOnWriteArrayList<>();
+
+    private Node nodeA;
+    private Node nodeB;
+
+    private class Node {
+        final EntityManagerFactory entityManagerFactory;
+        final EntityCacheInvalidator invalidator;
+        final UserRepository users;
+        final TicketRepository tickets;
+        final TransactionTemplate transactionTemplate;
+        Node other;
+
+        Node(DataSource dataSource, String ddl, String ehcacheUri) {
+            Map<String, Object> properties = new java.util.HashMap<>(JpaTestSupport.secondLevelCache(ehcacheUri));
+            properties.put("hibernate.hbm2ddl.auto", ddl);
+            entityManagerFactory = JpaTestSupport.entityManagerFactory(dataSource, properties);
+            invalidator = new EntityCacheInvalidator(entityManagerFactory, (cacheName, key) -> {
+                published.add(cacheName + "|" + key);
+                other.invalidator.invalidateLocal(
+                        cacheName.substring(EntityCacheInvalidator.CACHE_NAME_PREFIX.length()), key);
+            });
+            users = JpaTestSupport.repository(entityManagerFactory, UserRepository.class);
+            tickets = JpaTestSupport.repository(entityManagerFactory, TicketRepository.class);
+            transactionTemplate = JpaTestSupport.transactionTemplate(entityManagerFactory);
+        }
+
+        Statistics statistics() {
+            return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        }
+
+        CacheRegionStatistics users() {
+            return statistics().getDomainDataRegionStatistics(USERS_REGION);
+        }
+
+        User findUser(UUID id) {
+            return transactionTemplate.execute(status -> users.findById(id).orElse(null));
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:l2-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        // A second copy of ehcache.xml under another URI gives node B its own cache manager
+        Path ehcacheCopy = Files.createTempFile("ehcache", ".xml");
+        Files.copy(new ClassPathResource("ehcache.xml").getInputStream(), ehcacheCopy,
+                java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+
+        nodeA = new Node(dataSource, "create", "ehcache.xml");
+        nodeB = new Node(dataSource, "none", ehcacheCopy.toUri().toString());
+        nodeA.other = nodeB;
+        nodeB.other = nodeA;
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.entityManagerFactory.close();
+        nodeB.entityManagerFactory.close();
+    }
+
+    @Test
+    void findByIdIsServedFromTheSecondLevelCache() {
+        User user = saveUser(nodeA, "Asha");
+        nodeB.findUser(user.getId());
+        nodeB.statistics().clear();
+
+        User cached = nodeB.findUser(user.getId());
+
+        assertThat(cached.getFirstName()).isEqualTo("Asha");
+        assertThat(nodeB.users().getHitCount()).isEqualTo(1);
+        assertThat(nodeB.users().getMissCount()).isZero();
+        assertThat(nodeB.statistics().getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void ticketCreatorIsServedFromTheSecondLevelCache() {
+        User user = saveUser(nodeA, "Asha");
+        UUID ticketId = nodeA.transactionTemplate.execute(status -> {
+            Ticket ticket = new Ticket("Leaking tap in washroom", "The tap on the second floor leaks all night",
+                    TicketCategory.PLUMBING_WATER, user);
+            ticket.setTicketNumber("TKT-" + System.nanoTime() % 100000000);
+            ticket.setHostelBlockEnum(HostelName.BLOCK_A);
+            return nodeA.tickets.save(ticket).getId();
+        });
+        nodeA.statistics().clear();
+
+        String creator = nodeA.transactionTemplate.execute(status ->
+                nodeA.tickets.findById(ticketId).orElseThrow().getCreatedBy().getFirstName());
+
+        assertThat(creator).isEqualTo("Asha");
+        assertThat(nodeA.users().getHitCount()).isEqualTo(1);
+        // Only the ticket itself was read from the database
+        assertThat(nodeA.statistics().getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void updateOnOneNodeEvictsTheOtherNodesCopy() {
+        User user = saveUser(nodeA, "Asha");
+        assertThat(nodeB.findUser(user.getId()).getFirstName()).isEqualTo("Asha");
+
+        nodeA.transactionTemplate.executeWithoutResult(status -> {
+            User managed = nodeA.users.findById(user.getId()).orElseThrow();
+            managed.setFirstName("Ravi");
+        });
+        nodeB.statistics().clear();
+
+        assertThat(published).containsExactly(EntityCacheInvalidator.CACHE_NAME_PREFIX + User.class.getName()
+                + "|" + user.getId());
+        assertThat(nodeB.findUser(user.getId()).getFirstName()).isEqualTo("Ravi");
+        assertThat(nodeB.users().getHitCount()).isZero();
+        assertThat(nodeB.users().getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void deleteOnOneNodeEvictsTheOtherNodesCopy() {
+        User user = saveUser(nodeA, "Asha");
+        nodeB.findUser(user.getId());
+
+        nodeA.transactionTemplate.executeWithoutResult(status -> nodeA.users.deleteById(user.getId()));
+
+        assertThat(nodeB.findUser(user.getId())).isNull();
+    }
+
+    @Test
+    void bulkUpdateIsBroadcastAfterCommit() {
+        User user = saveUser(nodeA, "Asha");
+        nodeB.findUser(user.getId());
+
+        nodeA.transactionTemplate.executeWithoutResult(status -> {
+            nodeA.users.updateUserStatus(user.getId(), false, LocalDateTime.now());
+            nodeA.invalidator.evictAfterCommit(User.class, user.getId());
+            assertThat(published).isEmpty();
+        });
+
+        assertThat(published).hasSize(1);
+        assertThat(nodeB.findUser(user.getId()).getIsActive()).isFalse();
+    }
+
+    @Test
+    void rolledBackUpdateIsNotBroadcast() {
+        User user = saveUser(nodeA, "Asha");
+
+        nodeA.transactionTemplate.executeWithoutResult(status -> {
+            nodeA.users.findById(user.getId()).orElseThrow().setFirstName("Ravi");
+            nodeA.users.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(published).isEmpty();
+    }
+
+    private User saveUser(Node node, String firstName) {
+        return node.transactionTemplate.execute(status -> {
+            User user = new User();
+            String name = firstName.toLowerCase() + System.nanoTime();
+            user.setUsername(name);
+            user.setEmail(name + "@hostel.test");
+            user.setPasswordHash("hash");
+            user.setFirstName(firstName);
+            user.setLastName("Test");
+            return node.users.save(user);
+        });
+    }
+}
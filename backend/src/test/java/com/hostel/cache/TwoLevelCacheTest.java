@@ -0,0 +1,103 @@
+package com.hostel.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two nodes sharing an L2 and an {@link InMemoryCacheInvalidationBus}: fills stay local,
+ * evictions and clears reach the other node, and a failing L2 degrades to L1 only.
+ */
+class TwoLevelCacheTest {
+
+    private InMemoryCacheInvalidationBus bus;
+    private TwoLevelCache nodeA;
+    private TwoLevelCache nodeB;
+
+    @BeforeEach
+    void setUp() {
+        bus = new InMemoryCacheInvalidationBus();
+        ConcurrentMapCacheManager shared = new ConcurrentMapCacheManager();
+        nodeA = (TwoLevelCache) node("a", shared).getCache("users");
+        nodeB = (TwoLevelCache) node("b", shared).getCache("users");
+    }
+
+    @Test
+    void fillsAreNotBroadcast() {
+        nodeA.put("1", "Asha");
+
+        assertThat(bus.getPublished()).isEmpty();
+        assertThat(nodeB.get("1").get()).isEqualTo("Asha");
+        assertThat(nodeB.getRemoteHits()).isEqualTo(1);
+    }
+
+    @Test
+    void evictionDropsTheOtherNodesLocalCopy() {
+        nodeA.put("1", "Asha");
+        assertThat(nodeB.get("1").get()).isEqualTo("Asha");
+        assertThat(nodeB.getLocalCache().getIfPresent("1")).isEqualTo("Asha");
+
+        nodeA.evict("1");
+
+        assertThat(bus.getPublished()).containsExactly("a|users|1");
+        assertThat(nodeB.getLocalCache().getIfPresent("1")).isNull();
+        assertThat(nodeB.get("1")).isNull();
+    }
+
+    @Test
+    void clearDropsEveryLocalCopyOnTheOtherNode() {
+        nodeA.put("1", "Asha");
+        nodeA.put("2", "Ravi");
+        nodeB.get("1");
+        nodeB.get("2");
+
+        nodeA.clear();
+
+        assertThat(bus.getPublished()).containsExactly("a|users|");
+        assertThat(nodeB.getLocalCache().estimatedSize()).isZero();
+        assertThat(nodeB.get("2")).isNull();
+    }
+
+    @Test
+    void failingRemoteCacheDegradesToLocalOnly() {
+        Cache remote = mock(Cache.class);
+        RedisConnectionFailureException down = new RedisConnectionFailureException("connection refused");
+        when(remote.get(any())).thenThrow(down);
+        doThrow(down).when(remote).put(any(), any());
+        doThrow(down).when(remote).evict(any());
+        doThrow(down).when(remote).clear();
+        TwoLevelCache cache = new TwoLevelCache("users", localCache(), remote, bus.publisher("c"));
+
+        assertThat(cache.get("1")).isNull();
+        assertThat(cache.get("1", () -> "Asha")).isEqualTo("Asha");
+        assertThat(cache.get("1").get()).isEqualTo("Asha");
+
+        cache.evict("1");
+        cache.clear();
+
+        assertThat(cache.get("1", () -> "Ravi")).isEqualTo("Ravi");
+        assertThat(cache.getRemoteErrors()).isEqualTo(7);
+        assertThat(bus.getPublished()).containsExactly("c|users|1", "c|users|");
+    }
+
+    private TwoLevelCacheManager node(String nodeId, ConcurrentMapCacheManager shared) {
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(shared, bus.publisher(nodeId), null,
+                100, Duration.ofMinutes(1));
+        bus.join(nodeId, cacheManager);
+        return cacheManager;
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<String, Object> localCache() {
+        return com.github.benmanes.caffeine.cache.Caffeine.newBuilder().maximumSize(100).build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.hostel.config;
+
+import com.hostel.dto.UserSummary;
+import com.hostel.entity.UserRole;
+import com.hostel.service.JwtService;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A valid token authenticates the request; a stale one is flagged but never blocks it, so
+ * that login and the other public routes keep working for a client holding an old token.
+ */
+class JwtAuthenticationFilterTest {
+
+    private final JwtService jwtService = mock(JwtService.class);
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validTokenAuthenticatesTheRequest() throws Exception {
+        UserSummary user = new UserSummary(UUID.randomUUID(), UserRole.STAFF, null, null, true);
+        when(jwtService.parseToken("good")).thenReturn(user);
+
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+        MockHttpServletResponse response = run("Bearer good", seen);
+
+        assertThat(seen.get().getPrincipal()).isSameAs(user);
+        assertThat(seen.get().getAuthorities()).extracting(Object::toString).containsExactly("ROLE_STAFF");
+        assertThat(response.getHeader(HttpHeaders.WWW_AUTHENTICATE)).isNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void invalidTokenPassesThroughUnauthenticatedAndIsFlagged() throws Exception {
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+        MockHttpServletResponse response = run("Bearer temp-token-" + UUID.randomUUID(), seen);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(seen.get()).isNull();
+        assertThat(response.getHeader(HttpHeaders.WWW_AUTHENTICATE))
+                .isEqualTo(JwtAuthenticationFilter.INVALID_TOKEN_CHALLENGE);
+    }
+
+    @Test
+    void requestsWithoutATokenAreNotFlagged() throws Exception {
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+        MockHttpServletResponse response = run(null, seen);
+
+        assertThat(seen.get()).isNull();
+        assertThat(response.getHeader(HttpHeaders.WWW_AUTHENTICATE)).isNull();
+    }
+
+    private MockHttpServletResponse run(String authorization, AtomicReference<Authentication> seen) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/users/authenticate");
+        if (authorization != null) {
+            request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                seen.set(SecurityContextHolder.getContext().getAuthentication());
+            }
+        });
+        filter.doFilter(request, response, chain);
+        assertThat(chain.getRequest()).isNotNull();
+        return response;
+    }
+}
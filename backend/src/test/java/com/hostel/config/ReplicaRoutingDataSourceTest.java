@@ -0,0 +1,232 @@
+package com.hostel.config;
+
+import com.hostel.dto.UserSummary;
+import com.hostel.entity.UserRole;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Routing against two H2 databases standing in for the primary and a replica that has not
+ * caught up: each holds a single marker row naming it, so every read shows where it went.
+ * Two guards sharing a map-backed Redis stand-in play two application nodes.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final Duration WINDOW = Duration.ofMillis(300);
+
+    private DataSource primary;
+    private DataSource replica;
+    private Map<String, Long> redisKeys;
+    private StringRedisTemplate redis;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        redisKeys = new ConcurrentHashMap<>();
+        redis = redisBackedBy(redisKeys);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        new JdbcTemplate(primary).execute("SHUTDOWN");
+        new JdbcTemplate(replica).execute("SHUTDOWN");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicaAndWritesToThePrimary() {
+        Node node = new Node(new ReplicationLagGuard(WINDOW, redis, null));
+        signIn(UUID.randomUUID());
+
+        assertThat(node.read()).isEqualTo("replica");
+        assertThat(node.write()).isEqualTo("primary");
+        assertThat(node.readAnonymously()).isEqualTo("replica");
+    }
+
+    @Test
+    void writerReadsFromThePrimaryUntilTheWindowPasses() throws InterruptedException {
+        Node node = new Node(new ReplicationLagGuard(WINDOW, null, null));
+        UUID writer = UUID.randomUUID();
+        signIn(writer);
+        node.write();
+
+        assertThat(node.read()).isEqualTo("primary");
+        signIn(UUID.randomUUID());
+        assertThat(node.read()).isEqualTo("replica");
+
+        Thread.sleep(WINDOW.toMillis() + 50);
+        signIn(writer);
+        assertThat(node.read()).isEqualTo("replica");
+    }
+
+    @Test
+    void cacheRefillsReadThePrimaryWithoutPinningTheUser() {
+        Node node = new Node(new ReplicationLagGuard(WINDOW, redis, null));
+        signIn(UUID.randomUUID());
+
+        // As a @Cacheable read-only service method does it: the hint is set inside the transaction
+        String refill = node.transaction(true).execute(status -> ReplicaRoutingDataSource.readFromPrimary(
+                () -> node.jdbc.queryForObject("SELECT name FROM marker", String.class)));
+
+        assertThat(refill).isEqualTo("primary");
+        assertThat(node.read()).isEqualTo("replica");
+        assertThat(redisKeys).isEmpty();
+    }
+
+    @Test
+    void rolledBackWritesDoNotPin() {
+        Node node = new Node(new ReplicationLagGuard(WINDOW, redis, null));
+        signIn(UUID.randomUUID());
+
+        node.transaction(false).executeWithoutResult(status -> {
+            node.jdbc.queryForObject("SELECT name FROM marker", String.class);
+            status.setRollbackOnly();
+        });
+
+        assertThat(node.read()).isEqualTo("replica");
+        assertThat(redisKeys).isEmpty();
+    }
+
+    @Test
+    void pinIsSharedWithOtherNodesThroughRedis() {
+        Node first = new Node(new ReplicationLagGuard(WINDOW, redis, null));
+        Node second = new Node(new ReplicationLagGuard(WINDOW, redis, null));
+        UUID writer = UUID.randomUUID();
+        signIn(writer);
+
+        first.write();
+
+        assertThat(second.read()).isEqualTo("primary");
+        assertThat(redisKeys).containsOnlyKeys(ReplicationLagGuard.KEY_PREFIX + writer);
+    }
+
+    @Test
+    void withoutRedisThePinOnlyHoldsOnTheWritingNode() {
+        Node first = new Node(new ReplicationLagGuard(WINDOW, null, null));
+        Node second = new Node(new ReplicationLagGuard(WINDOW, null, null));
+        signIn(UUID.randomUUID());
+
+        first.write();
+
+        assertThat(first.read()).isEqualTo("primary");
+        assertThat(second.read()).isEqualTo("replica");
+    }
+
+    @Test
+    void redisOutageFallsBackToTheLocalPin() {
+        StringRedisTemplate down = mock(StringRedisTemplate.class);
+        when(down.opsForValue()).thenThrow(new RedisConnectionFailureException("connection refused"));
+        when(down.hasKey(anyString())).thenThrow(new RedisConnectionFailureException("connection refused"));
+        Node first = new Node(new ReplicationLagGuard(WINDOW, down, null));
+        Node second = new Node(new ReplicationLagGuard(WINDOW, down, null));
+        signIn(UUID.randomUUID());
+
+        assertThat(first.write()).isEqualTo("primary");
+
+        assertThat(first.read()).isEqualTo("primary");
+        assertThat(second.read()).isEqualTo("replica");
+    }
+
+    private class Node {
+        private final DataSourceTransactionManager transactionManager;
+        private final JdbcTemplate jdbc;
+
+        Node(ReplicationLagGuard guard) {
+            ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(guard);
+            routing.setTargetDataSources(Map.of(
+                    ReplicaRoutingDataSource.Target.PRIMARY, primary,
+                    ReplicaRoutingDataSource.Target.REPLICA, replica));
+            routing.setDefaultTargetDataSource(primary);
+            routing.afterPropertiesSet();
+            DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+            transactionManager = new DataSourceTransactionManager(dataSource);
+            jdbc = new JdbcTemplate(dataSource);
+        }
+
+        String read() {
+            return transaction(true).execute(status -> jdbc.queryForObject("SELECT name FROM marker", String.class));
+        }
+
+        String readAnonymously() {
+            var authentication = SecurityContextHolder.getContext().getAuthentication();
+            SecurityContextHolder.clearContext();
+            try {
+                return read();
+            } finally {
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            }
+        }
+
+        String write() {
+            return transaction(false).execute(status -> {
+                jdbc.update("UPDATE marker SET touched = touched + 1");
+                return jdbc.queryForObject("SELECT name FROM marker", String.class);
+            });
+        }
+
+        TransactionTemplate transaction(boolean readOnly) {
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setReadOnly(readOnly);
+            return template;
+        }
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE marker (name varchar(20), touched int)");
+        jdbc.update("INSERT INTO marker (name, touched) VALUES (?, 0)", name);
+        return dataSource;
+    }
+
+    private static void signIn(UUID userId) {
+        UserSummary user = new UserSummary(userId, UserRole.STUDENT, null, null, true);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+
+    // Keys with an expiry time, enough of Redis for SET ... PX and EXISTS
+    @SuppressWarnings("unchecked")
+    private static StringRedisTemplate redisBackedBy(Map<String, Long> keys) {
+        StringRedisTemplate template = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(template.opsForValue()).thenReturn(values);
+        doAnswer(invocation -> {
+            Duration ttl = invocation.getArgument(2);
+            keys.put(invocation.getArgument(0), System.nanoTime() + ttl.toNanos());
+            return null;
+        }).when(values).set(anyString(), anyString(), any(Duration.class));
+        when(template.hasKey(anyString())).thenAnswer(invocation -> {
+            Long expires = keys.get(invocation.<String>getArgument(0));
+            return expires != null && expires - System.nanoTime() > 0;
+        });
+        return template;
+    }
+}
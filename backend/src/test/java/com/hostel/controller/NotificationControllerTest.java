@@ -0,0 +1,87 @@
+package com.hostel.controller;
+
+import com.hostel.dto.UserSummary;
+import com.hostel.entity.UserRole;
+import com.hostel.service.CurrentUserService;
+import com.hostel.service.NotificationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Notifications are only served to, and marked read for, the user the token belongs to
+ */
+class NotificationControllerTest {
+
+    private final UUID owner = UUID.randomUUID();
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        NotificationController controller = new NotificationController();
+        ReflectionTestUtils.setField(controller, "notificationService", notificationService);
+        ReflectionTestUtils.setField(controller, "currentUserService", new CurrentUserService());
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void ownerReadsAndMarksTheirNotifications() throws Exception {
+        signIn(owner);
+        when(notificationService.getNotificationsForUser(eq(owner), any())).thenReturn(Page.empty());
+        when(notificationService.getUnreadCount(owner)).thenReturn(3L);
+
+        mockMvc.perform(get("/notifications/user/{userId}", owner))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.unreadCount").value(3));
+        mockMvc.perform(patch("/notifications/user/{userId}/read-all", owner)).andExpect(status().isOk());
+
+        verify(notificationService).markAllAsRead(owner);
+    }
+
+    @Test
+    void otherUsersAndAnonymousCallersAreRefused() throws Exception {
+        UUID notificationId = UUID.randomUUID();
+
+        mockMvc.perform(get("/notifications/user/{userId}/unread-count", owner)).andExpect(status().isForbidden());
+        signIn(UUID.randomUUID());
+        mockMvc.perform(get("/notifications/user/{userId}", owner)).andExpect(status().isForbidden());
+        mockMvc.perform(get("/notifications/user/{userId}/unread-count", owner)).andExpect(status().isForbidden());
+        mockMvc.perform(patch("/notifications/{id}/read", notificationId).param("userId", owner.toString()))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.message").exists());
+        mockMvc.perform(patch("/notifications/user/{userId}/read-all", owner)).andExpect(status().isForbidden());
+
+        verifyNoInteractions(notificationService);
+    }
+
+    private static void signIn(UUID userId) {
+        UserSummary user = new UserSummary(userId, UserRole.STUDENT, null, null, true);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+}
@@ -0,0 +1,163 @@
+package com.hostel.controller;
+
+import com.hostel.dto.KeysetCursor;
+import com.hostel.dto.TicketAccess;
+import com.hostel.dto.TicketCommentDTO;
+import com.hostel.dto.UserSummary;
+import com.hostel.entity.TicketStatus;
+import com.hostel.entity.UserRole;
+import com.hostel.repository.TicketRepository;
+import com.hostel.service.CurrentUserService;
+import com.hostel.service.TicketAuthorizationService;
+import com.hostel.service.TicketService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Authorization and error mapping of the ticket endpoints, against a mocked TicketService
+ */
+class TicketControllerTest {
+
+    private final TicketService ticketService = mock(TicketService.class);
+    private final TicketAuthorizationService ticketAuthorizationService = new TicketAuthorizationService();
+    private final TicketRepository ticketRepository = mock(TicketRepository.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        TicketController controller = new TicketController();
+        ReflectionTestUtils.setField(controller, "ticketService", ticketService);
+        ReflectionTestUtils.setField(controller, "currentUserService", new CurrentUserService());
+        ReflectionTestUtils.setField(ticketAuthorizationService, "ticketRepository", ticketRepository);
+        ReflectionTestUtils.setField(controller, "ticketAuthorizationService", ticketAuthorizationService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void onlyAdminsAssignTickets() throws Exception {
+        mockMvc.perform(assign()).andExpect(status().isForbidden());
+        signIn(UserRole.STAFF);
+        mockMvc.perform(assign())
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.message").value("Only admins can assign tickets"));
+
+        verifyNoInteractions(ticketService);
+    }
+
+    @Test
+    void rejectedAssignmentsExplainWhy() throws Exception {
+        signIn(UserRole.ADMIN);
+        when(ticketService.assignTicket(any(), any()))
+                .thenThrow(new IllegalStateException("Closed or cancelled tickets cannot be assigned"));
+
+        mockMvc.perform(assign())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Closed or cancelled tickets cannot be assigned"));
+    }
+
+    @Test
+    void onlyAdminsReadTicketsAcrossUsers() throws Exception {
+        signIn(UserRole.STUDENT);
+        mockMvc.perform(get("/tickets/range").param("from", "2024-01-01T00:00:00").param("to", "2024-02-01T00:00:00"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/tickets/stats/monthly").param("from", "2024-01").param("to", "2024-03"))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(ticketService);
+
+        signIn(UserRole.ADMIN);
+        when(ticketService.getMonthlyTicketCounts(YearMonth.of(2024, 1), YearMonth.of(2024, 3))).thenReturn(Map.of());
+        mockMvc.perform(get("/tickets/stats/monthly").param("from", "2024-01").param("to", "2024-03"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void studentsOnlyReadAndWritePublicComments() throws Exception {
+        UUID studentId = signIn(UserRole.STUDENT);
+        UUID ticketId = ticketCreatedBy(studentId);
+        when(ticketService.getTicketComments(ticketId, false, null, 50)).thenReturn(new SliceImpl<>(List.of()));
+
+        mockMvc.perform(get("/tickets/{id}/comments", ticketId).param("userId", studentId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(false));
+        mockMvc.perform(post("/tickets/{id}/comments", ticketId).param("userId", studentId.toString())
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"comment\": \"note\", \"internal\": true}"))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.message").value("Students cannot add internal comments"));
+
+        verify(ticketService).getTicketComments(ticketId, false, null, 50);
+        verify(ticketService, never()).addComment(any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    void commentPagesHandOutTheCursorOfTheirLastComment() throws Exception {
+        UUID staffId = signIn(UserRole.STAFF);
+        UUID ticketId = ticketCreatedBy(UUID.randomUUID());
+        TicketCommentDTO last = new TicketCommentDTO(UUID.randomUUID(), "on my way", true, staffId, "Ravi", "K",
+                UserRole.STAFF, LocalDateTime.of(2024, 1, 15, 10, 0, 0, 123_000));
+        when(ticketService.getTicketComments(ticketId, true, null, 1))
+                .thenReturn(new SliceImpl<>(List.of(last), PageRequest.of(0, 1), true));
+
+        mockMvc.perform(get("/tickets/{id}/comments", ticketId).param("userId", staffId.toString()).param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").value(new KeysetCursor(last.getCreatedAt(), last.getId()).encode()));
+        mockMvc.perform(get("/tickets/{id}/comments", ticketId).param("userId", staffId.toString()).param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/tickets/{id}/comments", ticketId).param("userId", staffId.toString())
+                        .param("after", "not a cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+    }
+
+    private UUID ticketCreatedBy(UUID creatorId) {
+        UUID ticketId = UUID.randomUUID();
+        when(ticketRepository.findAccessById(ticketId))
+                .thenReturn(Optional.of(new TicketAccess(ticketId, creatorId, null, TicketStatus.OPEN)));
+        return ticketId;
+    }
+
+    private static RequestBuilder assign() {
+        return patch("/tickets/{id}/assign", UUID.randomUUID()).param("assigneeId", UUID.randomUUID().toString());
+    }
+
+    private static UUID signIn(UserRole role) {
+        UserSummary user = new UserSummary(UUID.randomUUID(), role, null, null, true);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+        return user.getId();
+    }
+}
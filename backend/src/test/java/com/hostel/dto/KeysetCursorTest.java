@@ -0,0 +1,40 @@
+package com.hostel.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The cursor survives the round trip through its token, microseconds included, and a
+ * tampered token is a bad request rather than a silently different page
+ */
+class KeysetCursorTest {
+
+    @Test
+    void decodesWhatItEncodes() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2024, 1, 15, 10, 0, 0, 123_456_000), UUID.randomUUID());
+
+        KeysetCursor decoded = KeysetCursor.decode(cursor.encode());
+
+        assertThat(decoded.getAt()).isEqualTo(cursor.getAt());
+        assertThat(decoded.getId()).isEqualTo(cursor.getId());
+        assertThat(cursor.encode()).doesNotContain("+", "/", "=");
+    }
+
+    @Test
+    void rejectsTokensItDidNotProduce() {
+        String notAUuid = Base64.getUrlEncoder().encodeToString("2024-01-15T10:00|42".getBytes());
+        String noId = Base64.getUrlEncoder().encodeToString("2024-01-15T10:00".getBytes());
+
+        for (String token : new String[] {"not base64!", notAUuid, noId, ""}) {
+            assertThatThrownBy(() -> KeysetCursor.decode(token))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Invalid cursor");
+        }
+    }
+}
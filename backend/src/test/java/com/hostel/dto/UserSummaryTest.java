@@ -0,0 +1,64 @@
+package com.hostel.dto;
+
+import com.hostel.entity.HostelName;
+import com.hostel.entity.StaffVertical;
+import com.hostel.entity.User;
+import com.hostel.entity.UserRole;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The summary carries everything the permission checks read from a user, and survives the
+ * JDK serialization the Redis cache stores it with
+ */
+class UserSummaryTest {
+
+    @Test
+    void carriesWhatThePermissionChecksRead() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setRole(UserRole.STAFF);
+        user.setStaffVertical(StaffVertical.PLUMBING);
+        user.setHostelBlock(HostelName.BLOCK_B);
+        user.setIsActive(false);
+        user.setFirstName("Asha");
+        user.setLastName("Rao");
+        user.setPasswordHash("$2a$10$secret");
+
+        UserSummary summary = DTOMapper.toUserSummary(user);
+
+        assertThat(summary.getId()).isEqualTo(user.getId());
+        assertThat(summary.isStaff()).isTrue();
+        assertThat(summary.getStaffVertical()).isEqualTo(StaffVertical.PLUMBING);
+        assertThat(summary.getHostelBlock()).isEqualTo(HostelName.BLOCK_B);
+        assertThat(summary.getIsActive()).isFalse();
+        assertThat(summary.getFirstName()).isEqualTo("Asha");
+        assertThat(summary.getLastName()).isEqualTo("Rao");
+        assertThat(summary.toString()).doesNotContain("secret");
+    }
+
+    @Test
+    void usersWithoutAnActiveFlagAreActive() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setIsActive(null);
+
+        assertThat(DTOMapper.toUserSummary(user).getIsActive()).isTrue();
+        assertThat(DTOMapper.toUserSummary(null)).isNull();
+    }
+
+    @Test
+    void survivesTheRedisCacheSerializer() {
+        UserSummary summary = new UserSummary(UUID.randomUUID(), UserRole.STUDENT, null, HostelName.BLOCK_A, true);
+        summary.setFirstName("Asha");
+        JdkSerializationRedisSerializer serializer = new JdkSerializationRedisSerializer();
+
+        UserSummary copy = (UserSummary) serializer.deserialize(serializer.serialize(summary));
+
+        assertThat(copy).usingRecursiveComparison().isEqualTo(summary);
+    }
+}
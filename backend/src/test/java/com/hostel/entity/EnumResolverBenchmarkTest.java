@@ -0,0 +1,83 @@
+package com.hostel.entity;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EnumResolver against the lookups it replaced, on a mix of the inputs the API sees: enum
+ * names, display names, codes, other spellings and some unknown values. The legacy hostel
+ * lookup throws for everything but an enum name before it finds a match, and valueOf throws
+ * for every miss. Warms up, then reports the best of several timed rounds; run with:
+ * mvn test -Dtest=EnumResolverBenchmarkTest -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class EnumResolverBenchmarkTest {
+
+    private static final int LOOKUPS_PER_ROUND = 2_000_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int TIMED_ROUNDS = 5;
+
+    private static final List<String> HOSTEL_INPUTS = List.of(
+            "BLOCK_A", "Block B", "BLK-C", "Hostel Block D", "block e", "BLOCK_F", "Block G", "BLK-H");
+
+    private static final List<String> STATUS_INPUTS = List.of(
+            "OPEN", "assigned", "in_progress", "In Progress", "closed", "done", "RESOLVED", "pending");
+
+    // Keeps the JIT from dropping the lookups as dead code
+    private static int sink;
+
+    @Test
+    void hostelNames() {
+        report("HostelName", HOSTEL_INPUTS,
+                input -> {
+                    try {
+                        return LegacyEnumLookup.hostelFromAnyName(input);
+                    } catch (IllegalArgumentException e) {
+                        return null;
+                    }
+                },
+                EnumResolver.HOSTEL_NAMES::resolve);
+    }
+
+    @Test
+    void ticketStatuses() {
+        report("TicketStatus", STATUS_INPUTS, LegacyEnumLookup::status, EnumResolver.TICKET_STATUSES::resolve);
+    }
+
+    private static void report(String name, List<String> inputs,
+                               Function<String, Enum<?>> legacy, Function<String, Enum<?>> resolver) {
+        String[] mix = inputs.toArray(new String[0]);
+        double legacyNanos = bestNanosPerLookup(mix, legacy);
+        double resolverNanos = bestNanosPerLookup(mix, resolver);
+        System.out.printf("%-12s legacy %7.1f ns/lookup, EnumResolver %6.1f ns/lookup (%.1fx)%n",
+                name, legacyNanos, resolverNanos, legacyNanos / resolverNanos);
+        assertThat(resolverNanos).isLessThan(legacyNanos);
+    }
+
+    private static double bestNanosPerLookup(String[] mix, Function<String, Enum<?>> lookup) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            run(mix, lookup);
+        }
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < TIMED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            run(mix, lookup);
+            best = Math.min(best, (double) (System.nanoTime() - start) / LOOKUPS_PER_ROUND);
+        }
+        return best;
+    }
+
+    private static void run(String[] mix, Function<String, Enum<?>> lookup) {
+        int found = 0;
+        for (int i = 0; i < LOOKUPS_PER_ROUND; i++) {
+            Enum<?> value = lookup.apply(mix[i % mix.length]);
+            found += value != null ? value.ordinal() + 1 : 0;
+        }
+        sink += found;
+    }
+}
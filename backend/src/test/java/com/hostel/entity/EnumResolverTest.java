@@ -0,0 +1,88 @@
+package com.hostel.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Alias tables: every name a constant is known by resolves to it whatever the case and
+ * punctuation, unknown or blank text is null rather than an exception, and every input the
+ * old throwing lookups accepted still resolves to the same constant.
+ */
+class EnumResolverTest {
+
+    @Test
+    void resolvesEveryHostelAlias() {
+        for (HostelName hostel : HostelName.values()) {
+            for (String alias : List.of(hostel.name(), hostel.getDisplayName(), hostel.getFullName(), hostel.getCode())) {
+                assertThat(EnumResolver.HOSTEL_NAMES.resolve(alias)).as(alias).isEqualTo(hostel);
+                assertThat(EnumResolver.HOSTEL_NAMES.resolve(alias.toLowerCase())).as(alias).isEqualTo(hostel);
+            }
+        }
+    }
+
+    @Test
+    void ignoresCaseAndPunctuation() {
+        assertThat(EnumResolver.HOSTEL_NAMES.resolve("  block_a ")).isEqualTo(HostelName.BLOCK_A);
+        assertThat(EnumResolver.HOSTEL_NAMES.resolve("blk-h")).isEqualTo(HostelName.BLOCK_H);
+        assertThat(EnumResolver.HOSTEL_NAMES.resolve("Hostel-Block.C")).isEqualTo(HostelName.BLOCK_C);
+        assertThat(EnumResolver.TICKET_STATUSES.resolve("in progress")).isEqualTo(TicketStatus.IN_PROGRESS);
+        assertThat(EnumResolver.TICKET_STATUSES.resolve(new StringBuilder("On-Hold"))).isEqualTo(TicketStatus.ON_HOLD);
+    }
+
+    @Test
+    void resolvesEveryConstantOfTheOtherEnums() {
+        for (TicketCategory category : TicketCategory.values()) {
+            assertThat(EnumResolver.TICKET_CATEGORIES.resolve(category.name())).isEqualTo(category);
+            assertThat(EnumResolver.TICKET_CATEGORIES.resolve(category.getDisplayName())).isEqualTo(category);
+        }
+        for (TicketStatus status : TicketStatus.values()) {
+            assertThat(EnumResolver.TICKET_STATUSES.resolve(status.name())).isEqualTo(status);
+            assertThat(EnumResolver.TICKET_STATUSES.resolve(status.getDisplayName())).isEqualTo(status);
+        }
+        for (TicketPriority priority : TicketPriority.values()) {
+            assertThat(EnumResolver.TICKET_PRIORITIES.resolve(priority.name())).isEqualTo(priority);
+            assertThat(EnumResolver.TICKET_PRIORITIES.resolve(priority.getDisplayName())).isEqualTo(priority);
+        }
+    }
+
+    @Test
+    void unknownAndBlankTextIsNull() {
+        assertThat(EnumResolver.HOSTEL_NAMES.resolve((CharSequence) null)).isNull();
+        assertThat(EnumResolver.HOSTEL_NAMES.resolve("")).isNull();
+        assertThat(EnumResolver.HOSTEL_NAMES.resolve(" - _ ")).isNull();
+        assertThat(EnumResolver.HOSTEL_NAMES.resolve("Block Z")).isNull();
+        assertThat(EnumResolver.HOSTEL_NAMES.resolve("Block")).isNull();
+        assertThat(EnumResolver.HOSTEL_NAMES.resolve("Block AB")).isNull();
+        assertThat(EnumResolver.TICKET_PRIORITIES.resolve("urgent")).isNull();
+    }
+
+    @Test
+    void defaultsAndRequire() {
+        assertThat(EnumResolver.TICKET_PRIORITIES.resolve("urgent", TicketPriority.MEDIUM)).isEqualTo(TicketPriority.MEDIUM);
+        assertThat(EnumResolver.TICKET_PRIORITIES.resolve("high", TicketPriority.MEDIUM)).isEqualTo(TicketPriority.HIGH);
+        assertThat(EnumResolver.TICKET_STATUSES.require("closed")).isEqualTo(TicketStatus.CLOSED);
+        assertThat(EnumResolver.TICKET_STATUSES.require("  ")).isNull();
+        assertThatThrownBy(() -> EnumResolver.TICKET_STATUSES.require("done"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown TicketStatus: done");
+    }
+
+    @Test
+    void agreesWithTheLookupsItReplaced() {
+        List<String> inputs = List.of("BLOCK_A", "block b", "Block C", "Hostel Block D", "BLK-E", "block_f",
+                "Block G", "BLK-H");
+        for (String input : inputs) {
+            assertThat(EnumResolver.HOSTEL_NAMES.resolve(input)).as(input)
+                    .isEqualTo(LegacyEnumLookup.hostelFromAnyName(input));
+        }
+        for (TicketStatus status : TicketStatus.values()) {
+            String input = status.name().toLowerCase();
+            assertThat(EnumResolver.TICKET_STATUSES.resolve(input)).isEqualTo(LegacyEnumLookup.status(input));
+        }
+        assertThat(HostelName.fromAnyName("Hostel Block G")).isEqualTo(HostelName.BLOCK_G);
+    }
+}
@@ -0,0 +1,99 @@
+package com.hostel.entity;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.hostel.PostgresTestDatabase;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hostel blocks are stored as the smallint HostelName id. V7 derives that id from the block
+ * letter (A = 1), so the enum ids must follow the letters, and every name form V7 converted
+ * must come back as the hostel the application reads it as. Names it does not recognise are
+ * named in a migration warning rather than dropped silently.
+ */
+class HostelNameConverterTest {
+
+    private final HostelNameConverter converter = new HostelNameConverter();
+
+    @Test
+    void everyHostelRoundTripsThroughItsId() {
+        for (HostelName hostel : HostelName.values()) {
+            Short id = converter.convertToDatabaseColumn(hostel);
+
+            assertThat(converter.convertToEntityAttribute(id)).isSameAs(hostel);
+            assertThat(id).isEqualTo((short) (hostel.name().charAt(hostel.name().length() - 1) - 'A' + 1));
+        }
+    }
+
+    @Test
+    void nullAndUnknownIdsLoadAsNoHostel() {
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+        assertThat(converter.convertToEntityAttribute((short) 0)).isNull();
+        assertThat(converter.convertToEntityAttribute((short) (HostelName.values().length + 1))).isNull();
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = PostgresTestDatabase.URL_PROPERTY, matches = ".+")
+    void v7ConvertsEveryNameFormToTheSameHostel() {
+        DataSource dataSource = PostgresTestDatabase.dataSource();
+        PostgresTestDatabase.dropEverything(dataSource);
+        Flyway flyway = PostgresTestDatabase.flyway(dataSource);
+        Flyway.configure().configuration(flyway.getConfiguration()).target("6").load().migrate();
+
+        Map<String, HostelName> stored = new LinkedHashMap<>();
+        for (HostelName hostel : HostelName.values()) {
+            stored.put(hostel.name(), hostel);
+            stored.put(hostel.getDisplayName(), hostel);
+            stored.put(hostel.getFullName(), hostel);
+            stored.put(hostel.getCode(), hostel);
+        }
+        stored.put(" block_e ", HostelName.BLOCK_E);
+        stored.put("Hostel Block", null);
+        stored.put("Annex", null);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Map<UUID, String> users = new LinkedHashMap<>();
+        stored.keySet().forEach(name -> {
+            UUID id = UUID.randomUUID();
+            users.put(id, name);
+            jdbcTemplate.update("INSERT INTO users (id, created_at, email, first_name, is_active, last_name, "
+                    + "password_hash, role, updated_at, username, hostel_block) VALUES (?, now(), ?, 'Test', true, "
+                    + "'User', 'x', 'STUDENT', now(), ?, ?)", id, id + "@hostel.test", id.toString(), name);
+        });
+
+        // Flyway logs the database's warnings
+        Logger flywayLogger = (Logger) LoggerFactory.getLogger("org.flywaydb");
+        ListAppender<ILoggingEvent> log = new ListAppender<>();
+        log.start();
+        flywayLogger.addAppender(log);
+        try {
+            flyway.migrate();
+        } finally {
+            flywayLogger.detachAppender(log);
+        }
+
+        assertThat(log.list).extracting(ILoggingEvent::getFormattedMessage)
+                .anySatisfy(message -> assertThat(message)
+                        .contains("users with an unrecognised hostel_block (Annex, Hostel Block)"));
+        users.forEach((id, name) -> {
+            Short hostelBlock = jdbcTemplate.queryForObject("SELECT hostel_block FROM users WHERE id = ?",
+                    Short.class, id);
+            assertThat(converter.convertToEntityAttribute(hostelBlock)).as(name).isEqualTo(stored.get(name));
+            if (stored.get(name) != null) {
+                assertThat(HostelName.fromAnyName(name)).as(name).isEqualTo(stored.get(name));
+            }
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package com.hostel.entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Location search: the hostels whose display name, full name or code contain the text. A
+ * hostel_blocks row finds its hostel by code through the same lookup.
+ */
+class HostelNameTest {
+
+    @Test
+    void matchesAnyOfTheNamesIgnoringCase() {
+        assertThat(HostelName.matching("block g")).containsExactly(HostelName.BLOCK_G);
+        assertThat(HostelName.matching("Hostel Block C")).containsExactly(HostelName.BLOCK_C);
+        assertThat(HostelName.matching(" blk-h ")).containsExactly(HostelName.BLOCK_H);
+        assertThat(HostelName.matching("BLK")).containsExactly(HostelName.values());
+    }
+
+    @Test
+    void blankTextMatchesEveryHostelAndUnknownTextNone() {
+        assertThat(HostelName.matching(null)).containsExactly(HostelName.values());
+        assertThat(HostelName.matching("")).containsExactly(HostelName.values());
+        assertThat(HostelName.matching("annex")).isEmpty();
+    }
+
+    @Test
+    void hostelBlockFindsItsHostelByCode() {
+        assertThat(new HostelBlock("Block C", "BLK-C", 4, 20, false).getHostelName()).isEqualTo(HostelName.BLOCK_C);
+        assertThat(new HostelBlock("Block H", "blk h", 4, 20, true).getHostelName()).isEqualTo(HostelName.BLOCK_H);
+        assertThat(new HostelBlock("Annex", "ANX-1", 2, 10, false).getHostelName()).isNull();
+    }
+}
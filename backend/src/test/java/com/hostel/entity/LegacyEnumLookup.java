@@ -0,0 +1,74 @@
+package com.hostel.entity;
+
+/**
+ * The lookups EnumResolver replaced, kept as the reference for EnumResolverTest and the
+ * baseline for EnumResolverBenchmarkTest: HostelName.fromAnyName tried up to four lookups
+ * that throw on a miss, and callers parsed other enums with valueOf inside try/catch.
+ */
+final class LegacyEnumLookup {
+
+    private LegacyEnumLookup() {
+    }
+
+    static HostelName hostelFromAnyName(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return HostelName.valueOf(name.toUpperCase().replace(" ", "_"));
+        } catch (IllegalArgumentException e) {
+            // Continue to other methods
+        }
+        try {
+            return byDisplayName(name);
+        } catch (IllegalArgumentException e) {
+            // Continue to other methods
+        }
+        try {
+            return byFullName(name);
+        } catch (IllegalArgumentException e) {
+            // Continue to other methods
+        }
+        try {
+            return byCode(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown hostel name: " + name);
+        }
+    }
+
+    // What controllers did before: null for anything valueOf rejects
+    static TicketStatus status(String name) {
+        try {
+            return TicketStatus.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static HostelName byDisplayName(String displayName) {
+        for (HostelName hostel : HostelName.values()) {
+            if (hostel.getDisplayName().equals(displayName)) {
+                return hostel;
+            }
+        }
+        throw new IllegalArgumentException("Unknown hostel: " + displayName);
+    }
+
+    private static HostelName byFullName(String fullName) {
+        for (HostelName hostel : HostelName.values()) {
+            if (hostel.getFullName().equals(fullName)) {
+                return hostel;
+            }
+        }
+        throw new IllegalArgumentException("Unknown hostel full name: " + fullName);
+    }
+
+    private static HostelName byCode(String code) {
+        for (HostelName hostel : HostelName.values()) {
+            if (hostel.getCode().equals(code)) {
+                return hostel;
+            }
+        }
+        throw new IllegalArgumentException("Unknown hostel code: " + code);
+    }
+}
@@ -0,0 +1,197 @@
+package com.hostel.service;
+
+import com.hostel.PostgresTestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Content-addressed storage on PostgreSQL and a temporary upload directory: one file per
+ * distinct content, reference counts kept by the V8 triggers across the live and archive
+ * attachment tables, and a sweep that only removes what nothing has referenced for the
+ * grace period.
+ */
+@EnabledIfSystemProperty(named = PostgresTestDatabase.URL_PROPERTY, matches = ".+")
+class AttachmentBlobStoreTest {
+
+    private static final String HASH = "ab".repeat(32);
+    private static final String OTHER_HASH = "cd".repeat(32);
+
+    @TempDir
+    Path uploadDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private AttachmentBlobStore blobStore;
+    private UUID userId;
+    private UUID ticketId;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = PostgresTestDatabase.migrated();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        blobStore = new AttachmentBlobStore();
+        ReflectionTestUtils.setField(blobStore, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(blobStore, "namedJdbcTemplate", new NamedParameterJdbcTemplate(dataSource));
+        ReflectionTestUtils.setField(blobStore, "transactionTemplate",
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        ReflectionTestUtils.setField(blobStore, "uploadDir", uploadDir.toString());
+        ReflectionTestUtils.setField(blobStore, "graceHours", 24L);
+
+        userId = UUID.randomUUID();
+        ticketId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, created_at, email, first_name, is_active, last_name, password_hash, "
+                + "role, updated_at, username) VALUES (?, now(), 'blobs@hostel.test', 'Blob', true, 'Test', 'x', "
+                + "'STUDENT', now(), 'blobs')", userId);
+        jdbcTemplate.update("INSERT INTO tickets (id, created_at, updated_at, description, hostel_block, priority, "
+                + "status, ticket_number, title, created_by) VALUES (?, now(), now(), 'photo', 1, 'MEDIUM', 'OPEN', "
+                + "'TKT-BLOB', 'photo', ?)", ticketId, userId);
+    }
+
+    @Test
+    void sameContentIsStoredOnce() throws IOException {
+        Path first = received("photo");
+        Path second = received("photo");
+
+        String path = blobStore.store(HASH, 5, first);
+        assertThat(blobStore.store(HASH, 5, second)).isEqualTo(path);
+
+        assertThat(path).isEqualTo("blobs/ab/ab/" + HASH);
+        assertThat(uploadDir.resolve(path)).hasContent("photo");
+        assertThat(first).doesNotExist();
+        assertThat(second).doesNotExist();
+        assertThat(count("attachment_blobs")).isEqualTo(1);
+    }
+
+    @Test
+    void triggersCountReferencesFromLiveAndArchivedAttachments() throws IOException {
+        blobStore.store(HASH, 5, received("photo"));
+        UUID first = attach(HASH);
+        UUID second = attach(HASH);
+        assertThat(refCount(HASH)).isEqualTo(2);
+
+        // As TicketArchiveService moves it: insert into the archive, delete from the live table
+        jdbcTemplate.update("INSERT INTO ticket_attachments_archive (id, created_at, file_path, file_size, filename, "
+                + "mime_type, original_filename, ticket_id, uploaded_by, content_hash, archived_at) "
+                + "SELECT id, created_at, file_path, file_size, filename, mime_type, original_filename, ticket_id, "
+                + "uploaded_by, content_hash, now() FROM ticket_attachments WHERE id = ?", first);
+        jdbcTemplate.update("DELETE FROM ticket_attachments WHERE id = ?", first);
+        assertThat(refCount(HASH)).isEqualTo(2);
+
+        jdbcTemplate.update("DELETE FROM ticket_attachments WHERE id = ?", second);
+        jdbcTemplate.update("DELETE FROM ticket_attachments_archive WHERE id = ?", first);
+        assertThat(refCount(HASH)).isZero();
+
+        Map<String, Object> report = blobStore.getStorageReport();
+        assertThat(report).containsEntry("unreferencedBlobs", 1L).containsEntry("unreferencedBytes", 5L);
+    }
+
+    @Test
+    void storageReportShowsTheBytesDeduplicationSaved() throws IOException {
+        blobStore.store(HASH, 5, received("photo"));
+        attach(HASH);
+        attach(HASH);
+        attach(HASH);
+
+        Map<String, Object> report = blobStore.getStorageReport();
+
+        assertThat(report).containsEntry("attachments", 3L).containsEntry("blobs", 1L)
+                .containsEntry("referencedBytes", 15L).containsEntry("storedBytes", 5L)
+                .containsEntry("savedBytes", 10L);
+    }
+
+    @Test
+    void sweepRemovesOnlyBlobsUnreferencedForTheGracePeriod() throws IOException {
+        Path expired = uploadDir.resolve(blobStore.store(HASH, 5, received("photo")));
+        Path thumbnail = AttachmentThumbnailService.derivative(expired, AttachmentThumbnailService.Variant.THUMBNAIL);
+        Files.writeString(thumbnail, "thumb");
+        Path recent = uploadDir.resolve(blobStore.store(OTHER_HASH, 5, received("other")));
+        jdbcTemplate.update("UPDATE attachment_blobs SET touched_at = now() - interval '25 hours' WHERE content_hash = ?",
+                HASH);
+
+        blobStore.collectGarbage();
+
+        assertThat(expired).doesNotExist();
+        assertThat(thumbnail).doesNotExist();
+        assertThat(recent).exists();
+        assertThat(jdbcTemplate.queryForList("SELECT content_hash FROM attachment_blobs", String.class))
+                .containsExactly(OTHER_HASH);
+    }
+
+    @Test
+    void sweepKeepsReferencedBlobsHoweverOld() throws IOException {
+        Path blob = uploadDir.resolve(blobStore.store(HASH, 5, received("photo")));
+        attach(HASH);
+        jdbcTemplate.update("UPDATE attachment_blobs SET touched_at = now() - interval '30 days'");
+        age(blob);
+
+        blobStore.collectGarbage();
+
+        assertThat(blob).exists();
+        assertThat(refCount(HASH)).isEqualTo(1);
+    }
+
+    @Test
+    void sweepRemovesOldFilesNoRowRecords() throws IOException {
+        Path abandoned = received("half an upload");
+        Path fresh = received("upload in progress");
+        Path unrecorded = uploadDir.resolve("blobs/cd/cd/" + OTHER_HASH);
+        Files.createDirectories(unrecorded.getParent());
+        Files.writeString(unrecorded, "rolled back");
+        age(abandoned);
+        age(unrecorded);
+
+        blobStore.collectGarbage();
+
+        assertThat(abandoned).doesNotExist();
+        assertThat(unrecorded).doesNotExist();
+        assertThat(fresh).exists();
+        assertThat(count("attachment_blobs")).isZero();
+    }
+
+    private Path received(String content) throws IOException {
+        Path file = blobStore.newTempFile();
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private UUID attach(String hash) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO ticket_attachments (id, created_at, file_path, file_size, filename, mime_type, "
+                + "original_filename, ticket_id, uploaded_by, content_hash) "
+                + "VALUES (?, now(), ?, 5, ?, 'image/jpeg', 'photo.jpg', ?, ?, ?)",
+                id, "blobs/" + hash, id + ".jpg", ticketId, userId, hash);
+        return id;
+    }
+
+    private int refCount(String hash) {
+        return jdbcTemplate.queryForObject("SELECT ref_count FROM attachment_blobs WHERE content_hash = ?",
+                Integer.class, hash);
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Integer.class);
+    }
+
+    private static void age(Path file) throws IOException {
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(25, ChronoUnit.HOURS)));
+    }
+}
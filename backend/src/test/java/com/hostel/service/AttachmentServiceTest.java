@@ -0,0 +1,74 @@
+package com.hostel.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AttachmentServiceTest {
+
+    @Test
+    void recognisesImageSignaturesWhateverTheDeclaredType() {
+        assertThat(detect(bytes(0xFF, 0xD8, 0xFF, 0xE0), "application/octet-stream")).isEqualTo("image/jpeg");
+        assertThat(detect(bytes(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A), "image/svg+xml")).isEqualTo("image/png");
+        assertThat(detect(ascii("GIF89a"), "text/plain")).isEqualTo("image/gif");
+        assertThat(detect(ascii("RIFF\0\0\0\0WEBPVP8 "), "image/png")).isEqualTo("image/webp");
+        assertThat(detect(ascii("%PDF-1.7"), "image/png")).isEqualTo("application/pdf");
+    }
+
+    @Test
+    void downgradesRenderableTypesWithoutASignature() {
+        byte[] svg = ascii("<svg xmlns=\"http://www.w3.org/2000/svg\"><script>alert(1)</script></svg>");
+        assertThat(detect(svg, "image/svg+xml")).isEqualTo("application/octet-stream");
+        assertThat(detect(ascii("<html><body>"), "image/png")).isEqualTo("application/octet-stream");
+        assertThat(detect(ascii("<html><body>"), "text/html; charset=utf-8")).isEqualTo("application/octet-stream");
+        assertThat(detect(ascii("<?xml version"), "application/xhtml+xml")).isEqualTo("application/octet-stream");
+        assertThat(detect(ascii("alert(1)"), "application/javascript")).isEqualTo("application/octet-stream");
+        assertThat(detect(ascii("anything"), null)).isEqualTo("application/octet-stream");
+    }
+
+    @Test
+    void keepsOtherDeclaredTypes() {
+        assertThat(detect(ascii("plain words"), "text/plain")).isEqualTo("text/plain");
+        assertThat(detect(bytes(0x50, 0x4B, 0x03, 0x04), "application/zip")).isEqualTo("application/zip");
+    }
+
+    @Test
+    void truncatedSignaturesDoNotMatch() {
+        assertThat(detect(bytes(0xFF, 0xD8), "image/jpeg")).isEqualTo("application/octet-stream");
+        assertThat(detect(ascii("RIFF\0\0\0\0WEB"), "image/webp")).isEqualTo("application/octet-stream");
+        assertThat(detect(new byte[0], "image/gif")).isEqualTo("application/octet-stream");
+    }
+
+    @Test
+    void onlyRasterImagesAreInline() {
+        assertThat(AttachmentService.isInlineImage("image/jpeg")).isTrue();
+        assertThat(AttachmentService.isInlineImage("image/PNG")).isTrue();
+        assertThat(AttachmentService.isInlineImage("image/gif")).isTrue();
+        assertThat(AttachmentService.isInlineImage("image/webp")).isTrue();
+        assertThat(AttachmentService.isInlineImage("image/svg+xml")).isFalse();
+        assertThat(AttachmentService.isInlineImage("application/pdf")).isFalse();
+        assertThat(AttachmentService.isInlineImage("text/html")).isFalse();
+        assertThat(AttachmentService.isInlineImage(null)).isFalse();
+    }
+
+    private static String detect(byte[] content, String declared) {
+        byte[] head = new byte[16];
+        int length = Math.min(head.length, content.length);
+        System.arraycopy(content, 0, head, 0, length);
+        return AttachmentService.detectMimeType(head, length, declared);
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] result = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (byte) values[i];
+        }
+        return result;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
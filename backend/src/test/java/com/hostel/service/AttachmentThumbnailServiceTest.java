@@ -0,0 +1,227 @@
+package com.hostel.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Derivatives generated for images written to a temporary upload directory: sizes, format
+ * and flattening, the untouched original, and the limits on what is decoded and queued.
+ * Each test waits for the pool to finish before looking at the files.
+ */
+class AttachmentThumbnailServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AttachmentBlobStore blobStore = mock(AttachmentBlobStore.class);
+
+    private AttachmentThumbnailService thumbnailService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(blobStore.newTempFile()).thenAnswer(invocation -> uploadDir.resolve(UUID.randomUUID() + ".part"));
+        thumbnailService = thumbnailService(2, 16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        thumbnailService.shutdown();
+    }
+
+    private AttachmentThumbnailService thumbnailService(int threads, int queueCapacity) {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<MeterRegistry> meterRegistryProvider = mock(ObjectProvider.class);
+        when(meterRegistryProvider.getIfAvailable()).thenReturn(meterRegistry);
+        AttachmentThumbnailService service = new AttachmentThumbnailService();
+        ReflectionTestUtils.setField(service, "blobStore", blobStore);
+        ReflectionTestUtils.setField(service, "meterRegistryProvider", meterRegistryProvider);
+        ReflectionTestUtils.setField(service, "threads", threads);
+        ReflectionTestUtils.setField(service, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(service, "thumbnailSize", 256);
+        ReflectionTestUtils.setField(service, "previewMax", 1600);
+        ReflectionTestUtils.setField(service, "maxPixels", 100_000_000L);
+        ReflectionTestUtils.setField(service, "quality", 0.82f);
+        service.init();
+        return service;
+    }
+
+    @Test
+    void largePhotoGetsAPreviewWithinTheLimitAndASquareThumbnail() throws Exception {
+        Path original = image("photo", 3000, 2000, BufferedImage.TYPE_INT_RGB, Color.BLUE);
+        byte[] originalBytes = Files.readAllBytes(original);
+
+        assertThat(thumbnailService.submit(original)).isTrue();
+        awaitIdle();
+
+        BufferedImage preview = derivative(original, AttachmentThumbnailService.Variant.PREVIEW);
+        BufferedImage thumbnail = derivative(original, AttachmentThumbnailService.Variant.THUMBNAIL);
+        assertThat(preview.getWidth()).isEqualTo(1600);
+        assertThat(preview.getHeight()).isEqualTo(1067);
+        assertThat(thumbnail.getWidth()).isEqualTo(256);
+        assertThat(thumbnail.getHeight()).isEqualTo(256);
+        assertThat(Files.readAllBytes(original)).isEqualTo(originalBytes);
+        try (Stream<Path> files = Files.list(uploadDir)) {
+            assertThat(files).noneMatch(file -> file.toString().endsWith(".part"));
+        }
+        assertThat(thumbnailService.getStats()).containsEntry("processed", 1L).containsEntry("failed", 0L);
+    }
+
+    @Test
+    void smallImagesAreNotUpscaled() throws Exception {
+        Path original = image("icon", 100, 50, BufferedImage.TYPE_INT_RGB, Color.RED);
+
+        thumbnailService.submit(original);
+        awaitIdle();
+
+        BufferedImage preview = derivative(original, AttachmentThumbnailService.Variant.PREVIEW);
+        BufferedImage thumbnail = derivative(original, AttachmentThumbnailService.Variant.THUMBNAIL);
+        assertThat(preview.getWidth()).isEqualTo(100);
+        assertThat(preview.getHeight()).isEqualTo(50);
+        assertThat(thumbnail.getWidth()).isEqualTo(50);
+        assertThat(thumbnail.getHeight()).isEqualTo(50);
+    }
+
+    @Test
+    void transparencyIsFlattenedOntoWhite() throws Exception {
+        Path original = image("sticker", 400, 400, BufferedImage.TYPE_INT_ARGB, new Color(0, 0, 0, 0));
+
+        thumbnailService.submit(original);
+        awaitIdle();
+
+        Color centre = new Color(derivative(original, AttachmentThumbnailService.Variant.THUMBNAIL).getRGB(128, 128));
+        assertThat(centre.getRed()).isGreaterThan(245);
+        assertThat(centre.getGreen()).isGreaterThan(245);
+        assertThat(centre.getBlue()).isGreaterThan(245);
+    }
+
+    @Test
+    void imagesOverThePixelLimitAndNonImagesFail() throws Exception {
+        ReflectionTestUtils.setField(thumbnailService, "maxPixels", 10_000L);
+        Path large = image("large", 200, 200, BufferedImage.TYPE_INT_RGB, Color.GREEN);
+        Path text = uploadDir.resolve("notes");
+        Files.writeString(text, "not an image");
+
+        thumbnailService.submit(large);
+        thumbnailService.submit(text);
+        awaitIdle();
+
+        for (Path original : new Path[] {large, text}) {
+            for (AttachmentThumbnailService.Variant variant : AttachmentThumbnailService.Variant.values()) {
+                assertThat(AttachmentThumbnailService.derivative(original, variant)).doesNotExist();
+            }
+        }
+        assertThat(thumbnailService.getStats()).containsEntry("processed", 0L).containsEntry("failed", 2L);
+        assertThat(meterRegistry.counter("attachments.thumbnails.failed").count()).isEqualTo(2);
+    }
+
+    @Test
+    void existingDerivativesAreNotRegenerated() throws Exception {
+        Path original = image("photo", 300, 300, BufferedImage.TYPE_INT_RGB, Color.BLUE);
+        for (AttachmentThumbnailService.Variant variant : AttachmentThumbnailService.Variant.values()) {
+            Files.writeString(AttachmentThumbnailService.derivative(original, variant), "shared with another upload");
+        }
+
+        thumbnailService.submit(original);
+        awaitIdle();
+
+        assertThat(AttachmentThumbnailService.derivative(original, AttachmentThumbnailService.Variant.THUMBNAIL))
+                .hasContent("shared with another upload");
+        assertThat(thumbnailService.getStats()).containsEntry("processed", 0L);
+    }
+
+    @Test
+    void fullQueueDropsJobsAndRepeatsOfAQueuedFileAreAccepted() throws Exception {
+        thumbnailService.shutdown();
+        thumbnailService = thumbnailService(1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(blobStore.newTempFile()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return uploadDir.resolve(UUID.randomUUID() + ".part");
+        });
+        Path running = image("running", 50, 50, BufferedImage.TYPE_INT_RGB, Color.BLUE);
+        Path queued = image("queued", 50, 50, BufferedImage.TYPE_INT_RGB, Color.BLUE);
+        Path dropped = image("dropped", 50, 50, BufferedImage.TYPE_INT_RGB, Color.BLUE);
+
+        assertThat(thumbnailService.submit(running)).isTrue();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(thumbnailService.submit(queued)).isTrue();
+        assertThat(thumbnailService.submit(queued)).isTrue();
+        assertThat(thumbnailService.submit(dropped)).isFalse();
+        release.countDown();
+        awaitIdle();
+
+        Map<String, Object> stats = thumbnailService.getStats();
+        assertThat(stats).containsEntry("processed", 2L).containsEntry("rejected", 1L);
+        assertThat(AttachmentThumbnailService.derivative(dropped, AttachmentThumbnailService.Variant.THUMBNAIL))
+                .doesNotExist();
+    }
+
+    @Test
+    void onlyTypesImageIoDecodesAreSupported() {
+        assertThat(AttachmentThumbnailService.supports("image/jpeg")).isTrue();
+        assertThat(AttachmentThumbnailService.supports("image/png")).isTrue();
+        assertThat(AttachmentThumbnailService.supports("image/svg+xml")).isFalse();
+        assertThat(AttachmentThumbnailService.supports("application/pdf")).isFalse();
+        assertThat(AttachmentThumbnailService.supports(null)).isFalse();
+    }
+
+    private Path image(String name, int width, int height, int type, Color fill) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setComposite(AlphaComposite.Src);
+            graphics.setColor(fill);
+            graphics.fillRect(0, 0, width, height);
+        } finally {
+            graphics.dispose();
+        }
+        // Stored like a blob: no extension, the format is read from the content
+        Path file = uploadDir.resolve(name);
+        ImageIO.write(image, "png", file.toFile());
+        return file;
+    }
+
+    private static BufferedImage derivative(Path original, AttachmentThumbnailService.Variant variant)
+            throws IOException {
+        Path file = AttachmentThumbnailService.derivative(original, variant);
+        // JPEG, whatever the original was
+        byte[] head = Files.readAllBytes(file);
+        assertThat(head[0] & 0xFF).isEqualTo(0xFF);
+        assertThat(head[1] & 0xFF).isEqualTo(0xD8);
+        return ImageIO.read(file.toFile());
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(thumbnailService, "executor");
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+    }
+}
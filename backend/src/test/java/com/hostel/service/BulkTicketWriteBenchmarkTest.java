@@ -0,0 +1,148 @@
+package com.hostel.service;
+
+import com.hostel.JpaTestSupport;
+import com.hostel.entity.TicketPriority;
+import com.hostel.entity.TicketStatus;
+import com.hostel.entity.User;
+import com.hostel.entity.UserRole;
+import com.hostel.repository.TicketEscalationRepository;
+import com.hostel.repository.TicketRepository;
+import com.hostel.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * JDBC statements per 1,000 tickets for the chunked bulk writes, counted with Hibernate
+ * Statistics on in-memory H2: TicketService.bulkUpdateTickets, and an escalation run that
+ * hands 1,000 overdue medium-priority tickets to the least busy of 20 staff members. The
+ * escalation records and notifications are mocked out, so the count is the ticket reads and
+ * writes plus the target lookups. Run with:
+ * mvn test -Dtest=BulkTicketWriteBenchmarkTest -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class BulkTicketWriteBenchmarkTest {
+
+    private static final int TICKETS = 1000;
+    private static final int STAFF = 20;
+    private static final int BATCH_SIZE = 50;
+
+    private EntityManagerFactory entityManagerFactory;
+    private TicketRepository ticketRepository;
+    private UserRepository userRepository;
+    private TransactionTemplate transactionTemplate;
+    private List<UUID> ticketIds;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:bulk-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        entityManagerFactory = JpaTestSupport.entityManagerFactory(dataSource,
+                Map.of("hibernate.hbm2ddl.auto", "create", "hibernate.generate_statistics", "true"));
+        ticketRepository = JpaTestSupport.repository(entityManagerFactory, TicketRepository.class);
+        userRepository = JpaTestSupport.repository(entityManagerFactory, UserRepository.class);
+        transactionTemplate = JpaTestSupport.transactionTemplate(entityManagerFactory);
+
+        ticketIds = transactionTemplate.execute(status -> {
+            userRepository.save(JpaTestSupport.user(UserRole.ADMIN));
+            for (int i = 0; i < STAFF; i++) {
+                userRepository.save(JpaTestSupport.user(UserRole.STAFF));
+            }
+            User student = userRepository.save(JpaTestSupport.user(UserRole.STUDENT));
+            List<UUID> ids = new ArrayList<>();
+            for (int i = 0; i < TICKETS; i++) {
+                ids.add(ticketRepository.save(JpaTestSupport.ticket(student)).getId());
+            }
+            return ids;
+        });
+        // Unassigned for two days: past the 24 hour medium-priority threshold
+        new JdbcTemplate(dataSource).update("UPDATE tickets SET created_at = ?", LocalDateTime.now().minusDays(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManagerFactory.close();
+    }
+
+    @Test
+    void bulkUpdateTickets() {
+        TicketService ticketService = new TicketService();
+        ReflectionTestUtils.setField(ticketService, "ticketRepository", ticketRepository);
+        ReflectionTestUtils.setField(ticketService, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(ticketService, "entityManager",
+                SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+        ReflectionTestUtils.setField(ticketService, "optimisticRetryService", OptimisticRetryServiceTest
+                .retryService(new JpaTransactionManager(entityManagerFactory), new SimpleMeterRegistry(), 3, 20));
+        ReflectionTestUtils.setField(ticketService, "writeBatchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(ticketService, "ticketEventLog", mock(TicketEventLog.class));
+        statistics().clear();
+
+        Map<UUID, String> results = ticketService.bulkUpdateTickets(ticketIds, null, ticket -> {
+            ticket.setPriority(TicketPriority.HIGH);
+            return null;
+        });
+
+        report("bulkUpdateTickets");
+        assertThat(results).hasSize(TICKETS).containsOnlyKeys(ticketIds);
+        assertThat(results.values()).containsOnlyNulls();
+        // One select and one batched update per chunk
+        assertThat(statistics().getPrepareStatementCount()).isEqualTo(2L * TICKETS / BATCH_SIZE);
+    }
+
+    @Test
+    void escalationRun() {
+        EscalationService escalationService = new EscalationService();
+        ReflectionTestUtils.setField(escalationService, "ticketRepository", ticketRepository);
+        ReflectionTestUtils.setField(escalationService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(escalationService, "escalationRepository", mock(TicketEscalationRepository.class));
+        ReflectionTestUtils.setField(escalationService, "notificationService", mock(NotificationService.class));
+        ReflectionTestUtils.setField(escalationService, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(escalationService, "entityManager",
+                SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+        ReflectionTestUtils.setField(escalationService, "writeBatchSize", BATCH_SIZE);
+        statistics().clear();
+
+        escalationService.processAutomaticEscalations();
+
+        report("escalation run");
+        long statements = statistics().getPrepareStatementCount();
+        // The least busy staff member is picked per ticket, so the tickets are spread evenly
+        List<Object[]> workloads = ticketRepository.countByAssignedToInAndStatusIn(
+                userRepository.findByRoleAndIsActiveTrue(UserRole.STAFF), List.of(TicketStatus.ASSIGNED));
+        assertThat(workloads).hasSize(STAFF).allSatisfy(row -> assertThat(((Number) row[1]).intValue())
+                .isEqualTo(TICKETS / STAFF));
+        // Five selections, staff and workloads once, then one select and one batched update per chunk
+        assertThat(statements).isEqualTo(5 + 2 + 2L * TICKETS / BATCH_SIZE);
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private void report(String operation) {
+        Statistics statistics = statistics();
+        System.out.printf("%-18s %,6d statements per %,d tickets (%,d queries, %,d entity loads, %,d entity updates)%n",
+                operation + ":", statistics.getPrepareStatementCount(), TICKETS, statistics.getQueryExecutionCount(),
+                statistics.getEntityLoadCount(), statistics.getEntityUpdateCount());
+    }
+}
@@ -0,0 +1,175 @@
+package com.hostel.service;
+
+import com.hostel.PostgresTestDatabase;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Deque;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The pool-size advisor on a mocked pool of ten whose MXBean reports the counts each test
+ * sets before sampling: grow on waits or slow acquires, at most twofold; shrink when peak
+ * usage stays under half; never beyond what the database accepts.
+ */
+class ConnectionPoolMonitorServiceTest {
+
+    private static final String POOL = "HikariPool-1";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final HikariDataSource pool = mock(HikariDataSource.class);
+    private final HikariPoolMXBean mxBean = mock(HikariPoolMXBean.class);
+
+    private ConnectionPoolMonitorService monitorService;
+
+    @BeforeEach
+    void setUp() {
+        when(pool.getPoolName()).thenReturn(POOL);
+        when(pool.getMaximumPoolSize()).thenReturn(10);
+        when(pool.getHikariPoolMXBean()).thenReturn(mxBean);
+        monitorService = monitorService(pool);
+    }
+
+    private ConnectionPoolMonitorService monitorService(HikariDataSource dataSource) {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<HikariDataSource> pools = mock(ObjectProvider.class);
+        when(pools.orderedStream()).thenAnswer(invocation -> Stream.of(dataSource));
+        @SuppressWarnings("unchecked")
+        ObjectProvider<MeterRegistry> meterRegistryProvider = mock(ObjectProvider.class);
+        when(meterRegistryProvider.getIfAvailable()).thenReturn(meterRegistry);
+        ConnectionPoolMonitorService service = new ConnectionPoolMonitorService();
+        ReflectionTestUtils.setField(service, "pools", pools);
+        ReflectionTestUtils.setField(service, "meterRegistryProvider", meterRegistryProvider);
+        ReflectionTestUtils.setField(service, "targetAcquireMillis", 50.0);
+        ReflectionTestUtils.setField(service, "instances", 1);
+        ReflectionTestUtils.setField(service, "windowSamples", 60);
+        return service;
+    }
+
+    @Test
+    void noAdviceBeforeTheFirstSample() {
+        assertThat(advice()).containsEntry("reason", "No usage samples collected yet")
+                .doesNotContainKey("recommendedMaximumPoolSize");
+    }
+
+    @Test
+    void waitsGrowThePoolToThePeakDemand() {
+        sample(10, 5);
+        sample(4, 0);
+
+        assertThat(advice()).containsEntry("peakActive", 10)
+                .containsEntry("peakThreadsAwaiting", 5)
+                .containsEntry("recommendedMaximumPoolSize", 16)
+                .containsEntry("reason", "Requests waited for connections");
+    }
+
+    @Test
+    void growthIsAtMostTwofoldPerStep() {
+        sample(10, 50);
+
+        assertThat(advice()).containsEntry("recommendedMaximumPoolSize", 20);
+    }
+
+    @Test
+    void slowAcquiresGrowThePoolWithoutWaiters() {
+        Timer acquire = Timer.builder("hikaricp.connections.acquire").tag("pool", POOL)
+                .publishPercentiles(0.95).register(meterRegistry);
+        for (int i = 0; i < 100; i++) {
+            acquire.record(Duration.ofMillis(80));
+        }
+        sample(10, 0);
+
+        assertThat(advice()).containsEntry("recommendedMaximumPoolSize", 11)
+                .containsEntry("reason", "Requests waited for connections");
+        assertThat((Double) advice().get("acquireP95Ms")).isGreaterThan(50);
+    }
+
+    @Test
+    void peakUnderHalfThePoolShrinksItWithHeadroom() {
+        sample(3, 0);
+        sample(1, 0);
+
+        assertThat(advice()).containsEntry("recommendedMaximumPoolSize", 4)
+                .containsEntry("reason", "Peak usage stays below half of the pool");
+    }
+
+    @Test
+    void poolThatMatchesDemandKeepsItsSizeAndPublishesIt() {
+        sample(7, 0);
+
+        monitorService.publishAdvice();
+
+        assertThat(advice()).containsEntry("recommendedMaximumPoolSize", 10)
+                .containsEntry("reason", "Pool size matches observed demand");
+        assertThat(meterRegistry.get("db.pool.recommended.size").tag("pool", POOL).gauge().value()).isEqualTo(10);
+    }
+
+    @Test
+    void oldSamplesLeaveTheWindow() {
+        ReflectionTestUtils.setField(monitorService, "windowSamples", 3);
+        sample(10, 8);
+        sample(2, 0);
+        sample(2, 0);
+        sample(2, 0);
+
+        assertThat(advice()).containsEntry("samples", 3)
+                .containsEntry("peakThreadsAwaiting", 0)
+                .containsEntry("recommendedMaximumPoolSize", 3);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = PostgresTestDatabase.URL_PROPERTY, matches = ".+")
+    void recommendationIsCappedByTheDatabaseConnectionLimit() throws SQLException {
+        try (HikariDataSource postgres = new HikariDataSource()) {
+            postgres.setJdbcUrl(System.getProperty(PostgresTestDatabase.URL_PROPERTY));
+            postgres.setUsername(System.getProperty("postgres.user", "postgres"));
+            postgres.setPassword(System.getProperty("postgres.password", ""));
+            postgres.setPoolName(POOL);
+            postgres.setMaximumPoolSize(10_000);
+            postgres.setMinimumIdle(1);
+            // The pool starts, and gets its MXBean, on the first connection
+            postgres.getConnection().close();
+            ConnectionPoolMonitorService service = monitorService(postgres);
+            service.samplePools();
+            // As if 5,000 requests had queued for a connection
+            @SuppressWarnings("unchecked")
+            Map<String, Deque<int[]>> samples =
+                    (Map<String, Deque<int[]>>) ReflectionTestUtils.getField(service, "samples");
+            samples.get(POOL).addLast(new int[] { 10_000, 5_000 });
+
+            @SuppressWarnings("unchecked")
+            Map<String, Object> advice = (Map<String, Object>) service.getSizingAdvice().get(POOL);
+
+            int budget = (Integer) advice.get("databaseConnectionBudget");
+            assertThat(budget).isPositive().isLessThan(10_000);
+            assertThat(advice).containsEntry("recommendedMaximumPoolSize", budget);
+            assertThat((String) advice.get("reason")).endsWith("capped by the database connection limit");
+        }
+    }
+
+    private void sample(int active, int awaiting) {
+        when(mxBean.getActiveConnections()).thenReturn(active);
+        when(mxBean.getThreadsAwaitingConnection()).thenReturn(awaiting);
+        monitorService.samplePools();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> advice() {
+        return (Map<String, Object>) monitorService.getSizingAdvice().get(POOL);
+    }
+}
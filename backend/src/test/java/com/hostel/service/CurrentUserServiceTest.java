@@ -0,0 +1,52 @@
+package com.hostel.service;
+
+import com.hostel.dto.UserSummary;
+import com.hostel.entity.UserRole;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The acting user comes from the token only: a user id in the request is checked against
+ * it and never looked up on its own.
+ */
+class CurrentUserServiceTest {
+
+    private final CurrentUserService currentUserService = new CurrentUserService();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void requestsWithoutATokenAreRefusedWhateverIdTheyPass() {
+        assertThatThrownBy(() -> currentUserService.resolve(UUID.randomUUID()))
+                .isInstanceOf(AccessDeniedException.class)
+                .hasMessageContaining("Authentication required");
+        assertThatThrownBy(() -> currentUserService.resolve(null)).isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void tokenUserMayOnlyActAsItself() {
+        UserSummary user = authenticate(new UserSummary(UUID.randomUUID(), UserRole.STUDENT, null, null, true));
+
+        assertThat(currentUserService.resolve(user.getId())).isSameAs(user);
+        assertThat(currentUserService.resolve(null)).isSameAs(user);
+        assertThatThrownBy(() -> currentUserService.resolve(UUID.randomUUID()))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    private static UserSummary authenticate(UserSummary user) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+        return user;
+    }
+}
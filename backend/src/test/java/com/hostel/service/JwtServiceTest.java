@@ -0,0 +1,78 @@
+package com.hostel.service;
+
+import com.hostel.dto.UserSummary;
+import com.hostel.entity.HostelName;
+import com.hostel.entity.UserRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private final UserService userService = mock(UserService.class);
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = newService(SECRET);
+    }
+
+    @Test
+    void refusesSecretsShorterThan32Bytes() {
+        assertThatThrownBy(() -> newService("mySecretKey"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("at least 32 bytes");
+    }
+
+    @Test
+    void returnsTheCurrentSummaryRatherThanTheClaims() {
+        UUID id = UUID.randomUUID();
+        String token = jwtService.generateToken(new UserSummary(id, UserRole.ADMIN, null, HostelName.BLOCK_A, true));
+        UserSummary demoted = new UserSummary(id, UserRole.STUDENT, null, HostelName.BLOCK_B, true);
+        when(userService.getUserSummary(id)).thenReturn(demoted);
+
+        assertThat(jwtService.parseToken(token)).isSameAs(demoted);
+    }
+
+    @Test
+    void rejectsTokensOfInactiveOrDeletedUsers() {
+        UUID inactive = UUID.randomUUID();
+        UUID deleted = UUID.randomUUID();
+        when(userService.getUserSummary(inactive))
+                .thenReturn(new UserSummary(inactive, UserRole.STAFF, null, null, false));
+
+        assertThat(jwtService.parseToken(jwtService.generateToken(
+                new UserSummary(inactive, UserRole.STAFF, null, null, true)))).isNull();
+        assertThat(jwtService.parseToken(jwtService.generateToken(
+                new UserSummary(deleted, UserRole.STUDENT, null, null, true)))).isNull();
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnotherKey() {
+        UUID id = UUID.randomUUID();
+        when(userService.getUserSummary(id)).thenReturn(new UserSummary(id, UserRole.STUDENT, null, null, true));
+        String foreign = newService("fedcba9876543210fedcba9876543210")
+                .generateToken(new UserSummary(id, UserRole.ADMIN, null, null, true));
+
+        assertThat(jwtService.parseToken(foreign)).isNull();
+        assertThat(jwtService.parseToken("not-a-token")).isNull();
+    }
+
+    private JwtService newService(String secret) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "userService", userService);
+        ReflectionTestUtils.setField(service, "secret", secret);
+        ReflectionTestUtils.setField(service, "expirationMillis", 60_000L);
+        service.initSigningKey();
+        return service;
+    }
+}
@@ -0,0 +1,112 @@
+package com.hostel.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The account and IP buckets: which one runs out first, what the caller is told to wait,
+ * and that refilled buckets are dropped. Refill is slow enough not to happen mid-test.
+ */
+class LoginThrottleServiceTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LoginThrottleService throttleService;
+
+    @BeforeEach
+    void setUp() {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<MeterRegistry> meterRegistryProvider = mock(ObjectProvider.class);
+        when(meterRegistryProvider.getIfAvailable()).thenReturn(meterRegistry);
+        throttleService = new LoginThrottleService();
+        ReflectionTestUtils.setField(throttleService, "meterRegistryProvider", meterRegistryProvider);
+        ReflectionTestUtils.setField(throttleService, "accountCapacity", 3);
+        ReflectionTestUtils.setField(throttleService, "accountRefillPerMinute", 1.0);
+        ReflectionTestUtils.setField(throttleService, "ipCapacity", 5);
+        ReflectionTestUtils.setField(throttleService, "ipRefillPerMinute", 1.0);
+    }
+
+    @Test
+    void accountIsThrottledAfterItsCapacityWhateverTheCase() {
+        assertThat(throttleService.tryAcquire("alice", "10.0.0.1")).isZero();
+        assertThat(throttleService.tryAcquire("Alice", "10.0.0.2")).isZero();
+        assertThat(throttleService.tryAcquire("ALICE", "10.0.0.3")).isZero();
+
+        // One token a minute: the next one is up to a minute away
+        assertThat(throttleService.tryAcquire("alice", "10.0.0.4")).isBetween(1L, 60L);
+        assertThat(throttleService.tryAcquire("bob", "10.0.0.4")).isZero();
+        assertThat(throttled("account")).isEqualTo(1);
+    }
+
+    @Test
+    void ipIsThrottledAcrossAccounts() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(throttleService.tryAcquire("user" + i, "10.0.0.1")).isZero();
+        }
+
+        assertThat(throttleService.tryAcquire("someone-else", "10.0.0.1")).isPositive();
+        assertThat(throttleService.tryAcquire("someone-else", "10.0.0.2")).isZero();
+        assertThat(throttled("ip")).isEqualTo(1);
+    }
+
+    @Test
+    void throttledIpAttemptsDoNotSpendTheAccountsTokens() {
+        ReflectionTestUtils.setField(throttleService, "ipCapacity", 1);
+        throttleService.tryAcquire("mallory", "10.0.0.1");
+        for (int i = 0; i < 10; i++) {
+            throttleService.tryAcquire("alice", "10.0.0.1");
+        }
+
+        assertThat(throttleService.tryAcquire("alice", "10.0.0.2")).isZero();
+    }
+
+    @Test
+    void bucketsRefillContinuouslyUpToTheirCapacity() {
+        LoginThrottleService.TokenBucket bucket = new LoginThrottleService.TokenBucket(2, 6, 0);
+        assertThat(bucket.tryConsume(0)).isZero();
+        assertThat(bucket.tryConsume(0)).isZero();
+        assertThat(bucket.tryConsume(0)).isEqualTo(10);
+
+        // Six a minute is one every ten seconds
+        assertThat(bucket.tryConsume(4 * SECOND)).isBetween(6L, 7L);
+        assertThat(bucket.tryConsume(11 * SECOND)).isZero();
+        assertThat(bucket.isFull(11 * SECOND)).isFalse();
+        assertThat(bucket.isFull(3600 * SECOND)).isTrue();
+        assertThat(bucket.tryConsume(3600 * SECOND)).isZero();
+        assertThat(bucket.tryConsume(3600 * SECOND)).isZero();
+        assertThat(bucket.tryConsume(3600 * SECOND)).isPositive();
+    }
+
+    @Test
+    void evictsOnlyBucketsThatHaveRefilled() {
+        throttleService.tryAcquire("alice", "10.0.0.1");
+        ReflectionTestUtils.setField(throttleService, "accountRefillPerMinute", 1e12);
+        ReflectionTestUtils.setField(throttleService, "ipRefillPerMinute", 1e12);
+        throttleService.tryAcquire("bob", "10.0.0.2");
+
+        throttleService.evictIdleBuckets();
+
+        assertThat(buckets("accountBuckets")).containsOnlyKeys("alice");
+        assertThat(buckets("ipBuckets")).containsOnlyKeys("10.0.0.1");
+    }
+
+    private double throttled(String scope) {
+        return meterRegistry.counter("auth.login.throttled", "scope", scope).count();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> buckets(String field) {
+        return (Map<String, ?>) ReflectionTestUtils.getField(throttleService, field);
+    }
+}
@@ -0,0 +1,158 @@
+package com.hostel.service;
+
+import com.hostel.JpaTestSupport;
+import com.hostel.PostgresTestDatabase;
+import com.hostel.entity.Notification;
+import com.hostel.entity.UserRole;
+import com.hostel.repository.NotificationRepository;
+import com.hostel.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Notification retention and the per-user inbox queries on PostgreSQL: only read
+ * notifications past the cutoff leave the table, in batches of at most batch-size rows and
+ * at most max-batches-per-run batches, into notifications_archive unless archiving is off.
+ */
+@EnabledIfSystemProperty(named = PostgresTestDatabase.URL_PROPERTY, matches = ".+")
+class NotificationRetentionServiceTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.now().minusDays(90);
+
+    private EntityManagerFactory entityManagerFactory;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private NotificationRepository notificationRepository;
+    private NotificationRetentionService retentionService;
+    private UUID userId;
+    private UUID otherUserId;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = PostgresTestDatabase.migrated();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        entityManagerFactory = JpaTestSupport.entityManagerFactory(dataSource, Map.of());
+        notificationRepository = JpaTestSupport.repository(entityManagerFactory, NotificationRepository.class);
+        UserRepository userRepository = JpaTestSupport.repository(entityManagerFactory, UserRepository.class);
+        transactionTemplate = JpaTestSupport.transactionTemplate(entityManagerFactory);
+        userId = transactionTemplate.execute(status -> userRepository.save(JpaTestSupport.user(UserRole.STUDENT)).getId());
+        otherUserId = transactionTemplate.execute(status ->
+                userRepository.save(JpaTestSupport.user(UserRole.STUDENT)).getId());
+
+        retentionService = new NotificationRetentionService(new JpaTransactionManager(entityManagerFactory));
+        ReflectionTestUtils.setField(retentionService, "notificationRepository", notificationRepository);
+        ReflectionTestUtils.setField(retentionService, "batchSize", 3);
+        ReflectionTestUtils.setField(retentionService, "maxBatchesPerRun", 10);
+        ReflectionTestUtils.setField(retentionService, "pauseBetweenBatchesMs", 0L);
+        ReflectionTestUtils.setField(retentionService, "archiveEnabled", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManagerFactory.close();
+    }
+
+    @Test
+    void movesOnlyOldReadNotificationsToTheArchive() {
+        insert(userId, 7, true, CUTOFF.minusDays(1));
+        insert(userId, 2, false, CUTOFF.minusDays(1));
+        insert(userId, 2, true, CUTOFF.plusDays(1));
+
+        assertThat(retentionService.purgeReadNotificationsOlderThan(CUTOFF)).isEqualTo(7);
+
+        assertThat(count("notifications WHERE is_read AND created_at < ?", CUTOFF)).isZero();
+        assertThat(count("notifications WHERE NOT is_read", null)).isEqualTo(2);
+        assertThat(count("notifications WHERE created_at > ?", CUTOFF)).isEqualTo(2);
+        assertThat(count("notifications_archive WHERE user_id = ? AND is_read", userId)).isEqualTo(7);
+        assertThat(retentionService.purgeReadNotificationsOlderThan(CUTOFF)).isZero();
+    }
+
+    @Test
+    void aRunStopsAfterItsLastBatchAndTheNextRunContinues() {
+        ReflectionTestUtils.setField(retentionService, "maxBatchesPerRun", 2);
+        insert(userId, 8, true, CUTOFF.minusDays(1));
+
+        assertThat(retentionService.purgeReadNotificationsOlderThan(CUTOFF)).isEqualTo(6);
+        assertThat(retentionService.purgeReadNotificationsOlderThan(CUTOFF)).isEqualTo(2);
+        assertThat(count("notifications_archive", null)).isEqualTo(8);
+    }
+
+    @Test
+    void withoutArchivingOldReadNotificationsAreDeleted() {
+        ReflectionTestUtils.setField(retentionService, "archiveEnabled", false);
+        insert(userId, 4, true, CUTOFF.minusDays(1));
+
+        assertThat(retentionService.purgeReadNotificationsOlderThan(CUTOFF)).isEqualTo(4);
+        assertThat(count("notifications", null)).isZero();
+        assertThat(count("notifications_archive", null)).isZero();
+    }
+
+    @Test
+    void inboxPagesAndUnreadCountsArePerUser() {
+        LocalDateTime now = LocalDateTime.now();
+        insert(userId, 3, false, now.minusHours(1));
+        insert(userId, 2, true, now.minusHours(2));
+        insert(otherUserId, 4, false, now.minusHours(3));
+
+        Page<Notification> first = transactionTemplate.execute(status ->
+                notificationRepository.findByUserIdOrderByCreatedAtDesc(userId, PageRequest.of(0, 4)));
+        assertThat(first.getTotalElements()).isEqualTo(5);
+        assertThat(first.getContent()).hasSize(4)
+                .extracting(Notification::getCreatedAt).isSortedAccordingTo((a, b) -> b.compareTo(a));
+        assertThat(notificationRepository.countByUserIdAndIsReadFalse(userId)).isEqualTo(3);
+        assertThat(notificationRepository.countByUserIdAndIsReadFalse(otherUserId)).isEqualTo(4);
+
+        // Mark all read is one UPDATE limited to the user
+        int marked = transactionTemplate.execute(status -> notificationRepository.markAllAsRead(userId, now));
+        assertThat(marked).isEqualTo(3);
+        assertThat(notificationRepository.countByUserIdAndIsReadFalse(userId)).isZero();
+        assertThat(notificationRepository.countByUserIdAndIsReadFalse(otherUserId)).isEqualTo(4);
+    }
+
+    @Test
+    void markAsReadOnlyTouchesTheOwnersUnreadNotification() {
+        insert(userId, 1, false, LocalDateTime.now());
+        UUID id = jdbcTemplate.queryForObject("SELECT id FROM notifications", UUID.class);
+
+        assertThat(markAsRead(id, otherUserId)).isZero();
+        assertThat(markAsRead(id, userId)).isEqualTo(1);
+        assertThat(markAsRead(id, userId)).isZero();
+    }
+
+    private int markAsRead(UUID id, UUID user) {
+        return transactionTemplate.execute(status -> notificationRepository.markAsRead(id, user, LocalDateTime.now()));
+    }
+
+    private void insert(UUID user, int count, boolean read, LocalDateTime createdAt) {
+        for (int i = 0; i < count; i++) {
+            // Distinct timestamps, so that the newest-first order is well defined
+            LocalDateTime created = createdAt.minusSeconds(i);
+            jdbcTemplate.update("INSERT INTO notifications (id, created_at, is_read, message, title, type, user_id, "
+                    + "read_at) VALUES (?, ?, ?, 'message', 'title', 'IN_APP', ?, ?)",
+                    UUID.randomUUID(), created, read, user, read ? created : null);
+        }
+    }
+
+    private int count(String from, Object arg) {
+        String sql = "SELECT count(*) FROM " + from;
+        return arg == null
+                ? jdbcTemplate.queryForObject(sql, Integer.class)
+                : jdbcTemplate.queryForObject(sql, Integer.class, arg);
+    }
+}
@@ -0,0 +1,128 @@
+package com.hostel.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Which failures are retried, in a new transaction each time, and which are not
+ */
+class OptimisticRetryServiceTest {
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Integer> attempts = new CopyOnWriteArrayList<>();
+
+    private OptimisticRetryService retryService;
+
+    @BeforeEach
+    void setUp() {
+        retryService = retryService(transactionManager, meterRegistry, 3, 0);
+    }
+
+    static OptimisticRetryService retryService(PlatformTransactionManager transactionManager,
+                                               MeterRegistry meterRegistry, int maxAttempts, long backoffMillis) {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<MeterRegistry> meterRegistryProvider = mock(ObjectProvider.class);
+        when(meterRegistryProvider.getIfAvailable()).thenReturn(meterRegistry);
+        OptimisticRetryService retryService = new OptimisticRetryService();
+        ReflectionTestUtils.setField(retryService, "transactionTemplate", new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(retryService, "meterRegistryProvider", meterRegistryProvider);
+        ReflectionTestUtils.setField(retryService, "maxAttempts", maxAttempts);
+        ReflectionTestUtils.setField(retryService, "backoffMillis", backoffMillis);
+        return retryService;
+    }
+
+    @Test
+    void retriesAConflictInANewTransaction() {
+        String result = retryService.execute(attempt -> {
+            attempts.add(attempt);
+            if (attempt == 1) {
+                throw new ObjectOptimisticLockingFailureException("Ticket", "t-1");
+            }
+            return "done";
+        });
+
+        assertThat(result).isEqualTo("done");
+        assertThat(attempts).containsExactly(1, 2);
+        verify(transactionManager, times(2)).getTransaction(any());
+        verify(transactionManager, times(1)).rollback(any());
+        assertThat(count("tickets.optimistic_lock.retries")).isEqualTo(1);
+        assertThat(count("tickets.optimistic_lock.conflicts")).isZero();
+    }
+
+    @Test
+    void untranslatedConflictsAreRetriedAndReportedAsOptimisticLockingFailures() {
+        assertThatThrownBy(() -> retryService.execute(attempt -> {
+            attempts.add(attempt);
+            throw new IllegalStateException("flush failed", new OptimisticLockException("row was updated"));
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(attempts).containsExactly(1, 2, 3);
+        assertThat(count("tickets.optimistic_lock.retries")).isEqualTo(2);
+        assertThat(count("tickets.optimistic_lock.conflicts")).isEqualTo(1);
+    }
+
+    @Test
+    void staleUpdatesAreNotRetried() {
+        assertThatThrownBy(() -> retryService.execute(attempt -> {
+            attempts.add(attempt);
+            throw new OptimisticRetryService.StaleUpdateException("Ticket is now Cancelled");
+        })).isInstanceOf(OptimisticRetryService.StaleUpdateException.class);
+
+        assertThat(attempts).containsExactly(1);
+        assertThat(count("tickets.optimistic_lock.retries")).isZero();
+    }
+
+    @Test
+    void otherFailuresAreNotRetried() {
+        assertThatThrownBy(() -> retryService.execute(attempt -> {
+            attempts.add(attempt);
+            throw new RuntimeException("Ticket not found");
+        })).hasMessage("Ticket not found");
+
+        assertThat(attempts).containsExactly(1);
+    }
+
+    @Test
+    void runsOnceInsideTheCallersTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThatThrownBy(() -> retryService.execute(attempt -> {
+                attempts.add(attempt);
+                throw new ObjectOptimisticLockingFailureException("Ticket", "t-1");
+            })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        assertThat(attempts).containsExactly(1);
+        verifyNoInteractions(transactionManager);
+        assertThat(count("tickets.optimistic_lock.retries")).isZero();
+    }
+
+    private double count(String name) {
+        return meterRegistry.counter(name).count();
+    }
+}
@@ -0,0 +1,102 @@
+package com.hostel.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * The bounded hashing pool with one thread and a queue of one, and an encoder that blocks
+ * until released: a third concurrent login is turned away rather than left waiting.
+ */
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private PasswordHashingService hashingService;
+
+    @BeforeEach
+    void setUp() {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<MeterRegistry> meterRegistryProvider = mock(ObjectProvider.class);
+        when(meterRegistryProvider.getIfAvailable()).thenReturn(meterRegistry);
+        when(passwordEncoder.matches(anyString(), anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+        });
+        hashingService = new PasswordHashingService();
+        ReflectionTestUtils.setField(hashingService, "passwordEncoder", passwordEncoder);
+        ReflectionTestUtils.setField(hashingService, "meterRegistryProvider", meterRegistryProvider);
+        ReflectionTestUtils.setField(hashingService, "threads", 1);
+        ReflectionTestUtils.setField(hashingService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(hashingService, "timeoutMillis", 5000L);
+        hashingService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        hashingService.shutdown();
+    }
+
+    @Test
+    void rejectsWhenThePoolAndItsQueueAreFull() throws Exception {
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> hashingService.matches("a", "hash"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> hashingService.matches("b", "hash"));
+        awaitQueued(1);
+
+        assertThatThrownBy(() -> hashingService.matches("c", "hash"))
+                .isInstanceOf(RejectedExecutionException.class)
+                .hasMessageContaining("saturated");
+        assertThat(meterRegistry.counter("auth.hashing.rejected").count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.hashing.queue.remaining").gauge().value()).isZero();
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void givesUpOnAHashThatTakesLongerThanTheTimeout() {
+        ReflectionTestUtils.setField(hashingService, "timeoutMillis", 100L);
+
+        assertThatThrownBy(() -> hashingService.matches("a", "hash"))
+                .isInstanceOf(RejectedExecutionException.class)
+                .hasMessageContaining("timed out");
+    }
+
+    @Test
+    void missingPasswordOrHashNeverReachesThePool() {
+        assertThat(hashingService.matches(null, "hash")).isFalse();
+        assertThat(hashingService.matches("a", null)).isFalse();
+        verifyNoInteractions(passwordEncoder);
+    }
+
+    private void awaitQueued(int tasks) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("auth.hashing.queue.size").gauge().value() < tasks) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
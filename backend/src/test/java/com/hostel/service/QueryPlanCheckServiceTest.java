@@ -0,0 +1,61 @@
+package com.hostel.service;
+
+import com.hostel.JpaTestSupport;
+import com.hostel.PostgresTestDatabase;
+import com.hostel.repository.TicketRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import jakarta.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plans are checked for the SQL the repository methods generate, not for hand-written copies
+ */
+class QueryPlanCheckServiceTest {
+
+    @Test
+    void placeholdersAreNumberedOutsideQuotes() {
+        String[] prepared = QueryPlanCheckService.toPreparedStatement(
+                "select t.id from tickets t where t.status not in ('RESOLVED','?') and t.\"a?\"=? and t.created_at<=?");
+
+        assertThat(prepared[0]).isEqualTo(
+                "select t.id from tickets t where t.status not in ('RESOLVED','?') and t.\"a?\"=$1 and t.created_at<=$2");
+        assertThat(prepared[1]).isEqualTo("(NULL, NULL)");
+    }
+
+    @Test
+    void statementWithoutPlaceholdersTakesNoArguments() {
+        assertThat(QueryPlanCheckService.toPreparedStatement("select 1")[1]).isEmpty();
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = PostgresTestDatabase.URL_PROPERTY, matches = ".+")
+    @SuppressWarnings("unchecked")
+    void migratedSchemaServesEveryKeyQueryFromAnIndex() {
+        DataSource dataSource = PostgresTestDatabase.migrated();
+        EntityManagerFactory entityManagerFactory = JpaTestSupport.entityManagerFactory(dataSource, Map.of());
+        try {
+            QueryPlanCheckService service = new QueryPlanCheckService();
+            ReflectionTestUtils.setField(service, "ticketRepository",
+                    JpaTestSupport.repository(entityManagerFactory, TicketRepository.class));
+            ReflectionTestUtils.setField(service, "jdbcTemplate", new JdbcTemplate(dataSource));
+            ReflectionTestUtils.setField(service, "transactionTemplate",
+                    JpaTestSupport.transactionTemplate(entityManagerFactory));
+
+            Map<String, Object> result = service.checkPlans();
+
+            assertThat(result).containsKeys("staff workload count", "time-based escalation", "duplicate window",
+                    "SLA breach", "SLA approaching", "created date range");
+            assertThat((List<String>) result.get("violations")).isEmpty();
+        } finally {
+            entityManagerFactory.close();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.hostel.service;
+
+import com.hostel.JpaTestSupport;
+import com.hostel.PostgresTestDatabase;
+import com.hostel.dto.StaffMappingSummary;
+import com.hostel.entity.CategoryStaffMapping;
+import com.hostel.entity.HostelName;
+import com.hostel.entity.User;
+import com.hostel.entity.UserRole;
+import com.hostel.repository.CategoryStaffMappingRepository;
+import com.hostel.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mapping edits on PostgreSQL through the transactional, caching proxy, called from outside
+ * any transaction as the admin endpoints do with open-in-view off: the returned summary
+ * reads the lazily loaded staff member, and every edit drops the cached summaries.
+ */
+@EnabledIfSystemProperty(named = PostgresTestDatabase.URL_PROPERTY, matches = ".+")
+class StaffMappingServiceTest {
+
+    private EntityManagerFactory entityManagerFactory;
+    private AnnotationConfigApplicationContext context;
+    private CategoryStaffMappingRepository mappingRepository;
+    private StaffMappingService staffMappingService;
+    private Cache cache;
+    private User staff;
+    private UUID mappingId;
+
+    @Configuration
+    @EnableCaching
+    @EnableTransactionManagement
+    static class Config {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(StaffMappingService.STAFF_MAPPING_CACHE);
+        }
+
+        @Bean
+        StaffMappingService staffMappingService() {
+            return new StaffMappingService();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        entityManagerFactory = JpaTestSupport.entityManagerFactory(PostgresTestDatabase.migrated(), Map.of());
+        mappingRepository = JpaTestSupport.repository(entityManagerFactory, CategoryStaffMappingRepository.class);
+        UserRepository userRepository = JpaTestSupport.repository(entityManagerFactory, UserRepository.class);
+        TransactionTemplate transactionTemplate = JpaTestSupport.transactionTemplate(entityManagerFactory);
+        staff = transactionTemplate.execute(status -> userRepository.save(JpaTestSupport.user(UserRole.STAFF)));
+        mappingId = transactionTemplate.execute(status -> mappingRepository.save(
+                new CategoryStaffMapping(staff, HostelName.BLOCK_A, "PLUMBING_WATER", 1)).getId());
+
+        context = new AnnotationConfigApplicationContext();
+        // Registered as finished singletons so Spring does not try to autowire them
+        context.getBeanFactory().registerSingleton("categoryStaffMappingRepository", mappingRepository);
+        context.getBeanFactory().registerSingleton("transactionManager", new JpaTransactionManager(entityManagerFactory));
+        context.register(Config.class);
+        context.refresh();
+        staffMappingService = context.getBean(StaffMappingService.class);
+        cache = context.getBean(CacheManager.class).getCache(StaffMappingService.STAFF_MAPPING_CACHE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+        entityManagerFactory.close();
+    }
+
+    @Test
+    void updateReturnsTheSummaryWithTheStaffMember() {
+        cache.put("all", List.of());
+
+        StaffMappingSummary summary = staffMappingService.updateMapping(mappingId, null, 3, BigDecimal.valueOf(1.5), null)
+                .orElseThrow();
+
+        assertThat(summary.getStaffName()).isEqualTo(staff.getFirstName() + " " + staff.getLastName());
+        assertThat(summary.getStaffUsername()).isEqualTo(staff.getUsername());
+        assertThat(summary.getPriorityLevel()).isEqualTo(3);
+        assertThat(summary.getCapacityWeight()).isEqualByComparingTo("1.5");
+        assertThat(summary.getExpertiseLevel()).isEqualTo(1);
+        assertThat(mappingRepository.findById(mappingId).orElseThrow().getPriorityLevel()).isEqualTo(3);
+        assertThat(cache.get("all")).isNull();
+    }
+
+    @Test
+    void deactivatedAndUnknownMappingsAreNotUpdated() {
+        assertThat(staffMappingService.deactivateMapping(mappingId)).isTrue();
+        assertThat(mappingRepository.findById(mappingId).orElseThrow().getIsActive()).isFalse();
+
+        assertThat(staffMappingService.updateMapping(mappingId, null, 2, null, null)).isEmpty();
+        assertThat(staffMappingService.updateMapping(UUID.randomUUID(), null, 2, null, null)).isEmpty();
+        assertThat(staffMappingService.deactivateMapping(UUID.randomUUID())).isFalse();
+    }
+}
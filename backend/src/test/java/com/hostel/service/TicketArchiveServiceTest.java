@@ -0,0 +1,188 @@
+package com.hostel.service;
+
+import com.hostel.JpaTestSupport;
+import com.hostel.PostgresTestDatabase;
+import com.hostel.dto.TicketAccess;
+import com.hostel.dto.TicketDTO;
+import com.hostel.entity.Ticket;
+import com.hostel.entity.TicketStatus;
+import com.hostel.entity.User;
+import com.hostel.entity.UserRole;
+import com.hostel.repository.TicketRepository;
+import com.hostel.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The V10 child check surfaces as a foreign_key_violation (23503) under Spring's translation.
+ * On PostgreSQL: the mover takes only CLOSED and CANCELLED tickets unchanged since the cutoff,
+ * with their child rows, in bounded batches, and archived tickets stay readable and keep
+ * their numbers reserved.
+ */
+class TicketArchiveServiceTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.now().minusDays(180);
+
+    @Test
+    void foreignKeyViolationMeansTheTicketIsGone() {
+        assertThat(TicketArchiveService.isMissingTicket(translated("23503"))).isTrue();
+    }
+
+    @Test
+    void otherIntegrityViolationsAreNotMistakenForIt() {
+        assertThat(TicketArchiveService.isMissingTicket(translated("23505"))).isFalse();
+        assertThat(TicketArchiveService.isMissingTicket(new DataIntegrityViolationException("no cause"))).isFalse();
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = PostgresTestDatabase.URL_PROPERTY, matches = ".+")
+    void movesOldTerminalTicketsWithTheirChildRows() {
+        withDatabase(db -> {
+            UUID closed = db.ticket(TicketStatus.CLOSED, CUTOFF.minusDays(1));
+            UUID cancelled = db.ticket(TicketStatus.CANCELLED, CUTOFF.minusDays(1));
+            UUID resolved = db.ticket(TicketStatus.RESOLVED, CUTOFF.minusDays(1));
+            UUID recent = db.ticket(TicketStatus.CLOSED, CUTOFF.plusDays(1));
+            UUID open = db.ticket(TicketStatus.OPEN, CUTOFF.minusDays(1));
+            db.jdbc.update("INSERT INTO ticket_comments (id, ticket_id, user_id, comment, is_internal, created_at) "
+                    + "VALUES (?, ?, ?, 'fixed', false, now())", UUID.randomUUID(), closed, db.student.getId());
+            db.jdbc.update("INSERT INTO ticket_history (id, ticket_id, changed_by, field_name, new_value, changed_at) "
+                    + "VALUES (?, ?, ?, 'status', 'CLOSED', now())", UUID.randomUUID(), closed, db.student.getId());
+            db.jdbc.update("INSERT INTO notifications (id, created_at, is_read, message, title, type, user_id, "
+                    + "related_ticket_id) VALUES (?, now(), false, 'closed', 'title', 'IN_APP', ?, ?)",
+                    UUID.randomUUID(), db.student.getId(), closed);
+
+            assertThat(db.archive.archiveTicketsUnchangedSince(CUTOFF)).isEqualTo(2);
+
+            assertThat(db.count("tickets")).isEqualTo(3);
+            assertThat(db.jdbc.queryForList("SELECT id FROM tickets", UUID.class))
+                    .containsExactlyInAnyOrder(resolved, recent, open);
+            assertThat(db.jdbc.queryForList("SELECT id FROM tickets_archive WHERE archived_at IS NOT NULL", UUID.class))
+                    .containsExactlyInAnyOrder(closed, cancelled);
+            assertThat(db.count("ticket_comments")).isZero();
+            assertThat(db.count("ticket_history")).isZero();
+            assertThat(db.count("ticket_comments_archive")).isEqualTo(1);
+            assertThat(db.count("ticket_history_archive")).isEqualTo(1);
+            // The notification stays, without its link
+            assertThat(db.jdbc.queryForObject("SELECT count(*) FROM notifications WHERE related_ticket_id IS NULL",
+                    Integer.class)).isEqualTo(1);
+            assertThat(db.archive.archiveTicketsUnchangedSince(CUTOFF)).isZero();
+        });
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = PostgresTestDatabase.URL_PROPERTY, matches = ".+")
+    void archivedTicketsStayReadableAndKeepTheirNumber() {
+        withDatabase(db -> {
+            UUID closed = db.ticket(TicketStatus.CLOSED, CUTOFF.minusDays(1));
+            String number = db.jdbc.queryForObject("SELECT ticket_number FROM tickets WHERE id = ?", String.class, closed);
+
+            db.archive.archiveTicketsUnchangedSince(CUTOFF);
+
+            TicketAccess access = db.archive.findAccess(closed).orElseThrow();
+            assertThat(access.getCreatedById()).isEqualTo(db.student.getId());
+            assertThat(access.getStatus()).isEqualTo(TicketStatus.CLOSED);
+            TicketDTO ticket = db.archive.findTicket(closed).orElseThrow();
+            assertThat(ticket.getTicketNumber()).isEqualTo(number);
+            assertThat(ticket.getCreatedBy().getId()).isEqualTo(db.student.getId().toString());
+            assertThat(ticket.isArchived()).isTrue();
+            assertThat(db.archive.findAccess(UUID.randomUUID())).isEmpty();
+
+            Ticket reuse = JpaTestSupport.ticket(db.student);
+            reuse.setTicketNumber(number);
+            assertThatThrownBy(() -> db.transactionTemplate.executeWithoutResult(status -> db.tickets.save(reuse)))
+                    .isInstanceOf(DataIntegrityViolationException.class);
+        });
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = PostgresTestDatabase.URL_PROPERTY, matches = ".+")
+    void aRunStopsAfterItsLastBatchAndParentsWaitForTheirChildren() {
+        withDatabase(db -> {
+            ReflectionTestUtils.setField(db.archive, "batchSize", 2);
+            ReflectionTestUtils.setField(db.archive, "maxBatchesPerRun", 2);
+            for (int i = 0; i < 4; i++) {
+                db.ticket(TicketStatus.CLOSED, CUTOFF.minusDays(10 + i));
+            }
+            UUID parent = db.ticket(TicketStatus.CLOSED, CUTOFF.minusDays(1));
+            UUID child = db.ticket(TicketStatus.CLOSED, CUTOFF.minusDays(1));
+            db.jdbc.update("UPDATE tickets SET parent_ticket_id = ? WHERE id = ?", parent, child);
+
+            // Oldest first: the four older tickets fill both batches
+            assertThat(db.archive.archiveTicketsUnchangedSince(CUTOFF)).isEqualTo(4);
+            assertThat(db.jdbc.queryForList("SELECT id FROM tickets", UUID.class)).containsExactlyInAnyOrder(parent, child);
+
+            // The parent is held back while its child is live, and moves on the following run
+            assertThat(db.archive.archiveTicketsUnchangedSince(CUTOFF)).isEqualTo(1);
+            assertThat(db.jdbc.queryForList("SELECT id FROM tickets", UUID.class)).containsExactly(parent);
+            assertThat(db.archive.archiveTicketsUnchangedSince(CUTOFF)).isEqualTo(1);
+            assertThat(db.count("tickets")).isZero();
+        });
+    }
+
+    private static void withDatabase(Consumer<Database> test) {
+        Database db = new Database(PostgresTestDatabase.migrated());
+        try {
+            test.accept(db);
+        } finally {
+            db.entityManagerFactory.close();
+        }
+    }
+
+    private static class Database {
+        private final EntityManagerFactory entityManagerFactory;
+        private final JdbcTemplate jdbc;
+        private final TransactionTemplate transactionTemplate;
+        private final TicketRepository tickets;
+        private final TicketArchiveService archive;
+        private final User student;
+
+        Database(DataSource dataSource) {
+            entityManagerFactory = JpaTestSupport.entityManagerFactory(dataSource, Map.of());
+            jdbc = new JdbcTemplate(dataSource);
+            transactionTemplate = JpaTestSupport.transactionTemplate(entityManagerFactory);
+            tickets = JpaTestSupport.repository(entityManagerFactory, TicketRepository.class);
+            UserRepository users = JpaTestSupport.repository(entityManagerFactory, UserRepository.class);
+            student = transactionTemplate.execute(status -> users.save(JpaTestSupport.user(UserRole.STUDENT)));
+
+            archive = new TicketArchiveService(new JpaTransactionManager(entityManagerFactory));
+            ReflectionTestUtils.setField(archive, "jdbcTemplate", new NamedParameterJdbcTemplate(dataSource));
+            ReflectionTestUtils.setField(archive, "userRepository", users);
+            ReflectionTestUtils.setField(archive, "batchSize", 200);
+            ReflectionTestUtils.setField(archive, "maxBatchesPerRun", 10);
+        }
+
+        UUID ticket(TicketStatus status, LocalDateTime updatedAt) {
+            UUID id = transactionTemplate.execute(tx -> tickets.save(JpaTestSupport.ticket(student)).getId());
+            jdbc.update("UPDATE tickets SET status = ?, updated_at = ? WHERE id = ?", status.name(), updatedAt, id);
+            return id;
+        }
+
+        int count(String table) {
+            return jdbc.queryForObject("SELECT count(*) FROM " + table, Integer.class);
+        }
+    }
+
+    private static DataIntegrityViolationException translated(String sqlState) {
+        SQLException sql = new SQLException("ticket does not exist or has been archived", sqlState);
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", sql, null));
+    }
+}
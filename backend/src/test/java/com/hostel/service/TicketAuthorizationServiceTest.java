@@ -0,0 +1,158 @@
+package com.hostel.service;
+
+import com.hostel.JpaTestSupport;
+import com.hostel.PostgresTestDatabase;
+import com.hostel.dto.TicketAccess;
+import com.hostel.dto.UserSummary;
+import com.hostel.entity.Ticket;
+import com.hostel.entity.TicketStatus;
+import com.hostel.entity.User;
+import com.hostel.entity.UserRole;
+import com.hostel.repository.TicketRepository;
+import com.hostel.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Who may see a ticket and its history, decided from the TicketAccess projection, and the
+ * projection itself: looked up once per request, from the archive when the ticket moved there
+ */
+class TicketAuthorizationServiceTest {
+
+    private static final UUID STUDENT_ID = UUID.randomUUID();
+    private static final UUID STAFF_ID = UUID.randomUUID();
+
+    private final TicketRepository ticketRepository = mock(TicketRepository.class);
+    private final TicketArchiveService ticketArchiveService = mock(TicketArchiveService.class);
+    private final TicketAuthorizationService authorizationService = authorizationService();
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void studentsSeeTheirOwnTicketsAndTheirHistory() {
+        TicketAccess own = new TicketAccess(UUID.randomUUID(), STUDENT_ID, STAFF_ID, TicketStatus.ASSIGNED);
+        TicketAccess other = new TicketAccess(UUID.randomUUID(), UUID.randomUUID(), null, TicketStatus.OPEN);
+
+        assertThat(authorizationService.canView(user(STUDENT_ID, UserRole.STUDENT), own)).isTrue();
+        assertThat(authorizationService.canViewHistory(user(STUDENT_ID, UserRole.STUDENT), own)).isTrue();
+        assertThat(authorizationService.canView(user(STUDENT_ID, UserRole.STUDENT), other)).isFalse();
+        assertThat(authorizationService.canViewHistory(user(STUDENT_ID, UserRole.STUDENT), other)).isFalse();
+    }
+
+    @Test
+    void staffSeeUnassignedTicketsButOnlyTheHistoryOfTheirOwn() {
+        TicketAccess unassigned = new TicketAccess(UUID.randomUUID(), STUDENT_ID, null, TicketStatus.OPEN);
+        TicketAccess theirs = new TicketAccess(UUID.randomUUID(), STUDENT_ID, STAFF_ID, TicketStatus.ASSIGNED);
+        TicketAccess someoneElses = new TicketAccess(UUID.randomUUID(), STUDENT_ID, UUID.randomUUID(),
+                TicketStatus.ASSIGNED);
+        UserSummary staff = user(STAFF_ID, UserRole.STAFF);
+
+        assertThat(authorizationService.canView(staff, unassigned)).isTrue();
+        assertThat(authorizationService.canViewHistory(staff, unassigned)).isFalse();
+        assertThat(authorizationService.canView(staff, theirs)).isTrue();
+        assertThat(authorizationService.canViewHistory(staff, theirs)).isTrue();
+        assertThat(authorizationService.canView(staff, someoneElses)).isFalse();
+        assertThat(authorizationService.canViewHistory(staff, someoneElses)).isFalse();
+    }
+
+    @Test
+    void adminsSeeEverything() {
+        TicketAccess access = new TicketAccess(UUID.randomUUID(), STUDENT_ID, STAFF_ID, TicketStatus.CLOSED);
+
+        assertThat(authorizationService.canView(user(UUID.randomUUID(), UserRole.ADMIN), access)).isTrue();
+        assertThat(authorizationService.canViewHistory(user(UUID.randomUUID(), UserRole.ADMIN), access)).isTrue();
+    }
+
+    @Test
+    void projectionIsLookedUpOncePerRequestFoundOrNot() {
+        UUID ticketId = UUID.randomUUID();
+        UUID missingId = UUID.randomUUID();
+        TicketAccess access = new TicketAccess(ticketId, STUDENT_ID, null, TicketStatus.OPEN);
+        when(ticketRepository.findAccessById(ticketId)).thenReturn(Optional.of(access));
+        when(ticketRepository.findAccessById(missingId)).thenReturn(Optional.empty());
+        when(ticketArchiveService.findAccess(missingId)).thenReturn(Optional.empty());
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertThat(authorizationService.getAccess(ticketId)).isSameAs(access);
+        assertThat(authorizationService.getAccess(ticketId)).isSameAs(access);
+        assertThat(authorizationService.getAccess(missingId)).isNull();
+        assertThat(authorizationService.getAccess(missingId)).isNull();
+        verify(ticketRepository, times(1)).findAccessById(ticketId);
+        verify(ticketArchiveService, times(1)).findAccess(missingId);
+
+        // A new request, or none (scheduled jobs), looks it up again
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        authorizationService.getAccess(ticketId);
+        RequestContextHolder.resetRequestAttributes();
+        authorizationService.getAccess(ticketId);
+        verify(ticketRepository, times(3)).findAccessById(ticketId);
+    }
+
+    @Test
+    void archivedTicketsKeepTheirAccessRules() {
+        UUID ticketId = UUID.randomUUID();
+        TicketAccess archived = new TicketAccess(ticketId, STUDENT_ID, STAFF_ID, TicketStatus.CLOSED);
+        when(ticketRepository.findAccessById(ticketId)).thenReturn(Optional.empty());
+        when(ticketArchiveService.findAccess(ticketId)).thenReturn(Optional.of(archived));
+
+        assertThat(authorizationService.getAccess(ticketId)).isSameAs(archived);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = PostgresTestDatabase.URL_PROPERTY, matches = ".+")
+    void projectionFindsUnassignedTickets() {
+        EntityManagerFactory entityManagerFactory =
+                JpaTestSupport.entityManagerFactory(PostgresTestDatabase.migrated(), Map.of());
+        try {
+            TicketRepository repository = JpaTestSupport.repository(entityManagerFactory, TicketRepository.class);
+            UserRepository userRepository = JpaTestSupport.repository(entityManagerFactory, UserRepository.class);
+            TransactionTemplate transactionTemplate = JpaTestSupport.transactionTemplate(entityManagerFactory);
+            Ticket ticket = transactionTemplate.execute(status -> {
+                User student = userRepository.save(JpaTestSupport.user(UserRole.STUDENT));
+                return repository.save(JpaTestSupport.ticket(student));
+            });
+
+            // An inner join on assigned_to would lose the unassigned ticket
+            TicketAccess access = transactionTemplate.execute(status ->
+                    repository.findAccessById(ticket.getId()).orElseThrow());
+
+            assertThat(access.getCreatedById()).isEqualTo(ticket.getCreatedBy().getId());
+            assertThat(access.isUnassigned()).isTrue();
+            assertThat(access.getStatus()).isEqualTo(TicketStatus.OPEN);
+            assertThat(repository.findAccessById(UUID.randomUUID())).isEmpty();
+        } finally {
+            entityManagerFactory.close();
+        }
+    }
+
+    private TicketAuthorizationService authorizationService() {
+        TicketAuthorizationService service = new TicketAuthorizationService();
+        ReflectionTestUtils.setField(service, "ticketRepository", ticketRepository);
+        ReflectionTestUtils.setField(service, "ticketArchiveService", ticketArchiveService);
+        return service;
+    }
+
+    private static UserSummary user(UUID id, UserRole role) {
+        return new UserSummary(id, role, null, null, true);
+    }
+}
@@ -0,0 +1,133 @@
+package com.hostel.service;
+
+import com.hostel.JpaTestSupport;
+import com.hostel.PostgresTestDatabase;
+import com.hostel.entity.User;
+import com.hostel.entity.UserRole;
+import com.hostel.repository.TicketRepository;
+import com.hostel.repository.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 1, 4 and 16 threads reassigning the same few tickets through TicketService.assignTicket,
+ * i.e. with the @Version check and OptimisticRetryService's retries and backoff: reports
+ * throughput, retries and the updates that still conflicted after the last attempt.
+ * Runs on in-memory H2, or on PostgreSQL with -Dpostgres.url (see PostgresTestDatabase); run
+ * with: mvn test -Dtest=TicketContentionBenchmarkTest -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class TicketContentionBenchmarkTest {
+
+    private static final int TICKETS = 8;
+    private static final int UPDATES_PER_THREAD = 200;
+
+    @Test
+    void concurrentAssignments() throws Exception {
+        boolean postgres = System.getProperty(PostgresTestDatabase.URL_PROPERTY) != null;
+        HikariDataSource dataSource = new HikariDataSource();
+        if (postgres) {
+            PostgresTestDatabase.migrated();
+            dataSource.setJdbcUrl(System.getProperty(PostgresTestDatabase.URL_PROPERTY));
+            dataSource.setUsername(System.getProperty("postgres.user", "postgres"));
+            dataSource.setPassword(System.getProperty("postgres.password", ""));
+        } else {
+            dataSource.setJdbcUrl("jdbc:h2:mem:contention;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        }
+        // As many connections as writers, so that the conflicts come from the tickets, not the pool
+        dataSource.setMaximumPoolSize(16);
+        EntityManagerFactory entityManagerFactory = JpaTestSupport.entityManagerFactory(dataSource,
+                Map.of("hibernate.hbm2ddl.auto", postgres ? "validate" : "create"));
+        try {
+            TicketRepository ticketRepository = JpaTestSupport.repository(entityManagerFactory, TicketRepository.class);
+            UserRepository userRepository = JpaTestSupport.repository(entityManagerFactory, UserRepository.class);
+            TransactionTemplate transactionTemplate = JpaTestSupport.transactionTemplate(entityManagerFactory);
+            List<UUID> staff = new ArrayList<>();
+            List<UUID> tickets = transactionTemplate.execute(status -> {
+                User student = userRepository.save(JpaTestSupport.user(UserRole.STUDENT));
+                for (int i = 0; i < 16; i++) {
+                    staff.add(userRepository.save(JpaTestSupport.user(UserRole.STAFF)).getId());
+                }
+                List<UUID> ids = new ArrayList<>();
+                for (int i = 0; i < TICKETS; i++) {
+                    ids.add(ticketRepository.save(JpaTestSupport.ticket(student)).getId());
+                }
+                return ids;
+            });
+
+            // The first single-writer round only warms up the JIT and Hibernate's caches
+            int[] rounds = {1, 1, 4, 16};
+            for (int round = 0; round < rounds.length; round++) {
+                int threads = rounds[round];
+                SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+                TicketService ticketService = new TicketService();
+                ReflectionTestUtils.setField(ticketService, "ticketRepository", ticketRepository);
+                ReflectionTestUtils.setField(ticketService, "userRepository", userRepository);
+                UserService userService = new UserService();
+                ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+                ReflectionTestUtils.setField(ticketService, "userService", userService);
+                // Production settings: 3 attempts, 20 ms base backoff
+                ReflectionTestUtils.setField(ticketService, "optimisticRetryService", OptimisticRetryServiceTest
+                        .retryService(new JpaTransactionManager(entityManagerFactory), meterRegistry, 3, 20));
+
+                AtomicInteger conflicts = new AtomicInteger();
+                ExecutorService pool = Executors.newFixedThreadPool(threads);
+                long start = System.nanoTime();
+                List<Future<?>> writers = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    UUID assignee = staff.get(t);
+                    writers.add(pool.submit(() -> {
+                        for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                            UUID ticketId = tickets.get(ThreadLocalRandom.current().nextInt(TICKETS));
+                            try {
+                                ticketService.assignTicket(ticketId, assignee);
+                            } catch (OptimisticLockingFailureException e) {
+                                conflicts.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> writer : writers) {
+                    writer.get();
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                pool.shutdown();
+
+                if (round == 0) {
+                    continue;
+                }
+                int updates = threads * UPDATES_PER_THREAD;
+                double retries = meterRegistry.counter("tickets.optimistic_lock.retries").count();
+                System.out.printf("%s, %2d threads on %d tickets: %,8.0f updates/s, %,6.0f retries (%.2f per update),"
+                                + " %,5d still conflicting%n",
+                        postgres ? "postgres" : "h2", threads, TICKETS, updates / seconds, retries,
+                        retries / updates, conflicts.get());
+                assertThat(meterRegistry.counter("tickets.optimistic_lock.conflicts").count())
+                        .isEqualTo(conflicts.get());
+            }
+        } finally {
+            entityManagerFactory.close();
+            dataSource.close();
+        }
+    }
+}
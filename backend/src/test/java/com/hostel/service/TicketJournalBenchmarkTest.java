@@ -0,0 +1,79 @@
+package com.hostel.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Journal append throughput with fsync per transaction, for 1, 4 and 16 concurrent writers
+ * (group commit shares a force() between them). Measures whatever disk holds the temp
+ * directory; run with: mvn test -Dtest=TicketJournalBenchmarkTest -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class TicketJournalBenchmarkTest {
+
+    private static final int EVENTS_PER_TRANSACTION = 3;
+    private static final int TRANSACTIONS_PER_RUN = 4000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendThroughput() throws Exception {
+        for (int threads : new int[] {1, 4, 16}) {
+            TicketJournal journal = new TicketJournal();
+            ReflectionTestUtils.setField(journal, "directory", dir.resolve("writers-" + threads).toString());
+            ReflectionTestUtils.setField(journal, "segmentBytes", 16 * 1024 * 1024);
+            journal.open();
+            try {
+                ExecutorService pool = Executors.newFixedThreadPool(threads);
+                int perThread = TRANSACTIONS_PER_RUN / threads;
+                long start = System.nanoTime();
+                List<Future<?>> writers = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    long base = (long) t * perThread;
+                    writers.add(pool.submit(() -> {
+                        for (int i = 0; i < perThread; i++) {
+                            journal.append(base + i, transaction());
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> writer : writers) {
+                    writer.get();
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                pool.shutdown();
+
+                long events = (long) perThread * threads * EVENTS_PER_TRANSACTION;
+                System.out.printf("journal append, %2d writers: %,10.0f events/s, %,8.0f transactions/s%n",
+                        threads, events / seconds, events / EVENTS_PER_TRANSACTION / seconds);
+                assertThat(journal.read(journal.getCheckpoint(), Integer.MAX_VALUE).entries()).hasSize((int) events);
+            } finally {
+                journal.close();
+            }
+        }
+    }
+
+    private static List<TicketEvent> transaction() {
+        UUID ticketId = UUID.randomUUID();
+        UUID actor = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        return List.of(
+                new TicketEvent(UUID.randomUUID(), ticketId, "status", "OPEN", "IN_PROGRESS", actor, now),
+                new TicketEvent(UUID.randomUUID(), ticketId, "assignedTo", null, UUID.randomUUID().toString(), actor, now),
+                new TicketEvent(UUID.randomUUID(), ticketId, "priority", "LOW", "HIGH", actor, now));
+    }
+}
@@ -0,0 +1,143 @@
+package com.hostel.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Shipping decisions for write-ahead events: store committed, drop aborted, wait for in-progress.
+ */
+class TicketJournalShipperTest {
+
+    @TempDir
+    Path dir;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final Map<Long, String> statuses = new HashMap<>();
+    private final List<TicketEvent> inserted = new ArrayList<>();
+    private TicketJournal journal;
+    private TicketJournalShipper shipper;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        journal = new TicketJournal();
+        ReflectionTestUtils.setField(journal, "directory", dir.toString());
+        ReflectionTestUtils.setField(journal, "segmentBytes", 64 * 1024);
+        journal.open();
+        shipper = new TicketJournalShipper();
+        ReflectionTestUtils.setField(shipper, "journal", journal);
+        ReflectionTestUtils.setField(shipper, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(shipper, "batchSize", 500);
+
+        // txid_status lookup answered from the statuses map
+        doAnswer(invocation -> {
+            Object[][] ids = new Object[1][];
+            PreparedStatement statement = mock(PreparedStatement.class);
+            Connection connection = mock(Connection.class);
+            when(statement.getConnection()).thenReturn(connection);
+            when(connection.createArrayOf(eq("bigint"), any())).thenAnswer(call -> {
+                ids[0] = call.getArgument(1);
+                return null;
+            });
+            invocation.<PreparedStatementSetter>getArgument(1).setValues(statement);
+            RowCallbackHandler handler = invocation.getArgument(2);
+            for (Object id : ids[0]) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("id")).thenReturn((Long) id);
+                when(rs.getString("status")).thenReturn(statuses.get((Long) id));
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(PreparedStatementSetter.class), any(RowCallbackHandler.class));
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    inserted.addAll(invocation.<Collection<TicketEvent>>getArgument(1));
+                    return new int[0][];
+                });
+    }
+
+    @AfterEach
+    void closeJournal() throws IOException {
+        journal.close();
+    }
+
+    @Test
+    void storesCommittedAndDropsRolledBackEvents() throws IOException {
+        TicketEvent committed = event("committed");
+        TicketEvent aborted = event("aborted");
+        journal.append(10, List.of(committed));
+        journal.append(11, List.of(aborted));
+        statuses.put(10L, "committed");
+        statuses.put(11L, "aborted");
+
+        shipper.ship();
+
+        assertThat(inserted).containsExactly(committed);
+        assertThat(journal.read(journal.getCheckpoint(), 10).entries()).isEmpty();
+    }
+
+    @Test
+    void waitsForATransactionThatIsStillInProgress() throws IOException {
+        TicketEvent before = event("before");
+        TicketEvent pending = event("pending");
+        TicketEvent after = event("after");
+        journal.append(20, List.of(before));
+        journal.append(21, List.of(pending));
+        journal.append(22, List.of(after));
+        statuses.put(20L, "committed");
+        statuses.put(21L, "in progress");
+        statuses.put(22L, "committed");
+
+        shipper.ship();
+        assertThat(inserted).containsExactly(before);
+        assertThat(journal.read(journal.getCheckpoint(), 10).entries())
+                .extracting(TicketJournal.Entry::event).containsExactly(pending, after);
+
+        statuses.put(21L, "committed");
+        shipper.ship();
+        assertThat(inserted).containsExactly(before, pending, after);
+    }
+
+    @Test
+    void shipsEventsWhoseOutcomeIsNoLongerKnown() throws IOException {
+        TicketEvent old = event("old");
+        journal.append(30, List.of(old));
+
+        shipper.ship();
+
+        assertThat(inserted).containsExactly(old);
+    }
+
+    private static TicketEvent event(String field) {
+        return new TicketEvent(UUID.randomUUID(), UUID.randomUUID(), field, null, "value", null, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,194 @@
+package com.hostel.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Crash recovery of the file journal: torn tails, damaged records and replay from the checkpoint.
+ */
+class TicketJournalTest {
+
+    private static final int SEGMENT_BYTES = 64 * 1024;
+    private static final TicketJournal.Position START = new TicketJournal.Position(0, 0);
+
+    @TempDir
+    Path dir;
+
+    private TicketJournal journal;
+
+    @AfterEach
+    void closeJournal() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void readsBackEventsWithTheirTransaction() throws IOException {
+        journal = open(SEGMENT_BYTES);
+        TicketEvent first = event(1);
+        TicketEvent second = new TicketEvent(UUID.randomUUID(), UUID.randomUUID(), "description", null,
+                "ünïcode " + "x".repeat(70_000 / 2), null, LocalDateTime.of(2024, 1, 2, 3, 4, 5, 6));
+        journal.append(41, List.of(first));
+        journal.append(42, List.of(second));
+
+        TicketJournal.Batch batch = journal.read(START, 10);
+
+        assertThat(batch.entries()).extracting(TicketJournal.Entry::transactionId).containsExactly(41L, 42L);
+        assertThat(batch.entries()).extracting(TicketJournal.Entry::event).containsExactly(first, second);
+        assertThat(batch.next()).isEqualTo(batch.entries().get(1).end());
+    }
+
+    @Test
+    void dropsATornTailOnRestartAndAppendsAfterTheLastIntactRecord() throws IOException {
+        journal = open(SEGMENT_BYTES);
+        journal.append(1, List.of(event(1), event(2)));
+        TicketJournal.Position end = journal.read(START, 10).next();
+        journal.close();
+
+        // A crash mid-append: header written, payload cut short
+        writeAt(segment(0), end.offset(), ByteBuffer.allocate(24).putInt(120).putInt(0x5eed).putLong(7).putLong(9).flip());
+
+        journal = open(SEGMENT_BYTES);
+        assertThat(events(journal.read(START, 10))).extracting(TicketEvent::field).containsExactly("field-1", "field-2");
+        assertThat(readAt(segment(0), end.offset(), 24)).containsOnly((byte) 0);
+
+        journal.append(2, List.of(event(3)));
+        assertThat(events(journal.read(START, 10))).extracting(TicketEvent::field)
+                .containsExactly("field-1", "field-2", "field-3");
+    }
+
+    @Test
+    void stopsAtACrcMismatchInTheLastSegment() throws IOException {
+        journal = open(SEGMENT_BYTES);
+        journal.append(1, List.of(event(1)));
+        TicketJournal.Position afterFirst = journal.read(START, 10).next();
+        journal.append(2, List.of(event(2), event(3)));
+        journal.close();
+
+        flipByte(segment(0), afterFirst.offset() + 20);
+
+        journal = open(SEGMENT_BYTES);
+        TicketJournal.Batch batch = journal.read(START, 10);
+        assertThat(events(batch)).extracting(TicketEvent::field).containsExactly("field-1");
+        assertThat(batch.next()).isEqualTo(afterFirst);
+
+        journal.append(3, List.of(event(4)));
+        assertThat(events(journal.read(START, 10))).extracting(TicketEvent::field).containsExactly("field-1", "field-4");
+    }
+
+    @Test
+    void skipsTheDamagedRestOfASealedSegment() throws IOException {
+        journal = open(1024);
+        List<TicketJournal.Entry> written = new ArrayList<>();
+        for (int i = 0; written.isEmpty() || written.get(written.size() - 1).end().segment() < 2; i++) {
+            journal.append(i, List.of(event(i)));
+            written = journal.read(START, 1000).entries();
+        }
+        List<TicketJournal.Entry> firstSegment = written.stream().filter(e -> e.end().segment() == 0).toList();
+        assertThat(firstSegment.size()).isGreaterThan(2);
+        flipByte(segment(0), firstSegment.get(0).end().offset() + 20);
+
+        TicketJournal.Batch batch = journal.read(START, 1000);
+
+        // The first record survives, the damaged rest of segment 0 is skipped, later segments are intact
+        List<TicketJournal.Entry> expected = new ArrayList<>();
+        expected.add(firstSegment.get(0));
+        expected.addAll(written.subList(firstSegment.size(), written.size()));
+        assertThat(batch.entries()).isEqualTo(expected);
+        assertThat(batch.next()).isEqualTo(written.get(written.size() - 1).end());
+    }
+
+    @Test
+    void replaysFromTheCheckpointAfterRestart() throws IOException {
+        journal = open(SEGMENT_BYTES);
+        for (int i = 1; i <= 5; i++) {
+            journal.append(i, List.of(event(i)));
+        }
+        TicketJournal.Batch shipped = journal.read(journal.getCheckpoint(), 3);
+        journal.acknowledge(shipped.next());
+        // Read but not acknowledged before the crash: must come back
+        journal.read(shipped.next(), 1);
+        journal.close();
+
+        journal = open(SEGMENT_BYTES);
+        assertThat(journal.getCheckpoint()).isEqualTo(shipped.next());
+        assertThat(events(journal.read(journal.getCheckpoint(), 10))).extracting(TicketEvent::field)
+                .containsExactly("field-4", "field-5");
+    }
+
+    @Test
+    void acknowledgingDeletesSegmentsBehindTheCheckpoint() throws IOException {
+        journal = open(1024);
+        int i = 0;
+        while (journal.read(START, 1000).next().segment() < 2) {
+            journal.append(i, List.of(event(i++)));
+        }
+        TicketJournal.Batch batch = journal.read(START, 1000);
+        journal.acknowledge(batch.next());
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files.map(path -> path.getFileName().toString()).filter(name -> name.startsWith("segment-")))
+                    .containsExactly(segment(batch.next().segment()).getFileName().toString());
+        }
+        assertThat(journal.read(journal.getCheckpoint(), 1000).entries()).isEmpty();
+    }
+
+    private TicketJournal open(int segmentBytes) throws IOException {
+        TicketJournal opened = new TicketJournal();
+        ReflectionTestUtils.setField(opened, "directory", dir.toString());
+        ReflectionTestUtils.setField(opened, "segmentBytes", segmentBytes);
+        opened.open();
+        return opened;
+    }
+
+    private Path segment(long number) {
+        return dir.resolve(String.format("segment-%020d.log", number));
+    }
+
+    private static TicketEvent event(int i) {
+        return new TicketEvent(UUID.randomUUID(), UUID.randomUUID(), "field-" + i, "old-" + i, "new-" + i,
+                UUID.randomUUID(), LocalDateTime.of(2024, 5, 1, 12, 0).plusSeconds(i));
+    }
+
+    private static List<TicketEvent> events(TicketJournal.Batch batch) {
+        return batch.entries().stream().map(TicketJournal.Entry::event).toList();
+    }
+
+    private static void writeAt(Path file, long offset, ByteBuffer data) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(data, offset);
+            channel.force(true);
+        }
+    }
+
+    private static byte[] readAt(Path file, long offset, int length) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.read(data, offset);
+        }
+        return data.array();
+    }
+
+    private static void flipByte(Path file, long offset) throws IOException {
+        byte[] value = readAt(file, offset, 1);
+        value[0] ^= (byte) 0xFF;
+        writeAt(file, offset, ByteBuffer.wrap(value));
+    }
+}
@@ -0,0 +1,236 @@
+package com.hostel.service;
+
+import com.hostel.JpaTestSupport;
+import com.hostel.PostgresTestDatabase;
+import com.hostel.dto.KeysetCursor;
+import com.hostel.dto.TicketCommentDTO;
+import com.hostel.dto.TicketHistoryDTO;
+import com.hostel.entity.TicketStatus;
+import com.hostel.entity.User;
+import com.hostel.entity.UserRole;
+import com.hostel.repository.TicketCommentRepository;
+import com.hostel.repository.TicketRepository;
+import com.hostel.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Keyset pages of a comment thread and an event log on PostgreSQL, live and after the ticket
+ * was archived: following nextCursor visits every row once, in (timestamp, id) order,
+ * including rows that share a timestamp across a page boundary. New comments are single
+ * inserts that leave the ticket row alone.
+ */
+@EnabledIfSystemProperty(named = PostgresTestDatabase.URL_PROPERTY, matches = ".+")
+class TicketKeysetPagingTest {
+
+    private static final int PAGE_SIZE = 2;
+
+    private EntityManagerFactory entityManagerFactory;
+    private JdbcTemplate jdbcTemplate;
+    private TicketArchiveService ticketArchiveService;
+    private TicketService ticketService;
+    private TransactionTemplate transactionTemplate;
+    private UUID ticketId;
+    private UUID studentId;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = PostgresTestDatabase.migrated();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        entityManagerFactory = JpaTestSupport.entityManagerFactory(dataSource, Map.of("hibernate.hbm2ddl.auto", "validate"));
+        TicketRepository ticketRepository = JpaTestSupport.repository(entityManagerFactory, TicketRepository.class);
+        UserRepository userRepository = JpaTestSupport.repository(entityManagerFactory, UserRepository.class);
+        transactionTemplate = JpaTestSupport.transactionTemplate(entityManagerFactory);
+
+        ticketArchiveService = new TicketArchiveService(new JpaTransactionManager(entityManagerFactory));
+        ReflectionTestUtils.setField(ticketArchiveService, "jdbcTemplate", new NamedParameterJdbcTemplate(dataSource));
+        ReflectionTestUtils.setField(ticketArchiveService, "batchSize", 200);
+        ReflectionTestUtils.setField(ticketArchiveService, "maxBatchesPerRun", 1);
+
+        ticketService = new TicketService();
+        ReflectionTestUtils.setField(ticketService, "ticketRepository", ticketRepository);
+        ReflectionTestUtils.setField(ticketService, "ticketCommentRepository",
+                JpaTestSupport.repository(entityManagerFactory, TicketCommentRepository.class));
+        ReflectionTestUtils.setField(ticketService, "ticketArchiveService", ticketArchiveService);
+        ReflectionTestUtils.setField(ticketService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(ticketService, "entityManager",
+                SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+        UserService userService = new UserService();
+        ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(ticketService, "userService", userService);
+
+        User student = transactionTemplate.execute(status -> userRepository.save(JpaTestSupport.user(UserRole.STUDENT)));
+        User staff = transactionTemplate.execute(status -> userRepository.save(JpaTestSupport.user(UserRole.STAFF)));
+        ticketId = transactionTemplate.execute(status -> ticketRepository.save(JpaTestSupport.ticket(student)).getId());
+        studentId = student.getId();
+
+        // Seven comments and events, three of each at the same instant, two of the comments internal notes
+        LocalDateTime start = LocalDateTime.of(2024, 1, 15, 10, 0);
+        LocalDateTime[] createdAt = {start, start.plusMinutes(1), start.plusMinutes(1), start.plusMinutes(1),
+                start.plusMinutes(2), start.plusMinutes(3), start.plusMinutes(4)};
+        for (int i = 0; i < createdAt.length; i++) {
+            boolean internal = i == 2 || i == 5;
+            jdbcTemplate.update("INSERT INTO ticket_comments (id, ticket_id, user_id, comment, is_internal, created_at) "
+                            + "VALUES (?, ?, ?, ?, ?, ?)", UUID.randomUUID(), ticketId,
+                    internal ? staff.getId() : student.getId(), "comment " + i, internal, createdAt[i]);
+            jdbcTemplate.update("INSERT INTO ticket_history (id, ticket_id, changed_by, field_name, new_value, changed_at) "
+                    + "VALUES (?, ?, ?, 'status', ?, ?)", UUID.randomUUID(), ticketId, staff.getId(), "v" + i, createdAt[i]);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManagerFactory.close();
+    }
+
+    @Test
+    void cursorWalksTheLiveThreadInOrder() {
+        assertThat(walkComments(true)).containsExactlyElementsOf(expectedCommentIds(true));
+        assertThat(walkComments(false)).hasSize(5).containsExactlyElementsOf(expectedCommentIds(false));
+    }
+
+    @Test
+    void cursorWalksTheArchivedThreadInOrder() {
+        List<UUID> all = expectedCommentIds(true);
+        List<UUID> publicOnly = expectedCommentIds(false);
+        archiveTicket();
+
+        assertThat(walkComments(true)).containsExactlyElementsOf(all);
+        assertThat(walkComments(false)).containsExactlyElementsOf(publicOnly);
+    }
+
+    @Test
+    void liveCommentCursorContinuesInTheArchive() {
+        List<UUID> all = expectedCommentIds(true);
+        Slice<TicketCommentDTO> first = ticketService.getTicketComments(ticketId, true, null, PAGE_SIZE);
+        archiveTicket();
+
+        Slice<TicketCommentDTO> second = ticketService.getTicketComments(ticketId, true,
+                cursor(first, TicketCommentDTO::getCreatedAt, TicketCommentDTO::getId), PAGE_SIZE);
+
+        assertThat(second.getContent()).extracting(TicketCommentDTO::getId).containsExactlyElementsOf(all.subList(2, 4));
+        assertThat(second.hasNext()).isTrue();
+    }
+
+    @Test
+    void cursorWalksTheLiveEventLogInOrder() {
+        assertThat(walkEvents()).hasSize(7).containsExactlyElementsOf(expectedEventIds());
+    }
+
+    @Test
+    void cursorWalksTheArchivedEventLogInOrder() {
+        List<UUID> all = expectedEventIds();
+        archiveTicket();
+
+        assertThat(walkEvents()).containsExactlyElementsOf(all);
+    }
+
+    @Test
+    void liveEventCursorContinuesInTheArchive() {
+        List<UUID> all = expectedEventIds();
+        Slice<TicketHistoryDTO> first = ticketService.getTicketEvents(ticketId, null, PAGE_SIZE);
+        archiveTicket();
+
+        Slice<TicketHistoryDTO> second = ticketService.getTicketEvents(ticketId,
+                cursor(first, TicketHistoryDTO::getChangedAt, TicketHistoryDTO::getId), PAGE_SIZE);
+
+        assertThat(second.getContent()).extracting(TicketHistoryDTO::getId).containsExactlyElementsOf(all.subList(2, 4));
+    }
+
+    @Test
+    void newCommentIsAppendedWithoutTouchingTheTicket() {
+        Long version = jdbcTemplate.queryForObject("SELECT version FROM tickets WHERE id = ?", Long.class, ticketId);
+
+        TicketCommentDTO added = transactionTemplate.execute(status ->
+                ticketService.addComment(ticketId, studentId, "  still leaking  ", false));
+
+        assertThat(added.getComment()).isEqualTo("still leaking");
+        assertThat(walkComments(false)).hasSize(6).endsWith(added.getId());
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM tickets WHERE id = ?", Long.class, ticketId))
+                .isEqualTo(version);
+    }
+
+    @Test
+    void archivedAndUnknownTicketsTakeNoComments() {
+        archiveTicket();
+
+        assertThatThrownBy(() -> addComment(ticketId, "hello"))
+                .hasMessage("Archived tickets cannot be commented on");
+        assertThatThrownBy(() -> addComment(UUID.randomUUID(), "hello")).hasMessage("Ticket not found");
+        assertThatThrownBy(() -> addComment(ticketId, "   ")).hasMessage("Comment cannot be empty");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM ticket_comments", Integer.class)).isZero();
+    }
+
+    private void addComment(UUID ticket, String comment) {
+        transactionTemplate.executeWithoutResult(status -> ticketService.addComment(ticket, studentId, comment, false));
+    }
+
+    private List<UUID> walkComments(boolean includeInternal) {
+        return walk(after -> ticketService.getTicketComments(ticketId, includeInternal, after, PAGE_SIZE),
+                TicketCommentDTO::getCreatedAt, TicketCommentDTO::getId);
+    }
+
+    private List<UUID> walkEvents() {
+        return walk(after -> ticketService.getTicketEvents(ticketId, after, PAGE_SIZE),
+                TicketHistoryDTO::getChangedAt, TicketHistoryDTO::getId);
+    }
+
+    // Follows nextCursor, as a client would, until the last page
+    private static <T> List<UUID> walk(Function<KeysetCursor, Slice<T>> fetch,
+                                       Function<T, LocalDateTime> at, Function<T, UUID> id) {
+        List<UUID> ids = new ArrayList<>();
+        KeysetCursor after = null;
+        do {
+            Slice<T> page = fetch.apply(after);
+            assertThat(page.getNumberOfElements()).isBetween(1, PAGE_SIZE);
+            page.forEach(row -> ids.add(id.apply(row)));
+            after = page.hasNext() ? cursor(page, at, id) : null;
+        } while (after != null);
+        return ids;
+    }
+
+    private static <T> KeysetCursor cursor(Slice<T> page, Function<T, LocalDateTime> at, Function<T, UUID> id) {
+        T last = page.getContent().get(page.getNumberOfElements() - 1);
+        // Through the wire format, as the controller hands it out
+        return KeysetCursor.decode(new KeysetCursor(at.apply(last), id.apply(last)).encode());
+    }
+
+    private List<UUID> expectedCommentIds(boolean includeInternal) {
+        return jdbcTemplate.queryForList("SELECT id FROM ticket_comments WHERE ticket_id = ? AND (? OR NOT is_internal) "
+                + "ORDER BY created_at, id", UUID.class, ticketId, includeInternal);
+    }
+
+    private List<UUID> expectedEventIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM ticket_history WHERE ticket_id = ? ORDER BY changed_at, id",
+                UUID.class, ticketId);
+    }
+
+    private void archiveTicket() {
+        jdbcTemplate.update("UPDATE tickets SET status = ?, updated_at = ? WHERE id = ?",
+                TicketStatus.CLOSED.name(), LocalDateTime.now().minusDays(1), ticketId);
+        assertThat(ticketArchiveService.archiveTicketsUnchangedSince(LocalDateTime.now())).isEqualTo(1);
+        assertThat(expectedCommentIds(true)).isEmpty();
+        assertThat(expectedEventIds()).isEmpty();
+    }
+}
@@ -0,0 +1,143 @@
+package com.hostel.service;
+
+import com.hostel.dto.UserSummary;
+import com.hostel.entity.Ticket;
+import com.hostel.entity.TicketStatus;
+import com.hostel.repository.TicketCommentRepository;
+import com.hostel.repository.TicketRepository;
+import com.hostel.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Status changes under a concurrent writer. TicketController answers
+ * OptimisticLockingFailureException with 409 and any other failure with 400, so a
+ * precondition that fails from the start must stay a plain exception while one that only
+ * fails after a retry (the other writer changed the ticket) must be a conflict.
+ */
+class TicketServiceConflictTest {
+
+    private static final UUID TICKET_ID = UUID.randomUUID();
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    private final TicketRepository ticketRepository = mock(TicketRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TicketEventLog ticketEventLog = mock(TicketEventLog.class);
+
+    private TicketService ticketService;
+
+    @BeforeEach
+    void setUp() {
+        CurrentUserService currentUserService = mock(CurrentUserService.class);
+        when(currentUserService.resolve(USER_ID)).thenReturn(new UserSummary());
+
+        ticketService = new TicketService();
+        ReflectionTestUtils.setField(ticketService, "ticketRepository", ticketRepository);
+        ReflectionTestUtils.setField(ticketService, "userRepository", mock(UserRepository.class));
+        ReflectionTestUtils.setField(ticketService, "ticketCommentRepository", mock(TicketCommentRepository.class));
+        ReflectionTestUtils.setField(ticketService, "currentUserService", currentUserService);
+        ReflectionTestUtils.setField(ticketService, "ticketEventLog", ticketEventLog);
+        ReflectionTestUtils.setField(ticketService, "optimisticRetryService",
+                OptimisticRetryServiceTest.retryService(mock(PlatformTransactionManager.class), meterRegistry, 3, 0));
+        when(ticketRepository.save(any(Ticket.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void conflictingStatusChangeIsReappliedToTheCommittedTicket() {
+        when(ticketRepository.findWithPeopleById(TICKET_ID))
+                .thenReturn(Optional.of(ticket(TicketStatus.IN_PROGRESS)), Optional.of(ticket(TicketStatus.ON_HOLD)));
+        when(ticketRepository.save(any(Ticket.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Ticket.class, TICKET_ID))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        Ticket resolved = ticketService.changeTicketStatus(TICKET_ID, TicketStatus.RESOLVED, null, USER_ID);
+
+        assertThat(resolved.getStatus()).isEqualTo(TicketStatus.RESOLVED);
+        verify(ticketRepository, times(2)).save(any(Ticket.class));
+        assertThat(meterRegistry.counter("tickets.optimistic_lock.retries").count()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidTransitionOnTheFirstAttemptIsABadRequest() {
+        when(ticketRepository.findWithPeopleById(TICKET_ID)).thenReturn(Optional.of(ticket(TicketStatus.CANCELLED)));
+
+        assertThatThrownBy(() -> ticketService.changeTicketStatus(TICKET_ID, TicketStatus.RESOLVED, null, USER_ID))
+                .isNotInstanceOf(OptimisticLockingFailureException.class)
+                .hasMessageContaining("Invalid status transition");
+        verify(ticketRepository, never()).save(any(Ticket.class));
+    }
+
+    @Test
+    void transitionInvalidatedByTheConflictingWriterIsAConflict() {
+        // The other writer cancelled the ticket between our read and our commit
+        when(ticketRepository.findWithPeopleById(TICKET_ID))
+                .thenReturn(Optional.of(ticket(TicketStatus.IN_PROGRESS)), Optional.of(ticket(TicketStatus.CANCELLED)));
+        when(ticketRepository.save(any(Ticket.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Ticket.class, TICKET_ID));
+
+        assertThatThrownBy(() -> ticketService.changeTicketStatus(TICKET_ID, TicketStatus.RESOLVED, null, USER_ID))
+                .isInstanceOf(OptimisticRetryService.StaleUpdateException.class)
+                .hasMessageContaining("Cancelled");
+        verify(ticketRepository, times(1)).save(any(Ticket.class));
+        assertThat(meterRegistry.counter("tickets.optimistic_lock.retries").count()).isEqualTo(1);
+    }
+
+    @Test
+    void retryFindingTheTargetStatusAlreadySetSucceeds() {
+        when(ticketRepository.findWithPeopleById(TICKET_ID))
+                .thenReturn(Optional.of(ticket(TicketStatus.IN_PROGRESS)), Optional.of(ticket(TicketStatus.RESOLVED)));
+        when(ticketRepository.save(any(Ticket.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Ticket.class, TICKET_ID))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThat(ticketService.changeTicketStatus(TICKET_ID, TicketStatus.RESOLVED, null, USER_ID).getStatus())
+                .isEqualTo(TicketStatus.RESOLVED);
+    }
+
+    @Test
+    void bulkUpdateRetriedPerTicketIsStillAttributedToTheAdmin() {
+        EntityManager entityManager = mock(EntityManager.class);
+        doThrow(new ObjectOptimisticLockingFailureException(Ticket.class, TICKET_ID)).when(entityManager).flush();
+        ReflectionTestUtils.setField(ticketService, "entityManager", entityManager);
+        ReflectionTestUtils.setField(ticketService, "transactionTemplate",
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(ticketService, "writeBatchSize", 50);
+        when(ticketRepository.findAllById(List.of(TICKET_ID))).thenReturn(List.of(ticket(TicketStatus.OPEN)));
+        when(ticketRepository.findById(TICKET_ID)).thenReturn(Optional.of(ticket(TicketStatus.OPEN)));
+
+        Map<UUID, String> results = ticketService.bulkUpdateTickets(List.of(TICKET_ID), USER_ID, ticket -> null);
+
+        assertThat(results).containsEntry(TICKET_ID, null);
+        // Once for the chunk, once for the ticket redone on its own
+        verify(ticketEventLog, times(2)).setActor(USER_ID);
+    }
+
+    private static Ticket ticket(TicketStatus status) {
+        Ticket ticket = new Ticket();
+        ticket.setId(TICKET_ID);
+        ticket.setStatus(status);
+        return ticket;
+    }
+}
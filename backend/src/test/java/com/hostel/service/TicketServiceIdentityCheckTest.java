@@ -0,0 +1,117 @@
+package com.hostel.service;
+
+import com.hostel.dto.UserSummary;
+import com.hostel.entity.Ticket;
+import com.hostel.entity.TicketStatus;
+import com.hostel.entity.User;
+import com.hostel.entity.UserRole;
+import com.hostel.repository.TicketRepository;
+import com.hostel.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Assignment and status changes decide from the cached UserSummary: a rejected request
+ * never touches the users table, and an accepted one only attaches a reference to the user.
+ */
+class TicketServiceIdentityCheckTest {
+
+    private static final UUID TICKET_ID = UUID.randomUUID();
+    private static final UUID STAFF_ID = UUID.randomUUID();
+    private static final UUID STUDENT_ID = UUID.randomUUID();
+
+    private final TicketRepository ticketRepository = mock(TicketRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserService userService = mock(UserService.class);
+    private final CurrentUserService currentUserService = mock(CurrentUserService.class);
+
+    private TicketService ticketService;
+    private Ticket ticket;
+
+    @BeforeEach
+    void setUp() {
+        UserSummary staff = new UserSummary(STAFF_ID, UserRole.STAFF, null, null, true);
+        when(userService.getUserSummary(STAFF_ID)).thenReturn(staff);
+        when(userService.getUserSummary(STUDENT_ID))
+                .thenReturn(new UserSummary(STUDENT_ID, UserRole.STUDENT, null, null, true));
+        when(currentUserService.resolve(STAFF_ID)).thenReturn(staff);
+
+        ticketService = new TicketService();
+        ReflectionTestUtils.setField(ticketService, "ticketRepository", ticketRepository);
+        ReflectionTestUtils.setField(ticketService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(ticketService, "userService", userService);
+        ReflectionTestUtils.setField(ticketService, "currentUserService", currentUserService);
+        ReflectionTestUtils.setField(ticketService, "ticketEventLog", mock(TicketEventLog.class));
+        ReflectionTestUtils.setField(ticketService, "optimisticRetryService", OptimisticRetryServiceTest.retryService(
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 3, 0));
+
+        ticket = new Ticket();
+        ticket.setId(TICKET_ID);
+        ticket.setStatus(TicketStatus.OPEN);
+        User creator = new User();
+        creator.setId(STUDENT_ID);
+        ticket.setCreatedBy(creator);
+        when(ticketRepository.findWithPeopleById(TICKET_ID)).thenReturn(Optional.of(ticket));
+        when(ticketRepository.save(any(Ticket.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void assigningToAStaffMemberOnlyAttachesAReference() {
+        User reference = new User();
+        reference.setId(STAFF_ID);
+        when(userRepository.getReferenceById(STAFF_ID)).thenReturn(reference);
+
+        Ticket assigned = ticketService.assignTicketToStaff(TICKET_ID, STAFF_ID);
+
+        assertThat(assigned.getAssignedTo()).isSameAs(reference);
+        assertThat(assigned.getStatus()).isEqualTo(TicketStatus.ASSIGNED);
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void assigningToANonStaffUserIsRejectedFromTheSummary() {
+        assertThatThrownBy(() -> ticketService.assignTicketToStaff(TICKET_ID, STUDENT_ID))
+                .hasMessage("User is not a staff member");
+
+        verifyNoInteractions(userRepository);
+        verify(ticketRepository, never()).save(any(Ticket.class));
+    }
+
+    @Test
+    void assigningToAnUnknownUserIsRejectedFromTheSummary() {
+        assertThatThrownBy(() -> ticketService.assignTicketToStaff(TICKET_ID, UUID.randomUUID()))
+                .hasMessage("Staff member not found");
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void staffCanOnlyChangeTheStatusOfTheirOwnTickets() {
+        ticket.setStatus(TicketStatus.ASSIGNED);
+
+        assertThatThrownBy(() -> ticketService.updateTicketStatus(TICKET_ID, TicketStatus.IN_PROGRESS, STAFF_ID))
+                .hasMessage("Staff can only update tickets assigned to them");
+
+        User assignee = new User();
+        assignee.setId(STAFF_ID);
+        ticket.setAssignedTo(assignee);
+        assertThat(ticketService.updateTicketStatus(TICKET_ID, TicketStatus.IN_PROGRESS, STAFF_ID).getStatus())
+                .isEqualTo(TicketStatus.IN_PROGRESS);
+        verifyNoInteractions(userRepository);
+    }
+}
@@ -0,0 +1,160 @@
+package com.hostel.service;
+
+import com.hostel.cache.EntityCacheInvalidator;
+import com.hostel.dto.UserSummary;
+import com.hostel.entity.User;
+import com.hostel.entity.UserRole;
+import com.hostel.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The user summary cache: repeated lookups are hits, and every user write evicts the entry
+ * so the next lookup reads the database. Updates also drop the staff mapping summaries,
+ * which carry staff names.
+ */
+class UserServiceCacheTest {
+
+    private AnnotationConfigApplicationContext context;
+    private UserRepository userRepository;
+    private EntityCacheInvalidator entityCacheInvalidator;
+    private UserService userService;
+    private User user;
+
+    @Configuration
+    @EnableCaching
+    static class Config {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(UserService.USER_SUMMARY_CACHE, StaffMappingService.STAFF_MAPPING_CACHE);
+        }
+
+        @Bean
+        UserService userService() {
+            return new UserService();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        entityCacheInvalidator = mock(EntityCacheInvalidator.class);
+        context = new AnnotationConfigApplicationContext();
+        // Registered as finished singletons so Spring does not try to autowire the mocks
+        context.getBeanFactory().registerSingleton("userRepository", userRepository);
+        context.getBeanFactory().registerSingleton("passwordHashingService", mock(PasswordHashingService.class));
+        context.getBeanFactory().registerSingleton("entityCacheInvalidator", entityCacheInvalidator);
+        context.register(Config.class);
+        context.refresh();
+        userService = context.getBean(UserService.class);
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setRole(UserRole.STAFF);
+        user.setIsActive(true);
+        when(userRepository.findById(user.getId())).thenAnswer(invocation -> Optional.of(copy(user)));
+        when(userRepository.findByIdFromDatabase(user.getId())).thenAnswer(invocation -> Optional.of(copy(user)));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            user = copy(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void repeatedLookupsAreServedFromTheCache() {
+        UserSummary first = userService.getUserSummary(user.getId());
+        UserSummary second = userService.getUserSummary(user.getId());
+
+        assertThat(second).isSameAs(first);
+        verify(userRepository, times(1)).findByIdFromDatabase(user.getId());
+    }
+
+    @Test
+    void updateUserEvictsTheSummary() {
+        assertThat(userService.getUserSummary(user.getId()).getRole()).isEqualTo(UserRole.STAFF);
+
+        User details = copy(user);
+        details.setRole(UserRole.ADMIN);
+        userService.updateUser(user.getId(), details);
+
+        assertThat(userService.getUserSummary(user.getId()).getRole()).isEqualTo(UserRole.ADMIN);
+    }
+
+    @Test
+    void updateUserEvictsStaffMappingSummaries() {
+        Cache mappings = context.getBean(CacheManager.class).getCache(StaffMappingService.STAFF_MAPPING_CACHE);
+        mappings.put("staff:" + user.getId(), List.of());
+
+        userService.updateUser(user.getId(), copy(user));
+
+        assertThat(mappings.get("staff:" + user.getId())).isNull();
+    }
+
+    @Test
+    void statusChangesEvictTheSummary() {
+        assertThat(userService.getUserSummary(user.getId()).getIsActive()).isTrue();
+        when(userRepository.updateUserStatus(eq(user.getId()), eq(false), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> {
+                    user.setIsActive(false);
+                    return 1;
+                });
+
+        userService.toggleUserStatus(user.getId());
+
+        assertThat(userService.getUserSummary(user.getId()).getIsActive()).isFalse();
+    }
+
+    @Test
+    void missesAreNotCached() {
+        UUID unknown = UUID.randomUUID();
+        when(userRepository.findByIdFromDatabase(unknown)).thenReturn(Optional.empty());
+
+        assertThat(userService.getUserSummary(unknown)).isNull();
+        assertThat(userService.getUserSummary(unknown)).isNull();
+        verify(userRepository, times(2)).findByIdFromDatabase(unknown);
+    }
+
+    @Test
+    void statusChangesReachTheOtherNodesSecondLevelCaches() {
+        when(userRepository.updateUserStatus(eq(user.getId()), eq(false), any(LocalDateTime.class))).thenReturn(1);
+
+        userService.toggleUserStatus(user.getId());
+
+        verify(entityCacheInvalidator).evictAfterCommit(User.class, user.getId());
+    }
+
+    private static User copy(User source) {
+        User copy = new User();
+        copy.setId(source.getId());
+        copy.setRole(source.getRole());
+        copy.setIsActive(source.getIsActive());
+        copy.setFirstName(source.getFirstName());
+        copy.setLastName(source.getLastName());
+        return copy;
+    }
+}
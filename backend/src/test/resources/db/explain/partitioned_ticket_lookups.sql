@@ -0,0 +1,172 @@
+-- Cost of by-id ticket lookups on the partitioned tickets table (V4) and of the reference
+-- checks that stand in for its foreign keys (V10, V13), on generated data. Run against a scratch database migrated to the latest
+-- version; everything happens in one transaction that is rolled back:
+--
+--   psql -d hostel_scratch -v months=24 -v per_month=20000 -f partitioned_ticket_lookups.sql
+--
+-- By-id queries (findById, findWithPeopleById, findAccessById, findVersionById, existsById,
+-- Hibernate's versioned UPDATE, the V10 and V13 triggers) cannot prune: the plan shows one index probe
+-- per monthly partition. Adding created_at prunes to a single partition. The timing block at
+-- the end reports the per-lookup cost of both forms.
+
+\set ON_ERROR_STOP on
+\if :{?months}
+\else
+\set months 24
+\endif
+\if :{?per_month}
+\else
+\set per_month 20000
+\endif
+
+BEGIN;
+
+SELECT set_config('explain.months', :'months', true), set_config('explain.per_month', :'per_month', true);
+
+-- Monthly partitions back to the first generated month
+DO $$
+DECLARE
+    month_start date := (date_trunc('month', now()) - make_interval(months => current_setting('explain.months')::int - 1))::date;
+BEGIN
+    WHILE month_start <= date_trunc('month', now())::date LOOP
+        IF to_regclass('tickets_p' || to_char(month_start, 'YYYY_MM')) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF tickets FOR VALUES FROM (%L) TO (%L)',
+                           'tickets_p' || to_char(month_start, 'YYYY_MM'),
+                           month_start, (month_start + interval '1 month')::date);
+        END IF;
+        month_start := (month_start + interval '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO users (id, created_at, email, first_name, is_active, last_name, password_hash, role, updated_at, username)
+VALUES ('00000000-0000-0000-0000-0000000000e1', now(), 'explain@example.invalid', 'Explain', true, 'Script',
+        'x', 'STUDENT', now(), 'explain-script');
+
+INSERT INTO tickets (id, created_at, updated_at, description, hostel_block, priority, status, ticket_number, title, created_by)
+SELECT gen_random_uuid(),
+       date_trunc('month', now()) - make_interval(months => m) + (random() * interval '27 days'),
+       now(),
+       'generated', 1 + (g % 8), 'MEDIUM', CASE WHEN g % 5 = 0 THEN 'CLOSED' ELSE 'OPEN' END,
+       'EXP-' || m || '-' || g, 'generated ticket', '00000000-0000-0000-0000-0000000000e1'
+FROM generate_series(0, :months - 1) AS m, generate_series(1, :per_month) AS g;
+
+ANALYZE tickets;
+
+SELECT count(*) AS partitions FROM pg_inherits WHERE inhparent = 'tickets'::regclass \gset
+SELECT id AS probe_id, created_at AS probe_created_at FROM tickets ORDER BY created_at DESC LIMIT 1 \gset
+\echo 'partitions: ' :partitions ', probe ticket: ' :probe_id
+
+\echo '--- findById / findWithPeopleById / findAccessById: every partition is probed'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) SELECT * FROM tickets WHERE id = :'probe_id';
+
+\echo '--- the same lookup with created_at known: one partition'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM tickets WHERE id = :'probe_id' AND created_at = :'probe_created_at';
+
+\echo '--- existsById'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) SELECT 1 FROM tickets WHERE id = :'probe_id' LIMIT 1;
+
+\echo '--- findVersionById'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) SELECT version FROM tickets WHERE id = :'probe_id';
+
+\echo '--- versioned UPDATE as Hibernate issues it'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+UPDATE tickets SET updated_at = now(), version = version + 1 WHERE id = :'probe_id' AND version = 0;
+
+\echo '--- child insert: see the require_live_ticket trigger time'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+INSERT INTO ticket_comments (id, comment, created_at, is_internal, ticket_id, user_id)
+VALUES (gen_random_uuid(), 'generated', now(), false, :'probe_id', '00000000-0000-0000-0000-0000000000e1');
+
+\echo '--- child ticket insert: see the require_live_parent_ticket trigger time'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+INSERT INTO tickets (id, created_at, updated_at, description, hostel_block, priority, status, ticket_number, title,
+                     created_by, parent_ticket_id)
+VALUES (gen_random_uuid(), now(), now(), 'generated', 1, 'MEDIUM', 'OPEN', 'EXP-child', 'generated ticket',
+        '00000000-0000-0000-0000-0000000000e1', :'probe_id');
+
+\echo '--- notification insert: see the require_live_related_ticket trigger time'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+INSERT INTO notifications (id, created_at, is_read, message, title, type, user_id, related_ticket_id)
+VALUES (gen_random_uuid(), now(), false, 'generated', 'generated', 'IN_APP', '00000000-0000-0000-0000-0000000000e1',
+        :'probe_id');
+
+\echo '--- ticket delete: see the reject_referenced_ticket_delete trigger time (once per statement)'
+SELECT id AS delete_id FROM tickets WHERE id <> :'probe_id' AND parent_ticket_id IS NULL LIMIT 1 \gset
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) DELETE FROM tickets WHERE id = :'delete_id';
+
+\echo '--- date range (for contrast): pruned to the months asked for'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT count(*) FROM tickets WHERE created_at >= now() - interval '30 days';
+
+\echo '--- timing: 10000 random by-id lookups without and with created_at, then the V13 checks'
+DO $$
+DECLARE
+    ids uuid[];
+    created timestamp[];
+    unreferenced uuid[];
+    started timestamptz;
+    found int := 0;
+BEGIN
+    SELECT array_agg(id), array_agg(created_at) INTO ids, created
+    FROM (SELECT id, created_at FROM tickets ORDER BY random() LIMIT 10000) sample;
+
+    started := clock_timestamp();
+    FOR i IN 1 .. array_length(ids, 1) LOOP
+        PERFORM 1 FROM tickets WHERE id = ids[i];
+        found := found + 1;
+    END LOOP;
+    RAISE NOTICE 'by id:              % us per lookup',
+        round(extract(epoch FROM clock_timestamp() - started) * 1e6 / found, 1);
+
+    started := clock_timestamp();
+    FOR i IN 1 .. array_length(ids, 1) LOOP
+        PERFORM 1 FROM tickets WHERE id = ids[i] AND created_at = created[i];
+    END LOOP;
+    RAISE NOTICE 'by id + created_at: % us per lookup',
+        round(extract(epoch FROM clock_timestamp() - started) * 1e6 / found, 1);
+
+    -- The V13 insert check: the same probe, plus FOR KEY SHARE on the ticket row
+    started := clock_timestamp();
+    FOR i IN 1 .. array_length(ids, 1) LOOP
+        INSERT INTO notifications (id, created_at, is_read, message, title, type, user_id)
+        VALUES (gen_random_uuid(), now(), false, 'generated', 'generated', 'IN_APP', '00000000-0000-0000-0000-0000000000e1');
+    END LOOP;
+    RAISE NOTICE 'notification insert, no ticket: % us per insert',
+        round(extract(epoch FROM clock_timestamp() - started) * 1e6 / found, 1);
+
+    started := clock_timestamp();
+    FOR i IN 1 .. array_length(ids, 1) LOOP
+        INSERT INTO notifications (id, created_at, is_read, message, title, type, user_id, related_ticket_id)
+        VALUES (gen_random_uuid(), now(), false, 'generated', 'generated', 'IN_APP', '00000000-0000-0000-0000-0000000000e1',
+                ids[i]);
+    END LOOP;
+    RAISE NOTICE 'notification insert, checked ticket: % us per insert',
+        round(extract(epoch FROM clock_timestamp() - started) * 1e6 / found, 1);
+
+    -- The V13 delete check, as the archive mover deletes: 200 tickets nothing references per
+    -- statement, five batches with the trigger and five with it disabled (undone by the ROLLBACK)
+    SELECT array_agg(id) INTO unreferenced
+    FROM (SELECT id FROM tickets t
+          WHERE NOT EXISTS (SELECT 1 FROM tickets c WHERE c.parent_ticket_id = t.id)
+            AND NOT EXISTS (SELECT 1 FROM notifications n WHERE n.related_ticket_id = t.id)
+          ORDER BY random() LIMIT 2000) sample;
+
+    started := clock_timestamp();
+    FOR b IN 0 .. 4 LOOP
+        DELETE FROM tickets WHERE id = ANY (unreferenced[1 + b * 200 : (b + 1) * 200]);
+    END LOOP;
+    RAISE NOTICE 'delete of 200 tickets, checked:   % ms',
+        round(extract(epoch FROM clock_timestamp() - started) * 1e3 / 5, 1);
+
+    ALTER TABLE tickets DISABLE TRIGGER tickets_reject_referenced_delete;
+    started := clock_timestamp();
+    FOR b IN 5 .. 9 LOOP
+        DELETE FROM tickets WHERE id = ANY (unreferenced[1 + b * 200 : (b + 1) * 200]);
+    END LOOP;
+    RAISE NOTICE 'delete of 200 tickets, unchecked: % ms',
+        round(extract(epoch FROM clock_timestamp() - started) * 1e3 / 5, 1);
+    ALTER TABLE tickets ENABLE TRIGGER tickets_reject_referenced_delete;
+END $$;
+
+ROLLBACK;
@@ -35,6 +35,22 @@ interface AuthContextType {
 
 const AuthContext = createContext<AuthContextType | undefined>(undefined);
 
+const clearStoredSession = () => {
+  localStorage.removeItem('authToken');
+  localStorage.removeItem('authUser');
+  delete axios.defaults.headers.common['Authorization'];
+};
+
+// Whether a request went out with the token that is stored now, so that a late answer to a
+// request made before the last login does not end the new session
+const sentStoredToken = (config?: { headers?: any }): boolean => {
+  const storedToken = localStorage.getItem('authToken');
+  return !!storedToken && config?.headers?.Authorization === `Bearer ${storedToken}`;
+};
+
+const hasInvalidToken = (headers?: any): boolean =>
+  String(headers?.['www-authenticate'] ?? '').includes('invalid_token');
+
 interface AuthProviderProps {
   children: ReactNode;
 }
@@ -57,8 +73,7 @@ export const AuthProvider: React.FC<AuthProviderProps> = ({ children }) => {
         axios.defaults.headers.common['Authorization'] = `Bearer ${savedToken}`;
       } catch (error) {
         console.error('Error parsing saved user data:', error);
-        localStorage.removeItem('authToken');
-        localStorage.removeItem('authUser');
+        clearStoredSession();
       }
     }
     setIsLoading(false);
@@ -71,6 +86,8 @@ export const AuthProvider: React.FC<AuthProviderProps> = ({ children }) => {
       console.log('🔐 Login URL:', API_ENDPOINTS.LOGIN);
       console.log('🔐 Request data:', { email, password: '***' });
       
+      // Never send a stale token along with the login itself
+      delete axios.defaults.headers.common['Authorization'];
       const response = await axios.post(API_ENDPOINTS.LOGIN, {
         email,
         password
@@ -79,9 +96,9 @@ export const AuthProvider: React.FC<AuthProviderProps> = ({ children }) => {
       console.log('🔐 Response status:', response.status);
       console.log('🔐 Response data:', response.data);
 
-      if (response.data.authenticated) {
+      if (response.data.authenticated && response.data.token) {
         const userData = response.data.user;
-        const authToken = response.data.token || `temp-token-${userData.id}`;
+        const authToken = response.data.token;
         
         console.log('🔐 Authentication successful');
         console.log('🔐 User data:', userData);
@@ -121,11 +138,36 @@ export const AuthProvider: React.FC<AuthProviderProps> = ({ children }) => {
   const logout = () => {
     setUser(null);
     setToken(null);
-    localStorage.removeItem('authToken');
-    localStorage.removeItem('authUser');
-    delete axios.defaults.headers.common['Authorization'];
+    clearStoredSession();
   };
 
+  // A 401, or a response flagging the token as invalid or expired, ends the session: the
+  // stored token is dropped so that the user can log in again
+  useEffect(() => {
+    const endSession = () => {
+      setUser(null);
+      setToken(null);
+      clearStoredSession();
+    };
+
+    const interceptor = axios.interceptors.response.use(
+      (response) => {
+        if (hasInvalidToken(response.headers) && sentStoredToken(response.config)) {
+          endSession();
+        }
+        return response;
+      },
+      (error) => {
+        if (axios.isAxiosError(error) && sentStoredToken(error.config) &&
+            (error.response?.status === 401 || hasInvalidToken(error.response?.headers))) {
+          endSession();
+        }
+        return Promise.reject(error);
+      }
+    );
+    return () => axios.interceptors.response.eject(interceptor);
+  }, []);
+
   const hasRole = (role: string): boolean => {
     return user?.role === role;
   };